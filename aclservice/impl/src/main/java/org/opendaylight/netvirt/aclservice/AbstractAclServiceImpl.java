@@ -7,14 +7,11 @@
  */
 package org.opendaylight.netvirt.aclservice;
 
-import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
-
 import com.google.common.collect.Lists;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +46,7 @@ import org.opendaylight.netvirt.aclservice.api.utils.AclInterface;
 import org.opendaylight.netvirt.aclservice.utils.AclConntrackClassifierType;
 import org.opendaylight.netvirt.aclservice.utils.AclConstants;
 import org.opendaylight.netvirt.aclservice.utils.AclDataUtil;
+import org.opendaylight.netvirt.aclservice.utils.AclFlowCommitter;
 import org.opendaylight.netvirt.aclservice.utils.AclServiceOFFlowBuilder;
 import org.opendaylight.netvirt.aclservice.utils.AclServiceUtils;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
@@ -80,6 +78,7 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
     protected final AclServiceUtils aclServiceUtils;
     protected final JobCoordinator jobCoordinator;
     protected final AclInterfaceCache aclInterfaceCache;
+    protected final AclFlowCommitter aclFlowCommitter;
 
     protected final Class<? extends DirectionBase> direction;
     protected final String directionString;
@@ -94,10 +93,11 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
      * @param aclServiceUtils the acl service util.
      * @param jobCoordinator the job coordinator
      * @param aclInterfaceCache the acl interface cache
+     * @param aclFlowCommitter the acl flow committer
      */
     public AbstractAclServiceImpl(Class<? extends ServiceModeBase> serviceMode, DataBroker dataBroker,
             IMdsalApiManager mdsalManager, AclDataUtil aclDataUtil, AclServiceUtils aclServiceUtils,
-            JobCoordinator jobCoordinator, AclInterfaceCache aclInterfaceCache) {
+            JobCoordinator jobCoordinator, AclInterfaceCache aclInterfaceCache, AclFlowCommitter aclFlowCommitter) {
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
         this.mdsalManager = mdsalManager;
         this.serviceMode = serviceMode;
@@ -105,6 +105,7 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
         this.aclServiceUtils = aclServiceUtils;
         this.jobCoordinator = jobCoordinator;
         this.aclInterfaceCache = aclInterfaceCache;
+        this.aclFlowCommitter = aclFlowCommitter;
 
         this.direction =
                 this.serviceMode.equals(ServiceModeEgress.class) ? DirectionIngress.class : DirectionEgress.class;
@@ -400,7 +401,8 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
 
         Matches matches = ace.getMatches();
         if (matches != null && matches.getAceType() instanceof AceIp) {
-            Map<String, List<MatchInfoBase>> flowMap = AclServiceOFFlowBuilder.programIpFlow(matches);
+            Map<String, List<MatchInfoBase>> flowMap =
+                    aclDataUtil.getCompiledAceFlows(aclName, ace, this.directionString);
             if (!AclServiceUtils.doesAceHaveRemoteGroupId(aceAttr)) {
                 // programming for ACE which doesn't have any remote group Id
                 programForAceNotHavingRemoteAclId(flowEntries, port, aclName, ace, flowMap, addOrRemove);
@@ -621,22 +623,7 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
     }
 
     protected void programFlows(String jobName, List<FlowEntity> flowEntries, int addOrRemove) {
-        List<List<FlowEntity>> flowEntityParts = Lists.partition(flowEntries, AclConstants.FLOWS_PER_TRANSACTION);
-        for (List<FlowEntity> part : flowEntityParts) {
-            jobCoordinator.enqueueJob(jobName,
-                () -> Collections.singletonList(txRunner.callWithNewReadWriteTransactionAndSubmit(CONFIGURATION,
-                    tx -> {
-                        if (addOrRemove == NwConstants.ADD_FLOW) {
-                            for (FlowEntity flowEntity: part) {
-                                mdsalManager.addFlow(tx, flowEntity);
-                            }
-                        } else {
-                            for (FlowEntity flowEntity: part) {
-                                mdsalManager.removeFlow(tx, flowEntity);
-                            }
-                        }
-                    })), AclConstants.JOB_MAX_RETRIES);
-        }
+        aclFlowCommitter.programFlows(jobName, flowEntries, addOrRemove);
     }
 
     protected List<InstructionInfo> getDispatcherTableResubmitInstructions() {
@@ -718,14 +705,8 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
                     }
                 }
             } else if (addOrRemove == NwConstants.DEL_FLOW) {
-                Set<BigInteger> remoteAclDpns = new HashSet<>();
-                Map<String, Set<AclInterface>> mapAclWithPortSet =
-                        aclDataUtil.getRemoteAclInterfaces(remoteAclId, this.direction);
-                if (mapAclWithPortSet != null) {
-                    Map<String, Set<AclInterface>> copyOfMapAclWithPortSet = new HashMap<>(mapAclWithPortSet);
-                    copyOfMapAclWithPortSet.remove(aclName);
-                    remoteAclDpns = collectDpns(copyOfMapAclWithPortSet);
-                }
+                Set<BigInteger> remoteAclDpns =
+                        aclDataUtil.getRemoteAclDpns(remoteAclId, this.direction, new Uuid(aclName));
                 Set<BigInteger> dpnsToOperate = new HashSet<>(dpns);
                 dpnsToOperate.removeAll(remoteAclDpns);
                 LOG.debug(
@@ -781,8 +762,7 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
 
     private void syncRemoteAclTable(List<FlowEntity> flowEntries, String portId, Uuid acl, Integer aclTag,
             List<AllowedAddressPairs> aaps, int addOrRemove) {
-        Map<String, Set<AclInterface>> mapAclWithPortSet = aclDataUtil.getRemoteAclInterfaces(acl, this.direction);
-        Set<BigInteger> dpns = collectDpns(mapAclWithPortSet);
+        Set<BigInteger> dpns = aclDataUtil.getRemoteAclDpns(acl, this.direction, null);
         for (AllowedAddressPairs aap : aaps) {
             if (!AclServiceUtils.isNotIpAllNetwork(aap)) {
                 continue;
@@ -819,44 +799,12 @@ public abstract class AbstractAclServiceImpl implements AclServiceListener {
     }
 
     private boolean isFirstPortInDpnWithRemoteAclId(AclInterface port, Uuid remoteAclId) {
-        String portId = port.getInterfaceId();
-        BigInteger dpId = port.getDpId();
-        Map<String, Set<AclInterface>> remoteAclInterfacesMap =
-                aclDataUtil.getRemoteAclInterfaces(remoteAclId, direction);
-        if (remoteAclInterfacesMap != null) {
-            for (Set<AclInterface> interfaceSet : remoteAclInterfacesMap.values()) {
-                for (AclInterface aclInterface : interfaceSet) {
-                    if (portId.equals(aclInterface.getInterfaceId())) {
-                        continue;
-                    }
-                    if (dpId.equals(aclInterface.getDpId())) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return !aclDataUtil.hasOtherRemoteAclPortOnDpn(remoteAclId, direction, port);
     }
 
     protected abstract void programRemoteAclTableFlow(List<FlowEntity> flowEntries, BigInteger dpId, Integer aclTag,
             AllowedAddressPairs aap, int addOrRemove);
 
-    protected Set<BigInteger> collectDpns(@Nullable Map<String, Set<AclInterface>> mapAclWithPortSet) {
-        Set<BigInteger> dpns = new HashSet<>();
-        if (mapAclWithPortSet == null) {
-            return dpns;
-        }
-        for (Set<AclInterface> innerSet : mapAclWithPortSet.values()) {
-            if (innerSet == null) {
-                continue;
-            }
-            for (AclInterface inter : innerSet) {
-                dpns.add(inter.getDpId());
-            }
-        }
-        return dpns;
-    }
-
     /**
      * Programs the port specific fixed rules.
      *
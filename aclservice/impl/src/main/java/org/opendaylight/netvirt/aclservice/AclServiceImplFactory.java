@@ -15,6 +15,7 @@ import org.opendaylight.infrautils.inject.AbstractLifecycle;
 import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
 import org.opendaylight.netvirt.aclservice.api.AclInterfaceCache;
 import org.opendaylight.netvirt.aclservice.utils.AclDataUtil;
+import org.opendaylight.netvirt.aclservice.utils.AclFlowCommitter;
 import org.opendaylight.netvirt.aclservice.utils.AclServiceUtils;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.aclservice.config.rev160806.AclserviceConfig;
 import org.slf4j.Logger;
@@ -32,17 +33,19 @@ public class AclServiceImplFactory extends AbstractLifecycle {
     private final AclServiceUtils aclServiceUtils;
     private final JobCoordinator jobCoordinator;
     private final AclInterfaceCache aclInterfaceCache;
+    private final AclFlowCommitter aclFlowCommitter;
 
     @Inject
     public AclServiceImplFactory(DataBroker dataBroker, IMdsalApiManager mdsalManager, AclserviceConfig config,
             AclDataUtil aclDataUtil, AclServiceUtils aclServiceUtils, JobCoordinator jobCoordinator,
-            AclInterfaceCache aclInterfaceCache) {
+            AclInterfaceCache aclInterfaceCache, AclFlowCommitter aclFlowCommitter) {
         this.dataBroker = dataBroker;
         this.mdsalManager = mdsalManager;
         this.aclDataUtil = aclDataUtil;
         this.aclServiceUtils = aclServiceUtils;
         this.jobCoordinator = jobCoordinator;
         this.aclInterfaceCache = aclInterfaceCache;
+        this.aclFlowCommitter = aclFlowCommitter;
 
         LOG.info("AclserviceConfig: {}", config);
     }
@@ -60,13 +63,13 @@ public class AclServiceImplFactory extends AbstractLifecycle {
     public IngressAclServiceImpl createIngressAclServiceImpl() {
         LOG.info("creating ingress acl service");
         return new IngressAclServiceImpl(dataBroker, mdsalManager, aclDataUtil, aclServiceUtils, jobCoordinator,
-                aclInterfaceCache);
+                aclInterfaceCache, aclFlowCommitter);
     }
 
     public EgressAclServiceImpl createEgressAclServiceImpl() {
         LOG.info("creating egress acl service");
         return new EgressAclServiceImpl(dataBroker, mdsalManager, aclDataUtil, aclServiceUtils, jobCoordinator,
-                aclInterfaceCache);
+                aclInterfaceCache, aclFlowCommitter);
     }
 
 }
@@ -124,6 +124,8 @@ public interface AclConstants {
     int JOB_MAX_RETRIES = 3;
     int ACEDELETE_MAX_RETRIES = 3;
     int FLOWS_PER_TRANSACTION = 30;
+    int MAX_FLOWS_PER_TRANSACTION = 480;
+    long FLOW_COMMIT_TARGET_MILLIS = 100;
     int ACES_PER_TRANSACTION = 30;
 
     String ACL_JOB_KEY_PREFIX = "ACL-";
@@ -11,22 +11,31 @@ package org.opendaylight.netvirt.aclservice.utils;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.genius.mdsalutil.MatchInfoBase;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.netvirt.aclservice.api.utils.AclDataCache;
 import org.opendaylight.netvirt.aclservice.api.utils.AclInterface;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.Ace;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.ace.Matches;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.aclservice.rev160608.DirectionBase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.aclservice.rev160608.DirectionEgress;
@@ -39,6 +48,27 @@ public class AclDataUtil implements AclDataCache {
     private final ConcurrentMap<Uuid, Set<Uuid>> ingressRemoteAclIdMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, Set<Uuid>> egressRemoteAclIdMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Integer> aclTagMap = new ConcurrentHashMap<>();
+    // map<acl, map<dpn, number of ports of the acl on the dpn>>, maintained with aclInterfaceMap
+    private final ConcurrentMap<Uuid, ConcurrentMap<BigInteger, Integer>> aclDpnPortCountMap =
+            new ConcurrentHashMap<>();
+    // map<acl name, map<direction + rule name, compiled ace>>
+    private final ConcurrentMap<String, ConcurrentMap<String, CompiledAce>> compiledAceMap =
+            new ConcurrentHashMap<>();
+    private final Counter compiledAceHits;
+    private final Counter compiledAceMisses;
+    private final Counter compiledAceInvalidations;
+
+    @Inject
+    public AclDataUtil(MetricProvider metricProvider) {
+        this.compiledAceHits = counter(metricProvider, "compiled_ace_cache_hits");
+        this.compiledAceMisses = counter(metricProvider, "compiled_ace_cache_misses");
+        this.compiledAceInvalidations = counter(metricProvider, "compiled_ace_cache_invalidations");
+    }
+
+    private Counter counter(MetricProvider metricProvider, String id) {
+        return metricProvider.newCounter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("aclservice").id(id).build());
+    }
 
     /**
      * Adds the acl.
@@ -47,6 +77,7 @@ public class AclDataUtil implements AclDataCache {
      */
     public void addAcl(Acl acl) {
         this.aclMap.put(acl.getAclName(), acl);
+        invalidateCompiledAces(acl.getAclName());
     }
 
     /**
@@ -56,7 +87,56 @@ public class AclDataUtil implements AclDataCache {
      * @return the acl
      */
     public Acl removeAcl(String aclName) {
-        return this.aclMap.remove(aclName);
+        // Removed first, so that getCompiledAceFlows does not cache the ACEs of the ACL again
+        Acl acl = this.aclMap.remove(aclName);
+        invalidateCompiledAces(aclName);
+        return acl;
+    }
+
+    /**
+     * Gets the port independent flow matches of an ACE, as built by
+     * {@link AclServiceOFFlowBuilder#programIpFlow(Matches)}. They are compiled once and shared by all the ports
+     * of the ACL, until the ACL is updated or removed. The ACEs of an ACL which is not known, e.g. already removed,
+     * are compiled but not cached.
+     *
+     * @param aclName the acl name
+     * @param ace the ace
+     * @param direction the direction the ace is programmed for
+     * @return a copy of the flow matches, to which the caller adds the port specific matches
+     */
+    @Nullable
+    public Map<String, List<MatchInfoBase>> getCompiledAceFlows(String aclName, Ace ace, String direction) {
+        Matches matches = ace.getMatches();
+        String aceKey = direction + "_" + ace.key().getRuleName();
+        ConcurrentMap<String, CompiledAce> aclCompiledAces = compiledAceMap.get(aclName);
+        CompiledAce cachedAce = aclCompiledAces != null ? aclCompiledAces.get(aceKey) : null;
+        // The matches are compared too, an ACE removal may be processed with an older version of the ACE
+        if (cachedAce != null && cachedAce.isCompiledFrom(matches)) {
+            compiledAceHits.increment();
+            return cachedAce.copyFlows();
+        }
+        compiledAceMisses.increment();
+        CompiledAce compiledAce = new CompiledAce(matches, AclServiceOFFlowBuilder.programIpFlow(matches));
+        // Checked under the lock of the entry, removeAcl evicts it after removing the ACL
+        compiledAceMap.compute(aclName, (key, aces) -> {
+            if (!aclMap.containsKey(key)) {
+                return aces;
+            }
+            ConcurrentMap<String, CompiledAce> newAces = aces != null ? aces : new ConcurrentHashMap<>();
+            newAces.put(aceKey, compiledAce);
+            return newAces;
+        });
+        return compiledAce.copyFlows();
+    }
+
+    boolean hasCompiledAces(String aclName) {
+        return compiledAceMap.containsKey(aclName);
+    }
+
+    private void invalidateCompiledAces(String aclName) {
+        if (compiledAceMap.remove(aclName) != null) {
+            compiledAceInvalidations.increment();
+        }
     }
 
     /**
@@ -72,7 +152,12 @@ public class AclDataUtil implements AclDataCache {
 
     public void addOrUpdateAclInterfaceMap(List<Uuid> aclList, AclInterface port) {
         for (Uuid acl : aclList) {
-            aclInterfaceMap.computeIfAbsent(acl, key -> new ConcurrentHashMap<>()).put(port.getInterfaceId(), port);
+            AclInterface previousPort = aclInterfaceMap.computeIfAbsent(acl, key -> new ConcurrentHashMap<>())
+                    .put(port.getInterfaceId(), port);
+            if (previousPort != null) {
+                updateAclDpnPortCount(acl, previousPort.getDpId(), -1);
+            }
+            updateAclDpnPortCount(acl, port.getDpId(), 1);
         }
     }
 
@@ -85,8 +170,22 @@ public class AclDataUtil implements AclDataCache {
     public void removeAclInterfaceMap(Uuid acl, AclInterface port) {
         ConcurrentMap<String, AclInterface> interfaceMap = aclInterfaceMap.get(acl);
         if (interfaceMap != null) {
-            interfaceMap.remove(port.getInterfaceId());
+            AclInterface removedPort = interfaceMap.remove(port.getInterfaceId());
+            if (removedPort != null) {
+                updateAclDpnPortCount(acl, removedPort.getDpId(), -1);
+            }
+        }
+    }
+
+    private void updateAclDpnPortCount(Uuid acl, @Nullable BigInteger dpId, int delta) {
+        if (dpId == null) {
+            return;
         }
+        aclDpnPortCountMap.computeIfAbsent(acl, key -> new ConcurrentHashMap<>())
+                .compute(dpId, (key, count) -> {
+                    int newCount = (count == null ? 0 : count) + delta;
+                    return newCount > 0 ? newCount : null;
+                });
     }
 
     @Override
@@ -124,6 +223,66 @@ public class AclDataUtil implements AclDataCache {
         return mapOfAclWithInterfaces;
     }
 
+    /**
+     * Gets the DPNs hosting ports of the ACLs which have the specified remote ACL ID. This is answered from the
+     * per DPN port counts of the ACLs, without walking their ports.
+     *
+     * @param remoteAclId the remote acl id
+     * @param direction the direction
+     * @param excludedAcl an ACL whose ports are left out, or null
+     * @return the DPNs
+     */
+    @NonNull
+    public Set<BigInteger> getRemoteAclDpns(Uuid remoteAclId, Class<? extends DirectionBase> direction,
+            @Nullable Uuid excludedAcl) {
+        Collection<Uuid> remoteAclList = getRemoteAcl(remoteAclId, direction);
+        if (remoteAclList == null) {
+            return Collections.emptySet();
+        }
+        Set<BigInteger> dpns = new HashSet<>();
+        for (Uuid acl : remoteAclList) {
+            ConcurrentMap<BigInteger, Integer> dpnPortCounts = aclDpnPortCountMap.get(acl);
+            if (dpnPortCounts != null && !acl.equals(excludedAcl)) {
+                dpns.addAll(dpnPortCounts.keySet());
+            }
+        }
+        return dpns;
+    }
+
+    /**
+     * Checks whether the DPN hosts other ports than the specified one in the ACLs which have the specified remote
+     * ACL ID.
+     *
+     * @param remoteAclId the remote acl id
+     * @param direction the direction
+     * @param port the port
+     * @return true if another port of these ACLs is on the DPN of the port
+     */
+    public boolean hasOtherRemoteAclPortOnDpn(Uuid remoteAclId, Class<? extends DirectionBase> direction,
+            AclInterface port) {
+        Collection<Uuid> remoteAclList = getRemoteAcl(remoteAclId, direction);
+        BigInteger dpId = port.getDpId();
+        if (remoteAclList == null || dpId == null) {
+            return false;
+        }
+        for (Uuid acl : remoteAclList) {
+            ConcurrentMap<BigInteger, Integer> dpnPortCounts = aclDpnPortCountMap.get(acl);
+            Integer count = dpnPortCounts != null ? dpnPortCounts.get(dpId) : null;
+            if (count == null) {
+                continue;
+            }
+            ConcurrentMap<String, AclInterface> interfaceMap = aclInterfaceMap.get(acl);
+            AclInterface member = interfaceMap != null ? interfaceMap.get(port.getInterfaceId()) : null;
+            if (member != null && dpId.equals(member.getDpId())) {
+                count--;
+            }
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void addRemoteAclId(Uuid remoteAclId, Uuid aclId, Class<? extends DirectionBase> direction) {
         getRemoteAclIdMap(direction).computeIfAbsent(remoteAclId, key -> ConcurrentHashMap.newKeySet()).add(aclId);
     }
@@ -234,4 +393,29 @@ public class AclDataUtil implements AclDataCache {
     public Map<String, Acl> getAclMap() {
         return ImmutableMap.copyOf(aclMap);
     }
+
+    private static final class CompiledAce {
+        private final Matches matches;
+        @Nullable
+        private final Map<String, List<MatchInfoBase>> flows;
+
+        CompiledAce(Matches matches, @Nullable Map<String, List<MatchInfoBase>> flows) {
+            this.matches = matches;
+            this.flows = flows;
+        }
+
+        boolean isCompiledFrom(Matches otherMatches) {
+            return matches == otherMatches || matches != null && matches.equals(otherMatches);
+        }
+
+        @Nullable
+        Map<String, List<MatchInfoBase>> copyFlows() {
+            if (flows == null) {
+                return null;
+            }
+            Map<String, List<MatchInfoBase>> copy = new LinkedHashMap<>();
+            flows.forEach((flowName, flowMatches) -> copy.put(flowName, new ArrayList<>(flowMatches)));
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.aclservice.utils;
+
+import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
+import org.opendaylight.genius.mdsalutil.FlowEntity;
+import org.opendaylight.genius.mdsalutil.NwConstants;
+import org.opendaylight.genius.mdsalutil.interfaces.IMdsalApiManager;
+import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Commits the ACL flows per DPN. Flows are queued per DPN, where a later add or remove of the same flow replaces
+ * the pending one, and are written by one job per DPN at a time. The number of flows per transaction adapts to
+ * the commit latency, between {@link AclConstants#FLOWS_PER_TRANSACTION} and
+ * {@link AclConstants#MAX_FLOWS_PER_TRANSACTION}.
+ *
+ * <p>The latency of each change, from the call to {@link #programFlows} to the commit of its last flow, is
+ * reported through the metrics. A batch which still fails to commit after {@link AclConstants#JOB_MAX_RETRIES}
+ * attempts is dropped, its flows are logged and counted.
+ */
+@Singleton
+public class AclFlowCommitter {
+    private static final Logger LOG = LoggerFactory.getLogger(AclFlowCommitter.class);
+
+    private final ManagedNewTransactionRunner txRunner;
+    private final IMdsalApiManager mdsalManager;
+    private final JobCoordinator jobCoordinator;
+    private final Map<BigInteger, DpnFlows> dpnFlowsMap = new ConcurrentHashMap<>();
+    private final Counter flowsQueued;
+    private final Counter flowsCancelled;
+    private final Counter flowsCommitted;
+    private final Counter transactionsCommitted;
+    private final Counter changesCompleted;
+    private final Counter changeLatencyMillis;
+    private final Counter flowsDropped;
+
+    @Inject
+    public AclFlowCommitter(DataBroker dataBroker, IMdsalApiManager mdsalManager, JobCoordinator jobCoordinator,
+            MetricProvider metricProvider) {
+        this(new ManagedNewTransactionRunnerImpl(dataBroker), mdsalManager, jobCoordinator, metricProvider);
+    }
+
+    AclFlowCommitter(ManagedNewTransactionRunner txRunner, IMdsalApiManager mdsalManager,
+            JobCoordinator jobCoordinator, MetricProvider metricProvider) {
+        this.txRunner = txRunner;
+        this.mdsalManager = mdsalManager;
+        this.jobCoordinator = jobCoordinator;
+        this.flowsQueued = counter(metricProvider, "acl_flows_queued");
+        this.flowsCancelled = counter(metricProvider, "acl_flows_cancelled");
+        this.flowsCommitted = counter(metricProvider, "acl_flows_committed");
+        this.transactionsCommitted = counter(metricProvider, "acl_flow_transactions");
+        this.changesCompleted = counter(metricProvider, "acl_flow_changes_completed");
+        this.changeLatencyMillis = counter(metricProvider, "acl_flow_change_latency_millis_total");
+        this.flowsDropped = counter(metricProvider, "acl_flows_dropped");
+    }
+
+    private Counter counter(MetricProvider metricProvider, String id) {
+        return metricProvider.newCounter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("aclservice").id(id).build());
+    }
+
+    /**
+     * Queues the flows of one change, e.g. a port or a security group update.
+     *
+     * @param changeName the name of the port or ACL the change is about, used in the logs
+     * @param flowEntries the flows
+     * @param addOrRemove whether to add or remove the flows
+     */
+    public void programFlows(String changeName, List<FlowEntity> flowEntries, int addOrRemove) {
+        if (flowEntries.isEmpty()) {
+            return;
+        }
+        FlowChange change = new FlowChange(changeName, flowEntries.size());
+        for (FlowEntity flowEntity : flowEntries) {
+            DpnFlows dpnFlows = dpnFlowsMap.computeIfAbsent(flowEntity.getDpnId(), DpnFlows::new);
+            if (dpnFlows.queue(flowEntity, addOrRemove, change)) {
+                jobCoordinator.enqueueJob(dpnFlows.jobKey, new CommitJob(dpnFlows), AclConstants.JOB_MAX_RETRIES);
+            }
+        }
+        flowsQueued.increment(flowEntries.size());
+    }
+
+    private void committed(DpnFlows dpnFlows, List<PendingFlow> batch, long commitNanos) {
+        dpnFlows.adapt(batch.size(), commitNanos);
+        flowsCommitted.increment(batch.size());
+        transactionsCommitted.increment();
+        for (PendingFlow pendingFlow : batch) {
+            for (FlowChange change : pendingFlow.changes) {
+                if (change.pendingFlows.decrementAndGet() == 0) {
+                    long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - change.startTime);
+                    changesCompleted.increment();
+                    changeLatencyMillis.increment(latencyMillis);
+                    LOG.debug("committed : flows of {} programmed in {} ms", change.name, latencyMillis);
+                }
+            }
+        }
+    }
+
+    private void dropped(DpnFlows dpnFlows, List<PendingFlow> batch, Throwable throwable) {
+        flowsDropped.increment(batch.size());
+        Set<String> changeNames = new LinkedHashSet<>();
+        for (PendingFlow pendingFlow : batch) {
+            LOG.debug("dropped : {} ACL flow {} on DPN {} not committed",
+                    pendingFlow.addOrRemove == NwConstants.ADD_FLOW ? "add" : "remove",
+                    pendingFlow.flowEntity.getFlowId(), dpnFlows.dpId);
+            for (FlowChange change : pendingFlow.changes) {
+                changeNames.add(change.name);
+            }
+        }
+        LOG.error("dropped : {} ACL flows on DPN {} of {} not committed after {} attempts", batch.size(),
+                dpnFlows.dpId, changeNames, AclConstants.JOB_MAX_RETRIES, throwable);
+    }
+
+    private final class CommitJob implements Callable<List<ListenableFuture<Void>>> {
+        private final DpnFlows dpnFlows;
+        // Kept across the retries of the job
+        private List<PendingFlow> batch;
+        private int attempts;
+        private volatile boolean dropped;
+
+        CommitJob(DpnFlows dpnFlows) {
+            this.dpnFlows = dpnFlows;
+        }
+
+        @Override
+        public List<ListenableFuture<Void>> call() {
+            if (batch == null) {
+                boolean morePending;
+                synchronized (dpnFlows) {
+                    batch = dpnFlows.drain();
+                    morePending = dpnFlows.jobQueued;
+                }
+                if (morePending) {
+                    // Queued after this job under the same key, so it runs once this batch is committed
+                    jobCoordinator.enqueueJob(dpnFlows.jobKey, new CommitJob(dpnFlows),
+                            AclConstants.JOB_MAX_RETRIES);
+                }
+            }
+            if (batch.isEmpty() || dropped) {
+                return Collections.emptyList();
+            }
+            final int attempt = ++attempts;
+            long startTime = System.nanoTime();
+            ListenableFuture<Void> future = txRunner.callWithNewReadWriteTransactionAndSubmit(CONFIGURATION, tx -> {
+                for (PendingFlow pendingFlow : batch) {
+                    if (pendingFlow.addOrRemove == NwConstants.ADD_FLOW) {
+                        mdsalManager.addFlow(tx, pendingFlow.flowEntity);
+                    } else {
+                        mdsalManager.removeFlow(tx, pendingFlow.flowEntity);
+                    }
+                }
+            });
+            Futures.addCallback(future, new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    committed(dpnFlows, batch, System.nanoTime() - startTime);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    dpnFlows.resetBatchSize();
+                    if (attempt >= AclConstants.JOB_MAX_RETRIES) {
+                        dropped = true;
+                        dropped(dpnFlows, batch, throwable);
+                    } else {
+                        LOG.warn("call : failed to commit {} ACL flows on DPN {}, attempt {}", batch.size(),
+                                dpnFlows.dpId, attempt);
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+            return Collections.singletonList(future);
+        }
+    }
+
+    private final class DpnFlows {
+        private final BigInteger dpId;
+        private final String jobKey;
+        // map<table id and flow id, pending flow>, guarded by this
+        private final Map<String, PendingFlow> pendingFlows = new LinkedHashMap<>();
+        // Whether a commit job is queued or running, guarded by this
+        private boolean jobQueued;
+        private volatile int batchSize = AclConstants.FLOWS_PER_TRANSACTION;
+
+        DpnFlows(BigInteger dpId) {
+            this.dpId = dpId;
+            this.jobKey = AclConstants.ACL_JOB_KEY_PREFIX + "DPN-" + dpId;
+        }
+
+        /**
+         * Queues the flow, replacing a pending add or remove of the same flow.
+         *
+         * @return true if a commit job must be enqueued for the DPN
+         */
+        synchronized boolean queue(FlowEntity flowEntity, int addOrRemove, FlowChange change) {
+            String flowKey = flowEntity.getTableId() + ":" + flowEntity.getFlowId();
+            PendingFlow replaced = pendingFlows.get(flowKey);
+            PendingFlow pendingFlow = new PendingFlow(flowEntity, addOrRemove, change);
+            if (replaced != null) {
+                // The changes of the replaced flow are done when this one is committed
+                pendingFlow.changes.addAll(replaced.changes);
+                flowsCancelled.increment();
+            }
+            pendingFlows.put(flowKey, pendingFlow);
+            if (jobQueued) {
+                return false;
+            }
+            jobQueued = true;
+            return true;
+        }
+
+        synchronized List<PendingFlow> drain() {
+            List<PendingFlow> batch = new ArrayList<>(Math.min(batchSize, pendingFlows.size()));
+            Iterator<PendingFlow> iterator = pendingFlows.values().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            jobQueued = !pendingFlows.isEmpty();
+            return batch;
+        }
+
+        void adapt(int committedFlows, long commitNanos) {
+            long commitMillis = TimeUnit.NANOSECONDS.toMillis(commitNanos);
+            if (commitMillis < AclConstants.FLOW_COMMIT_TARGET_MILLIS && committedFlows >= batchSize) {
+                batchSize = Math.min(batchSize * 2, AclConstants.MAX_FLOWS_PER_TRANSACTION);
+            } else if (commitMillis > 2 * AclConstants.FLOW_COMMIT_TARGET_MILLIS) {
+                batchSize = Math.max(batchSize / 2, AclConstants.FLOWS_PER_TRANSACTION);
+            }
+        }
+
+        void resetBatchSize() {
+            batchSize = AclConstants.FLOWS_PER_TRANSACTION;
+        }
+    }
+
+    private static final class PendingFlow {
+        private final FlowEntity flowEntity;
+        private final int addOrRemove;
+        private final List<FlowChange> changes = new ArrayList<>(1);
+
+        PendingFlow(FlowEntity flowEntity, int addOrRemove, FlowChange change) {
+            this.flowEntity = flowEntity;
+            this.addOrRemove = addOrRemove;
+            this.changes.add(change);
+        }
+    }
+
+    private static final class FlowChange {
+        private final String name;
+        private final long startTime = System.nanoTime();
+        private final AtomicInteger pendingFlows;
+
+        FlowChange(String name, int flowCount) {
+            this.name = name;
+            this.pendingFlows = new AtomicInteger(flowCount);
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.opendaylight.netvirt.aclservice.utils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -18,11 +19,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.junit.Test;
+import org.opendaylight.genius.mdsalutil.MatchInfoBase;
+import org.opendaylight.infrautils.metrics.testimpl.TestMetricProviderImpl;
 import org.opendaylight.netvirt.aclservice.api.utils.AclInterface;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.Ace;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.AceBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.ace.MatchesBuilder;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.aclservice.rev160608.DirectionBase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.aclservice.rev160608.DirectionIngress;
@@ -43,7 +51,7 @@ public class AclDataUtilTest {
     private static final AclInterface PORT2 = newPort("2");
     private static final AclInterface PORT3 = newPort("3");
 
-    private final AclDataUtil aclDataUtil = new AclDataUtil();
+    private final AclDataUtil aclDataUtil = new AclDataUtil(new TestMetricProviderImpl());
 
     @Test
     public void testAclInterfaces() {
@@ -134,6 +142,85 @@ public class AclDataUtilTest {
         assertRemoteAcls(ACL1, ACL3);
     }
 
+    @Test
+    public void testRemoteAclDpns() {
+        Class<? extends DirectionBase> direction = DirectionIngress.class;
+        assertTrue(aclDataUtil.getRemoteAclDpns(ACL1, direction, null).isEmpty());
+
+        aclDataUtil.addRemoteAclId(ACL1, ACL2, direction);
+        aclDataUtil.addRemoteAclId(ACL1, ACL3, direction);
+        aclDataUtil.addOrUpdateAclInterfaceMap(Arrays.asList(ACL2), PORT1);
+        aclDataUtil.addOrUpdateAclInterfaceMap(Arrays.asList(ACL2), PORT2);
+        aclDataUtil.addOrUpdateAclInterfaceMap(Arrays.asList(ACL3), PORT3);
+        assertEquals(dpns(1, 2, 3), aclDataUtil.getRemoteAclDpns(ACL1, direction, null));
+        assertEquals(dpns(3), aclDataUtil.getRemoteAclDpns(ACL1, direction, ACL2));
+        assertFalse(aclDataUtil.hasOtherRemoteAclPortOnDpn(ACL1, direction, PORT1));
+
+        AclInterface port4 = AclInterface.builder().interfaceId("4").dpId(BigInteger.ONE).build();
+        aclDataUtil.addOrUpdateAclInterfaceMap(Arrays.asList(ACL3), port4);
+        assertTrue(aclDataUtil.hasOtherRemoteAclPortOnDpn(ACL1, direction, PORT1));
+        aclDataUtil.removeAclInterfaceMap(ACL3, port4);
+        assertFalse(aclDataUtil.hasOtherRemoteAclPortOnDpn(ACL1, direction, PORT1));
+
+        // Port moved to another DPN
+        AclInterface movedPort2 = AclInterface.builder().interfaceId(PORT2.getInterfaceId()).dpId(BigInteger.ONE)
+                .build();
+        aclDataUtil.addOrUpdateAclInterfaceMap(Arrays.asList(ACL2), movedPort2);
+        assertEquals(dpns(1, 3), aclDataUtil.getRemoteAclDpns(ACL1, direction, null));
+        assertTrue(aclDataUtil.hasOtherRemoteAclPortOnDpn(ACL1, direction, PORT1));
+
+        aclDataUtil.removeAclInterfaceMap(Arrays.asList(ACL2, ACL3), PORT1);
+        aclDataUtil.removeAclInterfaceMap(Arrays.asList(ACL2, ACL3), movedPort2);
+        assertEquals(dpns(3), aclDataUtil.getRemoteAclDpns(ACL1, direction, null));
+    }
+
+    @Test
+    public void testCompiledAceFlows() {
+        aclDataUtil.addAcl(new AclBuilder().setAclName(ACL1.getValue()).build());
+        Ace ace = newAce("rule1", "10.1.1.1/24");
+        Map<String, List<MatchInfoBase>> flows = aclDataUtil.getCompiledAceFlows(ACL1.getValue(), ace, "Ingress");
+        assertNotNull(flows);
+        assertEquals(AclServiceOFFlowBuilder.programIpFlow(ace.getMatches()), flows);
+
+        // Cached flows are copied, so the port specific matches of one port do not leak to the next one
+        Map<String, List<MatchInfoBase>> cachedFlows =
+                aclDataUtil.getCompiledAceFlows(ACL1.getValue(), ace, "Ingress");
+        assertEquals(flows, cachedFlows);
+        flows.values().forEach(List::clear);
+        assertNotSame(flows, cachedFlows);
+        assertEquals(AclServiceOFFlowBuilder.programIpFlow(ace.getMatches()), cachedFlows);
+
+        // A modified ACE is compiled again, with or without the ACL update
+        Ace modifiedAce = newAce("rule1", "10.2.2.2/24");
+        assertEquals(AclServiceOFFlowBuilder.programIpFlow(modifiedAce.getMatches()),
+                aclDataUtil.getCompiledAceFlows(ACL1.getValue(), modifiedAce, "Ingress"));
+        aclDataUtil.addAcl(new AclBuilder().setAclName(ACL1.getValue()).build());
+        assertEquals(AclServiceOFFlowBuilder.programIpFlow(ace.getMatches()),
+                aclDataUtil.getCompiledAceFlows(ACL1.getValue(), ace, "Ingress"));
+        assertTrue(aclDataUtil.hasCompiledAces(ACL1.getValue()));
+
+        // The ACEs of a removed ACL are still compiled, but no longer cached
+        aclDataUtil.removeAcl(ACL1.getValue());
+        assertFalse(aclDataUtil.hasCompiledAces(ACL1.getValue()));
+        assertEquals(AclServiceOFFlowBuilder.programIpFlow(ace.getMatches()),
+                aclDataUtil.getCompiledAceFlows(ACL1.getValue(), ace, "Ingress"));
+        assertFalse(aclDataUtil.hasCompiledAces(ACL1.getValue()));
+    }
+
+    private static Ace newAce(String ruleName, String srcIpv4Net) {
+        return new AceBuilder().setRuleName(ruleName).setMatches(new MatchesBuilder().setAceType(
+                AclServiceTestUtils.prepareAceIpBuilder(srcIpv4Net, "20.1.1.1/24", "1024", "2048", (short) 6)
+                    .build()).build()).build();
+    }
+
+    private static Set<BigInteger> dpns(long... dpIds) {
+        Set<BigInteger> dpns = new HashSet<>();
+        for (long dpId : dpIds) {
+            dpns.add(BigInteger.valueOf(dpId));
+        }
+        return dpns;
+    }
+
     private static AclInterface newPort(String interfaceId) {
         return AclInterface.builder().interfaceId(interfaceId).dpId(new BigInteger(interfaceId)).build();
     }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.aclservice.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
+
+import com.google.common.util.concurrent.FluentFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.genius.infra.Datastore.Configuration;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
+import org.opendaylight.genius.infra.TypedReadWriteTransaction;
+import org.opendaylight.genius.mdsalutil.FlowEntity;
+import org.opendaylight.genius.mdsalutil.MDSALUtil;
+import org.opendaylight.genius.mdsalutil.NwConstants;
+import org.opendaylight.genius.mdsalutil.interfaces.IMdsalApiManager;
+import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.opendaylight.infrautils.utils.function.InterruptibleCheckedConsumer;
+
+public class AclFlowCommitterTest {
+    private static final BigInteger DPN = BigInteger.ONE;
+
+    private final ManagedNewTransactionRunner txRunner = mock(ManagedNewTransactionRunner.class);
+    private final IMdsalApiManager mdsalManager = mock(IMdsalApiManager.class);
+    private final JobCoordinator jobCoordinator = mock(JobCoordinator.class);
+    private final MetricProvider metricProvider = mock(MetricProvider.class);
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final List<Callable<?>> jobs = new ArrayList<>();
+    private final List<TypedReadWriteTransaction<Configuration>> transactions = new ArrayList<>();
+    private boolean failCommits;
+    private AclFlowCommitter aclFlowCommitter;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(metricProvider.newCounter(any(MetricDescriptor.class))).thenAnswer(invocation -> counters
+                .computeIfAbsent(((MetricDescriptor) invocation.getArguments()[0]).id(), id -> mock(Counter.class)));
+        doAnswer(invocation -> jobs.add((Callable<?>) invocation.getArguments()[1]))
+                .when(jobCoordinator).enqueueJob(anyString(), any(), anyInt());
+        when(txRunner.callWithNewReadWriteTransactionAndSubmit(eq(CONFIGURATION), any())).thenAnswer(invocation -> {
+            TypedReadWriteTransaction<Configuration> tx = mock(TypedReadWriteTransaction.class);
+            transactions.add(tx);
+            ((InterruptibleCheckedConsumer<TypedReadWriteTransaction<Configuration>, ?>) invocation.getArguments()[1])
+                    .accept(tx);
+            return FluentFuture.from(failCommits ? Futures.immediateFailedFuture(new IllegalStateException("commit"))
+                    : Futures.immediateFuture(null));
+        });
+        aclFlowCommitter = new AclFlowCommitter(txRunner, mdsalManager, jobCoordinator, metricProvider);
+    }
+
+    @Test
+    public void testLaterChangeOfAFlowReplacesThePendingOne() throws Exception {
+        FlowEntity addedFlow = flow("flow1");
+        FlowEntity removedFlow = flow("flow1");
+        aclFlowCommitter.programFlows("port1", Collections.singletonList(addedFlow), NwConstants.ADD_FLOW);
+        aclFlowCommitter.programFlows("port1", Collections.singletonList(removedFlow), NwConstants.DEL_FLOW);
+        assertEquals(1, jobs.size());
+
+        runJobs();
+
+        assertEquals(1, transactions.size());
+        TypedReadWriteTransaction<Configuration> tx = transactions.get(0);
+        verify(mdsalManager, never()).addFlow(eq(tx), any(FlowEntity.class));
+        verify(mdsalManager).removeFlow(tx, removedFlow);
+        verify(counters.get("acl_flows_cancelled")).increment();
+        // Both changes are done with the commit of the remove
+        verify(counters.get("acl_flow_changes_completed"), times(2)).increment();
+    }
+
+    @Test
+    public void testBatchSizeGrowsWithFastCommits() throws Exception {
+        List<FlowEntity> flows = new ArrayList<>();
+        for (int i = 0; i < 3 * AclConstants.FLOWS_PER_TRANSACTION; i++) {
+            flows.add(flow("flow" + i));
+        }
+        aclFlowCommitter.programFlows("acl1", flows, NwConstants.ADD_FLOW);
+
+        runJobs();
+
+        assertEquals(2, transactions.size());
+        verify(mdsalManager, times(AclConstants.FLOWS_PER_TRANSACTION))
+                .addFlow(eq(transactions.get(0)), any(FlowEntity.class));
+        verify(mdsalManager, times(2 * AclConstants.FLOWS_PER_TRANSACTION))
+                .addFlow(eq(transactions.get(1)), any(FlowEntity.class));
+        verify(counters.get("acl_flows_committed")).increment(AclConstants.FLOWS_PER_TRANSACTION);
+        verify(counters.get("acl_flows_committed")).increment(2 * AclConstants.FLOWS_PER_TRANSACTION);
+    }
+
+    @Test
+    public void testFlowsAreDroppedAfterTheLastAttempt() throws Exception {
+        failCommits = true;
+        aclFlowCommitter.programFlows("port1", Arrays.asList(flow("flow1"), flow("flow2")), NwConstants.ADD_FLOW);
+
+        runJobs();
+
+        assertEquals(AclConstants.JOB_MAX_RETRIES, transactions.size());
+        verify(counters.get("acl_flows_dropped")).increment(2);
+        verify(counters.get("acl_flows_committed"), never()).increment(anyLong());
+        verify(counters.get("acl_flow_changes_completed"), never()).increment();
+    }
+
+    /**
+     * Runs the queued jobs in order, retrying a job which fails like the job coordinator does.
+     */
+    private void runJobs() throws Exception {
+        while (!jobs.isEmpty()) {
+            Callable<?> job = jobs.remove(0);
+            for (int attempt = 1; attempt <= AclConstants.JOB_MAX_RETRIES; attempt++) {
+                if (!failed((List<?>) job.call())) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean failed(List<?> futures) {
+        for (Object future : futures) {
+            try {
+                ((ListenableFuture<?>) future).get();
+            } catch (ExecutionException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FlowEntity flow(String flowId) {
+        return MDSALUtil.buildFlowEntity(DPN, NwConstants.INGRESS_ACL_FILTER_CUM_DISPATCHER_TABLE, flowId,
+                AclConstants.PROTO_MATCH_PRIORITY, flowId, 0, 0, AclConstants.COOKIE_ACL_BASE,
+                Collections.emptyList(), Collections.emptyList());
+    }
+}
@@ -27,9 +27,11 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.Timer;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
@@ -136,8 +138,10 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.FibEntries;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.fibentries.VrfTables;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.fibentries.VrfTablesKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.macvrfentries.MacVrfEntry;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.VpnInstanceToVpnId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.op.data.VpnInstanceOpDataEntry;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
@@ -154,10 +158,14 @@ public class BgpConfigurationManager {
     // to have stale FIB map (RD, Prefix)
     //  number of seconds wait for route sync-up between ODL and BGP
     private static final int BGP_RESTART_ROUTE_SYNC_SEC = 600;
+    // number of stale route paths removed per run of the stale route cleanup
+    private static final int STALE_CLEANUP_BATCH_SIZE = 1000;
     private static final String UPDATE_PORT = "bgp.thrift.service.port";
     private static final String CONFIG_HOST = "vpnservice.bgpspeaker.host.name";
     private static final String CONFIG_PORT = "vpnservice.bgpspeaker.thrift.port";
     private static final String DEF_UPORT = "6644";
+    private static final String UPDATE_WORKER_THREADS = "bgp.thrift.service.workers";
+    private static final String DEF_UPDATE_WORKER_THREADS = "4";
     private static final String DEF_CHOST = "255.255.255.255"; // Invalid Host IP
     private static final String DEF_CPORT = "7644";
     private static final String DEF_BGP_SDNC_MIP = "127.0.0.1";
@@ -216,6 +224,8 @@ public class BgpConfigurationManager {
     private long cfgReplayStartTime;
     private long cfgReplayEndTime;
     private long staleCleanupTime;
+    private long staleCleanupDuration;
+    private long staleIndexMemoryBytes;
     private int totalStaledCount;
     private int totalCleared;
     private int totalExternalRoutes;
@@ -230,8 +240,7 @@ public class BgpConfigurationManager {
      * */
     private final ConcurrentHashMap<String, List<AddressFamiliesVrf>> mapNewAdFamily = new ConcurrentHashMap<>();
 
-    // map<rd, map<prefix/len:nexthop, label>>
-    private final Map<String, Map<String, Long>> staledFibEntriesMap = new ConcurrentHashMap<>();
+    private final StaleRouteIndex staleRouteIndex = new StaleRouteIndex();
 
     // map<rd, map<tep-ip, map<mac, l2vni>>>
     private final Map<String, Map<String, Map<String, Long>>> rt2TepMap = new ConcurrentHashMap<>();
@@ -300,7 +309,10 @@ public class BgpConfigurationManager {
             if (InetAddresses.isInetAddress(getBgpSdncMipIp())) {
                 InetSocketAddress bgpThriftServerSocketAddr = new InetSocketAddress(getBgpSdncMipIp(),
                         Integer.parseInt(updatePort));
-                bgpThriftService = new BgpThriftService(bgpThriftServerSocketAddr, bgpManager, this);
+                int updateWorkerThreads = Integer.parseInt(
+                        getProperty(UPDATE_WORKER_THREADS, DEF_UPDATE_WORKER_THREADS));
+                bgpThriftService = new BgpThriftService(bgpThriftServerSocketAddr, bgpManager, this,
+                        updateWorkerThreads);
                 if (isBGPEntityOwner()) {
                     //I am EoS owner of BGP, opening bgp thrift UPDATE-SERVER port.
                     LOG.info("BGP Configuration manager initialized: UPDATE-SERVER started");
@@ -1841,7 +1853,7 @@ public class BgpConfigurationManager {
                     setStaleCleanupTime(routeSyncTime);
                     routeCleanupFuture = executor.schedule(new RouteCleanup(), routeSyncTime, TimeUnit.SECONDS);
                 } else {
-                    staledFibEntriesMap.clear();
+                    staleRouteIndex.clear();
                 }
             } catch (InterruptedException | TimeoutException | ExecutionException eCancel) {
                 LOG.error("Stale Cleanup Task Cancelled", eCancel);
@@ -1860,12 +1872,12 @@ public class BgpConfigurationManager {
             if (lastReplayJobFt != null) {
                 lastReplayJobFt.cancel(true);
                 lastReplayJobFt = null;
-                staledFibEntriesMap.clear();
+                staleRouteIndex.clear();
             }
             if (routeCleanupFuture != null) {
                 routeCleanupFuture.cancel(true);
                 routeCleanupFuture = null;
-                staledFibEntriesMap.clear();
+                staleRouteIndex.clear();
             }
             Thread.sleep(2000);
         } catch (InterruptedException e) {
@@ -1986,26 +1998,13 @@ public class BgpConfigurationManager {
             }
         }
 
-        if (!staledFibEntriesMap.isEmpty()) {
-            // restart Scenario, as MAP is not empty.
-            Map<String, Long> map = staledFibEntriesMap.get(rd);
-            if (map != null) {
-                String prefixNextHop = appendNextHopToPrefix(prefix + "/" + plen, nextHop);
-                Long labelInStaleMap = map.get(prefixNextHop);
-                if (null == labelInStaleMap) {
-                    // New Entry, which happened to be added during restart.
-                    addroute = true;
-                } else {
-                    map.remove(prefixNextHop);
-                    if (isRouteModified(label, labelInStaleMap)) {
-                        LOG.debug("Route add ** {} ** {}/{} ** {} ** {} ", rd, prefix, plen, nextHop, label);
-                        // Existing entry, where in Label got modified during restart
-                        addroute = true;
-                    }
-                }
-            } else {
-                LOG.debug("rd {} map is null while processing prefix {} ", rd, prefix);
-                addroute = true;
+        if (!staleRouteIndex.isEmpty()) {
+            // restart Scenario, as the stale route index is not empty.
+            // New entries, which happened to be added during restart, and existing entries, where in Label got
+            // modified during restart, are written again.
+            addroute = !staleRouteIndex.checkOff(rd, prefix + "/" + plen, nextHop, label);
+            if (addroute) {
+                LOG.debug("Route add ** {} ** {}/{} ** {} ** {} ", rd, prefix, plen, nextHop, label);
             }
         } else {
             LOG.debug("Route add ** {} ** {}/{} ** {} ** {} ", rd, prefix, plen, nextHop, label);
@@ -2099,10 +2098,6 @@ public class BgpConfigurationManager {
         });
     }
 
-    private static boolean isRouteModified(int label, Long labelInStaleMap) {
-        return labelInStaleMap != null && !labelInStaleMap.equals(Long.valueOf(label));
-    }
-
     static class ReplayNbr {
         Neighbors nbr;
         boolean shouldRetry = false;
@@ -2912,86 +2907,85 @@ public class BgpConfigurationManager {
     }
 
     /*
-    * Remove Stale Marked Routes after timer expiry.
+    * Remove Stale Marked Routes after timer expiry, STALE_CLEANUP_BATCH_SIZE routes at a time so that the other
+    * tasks of the executor are not held back by a large cleanup.
     */
     private class RouteCleanup implements Callable<Integer> {
+        private long startTime;
 
         @Override
         public Integer call() {
-            totalCleared = 0;
-            try {
-                if (staledFibEntriesMap.isEmpty()) {
-                    LOG.info("BGP: RouteCleanup timertask tirggered but STALED FIB MAP is EMPTY");
-                } else {
-                    for (String rd : staledFibEntriesMap.keySet()) {
-                        if (Thread.interrupted()) {
-                            return 0;
-                        }
-                        Map<String, Long> map = staledFibEntriesMap.get(rd);
-                        if (map != null) {
-                            for (String key : map.keySet()) {
-                                if (Thread.interrupted()) {
-                                    return 0;
-                                }
-                                String prefix = extractPrefix(key);
-                                String nextHop = extractNextHop(key);
-                                totalCleared++;
-                                LOG.debug("BGP: RouteCleanup deletePrefix called for : rd:{}, prefix{}, nextHop:{}",
-                                        rd, prefix, nextHop);
-                                fibDSWriter.removeOrUpdateFibEntryFromDS(rd, prefix, nextHop);
-                            }
-                        }
-                    }
-                }
-            } finally {
-                staledFibEntriesMap.clear();
+            if (startTime == 0) {
+                startTime = System.currentTimeMillis();
+            }
+            if (totalCleared == 0 && staleRouteIndex.isEmpty()) {
+                LOG.info("BGP: RouteCleanup timertask tirggered but STALED FIB MAP is EMPTY");
             }
-            LOG.error("cleared {} stale routes after bgp restart", totalCleared);
-            return 0;
+            int cleared = staleRouteIndex.drain(STALE_CLEANUP_BATCH_SIZE, (rd, prefix, nextHop) -> {
+                LOG.debug("BGP: RouteCleanup deletePrefix called for : rd:{}, prefix{}, nextHop:{}",
+                        rd, prefix, nextHop);
+                fibDSWriter.removeOrUpdateFibEntryFromDS(rd, prefix, nextHop);
+            });
+            totalCleared += cleared;
+            if (!Thread.currentThread().isInterrupted() && !staleRouteIndex.isEmpty()) {
+                routeCleanupFuture = executor.schedule(this, 0, TimeUnit.MILLISECONDS);
+                return cleared;
+            }
+            staleRouteIndex.clear();
+            staleCleanupDuration = System.currentTimeMillis() - startTime;
+            LOG.error("cleared {} stale routes after bgp restart in {} ms", totalCleared, staleCleanupDuration);
+            return cleared;
         }
     }
 
     /*
      * BGP restart scenario, ODL-BGP manager was/is running.
-     * On re-sync notification, Get a copy of FIB database.
+     * On re-sync notification, index the BGP routes of the FIB, one VRF table at a time. The tables read are the ones
+     * of the VRFs configured in BGP, which the BGP routes are learnt in, and of the VPN instances, so that the routes
+     * of a VRF no longer configured are marked too. The whole FIB is never read at once.
      */
     public void createStaleFibMap() {
         totalStaledCount = 0;
-        try {
-            staledFibEntriesMap.clear();
-            InstanceIdentifier<FibEntries> id = InstanceIdentifier.create(FibEntries.class);
-
-            Optional<FibEntries> fibEntries = SingleTransactionDataBroker.syncReadOptional(dataBroker,
-                    LogicalDatastoreType.CONFIGURATION, id);
-            if (fibEntries.isPresent()) {
-                List<VrfTables> staleVrfTables = fibEntries.get().getVrfTables();
-                for (VrfTables vrfTable : staleVrfTables) {
-                    Map<String, Long> staleFibEntMap = new HashMap<>();
-                    for (VrfEntry vrfEntry : vrfTable.getVrfEntry()) {
-                        if (RouteOrigin.value(vrfEntry.getOrigin()) != RouteOrigin.BGP) {
-                            //Stale marking and cleanup is only meant for the routes learned through BGP.
-                            continue;
-                        }
-                        if (Thread.interrupted()) {
-                            break;
-                        }
-                        totalStaledCount++;
-                        //Create MAP from staleVrfTables.
-                        vrfEntry.getRoutePaths()
-                                .forEach(
-                                    routePath -> staleFibEntMap.put(
-                                            appendNextHopToPrefix(vrfEntry.getDestPrefix(),
-                                                    routePath.getNexthopAddress()), routePath.getLabel()));
-                    }
-                    staledFibEntriesMap.put(vrfTable.getRouteDistinguisher(), staleFibEntMap);
+        totalCleared = 0;
+        staleRouteIndex.clear();
+        for (String rd : getStaleFibRds()) {
+            if (Thread.interrupted()) {
+                break;
+            }
+            InstanceIdentifier<VrfTables> id = InstanceIdentifier.create(FibEntries.class)
+                    .child(VrfTables.class, new VrfTablesKey(rd));
+            try {
+                Optional<VrfTables> vrfTable = SingleTransactionDataBroker.syncReadOptional(dataBroker,
+                        LogicalDatastoreType.CONFIGURATION, id);
+                if (vrfTable.isPresent() && vrfTable.get().getVrfEntry() != null) {
+                    totalStaledCount += staleRouteIndex.addVrfTable(rd, vrfTable.get().getVrfEntry());
                 }
-            } else {
-                LOG.error("createStaleFibMap:: FIBentries.class is not present");
+            } catch (ReadFailedException e) {
+                LOG.error("createStaleFibMap:: error reading vrf table for rd {}", rd, e);
+            }
+        }
+        staleIndexMemoryBytes = staleRouteIndex.estimateMemoryBytes();
+        LOG.error("created {} staled entries, index uses about {} bytes", totalStaledCount, staleIndexMemoryBytes);
+    }
+
+    private Set<String> getStaleFibRds() {
+        Set<String> rds = new LinkedHashSet<>();
+        List<Vrfs> vrfs = config != null ? config.getVrfs() : null;
+        if (vrfs != null) {
+            vrfs.forEach(vrf -> rds.add(vrf.getRd()));
+        }
+        try {
+            Optional<VpnInstanceToVpnId> vpnInstances = SingleTransactionDataBroker.syncReadOptional(dataBroker,
+                    LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(VpnInstanceToVpnId.class));
+            if (vpnInstances.isPresent() && vpnInstances.get().getVpnInstance() != null) {
+                vpnInstances.get().getVpnInstance().stream()
+                        .filter(vpnInstance -> vpnInstance.getVrfId() != null)
+                        .forEach(vpnInstance -> rds.add(vpnInstance.getVrfId()));
             }
         } catch (ReadFailedException e) {
-            LOG.error("createStaleFibMap:: error ", e);
+            LOG.error("createStaleFibMap:: error reading the vpn instances", e);
         }
-        LOG.error("created {} staled entries ", totalStaledCount);
+        return rds;
     }
 
     /*
@@ -3127,6 +3121,14 @@ public class BgpConfigurationManager {
         return totalCleared;
     }
 
+    public long getStaleCleanupDuration() {
+        return staleCleanupDuration;
+    }
+
+    public long getStaleIndexMemoryBytes() {
+        return staleIndexMemoryBytes;
+    }
+
     public BgpCounters getBgpCounters() {
         return bgpCountersReference.get();
     }
@@ -3177,18 +3179,6 @@ public class BgpConfigurationManager {
         bgpRouter.getPeerStatus(nbrIp, nbrAsNum);
     }
 
-    private static String appendNextHopToPrefix(String prefix, String nextHop) {
-        return prefix + ":" + nextHop;
-    }
-
-    private static String extractPrefix(String prefixNextHop) {
-        return prefixNextHop.split(":")[0];
-    }
-
-    private static String extractNextHop(String prefixNextHop) {
-        return prefixNextHop.split(":")[1];
-    }
-
     private static String extractMd5Secret(final Neighbors val) {
         String md5Secret = null;
         TcpSecurityOption tcpSecOpt = val.getTcpSecurityOption();
@@ -71,6 +71,11 @@ public class DisplayBgpConfigCli extends OsgiCommandSupport {
             //Stale cleanup time
             ps.printf("Time taken for Stale FIB cleanup : %s ms%n", bgpConfigurationManager.getStaleCleanupTime());
 
+            ps.printf("Time taken to sweep stale FIB entries : %s ms%n",
+                    bgpConfigurationManager.getStaleCleanupDuration());
+            ps.printf("Stale FIB index memory (estimated) : %d bytes%n",
+                    bgpConfigurationManager.getStaleIndexMemoryBytes());
+
             ps.printf("Total stale entries created %d %n", bgpConfigurationManager.getTotalStaledCount());
             ps.printf("Total stale entries cleared %d %n", bgpConfigurationManager.getTotalCleared());
         }
@@ -9,9 +9,15 @@ package org.opendaylight.netvirt.bgpmanager;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.lang3.StringUtils;
@@ -19,6 +25,10 @@ import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
 import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Labeled;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.netvirt.fibmanager.api.FibHelper;
 import org.opendaylight.netvirt.fibmanager.api.RouteOrigin;
 import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.ebgp.rev150901.AddressFamily;
@@ -39,18 +49,44 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Singleton
-public class FibDSWriter {
+public class FibDSWriter implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(FibDSWriter.class);
+    private static final int DEFAULT_COALESCE_INTERVAL = 100;
     private final SingleTransactionDataBroker singleTxDB;
     private final BgpUtil bgpUtil;
+    private final RouteUpdateCoalescer routeUpdateCoalescer;
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("FibDSWriter-%d").setDaemon(true).build());
 
     @Inject
-    public FibDSWriter(final DataBroker dataBroker, final BgpUtil bgpUtil) {
+    public FibDSWriter(final DataBroker dataBroker, final BgpUtil bgpUtil, final MetricProvider metricProvider) {
         this.bgpUtil = bgpUtil;
         this.singleTxDB = new SingleTransactionDataBroker(dataBroker);
+        /*
+         * Following is the key pattern for the route update coalescing counters
+         * netvirt.bgpmanager.fibrouteupdates{name=received|coalesced|written}
+         * */
+        Labeled<Counter> routeUpdates = metricProvider.newCounter(MetricDescriptor.builder().anchor(this)
+                .project("netvirt").module("bgpmanager").id("fibrouteupdates").build(), "name");
+        this.routeUpdateCoalescer = new RouteUpdateCoalescer(bgpUtil, routeUpdates.label("received"),
+                routeUpdates.label("coalesced"), routeUpdates.label("written"));
     }
 
-    public synchronized void addFibEntryToDS(String rd, String prefix, List<String> nextHopList,
+    @PostConstruct
+    public void init() {
+        int coalesceInterval = Integer.getInteger("bgp.fib.coalesce.wait.time", DEFAULT_COALESCE_INTERVAL);
+        flushExecutor.scheduleWithFixedDelay(routeUpdateCoalescer::flush, coalesceInterval, coalesceInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        flushExecutor.shutdown();
+        routeUpdateCoalescer.flush();
+    }
+
+    public void addFibEntryToDS(String rd, String prefix, List<String> nextHopList,
             VrfEntry.EncapType encapType, int label, long l3vni,
             String gatewayMacAddress, RouteOrigin origin) {
         if (rd == null || rd.isEmpty()) {
@@ -67,16 +103,10 @@ public class FibDSWriter {
             LOG.debug("Created vrfEntry for {} nexthop {} label {}", prefix, nextHop, label);
         }
 
-        // Looking for existing prefix in MDSAL database
-        InstanceIdentifier<VrfEntry> vrfEntryId =
-                InstanceIdentifier.builder(FibEntries.class)
-                        .child(VrfTables.class, new VrfTablesKey(rd))
-                        .child(VrfEntry.class, new VrfEntryKey(prefix)).build();
-
         VrfEntryBuilder vrfEntryBuilder = new VrfEntryBuilder().setDestPrefix(prefix).setOrigin(origin.getValue());
         buildVpnEncapSpecificInfo(vrfEntryBuilder, encapType, label, l3vni,
                 gatewayMacAddress, nextHopList);
-        bgpUtil.update(vrfEntryId, vrfEntryBuilder.build());
+        routeUpdateCoalescer.addRoute(rd, prefix, vrfEntryBuilder.build());
     }
 
     public void addMacEntryToDS(String rd, String macAddress, String prefix,
@@ -134,7 +164,7 @@ public class FibDSWriter {
         builder.setRoutePaths(routePaths);
     }
 
-    public synchronized void removeFibEntryFromDS(String rd, String prefix) {
+    public void removeFibEntryFromDS(String rd, String prefix) {
 
         if (rd == null || rd.isEmpty()) {
             LOG.error("Prefix {} not associated with vpn", prefix);
@@ -142,12 +172,7 @@ public class FibDSWriter {
         }
         LOG.debug("Removing fib entry with destination prefix {} from vrf table for rd {}", prefix, rd);
 
-        InstanceIdentifierBuilder<VrfEntry> idBuilder =
-                InstanceIdentifier.builder(FibEntries.class).child(VrfTables.class, new VrfTablesKey(rd)).child(
-                        VrfEntry.class, new VrfEntryKey(prefix));
-        InstanceIdentifier<VrfEntry> vrfEntryId = idBuilder.build();
-        bgpUtil.delete(vrfEntryId);
-
+        routeUpdateCoalescer.removeRoute(rd, prefix);
     }
 
     public void removeMacEntryFromDS(String rd, String macAddress) {
@@ -166,7 +191,7 @@ public class FibDSWriter {
 
     }
 
-    public synchronized void removeOrUpdateFibEntryFromDS(String rd, String prefix, String nextHop) {
+    public void removeOrUpdateFibEntryFromDS(String rd, String prefix, String nextHop) {
 
         if (rd == null || rd.isEmpty()) {
             LOG.error("Prefix {} not associated with vpn", prefix);
@@ -174,42 +199,31 @@ public class FibDSWriter {
         }
         LOG.debug("Removing fib entry with destination prefix {} from vrf table for rd {} and nextHop {}",
                 prefix, rd, nextHop);
+        routeUpdateCoalescer.removeRoutePath(rd, prefix, nextHop, () -> readRoutePaths(rd, prefix));
+    }
+
+    private List<RoutePaths> readRoutePaths(String rd, String prefix) {
+        InstanceIdentifier<VrfEntry> vrfEntryId =
+                InstanceIdentifier.builder(FibEntries.class)
+                .child(VrfTables.class, new VrfTablesKey(rd))
+                .child(VrfEntry.class, new VrfEntryKey(prefix)).build();
         try {
-            InstanceIdentifier<VrfEntry> vrfEntryId =
-                    InstanceIdentifier.builder(FibEntries.class)
-                    .child(VrfTables.class, new VrfTablesKey(rd))
-                    .child(VrfEntry.class, new VrfEntryKey(prefix)).build();
             Optional<VrfEntry> existingVrfEntry =
                     singleTxDB.syncReadOptional(LogicalDatastoreType.CONFIGURATION, vrfEntryId);
-            List<RoutePaths> routePaths =
-                    existingVrfEntry.toJavaUtil().map(VrfEntry::getRoutePaths).orElse(Collections.emptyList());
-            if (routePaths.size() == 1) {
-                if (routePaths.get(0).getNexthopAddress().equals(nextHop)) {
-                    bgpUtil.delete(vrfEntryId);
-                }
-            } else {
-                routePaths.stream()
-                    .map(RoutePaths::getNexthopAddress)
-                    .filter(nextHopAddress -> nextHopAddress.equals(nextHop))
-                    .findFirst()
-                    .ifPresent(nh -> {
-                        InstanceIdentifier<RoutePaths> routePathId =
-                                FibHelper.buildRoutePathId(rd, prefix, nextHop);
-                        bgpUtil.delete(routePathId);
-                    });
-            }
+            return existingVrfEntry.toJavaUtil().map(VrfEntry::getRoutePaths).orElse(Collections.emptyList());
         } catch (ReadFailedException e) {
             LOG.error("Error while reading vrfEntry for rd {}, prefix {}", rd, prefix);
-            return;
+            return Collections.emptyList();
         }
     }
 
 
-    public synchronized void removeVrfSubFamilyFromDS(String rd, AddressFamily addressFamily) {
+    public void removeVrfSubFamilyFromDS(String rd, AddressFamily addressFamily) {
 
         if (rd == null) {
             return;
         }
+        routeUpdateCoalescer.flush(rd);
         LOG.debug("removeVrfSubFamilyFromDS : addressFamily {} from vrf rd {}",
                   addressFamily, rd);
 
@@ -251,8 +265,9 @@ public class FibDSWriter {
         return;
     }
 
-    public synchronized void removeVrfFromDS(String rd) {
+    public void removeVrfFromDS(String rd) {
         LOG.debug("Removing vrf table for  rd {}", rd);
+        routeUpdateCoalescer.discard(rd);
 
         InstanceIdentifierBuilder<VrfTables> idBuilder =
                 InstanceIdentifier.builder(FibEntries.class).child(VrfTables.class, new VrfTablesKey(rd));
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.bgpmanager;
+
+import com.google.common.util.concurrent.Striped;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.netvirt.fibmanager.api.FibHelper;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.FibEntries;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.fibentries.VrfTables;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.fibentries.VrfTablesKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntryBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntryKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentrybase.RoutePaths;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the FIB route updates per (rd, prefix) until the next flush, with last writer wins semantics: a
+ * route flapping add, withdraw, add within one window ends up as a single datastore operation. Updates are
+ * serialized per RD with striped locks, so unrelated RDs do not contend.
+ */
+class RouteUpdateCoalescer {
+    private static final Logger LOG = LoggerFactory.getLogger(RouteUpdateCoalescer.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final BgpUtil bgpUtil;
+    private final Counter receivedCounter;
+    private final Counter coalescedCounter;
+    private final Counter writtenCounter;
+    private final Striped<Lock> rdLocks = Striped.lock(LOCK_STRIPES);
+    // map<rd, map<prefix, pending update>>, the inner maps are guarded by the RD lock
+    private final Map<String, Map<String, PendingRoute>> pendingRoutes = new ConcurrentHashMap<>();
+
+    RouteUpdateCoalescer(BgpUtil bgpUtil, Counter receivedCounter, Counter coalescedCounter,
+            Counter writtenCounter) {
+        this.bgpUtil = bgpUtil;
+        this.receivedCounter = receivedCounter;
+        this.coalescedCounter = coalescedCounter;
+        this.writtenCounter = writtenCounter;
+    }
+
+    /**
+     * Merges the given entry into the route, as {@link BgpUtil#update} would.
+     */
+    void addRoute(String rd, String prefix, VrfEntry vrfEntry) {
+        Lock lock = rdLocks.get(rd);
+        lock.lock();
+        try {
+            PendingRoute route = getPendingRoute(rd, prefix);
+            if (route.mode == Mode.DELETE) {
+                route.mode = Mode.PUT;
+                route.vrfEntry = vrfEntry;
+            } else {
+                route.vrfEntry = mergeVrfEntry(route.vrfEntry, vrfEntry);
+                if (vrfEntry.getRoutePaths() != null) {
+                    vrfEntry.getRoutePaths().forEach(path -> route.removedNextHops.remove(path.getNexthopAddress()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void removeRoute(String rd, String prefix) {
+        Lock lock = rdLocks.get(rd);
+        lock.lock();
+        try {
+            PendingRoute route = getPendingRoute(rd, prefix);
+            route.mode = Mode.DELETE;
+            route.vrfEntry = null;
+            route.removedNextHops.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the next hop from the route, or the route itself if that was its last next hop.
+     *
+     * @param storedRoutePaths reads the route paths of the route in the datastore, only called when the pending
+     *                         update does not replace the whole route, and without holding the RD lock
+     */
+    void removeRoutePath(String rd, String prefix, String nextHop, Supplier<List<RoutePaths>> storedRoutePaths) {
+        Lock lock = rdLocks.get(rd);
+        List<RoutePaths> storedPaths = null;
+        while (true) {
+            lock.lock();
+            try {
+                Map<String, PendingRoute> rdRoutes = pendingRoutes.get(rd);
+                PendingRoute route = rdRoutes != null ? rdRoutes.get(prefix) : null;
+                if (storedPaths != null || route != null && route.mode != Mode.MERGE) {
+                    removeRoutePath(rd, prefix, nextHop, route, storedPaths);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // The pending update is checked again once the stored paths are read, it may have changed meanwhile
+            storedPaths = storedRoutePaths.get();
+        }
+    }
+
+    // Called with the RD lock held, storedPaths is only null if the pending update replaces the whole route
+    private void removeRoutePath(String rd, String prefix, String nextHop, PendingRoute pendingRoute,
+            List<RoutePaths> storedPaths) {
+        PendingRoute route = pendingRoute;
+        Set<String> nextHops = new HashSet<>();
+        if (route == null || route.mode == Mode.MERGE) {
+            storedPaths.forEach(path -> nextHops.add(path.getNexthopAddress()));
+            if (route != null) {
+                nextHops.removeAll(route.removedNextHops);
+            }
+        }
+        if (route != null && route.vrfEntry != null && route.vrfEntry.getRoutePaths() != null) {
+            route.vrfEntry.getRoutePaths().forEach(path -> nextHops.add(path.getNexthopAddress()));
+        }
+        if (!nextHops.contains(nextHop)) {
+            LOG.debug("removeRoutePath: nexthop {} not found for rd {} prefix {}", nextHop, rd, prefix);
+            return;
+        }
+        route = getPendingRoute(rd, prefix);
+        if (nextHops.size() == 1) {
+            route.mode = Mode.DELETE;
+            route.vrfEntry = null;
+            route.removedNextHops.clear();
+            return;
+        }
+        if (route.vrfEntry != null) {
+            route.vrfEntry = new VrfEntryBuilder(route.vrfEntry).setRoutePaths(
+                    route.vrfEntry.getRoutePaths().stream()
+                        .filter(path -> !nextHop.equals(path.getNexthopAddress()))
+                        .collect(Collectors.toList())).build();
+        }
+        if (route.mode == Mode.MERGE) {
+            route.removedNextHops.add(nextHop);
+        }
+    }
+
+    /**
+     * Drops the pending updates of the RD, used when the whole VRF table is removed.
+     */
+    void discard(String rd) {
+        Lock lock = rdLocks.get(rd);
+        lock.lock();
+        try {
+            pendingRoutes.remove(rd);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the pending updates of the RD over to the {@link BgpUtil} batching queue.
+     */
+    void flush(String rd) {
+        Lock lock = rdLocks.get(rd);
+        lock.lock();
+        try {
+            Map<String, PendingRoute> rdRoutes = pendingRoutes.remove(rd);
+            if (rdRoutes != null) {
+                rdRoutes.forEach((prefix, route) -> write(rd, prefix, route));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void flush() {
+        for (String rd : new ArrayList<>(pendingRoutes.keySet())) {
+            flush(rd);
+        }
+    }
+
+    private PendingRoute getPendingRoute(String rd, String prefix) {
+        receivedCounter.increment();
+        PendingRoute route = pendingRoutes.computeIfAbsent(rd, key -> new LinkedHashMap<>()).get(prefix);
+        if (route != null) {
+            coalescedCounter.increment();
+            return route;
+        }
+        route = new PendingRoute();
+        pendingRoutes.get(rd).put(prefix, route);
+        return route;
+    }
+
+    private void write(String rd, String prefix, PendingRoute route) {
+        InstanceIdentifier<VrfEntry> vrfEntryId = InstanceIdentifier.builder(FibEntries.class)
+                .child(VrfTables.class, new VrfTablesKey(rd))
+                .child(VrfEntry.class, new VrfEntryKey(prefix)).build();
+        switch (route.mode) {
+            case DELETE:
+                bgpUtil.delete(vrfEntryId);
+                writtenCounter.increment();
+                break;
+            case PUT:
+                bgpUtil.write(vrfEntryId, route.vrfEntry);
+                writtenCounter.increment();
+                break;
+            default:
+                for (String nextHop : route.removedNextHops) {
+                    bgpUtil.delete(FibHelper.buildRoutePathId(rd, prefix, nextHop));
+                    writtenCounter.increment();
+                }
+                if (route.vrfEntry != null) {
+                    bgpUtil.update(vrfEntryId, route.vrfEntry);
+                    writtenCounter.increment();
+                }
+                break;
+        }
+    }
+
+    private static VrfEntry mergeVrfEntry(VrfEntry older, VrfEntry newer) {
+        if (older == null || older.getRoutePaths() == null || newer.getRoutePaths() == null) {
+            return newer;
+        }
+        Map<String, RoutePaths> routePaths = new LinkedHashMap<>();
+        older.getRoutePaths().forEach(path -> routePaths.put(path.getNexthopAddress(), path));
+        newer.getRoutePaths().forEach(path -> routePaths.put(path.getNexthopAddress(), path));
+        return new VrfEntryBuilder(newer).setRoutePaths(new ArrayList<>(routePaths.values())).build();
+    }
+
+    private enum Mode {
+        // Merge the entry, after removing the route paths of removedNextHops
+        MERGE,
+        // Replace the stored entry
+        PUT,
+        DELETE
+    }
+
+    private static final class PendingRoute {
+        private Mode mode = Mode.MERGE;
+        private VrfEntry vrfEntry;
+        private final Set<String> removedNextHops = new HashSet<>();
+    }
+}
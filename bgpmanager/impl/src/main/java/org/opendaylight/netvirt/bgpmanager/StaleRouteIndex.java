@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.bgpmanager;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opendaylight.netvirt.fibmanager.api.RouteOrigin;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentrybase.RoutePaths;
+
+/**
+ * Index of the BGP routes present in the FIB when BGP restarts. Routes learnt again during the route sync are
+ * checked off, the remaining ones are stale and removed once the sync time is over.
+ *
+ * <p>The index is kept compact as it may hold millions of routes: prefixes reuse the strings read from the
+ * datastore, next hops are interned (there are only a few DC gateways) and labels are stored as primitives.
+ */
+class StaleRouteIndex {
+    private static final long NO_LABEL = -1L;
+    // Rough per route footprint: map node, StaleRoute and its two single element arrays
+    private static final long ROUTE_ESTIMATED_BYTES = 32 + 24 + 24 + 24;
+
+    // map<rd, map<prefix, stale paths>>
+    private final Map<String, Map<String, StaleRoute>> staleRoutes = new ConcurrentHashMap<>();
+    private final Map<String, String> internedNextHops = new ConcurrentHashMap<>();
+    private final AtomicInteger staleRouteCount = new AtomicInteger();
+
+    /**
+     * Indexes the BGP routes of one VRF table.
+     *
+     * @return the number of routes indexed
+     */
+    int addVrfTable(String rd, List<VrfEntry> vrfEntries) {
+        Map<String, StaleRoute> rdRoutes = new ConcurrentHashMap<>();
+        int count = 0;
+        for (VrfEntry vrfEntry : vrfEntries) {
+            if (RouteOrigin.value(vrfEntry.getOrigin()) != RouteOrigin.BGP || vrfEntry.getRoutePaths() == null) {
+                //Stale marking and cleanup is only meant for the routes learned through BGP.
+                continue;
+            }
+            List<RoutePaths> routePaths = vrfEntry.getRoutePaths();
+            String[] nextHops = new String[routePaths.size()];
+            long[] labels = new long[routePaths.size()];
+            for (int i = 0; i < nextHops.length; i++) {
+                RoutePaths routePath = routePaths.get(i);
+                nextHops[i] = internedNextHops.computeIfAbsent(routePath.getNexthopAddress(), nextHop -> nextHop);
+                labels[i] = routePath.getLabel() != null ? routePath.getLabel() : NO_LABEL;
+            }
+            rdRoutes.put(vrfEntry.getDestPrefix(), new StaleRoute(nextHops, labels));
+            count++;
+        }
+        if (!rdRoutes.isEmpty()) {
+            staleRoutes.put(rd, rdRoutes);
+            staleRouteCount.addAndGet(count);
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return staleRoutes.isEmpty();
+    }
+
+    int size() {
+        return staleRouteCount.get();
+    }
+
+    long estimateMemoryBytes() {
+        return staleRouteCount.get() * ROUTE_ESTIMATED_BYTES;
+    }
+
+    void clear() {
+        staleRoutes.clear();
+        internedNextHops.clear();
+        staleRouteCount.set(0);
+    }
+
+    /**
+     * Checks off a route learnt again from BGP.
+     *
+     * @return true if the route was indexed with the same label, i.e. it does not need to be written again. A
+     *     route indexed without label is always written again.
+     */
+    boolean checkOff(String rd, String prefix, String nextHop, long label) {
+        Map<String, StaleRoute> rdRoutes = staleRoutes.get(rd);
+        if (rdRoutes == null) {
+            return false;
+        }
+        boolean[] unchanged = new boolean[1];
+        rdRoutes.computeIfPresent(prefix, (key, staleRoute) -> {
+            int index = staleRoute.indexOf(nextHop);
+            if (index < 0) {
+                return staleRoute;
+            }
+            long staleLabel = staleRoute.labels[index];
+            unchanged[0] = staleLabel != NO_LABEL && staleLabel == label;
+            staleRoute.nextHops[index] = null;
+            staleRoute.remaining--;
+            if (staleRoute.remaining > 0) {
+                return staleRoute;
+            }
+            staleRouteCount.decrementAndGet();
+            return null;
+        });
+        return unchanged[0];
+    }
+
+    /**
+     * Removes up to maxPaths stale route paths from the index, handing each of them to the consumer.
+     *
+     * @return the number of route paths drained
+     */
+    int drain(int maxPaths, StalePathConsumer consumer) {
+        int drained = 0;
+        Iterator<Map.Entry<String, Map<String, StaleRoute>>> rdIterator = staleRoutes.entrySet().iterator();
+        while (rdIterator.hasNext() && drained < maxPaths) {
+            Map.Entry<String, Map<String, StaleRoute>> rdEntry = rdIterator.next();
+            Iterator<Map.Entry<String, StaleRoute>> routeIterator = rdEntry.getValue().entrySet().iterator();
+            while (routeIterator.hasNext() && drained < maxPaths) {
+                Map.Entry<String, StaleRoute> routeEntry = routeIterator.next();
+                routeIterator.remove();
+                staleRouteCount.decrementAndGet();
+                for (String nextHop : routeEntry.getValue().nextHops) {
+                    if (nextHop != null) {
+                        consumer.accept(rdEntry.getKey(), routeEntry.getKey(), nextHop);
+                        drained++;
+                    }
+                }
+            }
+            if (rdEntry.getValue().isEmpty()) {
+                rdIterator.remove();
+            }
+        }
+        return drained;
+    }
+
+    @FunctionalInterface
+    interface StalePathConsumer {
+        void accept(String rd, String prefix, String nextHop);
+    }
+
+    private static final class StaleRoute {
+        private final String[] nextHops;
+        private final long[] labels;
+        private int remaining;
+
+        StaleRoute(String[] nextHops, long[] labels) {
+            this.nextHops = nextHops;
+            this.labels = labels;
+            this.remaining = nextHops.length;
+        }
+
+        int indexOf(String nextHop) {
+            for (int i = 0; i < nextHops.length; i++) {
+                if (nextHop.equals(nextHops[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
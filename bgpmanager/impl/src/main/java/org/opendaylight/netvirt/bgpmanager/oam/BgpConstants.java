@@ -21,6 +21,7 @@ public interface BgpConstants {
     String BGP_COUNTER_NBR_PKTS_TX = "BgpNeighborPacketsSent";
     String BGP_COUNTER_RD_ROUTE_COUNT = "BgpRdRouteCount";
     String BGP_COUNTER_TOTAL_PFX = "BgpTotalPrefixes:Bgp_Total_Prefixes";
+    String BGP_COUNTER_UPDATE_QUEUE_DEPTH = "BgpUpdateQueueDepth";
     String BGP_DEF_LOG_LEVEL = "debugging";
     String BGP_DEF_LOG_FILE = "/opt/quagga/var/log/quagga/zrpcd.init.log";
     String BFD_COUNTER_NBR_PKTS_RX = "BfdNeighborPacketsReceived";
@@ -32,6 +32,7 @@ import javax.inject.Inject;
 import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.infrautils.metrics.Counter;
 import org.opendaylight.infrautils.metrics.Labeled;
+import org.opendaylight.infrautils.metrics.Meter;
 import org.opendaylight.infrautils.metrics.MetricDescriptor;
 import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.netvirt.bgpmanager.thrift.gen.af_afi;
@@ -60,11 +61,21 @@ public class BgpCounters implements Runnable, AutoCloseable {
 
     private final String bgpSdncMip;
     private final MetricProvider metricProvider;
+    private final Labeled<Meter> updatesReceived;
+    private final Counter updateQueueDepth;
 
     @Inject
     public BgpCounters(String mipAddress, final MetricProvider metricProvider) {
         this.metricProvider = metricProvider;
         this.bgpSdncMip = mipAddress;
+        /*
+         * Following is the key pattern for Meter of updates received from BGP on the thrift update server
+         * netvirt.bgpmanager.updatesreceived{type=push|withdraw}
+         * */
+        this.updatesReceived = metricProvider.newMeter(MetricDescriptor.builder().anchor(this).project("netvirt")
+                .module("bgpmanager").id("updatesreceived").build(), "type");
+        this.updateQueueDepth = getCounter(BgpConstants.BGP_COUNTER_UPDATE_QUEUE_DEPTH, null, null, null,
+                null, null, "bgp-peer");
     }
 
     @Override
@@ -624,6 +635,28 @@ public class BgpCounters implements Runnable, AutoCloseable {
         return counter;
     }
 
+    /**
+     * Marks an update received from BGP on the thrift update server.
+     * @param updateType type of the update, push or withdraw
+     */
+    public void markUpdateReceived(String updateType) {
+        updatesReceived.label(updateType).mark();
+    }
+
+    /**
+     * Counts a received update queued to be applied to the datastore.
+     */
+    public void incrementUpdateQueueDepth() {
+        updateQueueDepth.increment();
+    }
+
+    /**
+     * Counts a queued update applied to the datastore, or dropped.
+     */
+    public void decrementUpdateQueueDepth() {
+        updateQueueDepth.decrement();
+    }
+
     public void clearBfdNbrCounters(String neighborIPstr) {
         Counter bfdRxCounter = getCounter(BgpConstants.BFD_COUNTER_NBR_PKTS_RX, null,
                 Long.toString(0), null, neighborIPstr, null, "bfd-peer");
@@ -39,17 +39,20 @@ public class BgpThriftService {
     private final InetSocketAddress bgpThriftServerSocketAddr;
     private final IBgpManager bgpManager;
     private final BgpConfigurationManager bgpConfigManager;
+    private final int workerThreads;
     private volatile TServer server;
+    private volatile BgpUpdateDispatcher updateDispatcher;
     private static ThreadFactory thriftServerThreadFactory = new ThreadFactoryBuilder()
             .setNameFormat("bgp-thrift-server-%d").build();
     private static ExecutorService threadPool = Executors.newFixedThreadPool(1, thriftServerThreadFactory);
     private volatile Future ft;
 
     public BgpThriftService(InetSocketAddress bgpThriftServerSocketAddr, IBgpManager bm,
-                            BgpConfigurationManager bgpConfigManager) {
+                            BgpConfigurationManager bgpConfigManager, int workerThreads) {
         this.bgpThriftServerSocketAddr = bgpThriftServerSocketAddr;
         bgpManager = bm;
         this.bgpConfigManager = bgpConfigManager;
+        this.workerThreads = workerThreads;
     }
 
     public static class ThriftClientContext implements ServerContext {
@@ -67,8 +70,10 @@ public class BgpThriftService {
     public class BgpUpdateServer implements Runnable, BgpUpdater.Iface {
 
         ThriftClientContext oldThriftClientContext;
+        private final BgpUpdateDispatcher dispatcher;
 
-        BgpUpdateServer() {
+        BgpUpdateServer(BgpUpdateDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
         }
 
         @Override
@@ -82,7 +87,7 @@ public class BgpThriftService {
                 args.protocolFactory(new TBinaryProtocol.Factory());
                 args.processor(processor);
                 args.selectorThreads(1);
-                args.workerThreads(1);
+                args.workerThreads(workerThreads);
                 server = new TThreadedSelectorServer(args);
                 server.setServerEventHandler(new TServerEventHandler() {
                     @Override
@@ -145,7 +150,7 @@ public class BgpThriftService {
             LOG.debug("Update on push route : rd {} prefix {} plen {}", rd, prefix, plen);
 
             // l2label is ignored even in case of RT5. only l3label considered
-            bgpConfigManager.onUpdatePushRoute(
+            dispatcher.dispatch(rd, "push", () -> bgpConfigManager.onUpdatePushRoute(
                     protocolType,
                     rd,
                     prefix,
@@ -155,7 +160,7 @@ public class BgpThriftService {
                     l3label,
                     l2label,
                     routermac,
-                    afi);
+                    afi));
         }
 
         @Override
@@ -171,32 +176,34 @@ public class BgpThriftService {
                                           int l2label,
                                           af_afi afi) {
             LOG.debug("Route del ** {} ** {}/{} ", rd, prefix, plen);
-            bgpConfigManager.onUpdateWithdrawRoute(
+            dispatcher.dispatch(rd, "withdraw", () -> bgpConfigManager.onUpdateWithdrawRoute(
                     protocolType,
                     rd,
                     prefix,
                     plen,
                     nexthop,
-                    macaddress);
+                    macaddress));
         }
 
         @Override
         public void peerDown(String ipAddress, long asNumber) {
             LOG.info("PeerDown {} : {} From BGP", ipAddress, asNumber);
-            bgpConfigManager.peerDown(ipAddress, asNumber);
+            dispatcher.executeInOrder(() -> bgpConfigManager.peerDown(ipAddress, asNumber));
         }
 
         @Override
         public void peerUp(String ipAddress, long asNumber) {
             LOG.info("PeerUp {} : {} from BGP", ipAddress, asNumber);
-            bgpConfigManager.peerUp(ipAddress, asNumber);
+            dispatcher.executeInOrder(() -> bgpConfigManager.peerUp(ipAddress, asNumber));
         }
 
         @Override
         public void onStartConfigResyncNotification() {
             LOG.info("BGP (re)started");
-            bgpManager.setQbgprestartTS(System.currentTimeMillis());
-            bgpManager.bgpRestarted();
+            dispatcher.executeInOrder(() -> {
+                bgpManager.setQbgprestartTS(System.currentTimeMillis());
+                bgpManager.bgpRestarted();
+            });
         }
 
         @Override
@@ -210,7 +217,8 @@ public class BgpThriftService {
         if (isBgpThriftServiceStarted()) {
             stop();
         }
-        ft = threadPool.submit(new BgpUpdateServer());
+        updateDispatcher = new BgpUpdateDispatcher(workerThreads, bgpConfigManager::getBgpCounters);
+        ft = threadPool.submit(new BgpUpdateServer(updateDispatcher));
     }
 
     public boolean isBgpThriftServiceStarted() {
@@ -226,5 +234,9 @@ public class BgpThriftService {
             ft.cancel(true);
         }
         ft = null;
+        if (updateDispatcher != null) {
+            updateDispatcher.close();
+            updateDispatcher = null;
+        }
     }
 }
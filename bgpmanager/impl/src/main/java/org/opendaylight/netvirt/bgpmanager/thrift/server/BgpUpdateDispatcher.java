@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.netvirt.bgpmanager.thrift.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.netvirt.bgpmanager.oam.BgpCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches the updates received from BGP to a fixed number of ordered lanes. The lane of a route update is
+ * chosen by its route distinguisher, so the updates of one VRF are applied in the order they were received while
+ * the updates of different VRFs are applied in parallel. Each lane has a bounded queue; when it is full the thrift
+ * worker waits, which holds back the BGP side instead of buffering a full table in memory.
+ */
+public class BgpUpdateDispatcher implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(BgpUpdateDispatcher.class);
+    static final int LANE_QUEUE_LENGTH = 10000;
+
+    private final List<BlockingQueue<Runnable>> lanes;
+    private final ExecutorService executor;
+    private final Supplier<BgpCounters> bgpCountersSupplier;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    public BgpUpdateDispatcher(int laneCount, Supplier<BgpCounters> bgpCountersSupplier) {
+        this.bgpCountersSupplier = bgpCountersSupplier;
+        this.lanes = new ArrayList<>(laneCount);
+        this.executor = Executors.newFixedThreadPool(laneCount,
+                new ThreadFactoryBuilder().setNameFormat("bgp-update-lane-%d").setDaemon(true).build());
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<Runnable> lane = new LinkedBlockingQueue<>(LANE_QUEUE_LENGTH);
+            lanes.add(lane);
+            executor.execute(() -> processLane(lane));
+        }
+    }
+
+    /**
+     * Queues the update on the lane of the given route distinguisher.
+     */
+    public void dispatch(String rd, String updateType, Runnable update) {
+        // The same counters are decremented once the update is applied, so the queue depth never drifts
+        BgpCounters bgpCounters = bgpCountersSupplier.get();
+        if (bgpCounters != null) {
+            bgpCounters.markUpdateReceived(updateType);
+            bgpCounters.incrementUpdateQueueDepth();
+        }
+        int lane = Math.floorMod(rd == null ? 0 : rd.hashCode(), lanes.size());
+        queueDepth.incrementAndGet();
+        try {
+            lanes.get(lane).put(() -> {
+                try {
+                    update.run();
+                } finally {
+                    dequeued(bgpCounters);
+                }
+            });
+        } catch (InterruptedException e) {
+            dequeued(bgpCounters);
+            LOG.warn("Interrupted while queueing {} update for rd {}, update dropped", updateType, rd);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the given task once all the updates queued before it have been applied. Used for the notifications
+     * which are not bound to a VRF, like a BGP restart, which must not overtake the route updates received first.
+     */
+    public void executeInOrder(Runnable task) {
+        CountDownLatch drained = new CountDownLatch(lanes.size());
+        try {
+            for (BlockingQueue<Runnable> lane : lanes) {
+                lane.put(drained::countDown);
+            }
+            drained.await();
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for the queued updates to be applied");
+            Thread.currentThread().interrupt();
+            return;
+        }
+        task.run();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // TODO Clean up the exception handling
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void processLane(BlockingQueue<Runnable> lane) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Runnable update;
+            try {
+                update = lane.take();
+            } catch (InterruptedException e) {
+                LOG.debug("BGP update lane interrupted, exiting");
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                update.run();
+            } catch (Exception e) {
+                LOG.error("Failed to apply BGP update", e);
+            }
+        }
+    }
+
+    private void dequeued(@Nullable BgpCounters bgpCounters) {
+        queueDepth.decrementAndGet();
+        if (bgpCounters != null) {
+            bgpCounters.decrementUpdateQueueDepth();
+        }
+    }
+}
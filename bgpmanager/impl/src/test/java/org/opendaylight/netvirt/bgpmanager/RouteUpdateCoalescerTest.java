@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.bgpmanager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.netvirt.fibmanager.api.FibHelper;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.FibEntries;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.fibentries.VrfTables;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.fibentries.VrfTablesKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntryBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntryKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class RouteUpdateCoalescerTest {
+    private static final String RD = "100:1";
+    private static final String PREFIX = "10.1.1.1/32";
+    private static final InstanceIdentifier<VrfEntry> VRF_ENTRY_ID = InstanceIdentifier.builder(FibEntries.class)
+            .child(VrfTables.class, new VrfTablesKey(RD)).child(VrfEntry.class, new VrfEntryKey(PREFIX)).build();
+
+    private BgpUtil bgpUtil;
+    private RouteUpdateCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        bgpUtil = mock(BgpUtil.class);
+        coalescer = new RouteUpdateCoalescer(bgpUtil, mock(Counter.class), mock(Counter.class),
+                mock(Counter.class));
+    }
+
+    @Test
+    public void testFlapIsWrittenOnce() {
+        coalescer.addRoute(RD, PREFIX, vrfEntry(1000L, "1.1.1.1"));
+        coalescer.removeRoutePath(RD, PREFIX, "1.1.1.1", Collections::emptyList);
+        coalescer.addRoute(RD, PREFIX, vrfEntry(1001L, "1.1.1.1"));
+        coalescer.flush();
+
+        verify(bgpUtil).write(VRF_ENTRY_ID, vrfEntry(1001L, "1.1.1.1"));
+        verifyNoMoreInteractions(bgpUtil);
+    }
+
+    @Test
+    public void testWithdrawOfStoredNextHopKeepsOtherPaths() {
+        coalescer.removeRoutePath(RD, PREFIX, "1.1.1.1",
+            () -> vrfEntry(1000L, "1.1.1.1", "2.2.2.2").getRoutePaths());
+        coalescer.flush();
+
+        verify(bgpUtil).delete(FibHelper.buildRoutePathId(RD, PREFIX, "1.1.1.1"));
+        verifyNoMoreInteractions(bgpUtil);
+    }
+
+    @Test
+    public void testStoredPathsAreReadWithoutTheRdLock() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            coalescer.removeRoutePath(RD, PREFIX, "1.1.1.1", () -> {
+                // An update of the RD from another thread while the stored paths are read is not held
+                try {
+                    executor.submit(() -> coalescer.addRoute(RD, PREFIX, vrfEntry(1001L, "2.2.2.2")))
+                            .get(10, TimeUnit.SECONDS);
+                } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                    throw new AssertionError(e);
+                }
+                return vrfEntry(1000L, "1.1.1.1").getRoutePaths();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+        coalescer.flush();
+
+        // Not the last next hop of the route any more, the added one is kept
+        verify(bgpUtil).delete(FibHelper.buildRoutePathId(RD, PREFIX, "1.1.1.1"));
+        verify(bgpUtil).update(VRF_ENTRY_ID, vrfEntry(1001L, "2.2.2.2"));
+        verifyNoMoreInteractions(bgpUtil);
+    }
+
+    private static VrfEntry vrfEntry(long label, String... nextHops) {
+        return new VrfEntryBuilder().setDestPrefix(PREFIX).setRoutePaths(Arrays.stream(nextHops)
+                .map(nextHop -> FibHelper.buildRoutePath(nextHop, label)).collect(Collectors.toList()))
+                .build();
+    }
+}
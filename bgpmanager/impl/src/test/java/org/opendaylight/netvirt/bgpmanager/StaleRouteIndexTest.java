@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.bgpmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.opendaylight.netvirt.fibmanager.api.FibHelper;
+import org.opendaylight.netvirt.fibmanager.api.RouteOrigin;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentries.VrfEntryBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.fibmanager.rev150330.vrfentrybase.RoutePaths;
+
+public class StaleRouteIndexTest {
+    private static final String RD = "100:1";
+
+    @Test
+    public void testRelearnedRoutesAreCheckedOff() {
+        StaleRouteIndex index = new StaleRouteIndex();
+        assertEquals(3, index.addVrfTable(RD, Arrays.asList(
+                vrfEntry("10.0.0.1/32", RouteOrigin.BGP, 100L, "1.1.1.1", "2.2.2.2"),
+                vrfEntry("10.0.0.2/32", RouteOrigin.BGP, 200L, "1.1.1.1"),
+                vrfEntry("10.0.0.3/32", RouteOrigin.BGP, 300L, "1.1.1.1"),
+                vrfEntry("10.0.0.4/32", RouteOrigin.STATIC, 400L, "1.1.1.1"))));
+
+        // Same label: no need to write the route again
+        assertTrue(index.checkOff(RD, "10.0.0.1/32", "1.1.1.1", 100L));
+        // Label modified during the restart
+        assertFalse(index.checkOff(RD, "10.0.0.2/32", "1.1.1.1", 201L));
+        // New route and unknown RD
+        assertFalse(index.checkOff(RD, "10.0.0.9/32", "1.1.1.1", 900L));
+        assertFalse(index.checkOff("100:2", "10.0.0.3/32", "1.1.1.1", 300L));
+
+        List<String> stalePaths = new ArrayList<>();
+        assertEquals(1, index.drain(1, (rd, prefix, nextHop) -> stalePaths.add(prefix + " via " + nextHop)));
+        assertEquals(1, index.drain(10, (rd, prefix, nextHop) -> stalePaths.add(prefix + " via " + nextHop)));
+        assertTrue(stalePaths.contains("10.0.0.1/32 via 2.2.2.2"));
+        assertTrue(stalePaths.contains("10.0.0.3/32 via 1.1.1.1"));
+        assertEquals(2, stalePaths.size());
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void testRoutesIndexedWithoutLabelAreWrittenAgain() {
+        StaleRouteIndex index = new StaleRouteIndex();
+        assertEquals(1, index.addVrfTable(RD, Arrays.asList(vrfEntry("10.0.0.1/32", RouteOrigin.BGP, null,
+                "1.1.1.1"))));
+
+        assertFalse(index.checkOff(RD, "10.0.0.1/32", "1.1.1.1", 100L));
+        assertTrue(index.isEmpty());
+    }
+
+    private static VrfEntry vrfEntry(String prefix, RouteOrigin origin, Long label, String... nextHops) {
+        VrfEntryBuilder builder = new VrfEntryBuilder().setDestPrefix(prefix).setOrigin(origin.getValue());
+        List<RoutePaths> routePaths = new ArrayList<>();
+        for (String nextHop : nextHops) {
+            routePaths.add(FibHelper.buildRoutePath(nextHop, label));
+        }
+        return builder.setRoutePaths(routePaths).build();
+    }
+}
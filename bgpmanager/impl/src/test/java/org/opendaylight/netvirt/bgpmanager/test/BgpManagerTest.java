@@ -17,6 +17,7 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.test.AbstractConcurrentDataBrokerTest;
+import org.opendaylight.infrautils.metrics.testimpl.TestMetricProviderImpl;
 import org.opendaylight.netvirt.bgpmanager.BgpUtil;
 import org.opendaylight.netvirt.bgpmanager.FibDSWriter;
 import org.opendaylight.netvirt.fibmanager.api.IFibManager;
@@ -34,7 +35,8 @@ public class BgpManagerTest extends AbstractConcurrentDataBrokerTest {
     @Before
     public void setUp() {
         dataBroker = getDataBroker();
-        bgpFibWriter = new FibDSWriter(dataBroker, new BgpUtil(dataBroker, ifibManager));
+        bgpFibWriter = new FibDSWriter(dataBroker, new BgpUtil(dataBroker, ifibManager),
+                new TestMetricProviderImpl());
         fibManager = new MockFibManager(dataBroker);
     }
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.netvirt.bgpmanager.thrift.server;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BgpUpdateDispatcherTest {
+
+    private static final int RDS = 16;
+    private static final int UPDATES_PER_RD = 500;
+
+    private BgpUpdateDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new BgpUpdateDispatcher(4, () -> null);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    public void testUpdatesOfOneRdAreAppliedInOrder() {
+        Map<String, List<Integer>> applied = new HashMap<>();
+        for (int rd = 0; rd < RDS; rd++) {
+            applied.put("100:" + rd, Collections.synchronizedList(new ArrayList<>()));
+        }
+        for (int seq = 0; seq < UPDATES_PER_RD; seq++) {
+            for (Map.Entry<String, List<Integer>> entry : applied.entrySet()) {
+                final int update = seq;
+                dispatcher.dispatch(entry.getKey(), "push", () -> entry.getValue().add(update));
+            }
+        }
+        // Runs only once every update queued above has been applied
+        AtomicInteger pendingOnResync = new AtomicInteger(-1);
+        dispatcher.executeInOrder(() -> pendingOnResync.set(dispatcher.getQueueDepth()));
+
+        assertEquals(0, pendingOnResync.get());
+        for (List<Integer> updates : applied.values()) {
+            assertEquals(UPDATES_PER_RD, updates.size());
+            for (int seq = 0; seq < UPDATES_PER_RD; seq++) {
+                assertEquals(Integer.valueOf(seq), updates.get(seq));
+            }
+        }
+    }
+}
@@ -29,12 +29,15 @@ public class DhcpConfigListener extends AsyncClusteredDataTreeChangeListenerBase
 
     private final DhcpManager dhcpManager;
     private final DataBroker dataBroker;
+    private final DhcpResponderCache dhcpResponderCache;
 
     @Inject
-    public DhcpConfigListener(final DataBroker db, final DhcpManager dhcpMgr) {
+    public DhcpConfigListener(final DataBroker db, final DhcpManager dhcpMgr,
+            final DhcpResponderCache dhcpResponderCache) {
         super(DhcpConfig.class, DhcpConfigListener.class);
         dhcpManager = dhcpMgr;
         this.dataBroker = db;
+        this.dhcpResponderCache = dhcpResponderCache;
     }
 
     @PostConstruct
@@ -73,6 +76,8 @@ public class DhcpConfigListener extends AsyncClusteredDataTreeChangeListenerBase
     }
 
     private void updateConfig(@Nullable DhcpConfig update) {
+        // The lease time and domain name are in the cached replies
+        dhcpResponderCache.invalidateAll();
         //TODO: Update operational with actual values
         if (update == null || update.getConfigs() == null || update.getConfigs().isEmpty()) {
             dhcpManager.setLeaseDuration(DhcpMConstants.DEFAULT_LEASE_TIME);
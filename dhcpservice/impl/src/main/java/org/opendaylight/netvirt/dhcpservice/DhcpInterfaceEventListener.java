@@ -46,12 +46,13 @@ public class DhcpInterfaceEventListener
     private final IElanService elanService;
     private final DhcpPortCache dhcpPortCache;
     private final ItmRpcService itmRpcService;
+    private final DhcpResponderCache dhcpResponderCache;
 
     public DhcpInterfaceEventListener(DhcpManager dhcpManager, DataBroker dataBroker,
                                       DhcpExternalTunnelManager dhcpExternalTunnelManager,
                                       IInterfaceManager interfaceManager, IElanService elanService,
                                       DhcpPortCache dhcpPortCache, JobCoordinator jobCoordinator,
-                                      ItmRpcService itmRpcService) {
+                                      ItmRpcService itmRpcService, DhcpResponderCache dhcpResponderCache) {
         super(Interface.class, DhcpInterfaceEventListener.class);
         this.dhcpManager = dhcpManager;
         this.dataBroker = dataBroker;
@@ -61,6 +62,7 @@ public class DhcpInterfaceEventListener
         this.dhcpPortCache = dhcpPortCache;
         this.jobCoordinator = jobCoordinator;
         this.itmRpcService = itmRpcService;
+        this.dhcpResponderCache = dhcpResponderCache;
         registerListener(LogicalDatastoreType.OPERATIONAL, dataBroker);
     }
 
@@ -75,6 +77,7 @@ public class DhcpInterfaceEventListener
         if (!L2vlan.class.equals(del.getType()) && !Tunnel.class.equals(del.getType())) {
             return;
         }
+        dhcpResponderCache.invalidateInterface(del.getName());
         List<String> ofportIds = del.getLowerLayerIf();
         if (ofportIds == null || ofportIds.isEmpty()) {
             return;
@@ -99,6 +102,8 @@ public class DhcpInterfaceEventListener
         if (!L2vlan.class.equals(update.getType()) && !Tunnel.class.equals(update.getType())) {
             return;
         }
+        // The lport tag or the egress actions of the interface may have changed
+        dhcpResponderCache.invalidateInterface(update.getName());
         if ((original.getOperStatus().getIntValue() ^ update.getOperStatus().getIntValue()) == 0) {
             LOG.trace("Interface operstatus is same orig {} updated {}", original, update);
             return;
@@ -128,6 +133,7 @@ public class DhcpInterfaceEventListener
             return;
         }
         String interfaceName = add.getName();
+        dhcpResponderCache.invalidateInterface(interfaceName);
         LOG.trace("DhcpInterfaceAddJob to be created for interface {}", interfaceName);
         List<String> ofportIds = add.getLowerLayerIf();
         if (ofportIds == null || ofportIds.isEmpty()) {
@@ -65,6 +65,7 @@ public class DhcpManager {
     private final IElanService elanService;
     private final JobCoordinator jobCoordinator;
     private DhcpPortCache dhcpPortCache;
+    private final DhcpResponderCache dhcpResponderCache;
     private final ItmRpcService itmRpcService;
     private final DhcpServiceCounters dhcpServiceCounters;
 
@@ -79,7 +80,7 @@ public class DhcpManager {
             final DhcpExternalTunnelManager dhcpExternalTunnelManager, final IInterfaceManager interfaceManager,
             @Named("elanService") IElanService ielanService, final DhcpPortCache dhcpPortCache,
             final JobCoordinator jobCoordinator, final ItmRpcService itmRpcService,
-            DhcpServiceCounters dhcpServiceCounters) {
+            DhcpServiceCounters dhcpServiceCounters, DhcpResponderCache dhcpResponderCache) {
         this.mdsalUtil = mdsalApiManager;
         this.config = config;
         this.broker = dataBroker;
@@ -90,6 +91,7 @@ public class DhcpManager {
         this.jobCoordinator = jobCoordinator;
         this.itmRpcService = itmRpcService;
         this.dhcpServiceCounters = dhcpServiceCounters;
+        this.dhcpResponderCache = dhcpResponderCache;
         configureLeaseDuration(DhcpMConstants.DEFAULT_LEASE_TIME);
     }
 
@@ -98,7 +100,7 @@ public class DhcpManager {
         LOG.trace("Netvirt DHCP Manager Init .... {}",config.isControllerDhcpEnabled());
         if (config.isControllerDhcpEnabled()) {
             dhcpInterfaceEventListener = new DhcpInterfaceEventListener(this, broker, dhcpExternalTunnelManager,
-                    interfaceManager, elanService, dhcpPortCache, jobCoordinator, itmRpcService);
+                    interfaceManager, elanService, dhcpPortCache, jobCoordinator, itmRpcService, dhcpResponderCache);
             dhcpInterfaceConfigListener = new DhcpInterfaceConfigListener(broker, dhcpExternalTunnelManager, this,
                     jobCoordinator);
             LOG.info("DHCP Service initialized");
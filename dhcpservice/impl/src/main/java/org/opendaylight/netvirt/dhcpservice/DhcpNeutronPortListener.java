@@ -10,6 +10,8 @@ package org.opendaylight.netvirt.dhcpservice;
 import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
 import static org.opendaylight.genius.infra.Datastore.OPERATIONAL;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -63,12 +65,13 @@ public class DhcpNeutronPortListener
     private final JobCoordinator jobCoordinator;
     private final DhcpManager dhcpManager;
     private final ItmRpcService itmRpcService;
+    private final DhcpResponderCache dhcpResponderCache;
 
     @Inject
     public DhcpNeutronPortListener(DataBroker db, DhcpExternalTunnelManager dhcpExternalTunnelManager,
             @Named("elanService") IElanService ielanService, IInterfaceManager interfaceManager,
             DhcpserviceConfig config, final JobCoordinator jobCoordinator, DhcpManager dhcpManager,
-            ItmRpcService itmRpcService) {
+            ItmRpcService itmRpcService, DhcpResponderCache dhcpResponderCache) {
 
         super(Port.class, DhcpNeutronPortListener.class);
         this.dhcpExternalTunnelManager = dhcpExternalTunnelManager;
@@ -80,6 +83,7 @@ public class DhcpNeutronPortListener
         this.jobCoordinator = jobCoordinator;
         this.dhcpManager = dhcpManager;
         this.itmRpcService = itmRpcService;
+        this.dhcpResponderCache = dhcpResponderCache;
     }
 
     @PostConstruct
@@ -104,9 +108,10 @@ public class DhcpNeutronPortListener
     @Override
     protected void remove(InstanceIdentifier<Port> identifier, Port del) {
         LOG.trace("Port removed: {}", del);
+        dhcpResponderCache.invalidateInterface(del.getUuid().getValue());
         if (NeutronConstants.IS_ODL_DHCP_PORT.test(del)) {
-            jobCoordinator.enqueueJob(getJobKey(del),
-                () -> Collections.singletonList(txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+            jobCoordinator.enqueueJob(getJobKey(del), () -> Collections.singletonList(invalidateSubnetsOnCommit(del,
+                txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
                     java.util.Optional<String> ip4Address = DhcpServiceUtils.getIpV4Address(del);
                     if (ip4Address.isPresent()) {
                         dhcpExternalTunnelManager.addOrRemoveDhcpArpFlowforElan(del.getNetworkId().getValue(),
@@ -119,7 +124,7 @@ public class DhcpNeutronPortListener
                                         arpInput.getSha(), arpInput.getDpId());
                         elanService.removeArpResponderFlow(arpInput);
                     });
-                })));
+                }))));
         }
         if (isVnicTypeDirectOrMacVtap(del)) {
             removePort(del);
@@ -130,9 +135,21 @@ public class DhcpNeutronPortListener
         return "PORT- " + port.getUuid().getValue();
     }
 
+    /**
+     * Drops the DHCP responder entries of the subnets of a DHCP port once its subnet DHCP port data is written, as
+     * they hold the DHCP server IP and MAC.
+     */
+    private ListenableFuture<Void> invalidateSubnetsOnCommit(Port dhcpPort, ListenableFuture<Void> future) {
+        future.addListener(() -> dhcpPort.nonnullFixedIps().forEach(
+            fixedIp -> dhcpResponderCache.invalidateSubnet(fixedIp.getSubnetId().getValue())),
+            MoreExecutors.directExecutor());
+        return future;
+    }
+
     @Override
     protected void update(InstanceIdentifier<Port> identifier, Port original, Port update) {
         LOG.trace("Port changed to {}", update);
+        dhcpResponderCache.invalidateInterface(update.getUuid().getValue());
         //With Ipv6 changes we can get ipv4 subnets later. The below check is to support such scenario.
         if (original.nonnullFixedIps().size() < update.nonnullFixedIps().size()) {
             final String interfaceName = update.getUuid().getValue();
@@ -193,8 +210,8 @@ public class DhcpNeutronPortListener
     protected void add(InstanceIdentifier<Port> identifier, Port add) {
         LOG.trace("Port added {}", add);
         if (NeutronConstants.IS_ODL_DHCP_PORT.test(add)) {
-            jobCoordinator.enqueueJob(getJobKey(add),
-                () -> Collections.singletonList(txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+            jobCoordinator.enqueueJob(getJobKey(add), () -> Collections.singletonList(invalidateSubnetsOnCommit(add,
+                txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
                     DhcpServiceUtils.createSubnetDhcpPortData(add, tx::put);
                     processArpResponderForElanDpns(add, arpInput -> {
                         LOG.trace(
@@ -206,7 +223,7 @@ public class DhcpNeutronPortListener
                                 arpInput.getInterfaceName(), arpInput.getSpa(), arpInput.getSha(), itmRpcService));
                         elanService.addArpResponderFlow(builder.buildForInstallFlow());
                     });
-                })));
+                }))));
             java.util.Optional<String> ip4Address = DhcpServiceUtils.getIpV4Address(add);
             if (ip4Address.isPresent()) {
                 dhcpExternalTunnelManager.addOrRemoveDhcpArpFlowforElan(add.getNetworkId().getValue(),
@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -42,6 +43,7 @@ import org.opendaylight.infrautils.metrics.Labeled;
 import org.opendaylight.infrautils.metrics.MetricDescriptor;
 import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.infrautils.utils.concurrent.JdkFutures;
+import org.opendaylight.netvirt.dhcpservice.DhcpResponderCache.ResponderEntry;
 import org.opendaylight.netvirt.dhcpservice.api.DHCP;
 import org.opendaylight.netvirt.dhcpservice.api.DHCPConstants;
 import org.opendaylight.netvirt.dhcpservice.api.DHCPUtils;
@@ -85,6 +87,18 @@ public class DhcpPktHandler implements PacketProcessingListener {
 
     private static final String UNKNOWN_LABEL = "unknown";
 
+    // Offsets and lengths in the DHCP replies, patched when a reply is answered from the responder cache
+    private static final int ETHERNET_SOURCE_MAC_OFFSET = 6;
+    private static final int ETHERNET_HEADER_LENGTH = 14;
+    private static final int VLAN_TAGGED_ETHERNET_HEADER_LENGTH = 18;
+    private static final int IPV4_SOURCE_OFFSET = 12;
+    private static final int IPV4_DESTINATION_OFFSET = 16;
+    private static final int UDP_HEADER_LENGTH = 8;
+    private static final int UDP_LENGTH_OFFSET = 4;
+    private static final int UDP_CHECKSUM_OFFSET = 6;
+    private static final int DHCP_XID_OFFSET = 4;
+    private static final int DHCP_FLAGS_OFFSET = 10;
+
     private enum PktDropReason {
         INTERFACE_NAME_NOT_FOUND,
         INTERFACE_INFO_NOT_FOUND,
@@ -103,6 +117,7 @@ public class DhcpPktHandler implements PacketProcessingListener {
     private final DhcpAllocationPoolManager dhcpAllocationPoolMgr;
     private final DataBroker broker;
     private final ItmRpcService itmRpcService;
+    private final DhcpResponderCache dhcpResponderCache;
     private final Labeled<Labeled<Labeled<Counter>>> pktDropCounter;
     private final Labeled<Counter> pktInCounter;
 
@@ -116,6 +131,7 @@ public class DhcpPktHandler implements PacketProcessingListener {
                           final DhcpAllocationPoolManager dhcpAllocationPoolMgr,
                           final DataBroker dataBroker,
                           final ItmRpcService itmRpcService,
+                          final DhcpResponderCache dhcpResponderCache,
                           final MetricProvider metricProvider) {
         this.interfaceManagerRpc = interfaceManagerRpc;
         this.pktService = pktService;
@@ -126,6 +142,7 @@ public class DhcpPktHandler implements PacketProcessingListener {
         this.dhcpAllocationPoolMgr = dhcpAllocationPoolMgr;
         this.broker = dataBroker;
         this.itmRpcService = itmRpcService;
+        this.dhcpResponderCache = dhcpResponderCache;
         this.pktDropCounter = metricProvider.newCounter(buildDhcpMetricDescriptor("packet_drop"),
                 "mac", "interface", "reason");
         this.pktInCounter = metricProvider.newCounter(buildDhcpMetricDescriptor("packet_in"), "mac");
@@ -189,6 +206,10 @@ public class DhcpPktHandler implements PacketProcessingListener {
                 pktInCounter.label(macAddress).increment();
                 BigInteger tunnelId =
                         packet.getMatch().getTunnel() == null ? null : packet.getMatch().getTunnel().getTunnelId();
+                if (tunnelId == null && replyFromCache(portTag, pktIn, ethPkt, inPayload, macAddress)) {
+                    return;
+                }
+                long cacheGeneration = dhcpResponderCache.getGeneration();
                 String interfaceName = getInterfaceNameFromTag(portTag);
                 if (interfaceName == null) {
                     pktDropCounter.label(macAddress).label(UNKNOWN_LABEL).label(
@@ -239,19 +260,114 @@ public class DhcpPktHandler implements PacketProcessingListener {
                     return;
                 }
                 byte[] pktOut = getDhcpPacketOut(replyPkt, ethPkt, serverMacAddress);
-                sendPacketOut(pktOut, macAddress, interfaceInfo.getDpId(), interfaceName, tunnelId);
+                List<Action> action = getEgressAction(interfaceName, tunnelId);
+                if (action == null) {
+                    pktDropCounter.label(macAddress).label(interfaceName).label(
+                            PktDropReason.EGRESS_ACTIONS_NOT_FOUND.name()).increment();
+                    return;
+                }
+                if (tunnelId == null && port != null && subnet != null && !action.isEmpty()) {
+                    ResponderEntry entry = new ResponderEntry(interfaceName, interfaceInfo.getDpId(), port, subnet,
+                            serverIp, serverMacAddress, action);
+                    if (pktOut != null) {
+                        entry.putReplyTemplate(getRequestSignature(pktIn, ethPkt, inPayload), pktOut.clone());
+                    }
+                    dhcpResponderCache.put(portTag, entry, cacheGeneration);
+                }
+                sendPacketOut(pktOut, interfaceInfo.getDpId(), action);
+                dhcpResponderCache.replySent(false);
             }
         }
     }
 
-    private void sendPacketOut(byte[] pktOut, String mac, BigInteger dpnId, String interfaceName,
-                               BigInteger tunnelId) {
-        List<Action> action = getEgressAction(interfaceName, tunnelId);
-        if (action == null) {
-            pktDropCounter.label(mac).label(interfaceName).label(
-                    PktDropReason.EGRESS_ACTIONS_NOT_FOUND.name()).increment();
-            return;
+    /**
+     * Answers a DHCP discover or request of a neutron port from the responder cache, patching a copy of the reply
+     * already serialized for the same request if any.
+     *
+     * @return false if the port is not cached or the request is not answered from the cache
+     */
+    private boolean replyFromCache(long portTag, DHCP pktIn, Ethernet ethPkt, byte[] inPayload, String macAddress) {
+        ResponderEntry entry = dhcpResponderCache.get(portTag);
+        byte msgType = pktIn.getMsgType();
+        if (entry == null || msgType != DHCPConstants.MSG_DISCOVER && msgType != DHCPConstants.MSG_REQUEST) {
+            return false;
+        }
+        ByteBuffer requestSignature = getRequestSignature(pktIn, ethPkt, inPayload);
+        byte[] replyTemplate = entry.getReplyTemplate(requestSignature);
+        if (replyTemplate == null) {
+            DHCP replyPkt = handleDhcpPacket(pktIn, entry.getInterfaceName(), macAddress, entry.getPort(),
+                    entry.getSubnet(), entry.getServerIp());
+            replyTemplate = replyPkt != null ? getDhcpPacketOut(replyPkt, ethPkt, entry.getServerMacAddress()) : null;
+            if (replyTemplate == null) {
+                return false;
+            }
+            entry.putReplyTemplate(requestSignature, replyTemplate);
+        }
+        byte[] pktOut = patchReply(replyTemplate, getL2HeaderLength(ethPkt), pktIn.getXid(), pktIn.getFlags());
+        sendPacketOut(pktOut, entry.getDpnId(), entry.getEgressActions());
+        dhcpResponderCache.replySent(true);
+        return true;
+    }
+
+    /**
+     * Gives the fields of a request its reply depends on, but for the transaction id and the flags: the source MAC
+     * address, VLAN tag and ether type of the frame, the message type, the hardware address and the client and relay
+     * IP addresses, the parameter request list and the requested IP address.
+     */
+    private static ByteBuffer getRequestSignature(DHCP pktIn, Ethernet ethPkt, byte[] inPayload) {
+        int l2HeaderLength = getL2HeaderLength(ethPkt);
+        byte[] ciaddr = pktIn.getCiaddr();
+        byte[] giaddr = pktIn.getGiaddr();
+        byte[] chaddr = pktIn.getChaddr();
+        byte[] paramList = pktIn.getOptionBytes(DHCPConstants.OPT_PARAMETER_REQUEST_LIST);
+        byte[] requestedIp = pktIn.getOptionBytes(DHCPConstants.OPT_REQUESTED_ADDRESS);
+        ByteBuffer signature = ByteBuffer.allocate(l2HeaderLength - ETHERNET_SOURCE_MAC_OFFSET + 3
+                + ciaddr.length + giaddr.length + chaddr.length + 8 + (paramList != null ? paramList.length : 0)
+                + (requestedIp != null ? requestedIp.length : 0));
+        signature.put(inPayload, ETHERNET_SOURCE_MAC_OFFSET, l2HeaderLength - ETHERNET_SOURCE_MAC_OFFSET)
+                .put(pktIn.getMsgType()).put(pktIn.getHtype()).put(pktIn.getHlen()).put(ciaddr).put(giaddr)
+                .put(chaddr);
+        putOption(signature, paramList);
+        putOption(signature, requestedIp);
+        signature.flip();
+        return signature;
+    }
+
+    private static void putOption(ByteBuffer signature, byte[] option) {
+        if (option != null) {
+            signature.putInt(option.length).put(option);
+        } else {
+            signature.putInt(-1);
         }
+    }
+
+    private static int getL2HeaderLength(Ethernet ethPkt) {
+        return ethPkt.getEtherType() == (short) NwConstants.ETHTYPE_802_1Q ? VLAN_TAGGED_ETHERNET_HEADER_LENGTH
+                : ETHERNET_HEADER_LENGTH;
+    }
+
+    /**
+     * Copies a serialized reply, setting the transaction id and flags of the request and the UDP checksum.
+     */
+    private byte[] patchReply(byte[] replyTemplate, int l2HeaderLength, int xid, short flags) {
+        byte[] reply = replyTemplate.clone();
+        ByteBuffer buffer = ByteBuffer.wrap(reply);
+        int udpOffset = l2HeaderLength + (reply[l2HeaderLength] & 0x0F) * 4;
+        int udpLength = buffer.getShort(udpOffset + UDP_LENGTH_OFFSET) & 0xFFFF;
+        int dhcpOffset = udpOffset + UDP_HEADER_LENGTH;
+        buffer.putInt(dhcpOffset + DHCP_XID_OFFSET, xid);
+        buffer.putShort(dhcpOffset + DHCP_FLAGS_OFFSET, flags);
+        buffer.putShort(udpOffset + UDP_CHECKSUM_OFFSET, (short) 0);
+        byte[] srcAddr = Arrays.copyOfRange(reply, l2HeaderLength + IPV4_SOURCE_OFFSET,
+                l2HeaderLength + IPV4_SOURCE_OFFSET + 4);
+        byte[] destAddr = Arrays.copyOfRange(reply, l2HeaderLength + IPV4_DESTINATION_OFFSET,
+                l2HeaderLength + IPV4_DESTINATION_OFFSET + 4);
+        buffer.putShort(udpOffset + UDP_CHECKSUM_OFFSET,
+                computeChecksum(reply, udpOffset, udpLength, srcAddr, destAddr));
+        return reply;
+    }
+
+    private void sendPacketOut(byte[] pktOut, BigInteger dpnId, List<Action> action) {
         TransmitPacketInput output = MDSALUtil.getPacketOut(action, pktOut, dpnId);
         LOG.trace("Transmitting packet: {}", output);
         JdkFutures.addErrorLogging(pktService.transmitPacket(output), LOG, "Transmit packet");
@@ -586,18 +702,22 @@ public class DhcpPktHandler implements PacketProcessingListener {
     }
 
     public short computeChecksum(byte[] inData, byte[] srcAddr, byte[] destAddr) {
+        return computeChecksum(inData, 0, inData.length, srcAddr, destAddr);
+    }
+
+    private static short computeChecksum(byte[] inData, int offset, int length, byte[] srcAddr, byte[] destAddr) {
         int sum = 0;
         int carry = 0;
         int wordData;
         int index;
 
-        for (index = 0; index < inData.length - 1; index = index + 2) {
+        for (index = offset; index < offset + length - 1; index = index + 2) {
             // Skip, if the current bytes are checkSum bytes
             wordData = (inData[index] << 8 & 0xFF00) + (inData[index + 1] & 0xFF);
             sum = sum + wordData;
         }
 
-        if (index < inData.length) {
+        if (index < offset + length) {
             wordData = (inData[index] << 8 & 0xFF00) + (0 & 0xFF);
             sum = sum + wordData;
         }
@@ -611,7 +731,7 @@ public class DhcpPktHandler implements PacketProcessingListener {
             wordData = (destAddr[index] << 8 & 0xFF00) + (destAddr[index + 1] & 0xFF);
             sum = sum + wordData;
         }
-        sum = sum + 17 + inData.length;
+        sum = sum + 17 + length;
 
         while (sum >> 16 != 0) {
             carry = sum >> 16;
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.dhcpservice;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.infrautils.metrics.Meter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.ports.attributes.ports.Port;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.subnets.rev150712.subnets.attributes.subnets.Subnet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Everything {@link DhcpPktHandler} needs to answer the DHCP requests of a neutron port, keyed by the lport tag of
+ * the port: interface name, port, subnet, DHCP server IP and MAC, and egress actions. An entry is added on the first
+ * request of the port and dropped by the DHCP listeners on any change of the interface state, the port, its subnet,
+ * the DHCP port of the subnet or the DHCP configuration, so requests are answered without datastore reads or RPCs.
+ *
+ * <p>Each entry also keeps the serialized replies built for the port, keyed by the request fields they depend on,
+ * so a repeated request only has its transaction id, flags and UDP checksum patched in a copy of the reply.
+ */
+@Singleton
+public class DhcpResponderCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DhcpResponderCache.class);
+    // The serialized replies kept per port, more are only expected from misbehaving clients
+    private static final int MAX_REPLY_TEMPLATES = 16;
+
+    private final Map<Long, ResponderEntry> entries = new ConcurrentHashMap<>();
+    // Bumped on each invalidation, so that an entry built from data read before is not added
+    private final AtomicLong generation = new AtomicLong();
+    private final Meter cachedReplies;
+    private final Meter builtReplies;
+
+    @Inject
+    public DhcpResponderCache(MetricProvider metricProvider) {
+        this.cachedReplies = meter(metricProvider, "dhcp_replies_cached");
+        this.builtReplies = meter(metricProvider, "dhcp_replies_built");
+    }
+
+    private Meter meter(MetricProvider metricProvider, String id) {
+        return metricProvider.newMeter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("dhcpservice").id(id).build());
+    }
+
+    @Nullable
+    public ResponderEntry get(long lportTag) {
+        return entries.get(lportTag);
+    }
+
+    /**
+     * Gives the generation to pass to {@link #put}, to be taken before reading the data of an entry.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Adds an entry unless an invalidation happened since the given generation.
+     */
+    public void put(long lportTag, ResponderEntry entry, long readGeneration) {
+        entries.put(lportTag, entry);
+        if (generation.get() != readGeneration) {
+            entries.remove(lportTag, entry);
+        }
+    }
+
+    public void invalidateInterface(String interfaceName) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> entry.interfaceName.equals(interfaceName));
+        LOG.trace("invalidateInterface : dropped the DHCP responder entry of {}", interfaceName);
+    }
+
+    public void invalidateSubnet(String subnetId) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> entry.subnetId.equals(subnetId));
+        LOG.trace("invalidateSubnet : dropped the DHCP responder entries of subnet {}", subnetId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        LOG.trace("invalidateAll : dropped the DHCP responder entries");
+    }
+
+    void replySent(boolean cached) {
+        if (cached) {
+            cachedReplies.mark();
+        } else {
+            builtReplies.mark();
+        }
+    }
+
+    public static final class ResponderEntry {
+        private final String interfaceName;
+        private final BigInteger dpnId;
+        private final Port port;
+        private final Subnet subnet;
+        private final String subnetId;
+        private final String serverIp;
+        private final String serverMacAddress;
+        private final List<Action> egressActions;
+        private final Map<ByteBuffer, byte[]> replyTemplates = new ConcurrentHashMap<>();
+
+        public ResponderEntry(String interfaceName, BigInteger dpnId, Port port, Subnet subnet, String serverIp,
+                String serverMacAddress, List<Action> egressActions) {
+            this.interfaceName = interfaceName;
+            this.dpnId = dpnId;
+            this.port = port;
+            this.subnet = subnet;
+            this.subnetId = subnet.getUuid().getValue();
+            this.serverIp = serverIp;
+            this.serverMacAddress = serverMacAddress;
+            this.egressActions = egressActions;
+        }
+
+        public String getInterfaceName() {
+            return interfaceName;
+        }
+
+        public BigInteger getDpnId() {
+            return dpnId;
+        }
+
+        public Port getPort() {
+            return port;
+        }
+
+        public Subnet getSubnet() {
+            return subnet;
+        }
+
+        public String getServerIp() {
+            return serverIp;
+        }
+
+        public String getServerMacAddress() {
+            return serverMacAddress;
+        }
+
+        public List<Action> getEgressActions() {
+            return egressActions;
+        }
+
+        /**
+         * Gives the serialized reply to the requests with the given signature, to be copied before patching.
+         */
+        @SuppressFBWarnings("PZLA_PREFER_ZERO_LENGTH_ARRAYS")
+        @Nullable
+        byte[] getReplyTemplate(ByteBuffer requestSignature) {
+            return replyTemplates.get(requestSignature);
+        }
+
+        void putReplyTemplate(ByteBuffer requestSignature, byte[] reply) {
+            if (replyTemplates.size() >= MAX_REPLY_TEMPLATES) {
+                replyTemplates.clear();
+            }
+            replyTemplates.put(requestSignature, reply);
+        }
+    }
+}
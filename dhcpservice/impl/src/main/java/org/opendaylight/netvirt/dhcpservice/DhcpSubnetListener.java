@@ -55,16 +55,19 @@ public class DhcpSubnetListener extends AsyncClusteredDataTreeChangeListenerBase
     private final DhcpManager dhcpManager;
     private final DhcpExternalTunnelManager dhcpExternalTunnelManager;
     private final DhcpserviceConfig config;
+    private final DhcpResponderCache dhcpResponderCache;
 
     @Inject
     public DhcpSubnetListener(final DhcpManager dhcpManager, final DhcpExternalTunnelManager
-            dhcpExternalTunnelManager, final DataBroker broker, final DhcpserviceConfig config) {
+            dhcpExternalTunnelManager, final DataBroker broker, final DhcpserviceConfig config,
+            final DhcpResponderCache dhcpResponderCache) {
         super(Subnet.class, DhcpSubnetListener.class);
         this.dhcpManager = dhcpManager;
         this.dataBroker = broker;
         this.txRunner = new ManagedNewTransactionRunnerImpl(broker);
         this.dhcpExternalTunnelManager = dhcpExternalTunnelManager;
         this.config = config;
+        this.dhcpResponderCache = dhcpResponderCache;
     }
 
     @PostConstruct
@@ -81,7 +84,7 @@ public class DhcpSubnetListener extends AsyncClusteredDataTreeChangeListenerBase
 
     @Override
     protected void remove(InstanceIdentifier<Subnet> identifier, Subnet del) {
-
+        dhcpResponderCache.invalidateSubnet(del.getUuid().getValue());
     }
 
     @Override
@@ -93,6 +96,7 @@ public class DhcpSubnetListener extends AsyncClusteredDataTreeChangeListenerBase
     protected void update(InstanceIdentifier<Subnet> identifier, Subnet original, Subnet update) {
         LOG.trace("DhcpSubnetListener Update : Original dhcpstatus: {}, Updated dhcpstatus {}", original.isEnableDhcp(),
                 update.isEnableDhcp());
+        dhcpResponderCache.invalidateSubnet(update.getUuid().getValue());
 
         if (!Objects.equals(original.isEnableDhcp(), update.isEnableDhcp())) {
             // write api to get port list
@@ -257,6 +257,30 @@ public final class HwvtepHAUtil {
         return convertToInstanceIdentifier(psNodeId);
     }
 
+    /**
+     * Gives the global node id of the node holding the given path, the global node itself or a physical switch.
+     *
+     * @param iid a path in a global or physical switch node
+     * @return the global node id
+     */
+    public static String getGlobalNodeKey(InstanceIdentifier<?> iid) {
+        return convertToGlobalNodeId(iid.firstKeyOf(Node.class).getNodeId().getValue());
+    }
+
+    /**
+     * Gives the HA group of the node holding the given path, used to order the HA jobs of the node: the node id of
+     * the HA parent of the global node for an HA child or its physical switch, the global node id otherwise.
+     *
+     * @param iid a path in a global or physical switch node
+     * @param hwvtepNodeHACache the HA cache
+     * @return the HA group key
+     */
+    public static String getHAGroupKey(InstanceIdentifier<?> iid, HwvtepNodeHACache hwvtepNodeHACache) {
+        String globalNodeId = getGlobalNodeKey(iid);
+        InstanceIdentifier<Node> parentPath = hwvtepNodeHACache.getParent(convertToInstanceIdentifier(globalNodeId));
+        return parentPath != null ? parentPath.firstKeyOf(Node.class).getNodeId().getValue() : globalNodeId;
+    }
+
     @Nullable
     public static InstanceIdentifier<Node> convertPsPath(Node psNode, InstanceIdentifier<Node> nodePath) {
         String psNodeId = psNode.getNodeId().getValue();
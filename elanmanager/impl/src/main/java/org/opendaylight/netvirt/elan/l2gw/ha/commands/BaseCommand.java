@@ -9,7 +9,9 @@ package org.opendaylight.netvirt.elan.l2gw.ha.commands;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -50,6 +52,8 @@ public abstract class BaseCommand<T> {
 
     /**
      * Abstract method give diff between two List passed.
+     * The original list is indexed by {@link #getDiffKey}, so that each updated element is only compared with the
+     * original elements having the same diff key.
      * @param updated Updated List
      * @param original Origina list to be compared with
      * @return List of diff based
@@ -59,16 +63,23 @@ public abstract class BaseCommand<T> {
         if (updated == null) {
             return new ArrayList<>();
         }
-        if (original == null) {
+        if (original == null || original.isEmpty()) {
             return new ArrayList<>(updated);
         }
+        Map<Object, List<T>> originalByDiffKey = new HashMap<>();
+        for (T orig : original) {
+            originalByDiffKey.computeIfAbsent(getDiffKey(orig), key -> new ArrayList<>(1)).add(orig);
+        }
         List<T> result = new ArrayList<>();
         for (T ele : updated) {
             boolean present = false;
-            for (T orig : original) {
-                if (areEqual(ele, orig)) {
-                    present = true;
-                    break;
+            List<T> candidates = originalByDiffKey.get(getDiffKey(ele));
+            if (candidates != null) {
+                for (T orig : candidates) {
+                    if (areEqual(ele, orig)) {
+                        present = true;
+                        break;
+                    }
                 }
             }
             if (!present) {
@@ -80,4 +91,16 @@ public abstract class BaseCommand<T> {
 
     public abstract boolean areEqual(T objA, T objB);
 
+    /**
+     * Gives the key the elements are indexed by when diffing lists. Elements equal according to
+     * {@link #areEqual} must have equal diff keys. The default null key puts all the elements in one group, i.e.
+     * compares each updated element with all the original ones.
+     * @param data the element
+     * @return the diff key
+     */
+    @Nullable
+    protected Object getDiffKey(T data) {
+        return null;
+    }
+
 }
@@ -82,6 +82,11 @@ public class LocalMcastCmd
         return "LocalMcastMacs";
     }
 
+    @Override
+    protected Object getDiffKey(LocalMcastMacs data) {
+        return getMacDiffKey(data.getMacEntryKey(), data.getLogicalSwitchRef());
+    }
+
     @Override
     public boolean areEqual(LocalMcastMacs updated, LocalMcastMacs orig) {
         InstanceIdentifier<?> updatedMacRefIdentifier = updated.getLogicalSwitchRef().getValue();
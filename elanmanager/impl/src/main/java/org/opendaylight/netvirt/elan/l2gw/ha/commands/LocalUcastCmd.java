@@ -74,6 +74,11 @@ public class LocalUcastCmd
         return "LocalUcastMacs";
     }
 
+    @Override
+    protected Object getDiffKey(LocalUcastMacs data) {
+        return getMacDiffKey(data.getMacEntryKey(), data.getLogicalSwitchRef());
+    }
+
     @Override
     public boolean areEqual(LocalUcastMacs updated, LocalUcastMacs orig) {
         InstanceIdentifier<?> updatedMacRefIdentifier = updated.getLogicalSwitchRef().getValue();
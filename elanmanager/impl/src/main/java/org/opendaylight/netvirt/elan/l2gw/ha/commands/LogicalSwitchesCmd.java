@@ -60,6 +60,11 @@ public class LogicalSwitchesCmd extends MergeCommand<LogicalSwitches,
         return "LogicalSwitches";
     }
 
+    @Override
+    protected Object getDiffKey(LogicalSwitches data) {
+        return data.getHwvtepNodeName().getValue();
+    }
+
     @Override
     public boolean areEqual(LogicalSwitches updated, LogicalSwitches orig) {
         return updated.getHwvtepNodeName().getValue().equals(orig.getHwvtepNodeName().getValue());
@@ -12,9 +12,11 @@ import static org.opendaylight.netvirt.elan.l2gw.ha.HwvtepHAUtil.isEmptyList;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -22,6 +24,8 @@ import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.netvirt.elan.l2gw.ha.HwvtepHAUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.HwvtepLogicalSwitchRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.global.attributes.LogicalSwitches;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.physical.locator.set.attributes.LocatorSet;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.TpId;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
@@ -65,16 +69,13 @@ public abstract class MergeCommand<T extends DataObject, Y extends Builder, Z ex
             return new ArrayList<>(updated);
         }
 
+        Set<Identifier> originalKeys = new HashSet<>();
+        for (T orig : original) {
+            originalKeys.add(getKey(orig));
+        }
         List<T> result = new ArrayList<>();
         for (T ele : updated) {
-            boolean present = false;
-            for (T orig : original) {
-                if (Objects.equals(getKey(ele), getKey(orig))) {
-                    present = true;
-                    break;
-                }
-            }
-            if (!present) {
+            if (!originalKeys.contains(getKey(ele))) {
                 result.add(ele);
             }
         }
@@ -97,7 +98,7 @@ public abstract class MergeCommand<T extends DataObject, Y extends Builder, Z ex
         }
         List<T> added   = new ArrayList<>(updated);
 
-        added.removeAll(orig);
+        added.removeAll(new HashSet<>(orig));
         added = diffOf(added, existing);//do not add the existing data again
         if (added.size() > 0) {
             for (T addedItem : added) {
@@ -184,6 +185,15 @@ public abstract class MergeCommand<T extends DataObject, Y extends Builder, Z ex
     }
 
 
+    /**
+     * Gives the diff key of a MAC. The MACs are compared by MAC and logical switch name, as the logical switch refs
+     * of an HA child and of its parent differ.
+     */
+    static Object getMacDiffKey(@Nullable Object macEntryKey, HwvtepLogicalSwitchRef logicalSwitchRef) {
+        return Arrays.asList(macEntryKey,
+                logicalSwitchRef.getValue().firstKeyOf(LogicalSwitches.class).getHwvtepNodeName());
+    }
+
     static LocatorSetComparator locatorSetComparator = new LocatorSetComparator();
 
     static class LocatorSetComparator implements Comparator<LocatorSet>, Serializable {
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.netvirt.elan.l2gw.ha.commands;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import org.eclipse.jdt.annotation.Nullable;
@@ -56,6 +57,13 @@ public class PhysicalLocatorCmd extends MergeCommand<TerminationPoint, NodeBuild
         return "PhysicalLocator";
     }
 
+    @Override
+    protected Object getDiffKey(TerminationPoint data) {
+        HwvtepPhysicalLocatorAugmentation physicalLocator =
+                data.augmentation(HwvtepPhysicalLocatorAugmentation.class);
+        return Arrays.asList(physicalLocator.getDstIp(), physicalLocator.getEncapsulationType());
+    }
+
     @Override
     public boolean areEqual(TerminationPoint updated, TerminationPoint orig) {
         HwvtepPhysicalLocatorAugmentation updatedPhysicalLocator =
@@ -83,6 +83,11 @@ public class RemoteMcastCmd extends
         return "RemoteMcastMacs";
     }
 
+    @Override
+    protected Object getDiffKey(RemoteMcastMacs data) {
+        return getMacDiffKey(data.getMacEntryKey(), data.getLogicalSwitchRef());
+    }
+
     @Override
     public boolean areEqual(RemoteMcastMacs updated, RemoteMcastMacs orig) {
         InstanceIdentifier<?> updatedMacRefIdentifier = updated.getLogicalSwitchRef().getValue();
@@ -74,6 +74,11 @@ public class RemoteUcastCmd extends MergeCommand<RemoteUcastMacs,
         return "RemoteUcastMacs";
     }
 
+    @Override
+    protected Object getDiffKey(RemoteUcastMacs data) {
+        return getMacDiffKey(data.getMacEntryKey(), data.getLogicalSwitchRef());
+    }
+
     @Override
     public boolean areEqual(RemoteUcastMacs updated, RemoteUcastMacs orig) {
         InstanceIdentifier<?> updatedMacRefIdentifier = updated.getLogicalSwitchRef().getValue();
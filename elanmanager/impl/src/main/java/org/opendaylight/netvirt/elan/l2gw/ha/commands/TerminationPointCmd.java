@@ -95,6 +95,11 @@ public class TerminationPointCmd extends MergeCommand<TerminationPoint, NodeBuil
         return data;
     }
 
+    @Override
+    protected Object getDiffKey(TerminationPoint data) {
+        return data.key();
+    }
+
     @Override
     public boolean areEqual(TerminationPoint updated, TerminationPoint orig) {
         if (!updated.key().equals(orig.key())) {
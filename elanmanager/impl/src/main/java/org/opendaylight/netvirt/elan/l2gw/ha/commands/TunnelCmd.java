@@ -76,6 +76,11 @@ public class TunnelCmd  extends MergeCommand<Tunnels, PhysicalSwitchAugmentation
         return "Tunnels";
     }
 
+    @Override
+    protected Object getDiffKey(Tunnels data) {
+        return data.getRemoteLocatorRef().getValue().firstKeyOf(TerminationPoint.class).getTpId();
+    }
+
     @Override
     public boolean areEqual(Tunnels updated, Tunnels orig) {
         InstanceIdentifier<TerminationPoint> remoteLocatorRefUpdated = (InstanceIdentifier<TerminationPoint>)
@@ -57,6 +57,11 @@ public class TunnelIpCmd extends
         return "TunnelIps";
     }
 
+    @Override
+    protected Object getDiffKey(TunnelIps data) {
+        return data;
+    }
+
     @Override
     public boolean areEqual(TunnelIps updated, TunnelIps orig) {
         return Objects.equals(updated, orig);
@@ -91,7 +91,7 @@ public class NodeConnectedHandler {
                  as it is expecting the logical switch to be already present in operational ds
                  (created in the device)
                  */
-                HAJobScheduler.getInstance().submitJob(() -> {
+                HAJobScheduler.getInstance().submitJob(childNodePath, hwvtepNodeHACache, () -> {
                     LoggingFutures.addErrorLogging(
                         txRunner.callWithNewReadWriteTransactionAndSubmit(CONFIGURATION, jobTx -> {
                             hwvtepNodeHACache.updateConnectedNodeStatus(childNodePath);
@@ -24,6 +24,7 @@ import org.opendaylight.genius.infra.Datastore.Operational;
 import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
 import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
 import org.opendaylight.genius.infra.TypedReadWriteTransaction;
+import org.opendaylight.genius.utils.hwvtep.HwvtepNodeHACache;
 import org.opendaylight.infrautils.utils.concurrent.LoggingFutures;
 import org.opendaylight.netvirt.elan.l2gw.ha.HwvtepHAUtil;
 import org.opendaylight.netvirt.elan.l2gw.ha.listeners.HAJobScheduler;
@@ -53,10 +54,12 @@ public class NodeCopier {
     private final GlobalNodeMerger globalNodeMerger = GlobalNodeMerger.getInstance();
     private final PSNodeMerger psNodeMerger = PSNodeMerger.getInstance();
     private final ManagedNewTransactionRunner txRunner;
+    private final HwvtepNodeHACache hwvtepNodeHACache;
 
     @Inject
-    public NodeCopier(DataBroker db) {
+    public NodeCopier(DataBroker db, HwvtepNodeHACache hwvtepNodeHACache) {
         this.txRunner = new ManagedNewTransactionRunnerImpl(db);
+        this.hwvtepNodeHACache = hwvtepNodeHACache;
     }
 
     public <D extends Datastore> void copyGlobalNode(Optional<Node> srcGlobalNodeOptional,
@@ -69,7 +72,8 @@ public class NodeCopier {
             Futures.addCallback(tx.read(srcPath), new FutureCallback<Optional<Node>>() {
                 @Override
                 public void onSuccess(Optional<Node> nodeOptional) {
-                    HAJobScheduler.getInstance().submitJob(() -> LoggingFutures.addErrorLogging(
+                    HAJobScheduler jobScheduler = HAJobScheduler.getInstance();
+                    jobScheduler.handOffJob(srcPath, hwvtepNodeHACache, () -> LoggingFutures.addErrorLogging(
                         txRunner.callWithNewReadWriteTransactionAndSubmit(datastoreType, tx -> {
                             if (nodeOptional.isPresent()) {
                                 copyGlobalNode(nodeOptional, srcPath, dstPath, datastoreType, tx);
@@ -152,7 +156,7 @@ public class NodeCopier {
             Futures.addCallback(tx.read(srcPsPath), new FutureCallback<Optional<Node>>() {
                 @Override
                 public void onSuccess(Optional<Node> nodeOptional) {
-                    HAJobScheduler.getInstance().submitJob(() -> {
+                    HAJobScheduler.getInstance().handOffJob(srcPsPath, hwvtepNodeHACache, () -> {
                         LoggingFutures.addErrorLogging(
                             txRunner.callWithNewReadWriteTransactionAndSubmit(datastoreType, tx -> {
                                 if (nodeOptional.isPresent()) {
@@ -8,36 +8,439 @@
 package org.opendaylight.netvirt.elan.l2gw.ha.listeners;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opendaylight.genius.utils.hwvtep.HwvtepNodeHACache;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Labeled;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.opendaylight.netvirt.elan.l2gw.ha.HwvtepHAUtil;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
+/**
+ * Runs the HA jobs, i.e. the copies between the HA child and parent nodes. The jobs of one HA group, an HA parent
+ * and its children, run one after the other in their submission order, while the jobs of different groups run in
+ * parallel on the workers.
+ *
+ * <p>The group of a node changes when it becomes or stops being an HA child. The queued jobs of the node are then
+ * handed over to the lane of its new group, which waits for the job of the node running in the former lane, so
+ * that the jobs of a node keep their order.
+ *
+ * <p>The number of workers and the maximum number of queued jobs per group are read from the
+ * {@code hwvtep.ha.job.workers} and {@code hwvtep.ha.job.queue.size} system properties. A listener submitting a job
+ * waits while the queue of the group is full. HA jobs submitting follow-up jobs, and datastore callbacks which hand
+ * off their job, never wait, so that neither the workers nor the datastore threads are held. The latency of each
+ * job, from its submission to its end, is counted per group and latency bucket in the {@code ha_job_latency_millis}
+ * metric.
+ *
+ * <p>A deleted node is forgotten once its queued jobs have run, and the lane of its group is dropped once the group
+ * has no node left.
+ */
 public final class HAJobScheduler implements Thread.UncaughtExceptionHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(HAJobScheduler.class);
-    ExecutorService executorService;
 
-    static HAJobScheduler instance = new HAJobScheduler();
+    static final String DEFAULT_GROUP = "default";
+    // The upper bounds of the latency histogram buckets, the last bucket is unbounded
+    static final long[] LATENCY_BUCKET_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final int WORKERS = Integer.getInteger("hwvtep.ha.job.workers",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private static final int MAX_QUEUED_JOBS_PER_GROUP = Integer.getInteger("hwvtep.ha.job.queue.size", 10000);
+    // The jobs run by a worker before it yields to the other groups
+    private static final int JOBS_PER_TURN = 32;
+    private static final long SLOW_JOB_MILLIS = 5000;
+
+    private static final ThreadLocal<Boolean> IN_WORKER = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
-    private HAJobScheduler() {
+    static HAJobScheduler instance = new HAJobScheduler(WORKERS, MAX_QUEUED_JOBS_PER_GROUP);
+
+    private final ExecutorService executorService;
+    private final int maxQueuedJobsPerGroup;
+    private final ConcurrentMap<String, GroupLane> lanes = new ConcurrentHashMap<>();
+    // map<global node id, group of its latest job>, updated with the hand overs under the lock of this
+    private final Map<String, String> nodeGroups = new HashMap<>();
+    private volatile Labeled<Labeled<Counter>> jobLatency;
+
+    HAJobScheduler(int workers, int maxQueuedJobsPerGroup) {
         ThreadFactory threadFact = new ThreadFactoryBuilder()
                 .setNameFormat("hwvtep-ha-task-%d").setUncaughtExceptionHandler(this).build();
-        executorService = Executors.newSingleThreadScheduledExecutor(threadFact);
+        executorService = Executors.newFixedThreadPool(workers, threadFact);
+        this.maxQueuedJobsPerGroup = maxQueuedJobsPerGroup;
+        LOG.info("HAJobScheduler : {} workers, at most {} queued jobs per HA group", workers, maxQueuedJobsPerGroup);
     }
 
     public static HAJobScheduler getInstance() {
         return instance;
     }
 
+    void close() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Registers the job latency metric, once for all the HA listeners sharing the scheduler.
+     */
+    public synchronized void registerMetrics(MetricProvider metricProvider) {
+        if (jobLatency == null) {
+            jobLatency = metricProvider.newCounter(MetricDescriptor.builder().anchor(this).project("netvirt")
+                    .module("l2gw").id("ha_job_latency_millis").build(), "group", "le");
+        }
+    }
+
+    /**
+     * Submits a job which is not bound to an HA group; all such jobs run in order in the default group.
+     */
     public void submitJob(Runnable runnable) {
-        executorService.execute(runnable);
+        submitJob(DEFAULT_GROUP, Collections.emptySet(), true, runnable);
+    }
+
+    /**
+     * Submits a job of an HA group which is not bound to a node.
+     */
+    void submitJob(String haGroupKey, Runnable runnable) {
+        submitJob(haGroupKey, Collections.emptySet(), true, runnable);
+    }
+
+    /**
+     * Submits a job of the node holding the given path, waiting while the queue of its HA group is full.
+     *
+     * @param iid a path in a global or physical switch node
+     * @param hwvtepNodeHACache the HA cache, giving the HA group of the node
+     * @param runnable the job
+     */
+    public void submitJob(InstanceIdentifier<?> iid, HwvtepNodeHACache hwvtepNodeHACache, Runnable runnable) {
+        submitJob(HwvtepHAUtil.getHAGroupKey(iid, hwvtepNodeHACache),
+                Collections.singleton(HwvtepHAUtil.getGlobalNodeKey(iid)), true, runnable);
+    }
+
+    /**
+     * Submits a job of the node holding the given path without ever waiting, for the datastore callbacks and the
+     * callers holding a lock.
+     *
+     * @param iid a path in a global or physical switch node
+     * @param hwvtepNodeHACache the HA cache, giving the HA group of the node
+     * @param runnable the job
+     */
+    public void handOffJob(InstanceIdentifier<?> iid, HwvtepNodeHACache hwvtepNodeHACache, Runnable runnable) {
+        submitJob(HwvtepHAUtil.getHAGroupKey(iid, hwvtepNodeHACache),
+                Collections.singleton(HwvtepHAUtil.getGlobalNodeKey(iid)), false, runnable);
+    }
+
+    /**
+     * Submits a job of some nodes of an HA group.
+     *
+     * @param haGroupKey the HA group, see {@link HwvtepHAUtil#getHAGroupKey}
+     * @param nodeKeys the global node ids of the nodes the job is about, see {@link HwvtepHAUtil#getGlobalNodeKey}
+     * @param mayWait whether to wait while the queue of the group is full
+     * @param runnable the job
+     */
+    void submitJob(String haGroupKey, Set<String> nodeKeys, boolean mayWait, Runnable runnable) {
+        Job job = new Job(nodeKeys, runnable);
+        GroupLane lane;
+        if (nodeKeys.isEmpty()) {
+            lane = lanes.computeIfAbsent(haGroupKey, GroupLane::new);
+        } else {
+            // Under the lock of this, so that the lane is not dropped before the node is mapped to its group
+            synchronized (this) {
+                lane = lanes.computeIfAbsent(haGroupKey, GroupLane::new);
+                for (String nodeKey : nodeKeys) {
+                    String formerGroupKey = nodeGroups.put(nodeKey, haGroupKey);
+                    if (formerGroupKey != null && !formerGroupKey.equals(haGroupKey)) {
+                        handOver(nodeKey, lanes.get(formerGroupKey), lane);
+                    }
+                }
+            }
+        }
+        // A dropped lane takes no more jobs, the job then goes to the new lane of the group
+        while (!lane.enqueue(job, mayWait)) {
+            lane = lanes.computeIfAbsent(haGroupKey, GroupLane::new);
+        }
+    }
+
+    // Called with the lock of this held
+    private void handOver(String nodeKey, GroupLane formerLane, GroupLane lane) {
+        if (formerLane == null) {
+            return;
+        }
+        List<Job> jobs = formerLane.takeJobsOf(nodeKey, lane);
+        LOG.debug("handOver : node {} moved from HA group {} to {}, {} queued jobs handed over", nodeKey,
+                formerLane.haGroupKey, lane.haGroupKey, jobs.size());
+        lane.enqueueAll(jobs);
+    }
+
+    /**
+     * Forgets a deleted node once the jobs queued in its HA group have run, and drops the lane of the group if no
+     * node is left in it.
+     *
+     * @param haGroupKey the HA group of the node, see {@link HwvtepHAUtil#getHAGroupKey}
+     * @param nodeKey the global node id of the node, see {@link HwvtepHAUtil#getGlobalNodeKey}
+     */
+    public void nodeDeleted(String haGroupKey, String nodeKey) {
+        submitJob(haGroupKey, Collections.emptySet(), false, () -> forgetNode(haGroupKey, nodeKey));
+    }
+
+    // Run as a job of the lane of the group
+    private synchronized void forgetNode(String haGroupKey, String nodeKey) {
+        nodeGroups.remove(nodeKey, haGroupKey);
+        if (DEFAULT_GROUP.equals(haGroupKey) || nodeGroups.containsValue(haGroupKey)) {
+            return;
+        }
+        GroupLane lane = lanes.get(haGroupKey);
+        if (lane != null && lane.retire()) {
+            lanes.remove(haGroupKey, lane);
+            LOG.debug("forgetNode : HA group {} has no node left after the delete of {}, its lane is dropped",
+                    haGroupKey, nodeKey);
+        }
+    }
+
+    int getQueuedJobs(String haGroupKey) {
+        GroupLane lane = lanes.get(haGroupKey);
+        return lane != null ? lane.queuedJobs() : 0;
+    }
+
+    boolean hasLane(String haGroupKey) {
+        return lanes.containsKey(haGroupKey);
     }
 
     @Override
     public void uncaughtException(Thread thread, Throwable throwable) {
         LOG.error("Failed to execute task", throwable);
     }
+
+    static int latencyBucket(long latencyMillis) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKET_MILLIS.length && latencyMillis > LATENCY_BUCKET_MILLIS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static final class Job {
+        private final Set<String> nodeKeys;
+        private final Runnable runnable;
+        private final long submitTime = System.nanoTime();
+
+        Job(Set<String> nodeKeys, Runnable runnable) {
+            this.nodeKeys = nodeKeys;
+            this.runnable = runnable;
+        }
+    }
+
+    /**
+     * The queue of the jobs of one HA group, run by at most one worker at a time.
+     */
+    private final class GroupLane implements Runnable {
+        private final String haGroupKey;
+        // The number of running jobs of other lanes this lane waits for, see takeJobsOf
+        private final AtomicInteger holds = new AtomicInteger();
+        // All guarded by this
+        private final Deque<Job> jobs = new ArrayDeque<>();
+        private boolean scheduled;
+        private Job runningJob;
+        private final List<GroupLane> heldLanes = new ArrayList<>();
+        private boolean retired;
+
+        GroupLane(String haGroupKey) {
+            this.haGroupKey = haGroupKey;
+        }
+
+        /**
+         * Queues the job, waiting for room if allowed and not called from a job.
+         *
+         * @return false if the lane was dropped, the job is then not queued
+         */
+        boolean enqueue(Job job, boolean mayWait) {
+            synchronized (this) {
+                if (jobs.size() >= maxQueuedJobsPerGroup) {
+                    if (!mayWait || IN_WORKER.get()) {
+                        LOG.warn("enqueue : HA group {} over its limit of {} queued jobs", haGroupKey,
+                                maxQueuedJobsPerGroup);
+                    } else {
+                        LOG.debug("enqueue : waiting for room in the job queue of HA group {}", haGroupKey);
+                        while (jobs.size() >= maxQueuedJobsPerGroup) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) {
+                                LOG.warn("enqueue : interrupted while waiting for room in the job queue of HA group "
+                                        + "{}", haGroupKey);
+                                Thread.currentThread().interrupt();
+                                break;
+                            }
+                        }
+                    }
+                }
+                if (retired) {
+                    return false;
+                }
+                jobs.add(job);
+                if (!schedule()) {
+                    return true;
+                }
+            }
+            executorService.execute(this);
+            return true;
+        }
+
+        /**
+         * Queues the jobs handed over from another lane, without waiting. Called with the lock of the scheduler held,
+         * so the lane cannot have been dropped.
+         */
+        void enqueueAll(List<Job> handedOverJobs) {
+            synchronized (this) {
+                jobs.addAll(handedOverJobs);
+                if (!schedule()) {
+                    return;
+                }
+            }
+            executorService.execute(this);
+        }
+
+        /**
+         * Drops the lane if it has no queued job and neither holds nor waits for another lane. Called from the last
+         * job of the lane with the lock of the scheduler held.
+         *
+         * @return true if the lane was dropped
+         */
+        synchronized boolean retire() {
+            retired = jobs.isEmpty() && heldLanes.isEmpty() && holds.get() == 0;
+            return retired;
+        }
+
+        /**
+         * Removes the queued jobs of a node moving to another lane. If a job of the node is running, the other lane
+         * is held until it ends.
+         *
+         * @return the jobs of the node, in their order
+         */
+        synchronized List<Job> takeJobsOf(String nodeKey, GroupLane lane) {
+            List<Job> nodeJobs = new ArrayList<>();
+            Iterator<Job> iterator = jobs.iterator();
+            while (iterator.hasNext()) {
+                Job job = iterator.next();
+                if (job.nodeKeys.contains(nodeKey)) {
+                    nodeJobs.add(job);
+                    iterator.remove();
+                }
+            }
+            if (!nodeJobs.isEmpty()) {
+                notifyAll();
+            }
+            if (runningJob != null && runningJob.nodeKeys.contains(nodeKey)) {
+                lane.holds.incrementAndGet();
+                heldLanes.add(lane);
+            }
+            return nodeJobs;
+        }
+
+        private void release() {
+            holds.decrementAndGet();
+            boolean schedule;
+            synchronized (this) {
+                schedule = schedule();
+            }
+            if (schedule) {
+                executorService.execute(this);
+            }
+        }
+
+        // Called with the lock held
+        private boolean schedule() {
+            if (scheduled || jobs.isEmpty() || holds.get() > 0) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        private synchronized Job poll() {
+            runningJob = holds.get() > 0 ? null : jobs.poll();
+            notifyAll();
+            return runningJob;
+        }
+
+        private List<GroupLane> jobDone() {
+            List<GroupLane> lanesToRelease;
+            synchronized (this) {
+                runningJob = null;
+                if (heldLanes.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                lanesToRelease = new ArrayList<>(heldLanes);
+                heldLanes.clear();
+            }
+            return lanesToRelease;
+        }
+
+        /**
+         * Releases the lane once it is empty or held.
+         *
+         * @return true if the lane has more jobs and must be handed to a worker again
+         */
+        private synchronized boolean endTurn() {
+            scheduled = false;
+            return schedule();
+        }
+
+        synchronized int queuedJobs() {
+            return jobs.size();
+        }
+
+        @Override
+        @SuppressWarnings("checkstyle:IllegalCatch")
+        public void run() {
+            IN_WORKER.set(Boolean.TRUE);
+            try {
+                for (int i = 0; i < JOBS_PER_TURN; i++) {
+                    Job job = poll();
+                    if (job == null) {
+                        break;
+                    }
+                    try {
+                        job.runnable.run();
+                    } catch (RuntimeException e) {
+                        LOG.error("run : failed to execute a job of HA group {}", haGroupKey, e);
+                    } finally {
+                        jobDone().forEach(GroupLane::release);
+                    }
+                    jobEnded(job);
+                }
+            } finally {
+                // Also when a job throws an Error, so that the lane is not left scheduled with no worker
+                if (endTurn()) {
+                    executorService.execute(this);
+                }
+            }
+        }
+
+        private void jobEnded(Job job) {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - job.submitTime);
+            Labeled<Labeled<Counter>> latency = jobLatency;
+            if (latency != null) {
+                int bucket = latencyBucket(latencyMillis);
+                latency.label(haGroupKey).label(bucket < LATENCY_BUCKET_MILLIS.length
+                        ? String.valueOf(LATENCY_BUCKET_MILLIS[bucket]) : "inf").increment();
+            }
+            if (latencyMillis > SLOW_JOB_MILLIS) {
+                LOG.debug("run : job of HA group {} done {} ms after its submission", haGroupKey, latencyMillis);
+            }
+        }
+    }
 }
@@ -85,8 +85,8 @@ public class HAOpClusteredListener extends HwvtepNodeBaseListener<Operational>
                 HAJobScheduler jobScheduler = HAJobScheduler.getInstance();
                 Optional<Node> nodeOptional = tx.read(key).get();
                 if (nodeOptional.isPresent()) {
-                    waitingJobs.get(key).forEach(
-                        (waitingJob) -> jobScheduler.submitJob(() -> waitingJob.accept(nodeOptional)));
+                    waitingJobs.get(key).forEach((waitingJob) -> jobScheduler.handOffJob(key, getHwvtepNodeHACache(),
+                        () -> waitingJob.accept(nodeOptional)));
                     waitingJobs.get(key).clear();
                 } else {
                     LOG.error("Failed to read oper node {}", key);
@@ -135,7 +135,7 @@ public class HAOpClusteredListener extends HwvtepNodeBaseListener<Operational>
 
     public synchronized void runAfterNodeIsConnected(InstanceIdentifier<Node> iid, Consumer<Optional<Node>> consumer) {
         if (connectedNodes.contains(iid)) {
-            HAJobScheduler.getInstance().submitJob(() -> {
+            HAJobScheduler.getInstance().handOffJob(iid, getHwvtepNodeHACache(), () -> {
                 try (ReadOnlyTransaction tx = getDataBroker().newReadOnlyTransaction()) {
                     consumer.accept(tx.read(LogicalDatastoreType.OPERATIONAL, iid).checkedGet());
                 } catch (ReadFailedException e) {
@@ -8,8 +8,14 @@
 package org.opendaylight.netvirt.elan.l2gw.ha.listeners;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import javax.annotation.PreDestroy;
@@ -89,6 +95,7 @@ public abstract class HwvtepNodeBaseListener<D extends Datastore>
         this.nodeModCounter = metricProvider.newMeter(
                 MetricDescriptor.builder().anchor(this).project("netvirt").module("l2gw").id("node").build(),
                 "datastore", "modification", "nodeid");
+        HAJobScheduler.getInstance().registerMetrics(metricProvider);
         final DataTreeIdentifier<Node> treeId =
             new DataTreeIdentifier<>(Datastore.toType(datastoreType), getWildcardPath());
         TaskRetryLooper looper = new TaskRetryLooper(STARTUP_LOOP_TICK, STARTUP_LOOP_MAX_RETRIES);
@@ -137,14 +144,36 @@ public abstract class HwvtepNodeBaseListener<D extends Datastore>
         }
     }
 
+    /**
+     * Processes the changes of each HA group in its own job and transaction, so that the groups are processed in
+     * parallel while the changes of one group keep their order.
+     */
     @Override
     public void onDataTreeChanged(final Collection<DataTreeModification<Node>> changes) {
-        HAJobScheduler.getInstance().submitJob(() -> LoggingFutures.addErrorLogging(
-            txRunner.callWithNewReadWriteTransactionAndSubmit(datastoreType, tx -> {
-                processConnectedNodes(changes, tx);
-                processUpdatedNodes(changes, tx);
-                processDisconnectedNodes(changes, tx);
-            }), LOG, "Error processing data-tree changes"));
+        Map<String, List<DataTreeModification<Node>>> changesByGroup = new LinkedHashMap<>();
+        Map<String, Set<String>> nodesByGroup = new HashMap<>();
+        Map<String, String> deletedNodeGroups = new HashMap<>();
+        for (DataTreeModification<Node> change : changes) {
+            InstanceIdentifier<Node> key = change.getRootPath().getRootIdentifier();
+            String haGroupKey = HwvtepHAUtil.getHAGroupKey(key, hwvtepNodeHACache);
+            String nodeKey = HwvtepHAUtil.getGlobalNodeKey(key);
+            changesByGroup.computeIfAbsent(haGroupKey, groupKey -> new ArrayList<>()).add(change);
+            nodesByGroup.computeIfAbsent(haGroupKey, groupKey -> new HashSet<>()).add(nodeKey);
+            if (change.getRootNode().getModificationType() == DataObjectModification.ModificationType.DELETE
+                    && !key.firstKeyOf(Node.class).getNodeId().getValue().contains(HwvtepHAUtil.PHYSICALSWITCH)) {
+                deletedNodeGroups.put(nodeKey, haGroupKey);
+            }
+        }
+        changesByGroup.forEach((haGroupKey, groupChanges) -> HAJobScheduler.getInstance().submitJob(haGroupKey,
+            nodesByGroup.get(haGroupKey), true, () -> LoggingFutures.addErrorLogging(
+                txRunner.callWithNewReadWriteTransactionAndSubmit(datastoreType, tx -> {
+                    processConnectedNodes(groupChanges, tx);
+                    processUpdatedNodes(groupChanges, tx);
+                    processDisconnectedNodes(groupChanges, tx);
+                }), LOG, "Error processing data-tree changes of HA group {}", haGroupKey)));
+        // Queued behind the jobs of the changes, so that the scheduler forgets the deleted nodes once they have run
+        deletedNodeGroups.forEach((nodeKey, haGroupKey) -> HAJobScheduler.getInstance().nodeDeleted(haGroupKey,
+                nodeKey));
     }
 
     private void processUpdatedNodes(Collection<DataTreeModification<Node>> changes,
@@ -76,12 +76,13 @@ public abstract class HwvtepNodeDataListener<D extends Datastore, T extends Data
 
     @Override
     protected void add(InstanceIdentifier<T> identifier, T dataAdded) {
-        HAJobScheduler.getInstance().submitJob(() -> addOperation.accept(identifier, dataAdded));
+        HAJobScheduler.getInstance().submitJob(identifier, hwvtepNodeHACache,
+            () -> addOperation.accept(identifier, dataAdded));
     }
 
     @Override
     protected void update(InstanceIdentifier<T> key, T before, T after) {
-        HAJobScheduler.getInstance().submitJob(() -> {
+        HAJobScheduler.getInstance().submitJob(key, hwvtepNodeHACache, () -> {
             if (Objects.equals(before, after)) {
                 //incase of cluter reboots tx.put will rewrite the data and fire unnecessary updates
                 return;
@@ -92,7 +93,8 @@ public abstract class HwvtepNodeDataListener<D extends Datastore, T extends Data
 
     @Override
     protected void remove(InstanceIdentifier<T> identifier, T dataRemoved) {
-        HAJobScheduler.getInstance().submitJob(() -> removeOperation.accept(identifier, dataRemoved));
+        HAJobScheduler.getInstance().submitJob(identifier, hwvtepNodeHACache,
+            () -> removeOperation.accept(identifier, dataRemoved));
     }
 
     private boolean isNodeConnected(InstanceIdentifier<T> identifier)
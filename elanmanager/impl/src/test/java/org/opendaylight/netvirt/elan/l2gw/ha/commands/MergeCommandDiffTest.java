@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.elan.l2gw.ha.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.netvirt.elan.l2gw.ha.HwvtepHAUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.HwvtepGlobalAugmentation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.HwvtepLogicalSwitchRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.HwvtepNodeName;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.global.attributes.LogicalSwitches;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.global.attributes.LogicalSwitchesKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.global.attributes.RemoteUcastMacs;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.global.attributes.RemoteUcastMacsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.ovsdb.hwvtep.rev150901.hwvtep.global.attributes.RemoteUcastMacsKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Checks the list diffs done by {@link MergeCommand#transformUpdate} on each HA child or parent update, indexed by
+ * {@link BaseCommand#getDiffKey} and {@link MergeCommand#getKey}, against the pairwise comparison of the elements
+ * they replaced. The remote ucast MACs of a ToR are updated with some of them replaced by new ones.
+ */
+public class MergeCommandDiffTest {
+    private static final int ENTRIES = 500;
+    private static final int REPLACED = 25;
+    private static final InstanceIdentifier<Node> NODE_PATH = HwvtepHAUtil.convertToInstanceIdentifier("d1");
+
+    private final RemoteUcastCmd cmd = new RemoteUcastCmd();
+    private final List<RemoteUcastMacs> original = new ArrayList<>(ENTRIES);
+    private final List<RemoteUcastMacs> updated = new ArrayList<>(ENTRIES);
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < ENTRIES; i++) {
+            original.add(remoteUcastMac(i));
+        }
+        updated.addAll(original.subList(REPLACED, ENTRIES));
+        for (int i = ENTRIES; i < ENTRIES + REPLACED; i++) {
+            updated.add(remoteUcastMac(i));
+        }
+    }
+
+    @Test
+    public void testDiffOfMatchesPairwiseDiff() {
+        List<RemoteUcastMacs> added = cmd.diffOf(updated, original);
+        assertEquals(pairwiseDiffOf(cmd, updated, original), added);
+        assertEquals(updated.subList(ENTRIES - REPLACED, ENTRIES), added);
+        assertEquals(pairwiseDiffOf(cmd, original, updated), cmd.diffOf(original, updated));
+        assertTrue(cmd.diffOf(original, original).isEmpty());
+    }
+
+    @Test
+    public void testDiffByKeyMatchesPairwiseDiff() {
+        List<RemoteUcastMacs> removed = cmd.diffByKey(original, updated);
+        assertEquals(pairwiseDiffByKey(cmd, original, updated), removed);
+        assertEquals(original.subList(0, REPLACED), removed);
+        assertEquals(pairwiseDiffByKey(cmd, updated, original), cmd.diffByKey(updated, original));
+    }
+
+    private static <T> List<T> pairwiseDiffOf(BaseCommand<T> cmd, List<T> updated, List<T> original) {
+        List<T> result = new ArrayList<>();
+        for (T ele : updated) {
+            boolean present = false;
+            for (T orig : original) {
+                if (cmd.areEqual(ele, orig)) {
+                    present = true;
+                    break;
+                }
+            }
+            if (!present) {
+                result.add(ele);
+            }
+        }
+        return result;
+    }
+
+    private static <T> List<T> pairwiseDiffByKey(MergeCommand<T, ?, ?> cmd, List<T> updated, List<T> original) {
+        List<T> result = new ArrayList<>();
+        for (T ele : updated) {
+            boolean present = false;
+            for (T orig : original) {
+                if (Objects.equals(cmd.getKey(ele), cmd.getKey(orig))) {
+                    present = true;
+                    break;
+                }
+            }
+            if (!present) {
+                result.add(ele);
+            }
+        }
+        return result;
+    }
+
+    private static RemoteUcastMacs remoteUcastMac(int index) {
+        HwvtepLogicalSwitchRef logicalSwitchRef = new HwvtepLogicalSwitchRef(NODE_PATH
+                .augmentation(HwvtepGlobalAugmentation.class)
+                .child(LogicalSwitches.class, new LogicalSwitchesKey(new HwvtepNodeName("ls" + index % 10))));
+        MacAddress mac = new MacAddress(String.format("00:00:%02x:%02x:%02x:%02x", index >> 24 & 0xff,
+                index >> 16 & 0xff, index >> 8 & 0xff, index & 0xff));
+        return new RemoteUcastMacsBuilder().withKey(new RemoteUcastMacsKey(logicalSwitchRef, mac))
+                .setMacEntryKey(mac).setLogicalSwitchRef(logicalSwitchRef).build();
+    }
+}
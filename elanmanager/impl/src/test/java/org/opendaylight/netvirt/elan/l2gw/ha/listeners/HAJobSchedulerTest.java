@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.elan.l2gw.ha.listeners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class HAJobSchedulerTest {
+
+    private static final Set<String> CHILD = Collections.singleton("child1");
+
+    private final HAJobScheduler scheduler = new HAJobScheduler(2, 1000);
+
+    @After
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    public void testJobsOfAGroupRunInOrder() throws InterruptedException {
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            scheduler.submitJob("ha1", () -> executed.add(index));
+        }
+        scheduler.submitJob("ha1", done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), executed.get(i));
+        }
+    }
+
+    @Test
+    public void testGroupsRunInParallel() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherGroupDone = new CountDownLatch(1);
+        scheduler.submitJob("ha1", () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        scheduler.submitJob("ha2", otherGroupDone::countDown);
+        assertTrue(otherGroupDone.await(10, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void testFailedJobDoesNotStopTheGroup() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitJob("ha1", () -> {
+            throw new IllegalStateException("expected");
+        });
+        scheduler.submitJob("ha1", done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testErrorDoesNotStopTheGroup() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitJob("ha1", () -> {
+            throw new AssertionError("expected");
+        });
+        scheduler.submitJob("ha1", done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLaneOfAGroupWithNoNodeLeftIsDropped() throws InterruptedException {
+        scheduler.submitJob("ha1", CHILD, true, () -> { });
+        scheduler.submitJob("ha1", Collections.singleton("child2"), true, () -> { });
+        scheduler.nodeDeleted("ha1", "child1");
+        awaitJobsOf("ha1");
+        assertTrue(scheduler.hasLane("ha1"));
+
+        scheduler.nodeDeleted("ha1", "child2");
+        for (int i = 0; i < 100 && scheduler.hasLane("ha1"); i++) {
+            Thread.sleep(100);
+        }
+        assertFalse(scheduler.hasLane("ha1"));
+
+        // A later job of the group gets a new lane
+        awaitJobsOf("ha1");
+    }
+
+    private void awaitJobsOf(String haGroupKey) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitJob(haGroupKey, done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testJobsOfANodeFollowItToItsNewGroup() throws InterruptedException {
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitJob("child1", CHILD, true, () -> {
+            running.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executed.add("running");
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        scheduler.submitJob("child1", CHILD, true, () -> executed.add("queued"));
+
+        // The node became an HA child of ha1
+        scheduler.submitJob("ha1", CHILD, true, () -> {
+            executed.add("new");
+            done.countDown();
+        });
+        assertEquals(0, scheduler.getQueuedJobs("child1"));
+        assertEquals(2, scheduler.getQueuedJobs("ha1"));
+        release.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("running", "queued", "new"), executed);
+    }
+
+    @Test
+    public void testHandedOffJobDoesNotWaitForRoom() throws InterruptedException {
+        HAJobScheduler smallScheduler = new HAJobScheduler(1, 1);
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(2);
+            smallScheduler.submitJob("ha1", CHILD, true, () -> {
+                running.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            smallScheduler.submitJob("ha1", CHILD, false, done::countDown);
+            // Over the limit of the queue, but the caller is not held
+            smallScheduler.submitJob("ha1", CHILD, false, done::countDown);
+            assertEquals(2, smallScheduler.getQueuedJobs("ha1"));
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            smallScheduler.close();
+        }
+    }
+
+    @Test
+    public void testLatencyBuckets() {
+        assertEquals(0, HAJobScheduler.latencyBucket(0));
+        assertEquals(0, HAJobScheduler.latencyBucket(1));
+        assertEquals(3, HAJobScheduler.latencyBucket(7));
+        assertEquals(HAJobScheduler.LATENCY_BUCKET_MILLIS.length, HAJobScheduler.latencyBucket(60000));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.fibmanager;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Writes chunks with a bounded number of them in flight, without blocking the calling thread.
+ *
+ * <p>The chunks are spread over maxInFlight lanes. The first chunk of each lane is written by the calling thread,
+ * the next ones are chained to the completion of the previous chunk of their lane and written on the executor.
+ * A chunk which fails fails its future and the futures of the chunks queued behind it in its lane, which are not
+ * written.
+ */
+final class ChunkedWriter {
+
+    private ChunkedWriter() {
+    }
+
+    /**
+     * Writes the chunks.
+     *
+     * @return the futures of the chunks, in the order of the chunks
+     */
+    static <T> List<ListenableFuture<Void>> write(List<T> chunks, int maxInFlight,
+            Function<T, ListenableFuture<Void>> chunkWriter, Executor executor) {
+        List<ListenableFuture<Void>> futures = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            T chunk = chunks.get(i);
+            ListenableFuture<Void> future;
+            if (i < maxInFlight) {
+                future = chunkWriter.apply(chunk);
+            } else {
+                future = Futures.transformAsync(futures.get(i - maxInFlight), ignored -> chunkWriter.apply(chunk),
+                        executor);
+            }
+            futures.add(future);
+        }
+        return futures;
+    }
+}
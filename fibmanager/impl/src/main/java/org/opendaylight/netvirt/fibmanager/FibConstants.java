@@ -23,6 +23,9 @@ public interface FibConstants {
     String SEPARATOR = ".";
     String DEFAULT_NEXTHOP_IP = "0.0.0.0";
     long INVALID_GROUP_ID = -1;
+    // VRF entries written per transaction, and transactions in flight, when populating the FIB of a new DPN
+    int POPULATE_FIB_CHUNK_SIZE = 500;
+    int POPULATE_FIB_MAX_CHUNKS_IN_FLIGHT = 4;
 
     Map<Integer, Class<? extends NxmNxReg>> NXM_REG_MAPPING = ImmutableMap.of(0, NxmNxReg0.class, 1, NxmNxReg1.class);
 }
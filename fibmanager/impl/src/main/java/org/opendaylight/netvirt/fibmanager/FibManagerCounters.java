@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.fibmanager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Meter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+
+/**
+ * Metrics of the FIB population on a DPN joining a VPN. The time to first traffic is measured from the request
+ * to populate the FIB to the commit of its first chunk of flows, the duration up to the commit of the last one.
+ * Both are summed over the DPN onboardings, their averages are the totals divided by the number of onboardings.
+ */
+@Singleton
+public class FibManagerCounters {
+    private final Meter dpnOnboardingMeter;
+    private final Meter dpnOnboardingChunkMeter;
+    private final Meter dpnOnboardingFailedMeter;
+    private final Counter firstTrafficMillisTotal;
+    private final Counter onboardingDurationMillisTotal;
+
+    @Inject
+    public FibManagerCounters(MetricProvider metricProvider) {
+        this.dpnOnboardingMeter = meter(metricProvider, "dpn_onboarding");
+        this.dpnOnboardingChunkMeter = meter(metricProvider, "dpn_onboarding_chunk");
+        this.dpnOnboardingFailedMeter = meter(metricProvider, "dpn_onboarding_failed");
+        this.firstTrafficMillisTotal = counter(metricProvider, "dpn_onboarding_first_traffic_millis_total");
+        this.onboardingDurationMillisTotal = counter(metricProvider, "dpn_onboarding_duration_millis_total");
+    }
+
+    private Meter meter(MetricProvider metricProvider, String id) {
+        return metricProvider.newMeter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("fibmanager").id(id).build());
+    }
+
+    private Counter counter(MetricProvider metricProvider, String id) {
+        return metricProvider.newCounter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("fibmanager").id(id).build());
+    }
+
+    public void dpnOnboarding() {
+        dpnOnboardingMeter.mark();
+    }
+
+    public void dpnOnboardingChunkWritten() {
+        dpnOnboardingChunkMeter.mark();
+    }
+
+    public void dpnOnboardingFailed() {
+        dpnOnboardingFailedMeter.mark();
+    }
+
+    public void firstTraffic(long millis) {
+        firstTrafficMillisTotal.increment(millis);
+    }
+
+    public void dpnOnboarded(long durationMillis) {
+        onboardingDurationMillisTotal.increment(durationMillis);
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.math.BigInteger;
 import java.net.InetAddress;
@@ -32,6 +33,10 @@ import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -150,7 +155,11 @@ public class VrfEntryListener extends AsyncDataTreeChangeListenerBase<VrfEntry,
     private final InterVpnLinkCache interVpnLinkCache;
     private final List<AutoCloseable> closeables = new CopyOnWriteArrayList<>();
     private final UpgradeState upgradeState;
+    private final FibManagerCounters fibManagerCounters;
     private final DataTreeEventCallbackRegistrar eventCallbacks;
+    private final ExecutorService populateFibExecutor = Executors.newFixedThreadPool(
+            FibConstants.POPULATE_FIB_MAX_CHUNKS_IN_FLIGHT,
+            new ThreadFactoryBuilder().setNameFormat("NV-FibPopulate-%d").build());
 
     @Inject
     public VrfEntryListener(final DataBroker dataBroker, final IMdsalApiManager mdsalApiManager,
@@ -163,7 +172,8 @@ public class VrfEntryListener extends AsyncDataTreeChangeListenerBase<VrfEntry,
                             final FibUtil fibUtil,
                             final InterVpnLinkCache interVpnLinkCache,
                             final UpgradeState upgradeState,
-                            final DataTreeEventCallbackRegistrar eventCallbacks) {
+                            final DataTreeEventCallbackRegistrar eventCallbacks,
+                            final FibManagerCounters fibManagerCounters) {
         super(VrfEntry.class, VrfEntryListener.class);
         this.dataBroker = dataBroker;
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
@@ -179,6 +189,7 @@ public class VrfEntryListener extends AsyncDataTreeChangeListenerBase<VrfEntry,
         this.interVpnLinkCache = interVpnLinkCache;
         this.upgradeState = upgradeState;
         this.eventCallbacks = eventCallbacks;
+        this.fibManagerCounters = fibManagerCounters;
     }
 
     @Override
@@ -191,6 +202,7 @@ public class VrfEntryListener extends AsyncDataTreeChangeListenerBase<VrfEntry,
     @Override
     @SuppressWarnings("checkstyle:IllegalCatch")
     public void close() {
+        populateFibExecutor.shutdown();
         closeables.forEach(c -> {
             try {
                 c.close();
@@ -1673,6 +1685,8 @@ public class VrfEntryListener extends AsyncDataTreeChangeListenerBase<VrfEntry,
     public void populateFibOnNewDpn(final BigInteger dpnId, final long vpnId, final String rd,
                                     final FutureCallback<List<Void>> callback) {
         LOG.trace("New dpn {} for vpn {} : populateFibOnNewDpn", dpnId, rd);
+        final long startTime = System.nanoTime();
+        fibManagerCounters.dpnOnboarding();
         jobCoordinator.enqueueJob(FibUtil.getJobKeyForVpnIdDpnId(vpnId, dpnId),
             () -> {
                 InstanceIdentifier<VrfTables> id = buildVrfId(rd);
@@ -1689,76 +1703,126 @@ public class VrfEntryListener extends AsyncDataTreeChangeListenerBase<VrfEntry,
                     return futures;
                 }
 
+                // Each chunk is written in its own transaction, with a bounded number of them in flight. The VPN
+                // lock is only held while a chunk is built, so other FIB work on the VPN interleaves with them.
+                // The job completes once all the chunks are written.
                 final ReentrantLock lock = lockFor(vpnInstance);
-                lock.lock();
-                try {
-                    futures.add(retryingTxRunner.callWithNewReadWriteTransactionAndSubmit(CONFIGURATION, tx -> {
-                        for (final VrfEntry vrfEntry : vrfTable.get().nonnullVrfEntry()) {
-                            SubnetRoute subnetRoute = vrfEntry.augmentation(SubnetRoute.class);
-                            if (subnetRoute != null) {
-                                long elanTag = subnetRoute.getElantag();
-                                installSubnetRouteInFib(dpnId, elanTag, rd, vpnId, vrfEntry, tx);
-                                installSubnetBroadcastAddrDropRule(dpnId, rd, vpnId, vrfEntry, NwConstants.ADD_FLOW,
-                                        tx);
-                                continue;
-                            }
-                            RouterInterface routerInt = vrfEntry.augmentation(RouterInterface.class);
-                            if (routerInt != null) {
-                                LOG.trace("Router augmented vrfentry found rd:{}, uuid:{}, ip:{}, mac:{}",
-                                        rd, routerInt.getUuid(), routerInt.getIpAddress(), routerInt.getMacAddress());
-                                routerInterfaceVrfEntryHandler.installRouterFibEntry(vrfEntry, dpnId, vpnId,
-                                        routerInt.getIpAddress(), new MacAddress(routerInt.getMacAddress()),
-                                        NwConstants.ADD_FLOW);
-                                continue;
-                            }
-                            //Handle local flow creation for imports
-                            if (RouteOrigin.value(vrfEntry.getOrigin()) == RouteOrigin.SELF_IMPORTED) {
-                                java.util.Optional<Long> optionalLabel = FibUtil.getLabelFromRoutePaths(vrfEntry);
-                                if (optionalLabel.isPresent()) {
-                                    List<String> nextHopList = FibHelper.getNextHopListFromRoutePaths(vrfEntry);
-                                    LabelRouteInfo lri = getLabelRouteInfo(optionalLabel.get());
-                                    if (isPrefixAndNextHopPresentInLri(vrfEntry.getDestPrefix(), nextHopList, lri)) {
-                                        if (Objects.equals(lri.getDpnId(), dpnId)) {
-                                            try {
-                                                int etherType = NWUtil.getEtherTypeFromIpPrefix(
-                                                        vrfEntry.getDestPrefix());
-                                                createLocalFibEntry(vpnId, rd, vrfEntry, etherType);
-                                            } catch (IllegalArgumentException ex) {
-                                                LOG.warn("Unable to get etherType for IP Prefix {}",
-                                                        vrfEntry.getDestPrefix());
-                                            }
-                                            continue;
-                                        }
-                                    }
-                                }
+                final List<List<VrfEntry>> chunks = Lists.partition(vrfTable.get().nonnullVrfEntry(),
+                        FibConstants.POPULATE_FIB_CHUNK_SIZE);
+                final AtomicInteger writtenChunks = new AtomicInteger();
+                futures.addAll(ChunkedWriter.write(chunks, FibConstants.POPULATE_FIB_MAX_CHUNKS_IN_FLIGHT, chunk -> {
+                    ListenableFuture<Void> future;
+                    lock.lock();
+                    try {
+                        future = retryingTxRunner.callWithNewReadWriteTransactionAndSubmit(CONFIGURATION, tx -> {
+                            for (final VrfEntry vrfEntry : chunk) {
+                                populateVrfEntryOnNewDpn(dpnId, vpnId, rd, vrfTable.get().getRouteDistinguisher(),
+                                        vrfEntry, tx);
                             }
-                            boolean shouldCreateRemoteFibEntry = shouldCreateFibEntryForVrfAndVpnIdOnDpn(vpnId,
-                                    vrfEntry, dpnId);
-                            if (shouldCreateRemoteFibEntry) {
-                                LOG.trace("Will create remote FIB entry for vrfEntry {} on DPN {}", vrfEntry, dpnId);
-                                if (RouteOrigin.BGP.getValue().equals(vrfEntry.getOrigin())) {
-                                    List<SubTransaction> txnObjects =  new ArrayList<>();
-                                    bgpRouteVrfEntryHandler.createRemoteFibEntry(dpnId, vpnId,
-                                            vrfTable.get().getRouteDistinguisher(), vrfEntry,
-                                            TransactionAdapter.toWriteTransaction(tx), txnObjects);
-                                } else {
-                                    createRemoteFibEntry(dpnId, vpnId, vrfTable.get().getRouteDistinguisher(),
-                                            vrfEntry, tx);
-                                }
+                        });
+                    } finally {
+                        lock.unlock();
+                    }
+                    Futures.addCallback(future, new FutureCallback<Void>() {
+                        @Override
+                        public void onSuccess(Void result) {
+                            fibManagerCounters.dpnOnboardingChunkWritten();
+                            int written = writtenChunks.incrementAndGet();
+                            if (written == 1) {
+                                long firstTrafficMillis = elapsedMillis(startTime);
+                                fibManagerCounters.firstTraffic(firstTrafficMillis);
+                                LOG.info("populateFibOnNewDpn: dpn {} rd {} first FIB chunk written after {} ms",
+                                        dpnId, rd, firstTrafficMillis);
                             }
+                            LOG.debug("populateFibOnNewDpn: dpn {} rd {} chunk {}/{} written", dpnId, rd, written,
+                                    chunks.size());
                         }
-                    }));
-                    if (callback != null) {
-                        ListenableFuture<List<Void>> listenableFuture = Futures.allAsList(futures);
-                        Futures.addCallback(listenableFuture, callback, MoreExecutors.directExecutor());
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            // The failure is reported to the caller through the callback
+                        }
+                    }, MoreExecutors.directExecutor());
+                    return future;
+                }, populateFibExecutor));
+                ListenableFuture<List<Void>> listenableFuture = Futures.allAsList(futures);
+                Futures.addCallback(listenableFuture, new FutureCallback<List<Void>>() {
+                    @Override
+                    public void onSuccess(List<Void> result) {
+                        long durationMillis = elapsedMillis(startTime);
+                        fibManagerCounters.dpnOnboarded(durationMillis);
+                        LOG.info("populateFibOnNewDpn: dpn {} rd {} FIB populated with {} entries in {} chunks "
+                                + "in {} ms", dpnId, rd, vrfTable.get().nonnullVrfEntry().size(), chunks.size(),
+                                durationMillis);
                     }
-                } finally {
-                    lock.unlock();
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        fibManagerCounters.dpnOnboardingFailed();
+                        LOG.error("populateFibOnNewDpn: dpn {} rd {} failed to populate the FIB", dpnId, rd,
+                                throwable);
+                    }
+                }, MoreExecutors.directExecutor());
+                if (callback != null) {
+                    Futures.addCallback(listenableFuture, callback, MoreExecutors.directExecutor());
                 }
                 return futures;
             });
     }
 
+    private static long elapsedMillis(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private void populateVrfEntryOnNewDpn(BigInteger dpnId, long vpnId, String rd, String routeDistinguisher,
+            VrfEntry vrfEntry, TypedReadWriteTransaction<Configuration> tx) {
+        SubnetRoute subnetRoute = vrfEntry.augmentation(SubnetRoute.class);
+        if (subnetRoute != null) {
+            long elanTag = subnetRoute.getElantag();
+            installSubnetRouteInFib(dpnId, elanTag, rd, vpnId, vrfEntry, tx);
+            installSubnetBroadcastAddrDropRule(dpnId, rd, vpnId, vrfEntry, NwConstants.ADD_FLOW, tx);
+            return;
+        }
+        RouterInterface routerInt = vrfEntry.augmentation(RouterInterface.class);
+        if (routerInt != null) {
+            LOG.trace("Router augmented vrfentry found rd:{}, uuid:{}, ip:{}, mac:{}",
+                    rd, routerInt.getUuid(), routerInt.getIpAddress(), routerInt.getMacAddress());
+            routerInterfaceVrfEntryHandler.installRouterFibEntry(vrfEntry, dpnId, vpnId,
+                    routerInt.getIpAddress(), new MacAddress(routerInt.getMacAddress()), NwConstants.ADD_FLOW);
+            return;
+        }
+        //Handle local flow creation for imports
+        if (RouteOrigin.value(vrfEntry.getOrigin()) == RouteOrigin.SELF_IMPORTED) {
+            java.util.Optional<Long> optionalLabel = FibUtil.getLabelFromRoutePaths(vrfEntry);
+            if (optionalLabel.isPresent()) {
+                List<String> nextHopList = FibHelper.getNextHopListFromRoutePaths(vrfEntry);
+                LabelRouteInfo lri = getLabelRouteInfo(optionalLabel.get());
+                if (isPrefixAndNextHopPresentInLri(vrfEntry.getDestPrefix(), nextHopList, lri)) {
+                    if (Objects.equals(lri.getDpnId(), dpnId)) {
+                        try {
+                            int etherType = NWUtil.getEtherTypeFromIpPrefix(vrfEntry.getDestPrefix());
+                            createLocalFibEntry(vpnId, rd, vrfEntry, etherType);
+                        } catch (IllegalArgumentException ex) {
+                            LOG.warn("Unable to get etherType for IP Prefix {}", vrfEntry.getDestPrefix());
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+        boolean shouldCreateRemoteFibEntry = shouldCreateFibEntryForVrfAndVpnIdOnDpn(vpnId, vrfEntry, dpnId);
+        if (shouldCreateRemoteFibEntry) {
+            LOG.trace("Will create remote FIB entry for vrfEntry {} on DPN {}", vrfEntry, dpnId);
+            if (RouteOrigin.BGP.getValue().equals(vrfEntry.getOrigin())) {
+                List<SubTransaction> txnObjects =  new ArrayList<>();
+                bgpRouteVrfEntryHandler.createRemoteFibEntry(dpnId, vpnId, routeDistinguisher, vrfEntry,
+                        TransactionAdapter.toWriteTransaction(tx), txnObjects);
+            } else {
+                createRemoteFibEntry(dpnId, vpnId, routeDistinguisher, vrfEntry, tx);
+            }
+        }
+    }
+
     public void populateExternalRoutesOnDpn(final BigInteger dpnId, final long vpnId, final String rd,
                                             final String localNextHopIp, final String remoteNextHopIp) {
         LOG.trace("populateExternalRoutesOnDpn : dpn {}, vpn {}, rd {}, localNexthopIp {} , remoteNextHopIp {} ",
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.fibmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+
+public class ChunkedWriterTest {
+    private final Map<Integer, SettableFuture<Void>> writes = new LinkedHashMap<>();
+
+    private ListenableFuture<Void> write(Integer chunk) {
+        SettableFuture<Void> future = SettableFuture.create();
+        writes.put(chunk, future);
+        return future;
+    }
+
+    @Test
+    public void testChunksAreWrittenWithBoundedInFlight() {
+        List<ListenableFuture<Void>> futures = ChunkedWriter.write(Arrays.asList(0, 1, 2, 3, 4), 2, this::write,
+                MoreExecutors.directExecutor());
+
+        // Nothing blocks: the first chunk of each lane is written, the others wait for their lane
+        assertEquals(5, futures.size());
+        assertEquals(Arrays.asList(0, 1), new ArrayList<>(writes.keySet()));
+
+        writes.get(1).set(null);
+        assertEquals(Arrays.asList(0, 1, 3), new ArrayList<>(writes.keySet()));
+        writes.get(0).set(null);
+        assertEquals(Arrays.asList(0, 1, 3, 2), new ArrayList<>(writes.keySet()));
+        writes.get(2).set(null);
+        assertEquals(Arrays.asList(0, 1, 3, 2, 4), new ArrayList<>(writes.keySet()));
+        writes.get(3).set(null);
+        writes.get(4).set(null);
+        futures.forEach(future -> assertTrue(future.isDone()));
+    }
+
+    @Test
+    public void testFailedChunkStopsItsLane() throws InterruptedException {
+        List<ListenableFuture<Void>> futures = ChunkedWriter.write(Arrays.asList(0, 1, 2, 3), 2, this::write,
+                MoreExecutors.directExecutor());
+
+        writes.get(0).setException(new IllegalStateException("commit failed"));
+        writes.get(1).set(null);
+
+        assertFalse(writes.containsKey(2));
+        assertTrue(writes.containsKey(3));
+        try {
+            futures.get(2).get();
+            fail("the chunk queued behind a failed chunk should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +25,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -35,6 +37,11 @@ import org.opendaylight.genius.ipv6util.api.Ipv6Util;
 import org.opendaylight.genius.mdsalutil.MDSALUtil;
 import org.opendaylight.genius.mdsalutil.NwConstants;
 import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Meter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.opendaylight.infrautils.utils.concurrent.JdkFutures;
 import org.opendaylight.netvirt.elanmanager.api.IElanService;
 import org.opendaylight.netvirt.ipv6service.api.ElementCache;
 import org.opendaylight.netvirt.ipv6service.api.IVirtualNetwork;
@@ -63,6 +70,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeCon
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.elan.rev150602.elan.instances.ElanInstance;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.port.attributes.FixedIps;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketProcessingService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.TransmitPacketInput;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,12 +79,17 @@ import org.slf4j.LoggerFactory;
 public class IfMgr implements ElementCache, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(IfMgr.class);
+    // The periodic RAs of a port are sent at a random interval between 75% and 100% of the RA interval (RFC 4861)
+    private static final double PERIODIC_RA_JITTER = 0.25;
+    private static final long LATE_RA_MILLIS = 1000;
 
     private final ConcurrentMap<Uuid, VirtualRouter> vrouters = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, VirtualNetwork> vnetworks = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, VirtualSubnet> vsubnets = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, VirtualPort> vintfs = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, VirtualPort> vrouterv6IntfMap = new ConcurrentHashMap<>();
+    // The IPv6 ports by lport tag, so that punted packets are mapped to their port without an RPC
+    private final ConcurrentMap<Long, VirtualPort> vintfsByTag = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, Set<VirtualPort>> unprocessedRouterIntfs = new ConcurrentHashMap<>();
     private final ConcurrentMap<Uuid, Set<VirtualPort>> unprocessedSubnetIntfs = new ConcurrentHashMap<>();
     private static ConcurrentMap<Uuid, Set<VirtualPort>> unprocessedNetIntfs = new ConcurrentHashMap<>();
@@ -89,14 +102,18 @@ public class IfMgr implements ElementCache, AutoCloseable {
     private final DataBroker dataBroker;
     private final Ipv6ServiceEosHandler ipv6ServiceEosHandler;
     private final PacketProcessingService packetService;
-    private final Ipv6PeriodicTrQueue ipv6Queue = new Ipv6PeriodicTrQueue(this::transmitUnsolicitedRA);
+    private final Ipv6PeriodicTrQueue ipv6Queue = new Ipv6PeriodicTrQueue(this::transmitUnsolicitedRAs);
     private final Ipv6TimerWheel timer = new Ipv6TimerWheel();
     private final JobCoordinator jobCoordinator;
+    private final Meter raTransmitted;
+    private final Meter raLate;
+    private final Counter raLatenessMillis;
 
     @Inject
     public IfMgr(DataBroker dataBroker, IElanService elanProvider, OdlInterfaceRpcService interfaceManagerRpc,
                  PacketProcessingService packetService, Ipv6ServiceUtils ipv6ServiceUtils,
-                 Ipv6ServiceEosHandler ipv6ServiceEosHandler, JobCoordinator jobCoordinator) {
+                 Ipv6ServiceEosHandler ipv6ServiceEosHandler, JobCoordinator jobCoordinator,
+                 MetricProvider metricProvider) {
         this.dataBroker = dataBroker;
         this.elanProvider = elanProvider;
         this.interfaceManagerRpc = interfaceManagerRpc;
@@ -104,9 +121,16 @@ public class IfMgr implements ElementCache, AutoCloseable {
         this.ipv6ServiceUtils = ipv6ServiceUtils;
         this.ipv6ServiceEosHandler = ipv6ServiceEosHandler;
         this.jobCoordinator = jobCoordinator;
+        this.raTransmitted = metricProvider.newMeter(metricDescriptor("ipv6_ra_transmitted"));
+        this.raLate = metricProvider.newMeter(metricDescriptor("ipv6_ra_late"));
+        this.raLatenessMillis = metricProvider.newCounter(metricDescriptor("ipv6_ra_lateness_millis"));
         LOG.info("IfMgr is enabled");
     }
 
+    private MetricDescriptor metricDescriptor(String id) {
+        return MetricDescriptor.builder().anchor(this).project("netvirt").module("ipv6service").id(id).build();
+    }
+
     @Override
     @PreDestroy
     public void close() {
@@ -500,6 +524,7 @@ public class IfMgr implements ElementCache, AutoCloseable {
     public void removePort(Uuid portId) {
         VirtualPort intf = portId != null ? vintfs.remove(portId) : null;
         if (intf != null) {
+            vintfsByTag.values().remove(intf);
             intf.removeSelf();
             Uuid networkID = intf.getNetworkID();
             if (intf.getDeviceOwner().equalsIgnoreCase(Ipv6ServiceConstants.NETWORK_ROUTER_INTERFACE)) {
@@ -828,7 +853,28 @@ public class IfMgr implements ElementCache, AutoCloseable {
         return vmPorts;
     }
 
+    /**
+     * Records the lport tag of an IPv6 port, once its interface state is known.
+     */
+    public void updatePortTag(Uuid portId, @Nullable Integer portTag) {
+        VirtualPort intf = getPort(portId);
+        if (intf != null && portTag != null) {
+            vintfsByTag.put(portTag.longValue(), intf);
+        }
+    }
+
+    public void removePortTag(@Nullable Integer portTag) {
+        if (portTag != null) {
+            vintfsByTag.remove(portTag.longValue());
+        }
+    }
+
     public String getInterfaceNameFromTag(long portTag) {
+        VirtualPort intf = vintfsByTag.get(portTag);
+        if (intf != null) {
+            return intf.getIntfUUID().getValue();
+        }
+
         String interfaceName = null;
         GetInterfaceFromIfIndexInput input = new GetInterfaceFromIfIndexInputBuilder()
                 .setIfIndex((int) portTag).build();
@@ -841,6 +887,13 @@ public class IfMgr implements ElementCache, AutoCloseable {
             LOG.error("Error while retrieving the interfaceName from tag using getInterfaceFromIfIndex RPC");
         }
         LOG.trace("Returning interfaceName {} for tag {} form getInterfaceNameFromTag", interfaceName, portTag);
+        if (interfaceName != null) {
+            // Ports whose interface state was seen before they got an IPv6 address are indexed on first use
+            intf = vintfs.get(new Uuid(interfaceName));
+            if (intf != null) {
+                vintfsByTag.putIfAbsent(portTag, intf);
+            }
+        }
         return interfaceName;
     }
 
@@ -949,8 +1002,13 @@ public class IfMgr implements ElementCache, AutoCloseable {
     }
 
     private void transmitRouterAdvertisement(VirtualPort intf, Ipv6RouterAdvertisementType advType) {
-        Ipv6RouterAdvt ipv6RouterAdvert = new Ipv6RouterAdvt(packetService, this);
+        Map<BigInteger, List<TransmitPacketInput>> packetOutsByDpn = new LinkedHashMap<>();
+        addRouterAdvertisement(packetOutsByDpn, new Ipv6RouterAdvt(packetService, this), intf, advType);
+        transmitRouterAdvertisements(packetOutsByDpn);
+    }
 
+    private void addRouterAdvertisement(Map<BigInteger, List<TransmitPacketInput>> packetOutsByDpn,
+            Ipv6RouterAdvt ipv6RouterAdvert, VirtualPort intf, Ipv6RouterAdvertisementType advType) {
         VirtualNetwork vnet = getNetwork(intf.getNetworkID());
         if (vnet != null) {
             long elanTag = vnet.getElanTag();
@@ -959,13 +1017,25 @@ public class IfMgr implements ElementCache, AutoCloseable {
                 LOG.debug("transmitRouterAdvertisement: Transmitting RA {} for ELAN Tag {}",
                         advType, elanTag);
                 if (dpnIfaceInfo.getDpId() != null) {
-                    ipv6RouterAdvert.transmitRtrAdvertisement(advType, intf, elanTag, null,
+                    TransmitPacketInput input = ipv6RouterAdvert.buildRtrAdvertisement(advType, intf, elanTag, null,
                             dpnIfaceInfo.getDpId(), intf.getIntfUUID());
+                    if (input != null) {
+                        packetOutsByDpn.computeIfAbsent(dpnIfaceInfo.getDpId(), dpId -> new ArrayList<>()).add(input);
+                    }
                 }
             }
         }
     }
 
+    private void transmitRouterAdvertisements(Map<BigInteger, List<TransmitPacketInput>> packetOutsByDpn) {
+        packetOutsByDpn.forEach((dpId, inputs) -> {
+            LOG.trace("transmitRouterAdvertisements : {} RAs to DPN {}", inputs.size(), dpId);
+            for (TransmitPacketInput input : inputs) {
+                JdkFutures.addErrorLogging(packetService.transmitPacket(input), LOG, "transmitPacket");
+            }
+            raTransmitted.mark(inputs.size());
+        });
+    }
 
     private void removeAllIcmpv6NSPuntFlowForNetwork(Uuid networkId) {
         Long elanTag = getNetworkElanTag(networkId);
@@ -988,27 +1058,60 @@ public class IfMgr implements ElementCache, AutoCloseable {
     }
 
 
-    public void transmitUnsolicitedRA(Uuid portId) {
-        VirtualPort port = getPort(portId);
-        LOG.debug("in transmitUnsolicitedRA for {}, port {}", portId, port);
-        if (port != null) {
-            transmitUnsolicitedRA(port);
+    /**
+     * Sends the periodic RAs of the given router ports, grouping the packet-outs of all the ports per DPN, and
+     * schedules their next periodic RAs.
+     */
+    public void transmitUnsolicitedRAs(List<Uuid> portIds) {
+        boolean clusterOwner = ipv6ServiceEosHandler.isClusterOwner();
+        Ipv6RouterAdvt ipv6RouterAdvert = new Ipv6RouterAdvt(packetService, this);
+        Map<BigInteger, List<TransmitPacketInput>> packetOutsByDpn = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        for (Uuid portId : portIds) {
+            VirtualPort port = getPort(portId);
+            LOG.debug("in transmitUnsolicitedRAs for {}, port {}", portId, port);
+            if (port == null) {
+                continue;
+            }
+            if (clusterOwner) {
+                /* Only the Cluster Owner would be sending out the Periodic RAs.
+                   However, the timer is configured on all the nodes to handle cluster fail-over scenarios.
+                 */
+                long latenessMillis = TimeUnit.NANOSECONDS.toMillis(now - port.getPeriodicDueTime());
+                if (latenessMillis > 0) {
+                    raLatenessMillis.increment(latenessMillis);
+                    if (latenessMillis > LATE_RA_MILLIS) {
+                        raLate.mark();
+                    }
+                }
+                addRouterAdvertisement(packetOutsByDpn, ipv6RouterAdvert, port,
+                        Ipv6RouterAdvertisementType.UNSOLICITED_ADVERTISEMENT);
+            }
+            schedulePeriodicRA(port, getPeriodicRADelayMillis());
         }
+        transmitRouterAdvertisements(packetOutsByDpn);
     }
 
     public void transmitUnsolicitedRA(VirtualPort port) {
         if (ipv6ServiceEosHandler.isClusterOwner()) {
-            /* Only the Cluster Owner would be sending out the Periodic RAs.
-               However, the timer is configured on all the nodes to handle cluster fail-over scenarios.
-             */
             transmitRouterAdvertisement(port, Ipv6RouterAdvertisementType.UNSOLICITED_ADVERTISEMENT);
         }
-        Timeout portTimeout = timer.setPeriodicTransmissionTimeout(port.getPeriodicTimer(),
-                Ipv6ServiceConstants.PERIODIC_RA_INTERVAL,
-                TimeUnit.SECONDS);
+        // Spread the periodic RAs of the ports added together, e.g. on restart, over the whole interval
+        schedulePeriodicRA(port, ThreadLocalRandom.current().nextLong(
+                TimeUnit.SECONDS.toMillis(Ipv6ServiceConstants.PERIODIC_RA_INTERVAL)));
+    }
+
+    private void schedulePeriodicRA(VirtualPort port, long delayMillis) {
+        port.setPeriodicDueTime(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        Timeout portTimeout = timer.setPeriodicTransmissionTimeout(port.getPeriodicTimer(), delayMillis,
+                TimeUnit.MILLISECONDS);
         port.setPeriodicTimeout(portTimeout);
-        LOG.debug("re-started periodic RA Timer for routerIntf {}, int {}s", port.getIntfUUID(),
-                Ipv6ServiceConstants.PERIODIC_RA_INTERVAL);
+        LOG.debug("re-started periodic RA Timer for routerIntf {}, int {}ms", port.getIntfUUID(), delayMillis);
+    }
+
+    private static long getPeriodicRADelayMillis() {
+        long intervalMillis = TimeUnit.SECONDS.toMillis(Ipv6ServiceConstants.PERIODIC_RA_INTERVAL);
+        return intervalMillis - (long) (intervalMillis * PERIODIC_RA_JITTER * ThreadLocalRandom.current().nextDouble());
     }
 
     @Override
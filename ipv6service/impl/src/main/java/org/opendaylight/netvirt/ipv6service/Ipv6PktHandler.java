@@ -7,13 +7,18 @@
  */
 package org.opendaylight.netvirt.ipv6service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.math.BigInteger;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -50,25 +55,60 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.Pa
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceived;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.TransmitPacketInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.TransmitPacketInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.packet.received.Match;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Handles the punted ICMPv6 RS, NS and NA packets on a fixed pool of workers fed by a bounded queue, read from the
+ * {@code ipv6.pktin.workers} and {@code ipv6.pktin.queue.size} system properties. The packets of each port, known by
+ * its lport tag, are rate limited by a token bucket of {@code ipv6.pktin.port.rate} packets per second and
+ * {@code ipv6.pktin.port.burst} packets. Router solicitations are only queued while the queue is less than half full,
+ * leaving the rest to the neighbor discovery packets. The dropped packets are counted per cause.
+ */
 @Singleton
 public class Ipv6PktHandler implements AutoCloseable, PacketProcessingListener {
     private static final Logger LOG = LoggerFactory.getLogger(Ipv6PktHandler.class);
+    private static final int WORKERS = Integer.getInteger("ipv6.pktin.workers",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private static final int QUEUE_SIZE = Integer.getInteger("ipv6.pktin.queue.size", 4096);
+    private static final int PORT_RATE = Integer.getInteger("ipv6.pktin.port.rate", 100);
+    private static final int PORT_BURST = Integer.getInteger("ipv6.pktin.port.burst", 200);
+    // The rate limiters are dropped past this number of ports, rather than tracking the removal of each port
+    private static final int MAX_RATE_LIMITERS = 65536;
+
     private final AtomicLong pktProccessedCounter = new AtomicLong(0);
+    private final AtomicLong pktRateLimitedCounter = new AtomicLong(0);
+    private final AtomicLong pktQueueFullCounter = new AtomicLong(0);
     private final PacketProcessingService pktService;
     private final IfMgr ifMgr;
     private final IIpv6PacketListener ipv6PktListener;
+    private final int queueSize;
+    private final int portRate;
+    private final int portBurst;
+    private final ConcurrentMap<Long, PortRateLimiter> rateLimiters = new ConcurrentHashMap<>();
 
-    private final ExecutorService packetProcessor = Executors.newCachedThreadPool();
+    private final ThreadPoolExecutor packetProcessor;
 
     @Inject
     public Ipv6PktHandler(PacketProcessingService pktService, IfMgr ifMgr, IIpv6PacketListener ipv6PktListener) {
+        this(pktService, ifMgr, ipv6PktListener, WORKERS, QUEUE_SIZE, PORT_RATE, PORT_BURST);
+    }
+
+    Ipv6PktHandler(PacketProcessingService pktService, IfMgr ifMgr, IIpv6PacketListener ipv6PktListener,
+            int workers, int queueSize, int portRate, int portBurst) {
         this.pktService = pktService;
         this.ifMgr = ifMgr;
         this.ipv6PktListener = ipv6PktListener;
+        this.queueSize = queueSize;
+        this.portRate = portRate;
+        this.portBurst = portBurst;
+        this.packetProcessor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("ipv6-pkt-handler-%d").setDaemon(true).build());
+        LOG.info("Ipv6PktHandler : {} workers, {} queued packets, {} packets/s with a burst of {} per port",
+                workers, queueSize, portRate, portBurst);
     }
 
     @Override
@@ -96,7 +136,7 @@ public class Ipv6PktHandler implements AutoCloseable, PacketProcessingListener {
                     int icmpv6Type = BitBufferHelper.getInt(BitBufferHelper.getBits(data,
                             Ipv6Constants.ICMPV6_HDR_START, Ipv6Constants.ONE_BYTE));
                     if (isOfInterest(icmpv6Type)) {
-                        packetProcessor.execute(new PacketHandler(icmpv6Type, packetReceived));
+                        submitPacket(icmpv6Type, packetReceived);
                     }
                 } else {
                     LOG.debug("IPv6 Pdu received on port {} with next-header {} ",
@@ -117,10 +157,81 @@ public class Ipv6PktHandler implements AutoCloseable, PacketProcessingListener {
                 || icmpv6Type == Icmpv6Type.NEIGHBOR_ADVERTISEMENT.getValue();
     }
 
+    private void submitPacket(int icmpv6Type, PacketReceived packetReceived) {
+        long portTag = getPortTag(packetReceived);
+        if (portTag >= 0 && !getRateLimiter(portTag).tryAcquire()) {
+            pktRateLimitedCounter.incrementAndGet();
+            LOG.debug("submitPacket : dropping ICMPv6 type {} packet of port tag {}, over the port rate limit",
+                    icmpv6Type, portTag);
+            return;
+        }
+        if (icmpv6Type == Icmpv6Type.ROUTER_SOLICITATION.getValue()
+                && packetProcessor.getQueue().size() >= queueSize / 2) {
+            pktQueueFullCounter.incrementAndGet();
+            LOG.debug("submitPacket : dropping Router Solicitation of port tag {}, packet queue over half full",
+                    portTag);
+            return;
+        }
+        try {
+            packetProcessor.execute(new PacketHandler(icmpv6Type, packetReceived));
+        } catch (RejectedExecutionException e) {
+            pktQueueFullCounter.incrementAndGet();
+            LOG.debug("submitPacket : dropping ICMPv6 type {} packet of port tag {}, packet queue full",
+                    icmpv6Type, portTag);
+        }
+    }
+
+    private static long getPortTag(PacketReceived packetReceived) {
+        Match match = packetReceived.getMatch();
+        if (match == null || match.getMetadata() == null || match.getMetadata().getMetadata() == null) {
+            return -1;
+        }
+        return MetaDataUtil.getLportFromMetadata(match.getMetadata().getMetadata()).intValue();
+    }
+
+    private PortRateLimiter getRateLimiter(long portTag) {
+        if (rateLimiters.size() >= MAX_RATE_LIMITERS) {
+            rateLimiters.clear();
+        }
+        return rateLimiters.computeIfAbsent(portTag, tag -> new PortRateLimiter());
+    }
+
     public long getPacketProcessedCounter() {
         return pktProccessedCounter.get();
     }
 
+    public long getPacketRateLimitedCounter() {
+        return pktRateLimitedCounter.get();
+    }
+
+    public long getPacketQueueFullCounter() {
+        return pktQueueFullCounter.get();
+    }
+
+    public int getPacketQueueDepth() {
+        return packetProcessor.getQueue().size();
+    }
+
+    /**
+     * Token bucket of a port, refilled at the port rate up to the port burst.
+     */
+    private final class PortRateLimiter {
+        // Both guarded by this
+        private double tokens = portBurst;
+        private long lastRefillTime = System.nanoTime();
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(portBurst, tokens + (now - lastRefillTime) * portRate / 1e9);
+            lastRefillTime = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
     private class PacketHandler implements Runnable {
         int type;
         PacketReceived packet;
@@ -58,10 +58,33 @@ public class Ipv6RouterAdvt {
     public boolean transmitRtrAdvertisement(Ipv6RouterAdvertisementType raType, VirtualPort routerPort,
                                             long elanTag, @Nullable RouterSolicitationPacket rsPdu,
                                             BigInteger dpnId, Uuid port) {
-        RouterAdvertisementPacketBuilder raPacket = new RouterAdvertisementPacketBuilder();
-        updateRAResponse(raType, rsPdu, raPacket, routerPort);
-        // Serialize the response packet
-        byte[] txPayload = fillRouterAdvertisementPacket(raPacket.build());
+        TransmitPacketInput input = buildRtrAdvertisement(raType, routerPort, elanTag, rsPdu, dpnId, port);
+        if (input == null) {
+            return false;
+        }
+        JdkFutures.addErrorLogging(packetService.transmitPacket(input), LOG, "transmitPacket");
+        return true;
+    }
+
+    /**
+     * Builds the packet-out of a router advertisement without sending it. The unsolicited advertisements of a router
+     * port are only serialized again once the port MAC, MTU or subnets changed.
+     *
+     * @return the packet-out, null if it cannot be sent
+     */
+    @Nullable
+    public TransmitPacketInput buildRtrAdvertisement(Ipv6RouterAdvertisementType raType, VirtualPort routerPort,
+                                                     long elanTag, @Nullable RouterSolicitationPacket rsPdu,
+                                                     BigInteger dpnId, Uuid port) {
+        byte[] txPayload;
+        if (raType == Ipv6RouterAdvertisementType.UNSOLICITED_ADVERTISEMENT) {
+            txPayload = getUnsolicitedRAPayload(routerPort);
+        } else {
+            RouterAdvertisementPacketBuilder raPacket = new RouterAdvertisementPacketBuilder();
+            updateRAResponse(raType, rsPdu, raPacket, routerPort);
+            // Serialize the response packet
+            txPayload = fillRouterAdvertisementPacket(raPacket.build());
+        }
         TransmitPacketInput input = null;
         /* Send solicited router advertisement to requested VM port only.
          * Send periodic unsolicited router advertisement to ELAN broadcast group.
@@ -71,7 +94,7 @@ public class Ipv6RouterAdvt {
             if (actions == null || actions.isEmpty()) {
                 LOG.error("Unable to send solicited router advertisement packet out. Since Egress "
                         + "action is empty for interface {}. ", port.getValue());
-                return false;
+                return null;
             }
             input = MDSALUtil.getPacketOut(actions, txPayload, dpnId);
             LOG.debug("Transmitting the Router Advt packet out to port {}", port.getValue());
@@ -83,8 +106,35 @@ public class Ipv6RouterAdvt {
             input = MDSALUtil.getPacketOutDefault(lstActionInfo, txPayload, dpnId);
             LOG.debug("Transmitting the Router Advt packet out to ELAN Group ID {}", elanGroupId);
         }
-        JdkFutures.addErrorLogging(packetService.transmitPacket(input), LOG, "transmitPacket");
-        return true;
+        return input;
+    }
+
+    private byte[] getUnsolicitedRAPayload(VirtualPort routerPort) {
+        List<Object> key = getRAPayloadKey(routerPort);
+        CachedRAPayload cached = routerPort.getCachedRAPayload();
+        if (cached != null && cached.key.equals(key)) {
+            return cached.payload;
+        }
+        RouterAdvertisementPacketBuilder raPacket = new RouterAdvertisementPacketBuilder();
+        updateRAResponse(Ipv6RouterAdvertisementType.UNSOLICITED_ADVERTISEMENT, null, raPacket, routerPort);
+        byte[] payload = fillRouterAdvertisementPacket(raPacket.build());
+        routerPort.setCachedRAPayload(new CachedRAPayload(key, payload));
+        LOG.debug("getUnsolicitedRAPayload : serialized the unsolicited RA of router port {}",
+                routerPort.getIntfUUID());
+        return payload;
+    }
+
+    // Everything updateRAResponse reads from the router port for an unsolicited advertisement
+    private static List<Object> getRAPayloadKey(VirtualPort routerPort) {
+        List<Object> key = new ArrayList<>();
+        key.add(routerPort.getMacAddress());
+        key.add(routerPort.getMtu());
+        for (VirtualSubnet subnet : routerPort.getSubnets()) {
+            key.add(subnet.getGatewayIp());
+            key.add(subnet.getSubnetCidr());
+            key.add(subnet.getIpv6RAMode());
+        }
+        return key;
     }
 
     private static void updateRAResponse(Ipv6RouterAdvertisementType raType, @Nullable RouterSolicitationPacket pdu,
@@ -250,4 +300,17 @@ public class Ipv6RouterAdvt {
         }
         return data;
     }
+
+    /**
+     * The serialized unsolicited advertisement of a router port, with the port data it was built from.
+     */
+    static final class CachedRAPayload {
+        private final List<Object> key;
+        private final byte[] payload;
+
+        CachedRAPayload(List<Object> key, byte[] payload) {
+            this.key = key;
+            this.payload = payload;
+        }
+    }
 }
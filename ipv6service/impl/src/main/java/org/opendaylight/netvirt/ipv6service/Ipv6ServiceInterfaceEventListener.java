@@ -79,6 +79,7 @@ public class Ipv6ServiceInterfaceEventListener
         if (ofportIds == null || ofportIds.isEmpty() || !isNeutronPort(del.getName())) {
             return;
         }
+        ifMgr.removePortTag(del.getIfIndex());
 
         if (!ipv6ServiceEosHandler.isClusterOwner()) {
             LOG.trace("Not a cluster Owner, skipping further IPv6 processing on this node.");
@@ -153,6 +154,7 @@ public class Ipv6ServiceInterfaceEventListener
 
                 Long ofPort = MDSALUtil.getOfPortNumberFromPortName(nodeConnectorId);
                 ifMgr.updateDpnInfo(portId, dpId, ofPort);
+                ifMgr.updatePortTag(portId, add.getIfIndex());
 
                 if (!ipv6ServiceEosHandler.isClusterOwner()) {
                     LOG.trace("Not a cluster Owner, skipping further IPv6 processing on this node.");
@@ -16,6 +16,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.genius.ipv6util.api.Ipv6Util;
 import org.opendaylight.netvirt.ipv6service.api.IVirtualPort;
 import org.opendaylight.netvirt.ipv6service.utils.Ipv6PeriodicTimer;
@@ -46,6 +47,8 @@ public class VirtualPort implements IVirtualPort  {
     private volatile boolean serviceBindingStatus;
     private volatile Ipv6PeriodicTimer periodicTimer;
     private volatile Timeout periodicTimeout;
+    private volatile long periodicDueTime;
+    private volatile Ipv6RouterAdvt.CachedRAPayload cachedRAPayload;
     private volatile int mtu = 0;
 
     // associated router if any
@@ -226,6 +229,25 @@ public class VirtualPort implements IVirtualPort  {
         return periodicTimeout;
     }
 
+    /**
+     * Sets the {@link System#nanoTime()} at which the next periodic RA is due.
+     */
+    public void setPeriodicDueTime(long dueTime) {
+        periodicDueTime = dueTime;
+    }
+
+    public long getPeriodicDueTime() {
+        return periodicDueTime;
+    }
+
+    Ipv6RouterAdvt.@Nullable CachedRAPayload getCachedRAPayload() {
+        return cachedRAPayload;
+    }
+
+    void setCachedRAPayload(Ipv6RouterAdvt.CachedRAPayload cachedRAPayload) {
+        this.cachedRAPayload = cachedRAPayload;
+    }
+
     private static class SubnetInfo {
         private final Uuid subnetID;
         private volatile IpAddress ipAddr;
@@ -9,6 +9,8 @@
 package org.opendaylight.netvirt.ipv6service.utils;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -23,7 +25,10 @@ import org.slf4j.LoggerFactory;
 public class Ipv6PeriodicTrQueue implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(Ipv6PeriodicTrQueue.class);
 
-    private final Consumer<Uuid> onMessage;
+    // The most ports handed over at once, to bound the packet-outs held for a batch
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final Consumer<List<Uuid>> onMessage;
     private final ConcurrentLinkedQueue<Uuid> ipv6PeriodicQueue = new ConcurrentLinkedQueue<>();
     private final Thread transmitterThread = new Thread(this::threadRunLoop);
     private final ReentrantLock queueLock = new ReentrantLock();
@@ -33,7 +38,12 @@ public class Ipv6PeriodicTrQueue implements AutoCloseable {
     @GuardedBy("queueLock")
     private boolean isMessageAvailable;
 
-    public Ipv6PeriodicTrQueue(Consumer<Uuid> onMessage) {
+    /**
+     * Creates the queue and starts its thread.
+     *
+     * @param onMessage called with the ports whose periodic RA is due, in their expiry order
+     */
+    public Ipv6PeriodicTrQueue(Consumer<List<Uuid>> onMessage) {
         this.onMessage = onMessage;
         init();
     }
@@ -73,9 +83,13 @@ public class Ipv6PeriodicTrQueue implements AutoCloseable {
     private void threadRunLoop() {
         while (!closed) {
             while (!ipv6PeriodicQueue.isEmpty()) {
-                Uuid portId = ipv6PeriodicQueue.poll();
-                LOG.debug("timeout got for port {}", portId);
-                onMessage.accept(portId);
+                List<Uuid> portIds = new ArrayList<>();
+                Uuid portId;
+                while (portIds.size() < MAX_BATCH_SIZE && (portId = ipv6PeriodicQueue.poll()) != null) {
+                    LOG.debug("timeout got for port {}", portId);
+                    portIds.add(portId);
+                }
+                onMessage.accept(portIds);
             }
 
             queueLock.lock();
@@ -18,11 +18,8 @@ public class Ipv6TimerWheel implements AutoCloseable {
     private final Timer ipv6PeriodicRATimerWheel = new HashedWheelTimer();
 
     public Timeout setPeriodicTransmissionTimeout(TimerTask task, long delay, TimeUnit unit) {
-        Timeout timeout = null;
-        synchronized (ipv6PeriodicRATimerWheel) {
-            timeout  = ipv6PeriodicRATimerWheel.newTimeout(task, delay, unit);
-        }
-        return timeout;
+        // HashedWheelTimer.newTimeout is thread safe
+        return ipv6PeriodicRATimerWheel.newTimeout(task, delay, unit);
     }
 
     public void cancelPeriodicTransmissionTimeout(Timeout timeout) {
@@ -8,6 +8,7 @@
 
 package org.opendaylight.netvirt.ipv6service;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.times;
@@ -634,6 +635,38 @@ public class Ipv6PktHandlerTest {
         verify(ipv6PktListener, times(0)).onNaReceived(any(NeighborAdvertisePacket.class));
     }
 
+    @Test
+    public void testOnPacketReceivedOverPortRateLimit() throws Exception {
+        pktHandler = new Ipv6PktHandler(pktProcessService, ifMgrInstance, ipv6PktListener, 1, 100, 1, 5);
+        Metadata metadata = new MetadataBuilder().setMetadata(new BigInteger(String.valueOf(0x1000000))).build();
+        PacketReceived packet = new PacketReceivedBuilder().setPayload(ipv6TestUtils.buildPacket(
+                "33 33 FF F5 00 00",                               // Destination MAC
+                "00 01 02 03 04 05",                               // Source MAC
+                "86 DD",                                           // IPv6
+                "6E 00 00 00",                                     // Version 6, traffic class E0, no flowlabel
+                "00 18",                                           // Payload length
+                "3A",                                              // Next header is ICMPv6
+                "FF",                                              // Hop limit
+                "00 00 00 00 00 00 00 00 00 00 00 00 00 00 00 00", // Source IP
+                "FF 02 00 00 00 00 00 00 00 00 00 01 FF F5 00 00", // Destination IP
+                "87",                                              // ICMPv6 neighbor solicitation
+                "00",                                              // Code
+                "67 3E",                                           // Checksum (invalid, should be 67 3C)
+                "00 00 00 00",                                     // ICMPv6 message body
+                "FE 80 00 00 00 00 00 00 C0 00 54 FF FE F5 00 00"  // Target
+        )).setMatch(new MatchBuilder().setMetadata(metadata).build()).build();
+        for (int i = 0; i < 5; i++) {
+            pktHandler.onPacketReceived(packet);
+        }
+        assertEquals(0, pktHandler.getPacketRateLimitedCounter());
+        // The burst of the port is spent, the next packets are dropped before being queued
+        for (int i = 0; i < 5; i++) {
+            pktHandler.onPacketReceived(packet);
+        }
+        assertEquals(5, pktHandler.getPacketRateLimitedCounter());
+        pktHandler.close();
+    }
+
     private void waitForPacketProcessing() throws InterruptedException {
         int timeOut = 1;
         while (timeOut < 20) {
@@ -8,19 +8,23 @@
 
 package org.opendaylight.netvirt.natservice.ha;
 
+import static org.opendaylight.controller.md.sal.binding.api.WriteTransaction.CREATE_MISSING_PARENTS;
 import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
 import static org.opendaylight.genius.infra.Datastore.OPERATIONAL;
 
 import com.google.common.base.Optional;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.jdt.annotation.Nullable;
@@ -36,6 +40,7 @@ import org.opendaylight.netvirt.natservice.api.CentralizedSwitchScheduler;
 import org.opendaylight.netvirt.natservice.api.NatSwitchCache;
 import org.opendaylight.netvirt.natservice.api.NatSwitchCacheListener;
 import org.opendaylight.netvirt.natservice.api.SwitchInfo;
+import org.opendaylight.netvirt.natservice.internal.NaptSwitchWeightIndex;
 import org.opendaylight.netvirt.natservice.internal.NatUtil;
 import org.opendaylight.netvirt.vpnmanager.api.IVpnFootprintService;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
@@ -59,9 +64,9 @@ import org.slf4j.LoggerFactory;
 @Singleton
 public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchScheduler, NatSwitchCacheListener {
     private static final Logger LOG = LoggerFactory.getLogger(WeightedCentralizedSwitchScheduler.class);
-    private static final Integer INITIAL_SWITCH_WEIGHT = Integer.valueOf(0);
 
-    private final Map<String, Map<BigInteger,Integer>> providerSwitchWeightsMap = new ConcurrentHashMap<>();
+    // The switches of each provider network, their weights are kept by the NaptSwitchWeightIndex
+    private final Map<String, Set<BigInteger>> providerSwitchesMap = new ConcurrentHashMap<>();
     private final Map<String,String> subnetIdToRouterPortMap = new ConcurrentHashMap<>();
     private final Map<String,String> subnetIdToElanInstanceMap = new ConcurrentHashMap<>();
     private final DataBroker dataBroker;
@@ -69,13 +74,15 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
     private final OdlInterfaceRpcService interfaceManager;
     private final IVpnFootprintService vpnFootprintService;
     private final NatserviceConfig.NatMode natMode;
+    private final NaptSwitchWeightIndex switchWeightIndex;
 
     @Inject
     public WeightedCentralizedSwitchScheduler(final DataBroker dataBroker,
             final OdlInterfaceRpcService interfaceManager,
             final IVpnFootprintService vpnFootprintService, final NatserviceConfig config,
-            final NatSwitchCache natSwitchCache) {
+            final NatSwitchCache natSwitchCache, final NaptSwitchWeightIndex switchWeightIndex) {
         this.dataBroker = dataBroker;
+        this.switchWeightIndex = switchWeightIndex;
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
         this.interfaceManager = interfaceManager;
         this.vpnFootprintService = vpnFootprintService;
@@ -90,7 +97,8 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
     @Override
     public boolean scheduleCentralizedSwitch(Routers router) {
         String providerNet = NatUtil.getElanInstancePhysicalNetwok(router.getNetworkId().getValue(),dataBroker);
-        BigInteger nextSwitchId = getSwitchWithLowestWeight(providerNet);
+        String routerName = router.getRouterName();
+        BigInteger nextSwitchId = assignSwitchWithLowestWeight(routerName, providerNet);
         if (BigInteger.ZERO.equals(nextSwitchId)) {
             LOG.error("In scheduleCentralizedSwitch, unable to schedule the router {} as there is no available switch.",
                     router.getRouterName());
@@ -98,7 +106,6 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
         }
 
         LOG.info("scheduleCentralizedSwitch for router {} on switch {}", router.getRouterName(), nextSwitchId);
-        String routerName = router.getRouterName();
         RouterToNaptSwitchBuilder routerToNaptSwitchBuilder =
                 new RouterToNaptSwitchBuilder().setRouterName(routerName);
         RouterToNaptSwitch id = routerToNaptSwitchBuilder.setPrimarySwitchId(nextSwitchId)
@@ -107,10 +114,8 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
         try {
             SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
                     getNaptSwitchesIdentifier(routerName), id);
-            Map<BigInteger,Integer> switchWeightMap = providerSwitchWeightsMap.get(providerNet);
-            switchWeightMap.put(nextSwitchId,switchWeightMap.get(nextSwitchId) + 1);
-
         } catch (TransactionCommitFailedException e) {
+            switchWeightIndex.release(routerName);
             LOG.error("ScheduleCentralizedSwitch failed for {}", routerName);
         }
         return true;
@@ -152,7 +157,6 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
 
     @Override
     public boolean releaseCentralizedSwitch(Routers router) {
-        String providerNet = NatUtil.getElanInstancePhysicalNetwok(router.getNetworkId().getValue(),dataBroker);
         String routerName = router.getRouterName();
         BigInteger primarySwitchId = NatUtil.getPrimaryNaptfromRouterName(dataBroker, routerName);
         if (primarySwitchId == null || BigInteger.ZERO.equals(primarySwitchId)) {
@@ -165,8 +169,7 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
         try {
             SingleTransactionDataBroker.syncDelete(dataBroker, LogicalDatastoreType.CONFIGURATION,
                     getNaptSwitchesIdentifier(routerName));
-            Map<BigInteger,Integer> switchWeightMap = providerSwitchWeightsMap.get(providerNet);
-            switchWeightMap.put(primarySwitchId, switchWeightMap.get(primarySwitchId) - 1);
+            switchWeightIndex.release(routerName);
         } catch (TransactionCommitFailedException e) {
             return false;
         }
@@ -243,17 +246,14 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
 
     @Override
     public void switchAddedToCache(SwitchInfo switchInfo) {
-        boolean scheduleRouters = (providerSwitchWeightsMap.size() == 0) ? true : false;
+        boolean scheduleRouters = providerSwitchesMap.isEmpty();
         for (String providerNet : switchInfo.getProviderNets()) {
-            Map<BigInteger,Integer> switchWeightMap = providerSwitchWeightsMap.get(providerNet);
-            if (providerSwitchWeightsMap.get(providerNet) == null) {
-                switchWeightMap = new ConcurrentHashMap<>();
-                providerSwitchWeightsMap.put(providerNet, switchWeightMap);
-            }
-            LOG.info("addSwitch: Adding {} dpnId with provider mapping {} to switchWeightsMap",
+            LOG.info("addSwitch: Adding {} dpnId with provider mapping {} to providerSwitchesMap",
                     switchInfo.getDpnId(), providerNet);
-            switchWeightMap.put(switchInfo.getDpnId(), INITIAL_SWITCH_WEIGHT);
+            providerSwitchesMap.computeIfAbsent(providerNet, net -> ConcurrentHashMap.newKeySet())
+                    .add(switchInfo.getDpnId());
         }
+        switchWeightIndex.addSwitch(switchInfo.getDpnId());
         if (natMode == NatserviceConfig.NatMode.Conntrack && scheduleRouters) {
             Optional<ExtRouters> optRouters;
             try {
@@ -300,50 +300,83 @@ public class WeightedCentralizedSwitchScheduler implements CentralizedSwitchSche
     @Override
     public void switchRemovedFromCache(SwitchInfo switchInfo) {
         BigInteger dpnId = switchInfo.getDpnId();
-        LOG.info("removeSwitch: Removing {} dpnId to switchWeightsMap", dpnId);
-        for (Map.Entry<String,Map<BigInteger,Integer>> providerNet : providerSwitchWeightsMap.entrySet()) {
-            Map<BigInteger,Integer> switchWeightMap = providerNet.getValue();
-            if (natMode == NatserviceConfig.NatMode.Conntrack
-                    && !INITIAL_SWITCH_WEIGHT.equals(switchWeightMap.get(dpnId))) {
-                NaptSwitches naptSwitches = getNaptSwitches();
-                for (RouterToNaptSwitch routerToNaptSwitch : naptSwitches.getRouterToNaptSwitch()) {
-                    if (dpnId.equals(routerToNaptSwitch.getPrimarySwitchId())) {
-                        Routers router = NatUtil.getRoutersFromConfigDS(dataBroker, routerToNaptSwitch.getRouterName());
-                        releaseCentralizedSwitch(router);
-                        scheduleCentralizedSwitch(router);
-                        break;
+        LOG.info("removeSwitch: Removing {} dpnId from providerSwitchesMap", dpnId);
+        for (Set<BigInteger> providerSwitches : providerSwitchesMap.values()) {
+            providerSwitches.remove(dpnId);
+        }
+        if (natMode == NatserviceConfig.NatMode.Conntrack && switchWeightIndex.getWeight(dpnId) > 0) {
+            rescheduleCentralizedSwitches(dpnId);
+        }
+        switchWeightIndex.removeSwitch(dpnId);
+    }
+
+    /**
+     * Moves all the routers of a removed switch to the remaining switches of their provider network, electing the
+     * new switches in one pass and writing them in one transaction.
+     */
+    private void rescheduleCentralizedSwitches(BigInteger removedDpnId) {
+        Map<String, Routers> routers = new HashMap<>();
+        Map<String, Predicate<BigInteger>> eligibleSwitches = new HashMap<>();
+        for (String routerName : switchWeightIndex.getRouters(removedDpnId)) {
+            Routers router = NatUtil.getRoutersFromConfigDS(dataBroker, routerName);
+            if (router == null) {
+                LOG.warn("rescheduleCentralizedSwitches: router {} not found", routerName);
+                continue;
+            }
+            String providerNet = NatUtil.getElanInstancePhysicalNetwok(router.getNetworkId().getValue(), dataBroker);
+            Set<BigInteger> providerSwitches = providerSwitchesMap.getOrDefault(providerNet, Collections.emptySet());
+            routers.put(routerName, router);
+            eligibleSwitches.put(routerName, providerSwitches::contains);
+        }
+        Map<String, BigInteger> newSwitches = switchWeightIndex.reelect(removedDpnId, eligibleSwitches);
+        if (newSwitches.isEmpty()) {
+            return;
+        }
+        LOG.info("rescheduleCentralizedSwitches: moving {} routers from switch {}", newSwitches.size(),
+                removedDpnId);
+        for (String routerName : newSwitches.keySet()) {
+            deleteFromDpnMaps(routerName, routers.get(routerName).getSubnetIds(), removedDpnId);
+        }
+        try {
+            txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+                for (Entry<String, BigInteger> newSwitch : newSwitches.entrySet()) {
+                    String routerName = newSwitch.getKey();
+                    if (BigInteger.ZERO.equals(newSwitch.getValue())) {
+                        LOG.error("rescheduleCentralizedSwitches: unable to schedule the router {} as there is no "
+                                + "available switch", routerName);
+                        tx.delete(getNaptSwitchesIdentifier(routerName));
+                    } else {
+                        tx.put(getNaptSwitchesIdentifier(routerName), new RouterToNaptSwitchBuilder()
+                                .setRouterName(routerName).setPrimarySwitchId(newSwitch.getValue())
+                                .setEnableSnat(routers.get(routerName).isEnableSnat()).build(),
+                                CREATE_MISSING_PARENTS);
                     }
                 }
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("rescheduleCentralizedSwitches: failed to move the routers of switch {}", removedDpnId, e);
+            for (String routerName : newSwitches.keySet()) {
+                switchWeightIndex.assign(routerName, removedDpnId);
+            }
+            return;
+        }
+        for (Entry<String, BigInteger> newSwitch : newSwitches.entrySet()) {
+            if (!BigInteger.ZERO.equals(newSwitch.getValue())) {
+                addToDpnMaps(newSwitch.getKey(), routers.get(newSwitch.getKey()).getSubnetIds(),
+                        newSwitch.getValue());
             }
-            switchWeightMap.remove(dpnId);
         }
-        return;
-    }
-
-    private NaptSwitches getNaptSwitches() {
-        InstanceIdentifier<NaptSwitches> id = InstanceIdentifier.builder(NaptSwitches.class).build();
-        return SingleTransactionDataBroker.syncReadOptionalAndTreatReadFailedExceptionAsAbsentOptional(dataBroker,
-                LogicalDatastoreType.CONFIGURATION, id).orNull();
     }
 
-    private BigInteger getSwitchWithLowestWeight(String providerNet) {
-        int lowestWeight = Integer.MAX_VALUE;
-        BigInteger nextSwitchId = BigInteger.valueOf(0);
-        Map<BigInteger,Integer> switchWeightMap = providerSwitchWeightsMap.get(providerNet);
-        if (null == switchWeightMap) {
+    private BigInteger assignSwitchWithLowestWeight(String routerName, String providerNet) {
+        Set<BigInteger> providerSwitches = providerSwitchesMap.get(providerNet);
+        if (null == providerSwitches) {
             LOG.error("No switch have the provider mapping {}", providerNet);
-            return nextSwitchId;
-        }
-        for (Entry<BigInteger, Integer> entry : switchWeightMap.entrySet()) {
-            BigInteger dpnId = entry.getKey();
-            Integer weight = entry.getValue();
-            if (lowestWeight > weight) {
-                lowestWeight = weight;
-                nextSwitchId =  dpnId;
-            }
+            return BigInteger.ZERO;
         }
-        LOG.info("getSwitchWithLowestWeight: switchWeightsMap {}, returning nextSwitchId {} ",
-                providerSwitchWeightsMap, nextSwitchId);
+        BigInteger nextSwitchId = switchWeightIndex.assignLightest(routerName, providerSwitches::contains);
+        LOG.info("assignSwitchWithLowestWeight: returning nextSwitchId {} with weight {} for provider network {}",
+                nextSwitchId, switchWeightIndex.getWeight(nextSwitchId), providerNet);
         return nextSwitchId;
     }
 
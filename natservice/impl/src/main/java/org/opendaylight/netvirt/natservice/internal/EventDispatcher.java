@@ -7,36 +7,106 @@
  */
 package org.opendaylight.netvirt.natservice.internal;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import org.opendaylight.yangtools.util.concurrent.SpecialExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Dispatches the flow removed NAPT events to {@link NatConstants#EVENT_DISPATCHER_SHARDS} workers, sharded by
+ * router ID so the events of one router are handled in order. Each shard has a bounded queue; when it is full the
+ * caller is held back for up to {@link NatConstants#EVENT_QUEUE_OFFER_TIMEOUT_MILLIS} before the event is
+ * dropped. Workers drain their queue in batches, so the flows removed for one batch are deleted with one
+ * transaction per DPN.
+ */
 @Singleton
 public class EventDispatcher implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(EventDispatcher.class);
 
     private final NaptEventHandler naptEventHandler;
-    private final ExecutorService executor = SpecialExecutors.newBoundedSingleThreadExecutor(
-            NatConstants.EVENT_QUEUE_LENGTH, "NatServiceEventDispatcher", EventDispatcher.class);
+    private final NatServiceCounters natServiceCounters;
+    private final List<BlockingQueue<NAPTEntryEvent>> shards =
+            new ArrayList<>(NatConstants.EVENT_DISPATCHER_SHARDS);
+    private final ExecutorService executor = Executors.newFixedThreadPool(NatConstants.EVENT_DISPATCHER_SHARDS,
+            new ThreadFactoryBuilder().setNameFormat("NatServiceEventDispatcher-%d").setDaemon(true).build());
 
     @Inject
-    public EventDispatcher(final NaptEventHandler naptEventHandler) {
+    public EventDispatcher(final NaptEventHandler naptEventHandler, final NatServiceCounters natServiceCounters) {
         this.naptEventHandler = naptEventHandler;
+        this.natServiceCounters = natServiceCounters;
+        for (int i = 0; i < NatConstants.EVENT_DISPATCHER_SHARDS; i++) {
+            shards.add(new LinkedBlockingQueue<>(
+                NatConstants.EVENT_QUEUE_LENGTH / NatConstants.EVENT_DISPATCHER_SHARDS));
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < NatConstants.EVENT_DISPATCHER_SHARDS; i++) {
+            final int shard = i;
+            executor.execute(() -> processEvents(shard));
+        }
     }
 
     @PreDestroy
     @Override
     public void close() {
-        executor.shutdown();
+        executor.shutdownNow();
     }
 
     public void addFlowRemovedNaptEvent(NAPTEntryEvent naptEntryEvent) {
         LOG.trace("addFlowRemovedNaptEvent : Adding Flow Removed event {}", naptEntryEvent);
+        int shard = Math.floorMod(Long.hashCode(naptEntryEvent.getRouterId()), NatConstants.EVENT_DISPATCHER_SHARDS);
+        try {
+            if (shards.get(shard).offer(naptEntryEvent, NatConstants.EVENT_QUEUE_OFFER_TIMEOUT_MILLIS,
+                    TimeUnit.MILLISECONDS)) {
+                natServiceCounters.naptEventEnqueued(shard);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        natServiceCounters.naptEventDropped(shard);
+        LOG.warn("addFlowRemovedNaptEvent : Event queue of shard {} is full, dropping Flow Removed event {}", shard,
+            naptEntryEvent);
+    }
 
-        executor.execute(() -> naptEventHandler.handleEvent(naptEntryEvent));
+    // TODO Clean up the exception handling
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void processEvents(int shard) {
+        BlockingQueue<NAPTEntryEvent> queue = shards.get(shard);
+        List<NAPTEntryEvent> batch = new ArrayList<>(NatConstants.EVENT_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                NAPTEntryEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, NatConstants.EVENT_BATCH_SIZE - 1);
+                naptEventHandler.handleFlowRemovedEvents(batch);
+            } catch (InterruptedException e) {
+                LOG.debug("processEvents : shard {} interrupted, exiting", shard);
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOG.error("processEvents : Exception while handling {} Flow Removed events on shard {}",
+                    batch.size(), shard, e);
+            } finally {
+                if (!batch.isEmpty()) {
+                    natServiceCounters.naptEventsProcessed(shard, batch.size());
+                    batch.clear();
+                }
+            }
+        }
     }
 }
@@ -50,6 +50,7 @@ public class ExternalNetworksChangeListener
     private final ManagedNewTransactionRunner txRunner;
     private final FloatingIPListener floatingIpListener;
     private final ExternalRoutersListener externalRouterListener;
+    private final NaptEventHandler naptEventHandler;
     private final OdlInterfaceRpcService interfaceManager;
     private final JobCoordinator coordinator;
     private final NatMode natMode;
@@ -57,6 +58,7 @@ public class ExternalNetworksChangeListener
     @Inject
     public ExternalNetworksChangeListener(final DataBroker dataBroker, final FloatingIPListener floatingIpListener,
                                           final ExternalRoutersListener externalRouterListener,
+                                          final NaptEventHandler naptEventHandler,
                                           final OdlInterfaceRpcService interfaceManager,
                                           final NatserviceConfig config,
                                           final JobCoordinator coordinator) {
@@ -65,6 +67,7 @@ public class ExternalNetworksChangeListener
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
         this.floatingIpListener = floatingIpListener;
         this.externalRouterListener = externalRouterListener;
+        this.naptEventHandler = naptEventHandler;
         this.interfaceManager = interfaceManager;
         this.coordinator = coordinator;
         if (config != null) {
@@ -104,6 +107,7 @@ public class ExternalNetworksChangeListener
                 + "identifier: {}, networks: {}", identifier, networks);
             return;
         }
+        invalidateRouterContexts(networks);
 
         for (Uuid routerId: networks.getRouterIds()) {
             String routerName = routerId.toString();
@@ -119,6 +123,9 @@ public class ExternalNetworksChangeListener
 
     @Override
     protected void update(InstanceIdentifier<Networks> identifier, Networks original, Networks update) {
+        // The SNAT sessions of the routers resolve their VPN from the network
+        invalidateRouterContexts(original);
+        invalidateRouterContexts(update);
         //Check for VPN disassociation
         Uuid originalVpn = original.getVpnid();
         Uuid updatedVpn = update.getVpnid();
@@ -133,6 +140,17 @@ public class ExternalNetworksChangeListener
         }
     }
 
+    private void invalidateRouterContexts(Networks network) {
+        if (network.getRouterIds() != null) {
+            for (Uuid routerUuid : network.getRouterIds()) {
+                long routerId = NatUtil.getVpnId(dataBroker, routerUuid.getValue());
+                if (routerId != NatConstants.INVALID_ID) {
+                    naptEventHandler.invalidateRouterContext(routerId);
+                }
+            }
+        }
+    }
+
     private void removeSnatEntries(Networks original, Uuid networkUuid) {
         if (original.getRouterIds() != null) {
             for (Uuid routerUuid : original.getRouterIds()) {
@@ -1243,6 +1243,8 @@ public class ExternalRoutersListener extends AsyncDataTreeChangeListenerBase<Rou
             LOG.error("update : external router event - Invalid routerId for routerName {}", routerName);
             return;
         }
+        // The SNAT sessions of the router resolve its external gateway MAC and network from it
+        naptEventHandler.invalidateRouterContext(routerId);
         // Check if its update on SNAT flag
         boolean originalSNATEnabled = original.isEnableSnat();
         boolean updatedSNATEnabled = update.isEnableSnat();
@@ -1450,7 +1452,7 @@ public class ExternalRoutersListener extends AsyncDataTreeChangeListenerBase<Rou
                                 naptManager.removeFromSnatIpPortDS(routerId, internalIp);
                             }
 
-                            naptManager.removeNaptPortPool(externalIp);
+                            naptManager.removeNaptPortPool(routerId, externalIp);
 
                             LOG.debug("update : Remove the NAPT translation entries from Inbound NAPT tables for "
                                     + "the removed external IP {}", externalIp);
@@ -1734,6 +1736,7 @@ public class ExternalRoutersListener extends AsyncDataTreeChangeListenerBase<Rou
                             routerName);
                     return;
                 }
+                naptEventHandler.invalidateRouterContext(routerId);
                 long bgpVpnId = NatConstants.INVALID_ID;
                 Uuid bgpVpnUuid = NatUtil.getVpnForRouter(dataBroker, routerName);
                 if (bgpVpnUuid != null) {
@@ -2132,7 +2135,7 @@ public class ExternalRoutersListener extends AsyncDataTreeChangeListenerBase<Rou
                     + "with the DPN ID {} and VPN ID {}", NwConstants.NAPT_PFIB_TABLE, dpnId, vpnId);
             mdsalManager.removeFlow(writeFlowInvTx, natPfibVpnFlowEntity);
 
-            // Remove IP-PORT active NAPT entries and release port from IdManager
+            // Remove IP-PORT active NAPT entries and release port from the NAPT port allocator
             // For the router ID get the internal IP , internal port and the corresponding
             // external IP and external Port.
             IpPortMapping ipPortMapping = NatUtil.getIportMapping(dataBroker, routerId);
@@ -2180,9 +2183,10 @@ public class ExternalRoutersListener extends AsyncDataTreeChangeListenerBase<Rou
                             NwConstants.INBOUND_NAPT_TABLE, dpnId, routerId);
                     mdsalManager.removeFlow(writeFlowInvTx, inboundNaptFlowEntity);
 
-                    // Finally release port from idmanager
+                    // Finally release port from the NAPT port allocator
                     String internalIpPort = internalIp + ":" + internalPort;
-                    naptManager.removePortFromPool(internalIpPort, externalIp);
+                    naptManager.removePortFromPool(routerId, internalIpPort,
+                        intextIpProtocolType.getProtocol());
 
                     //Remove sessions from models
                     naptManager.removeIpPortMappingForRouterID(routerId);
@@ -7,13 +7,8 @@
  */
 package org.opendaylight.netvirt.natservice.internal;
 
-import com.google.common.base.Optional;
 import java.math.BigInteger;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.jdt.annotation.NonNull;
@@ -32,15 +27,16 @@ import org.slf4j.LoggerFactory;
 public class NAPTSwitchSelector {
     private static final Logger LOG = LoggerFactory.getLogger(NAPTSwitchSelector.class);
     private final DataBroker dataBroker;
+    private final NaptSwitchWeightIndex switchWeightIndex;
 
     @Inject
-    public NAPTSwitchSelector(final DataBroker dataBroker) {
+    public NAPTSwitchSelector(final DataBroker dataBroker, final NaptSwitchWeightIndex switchWeightIndex) {
         this.dataBroker = dataBroker;
+        this.switchWeightIndex = switchWeightIndex;
     }
 
     BigInteger selectNewNAPTSwitch(String routerName) {
         LOG.info("selectNewNAPTSwitch : Select a new NAPT switch for router {}", routerName);
-        Map<BigInteger, Integer> naptSwitchWeights = constructNAPTSwitches();
         List<BigInteger> routerSwitches = getDpnsForVpn(routerName);
         if (routerSwitches.isEmpty()) {
             LOG.warn("selectNewNAPTSwitch : Delaying NAPT switch selection due to no dpns scenario for router {}",
@@ -48,64 +44,17 @@ public class NAPTSwitchSelector {
             return BigInteger.ZERO;
         }
 
-        Set<SwitchWeight> switchWeights = new TreeSet<>();
-        for (BigInteger dpn : routerSwitches) {
-            if (naptSwitchWeights.get(dpn) != null) {
-                switchWeights.add(new SwitchWeight(dpn, naptSwitchWeights.get(dpn)));
-            } else {
-                switchWeights.add(new SwitchWeight(dpn, 0));
-            }
-        }
-
-        BigInteger primarySwitch;
-
-        if (!switchWeights.isEmpty()) {
-
-            LOG.debug("selectNewNAPTSwitch : Current switch weights for router {} - {}", routerName, switchWeights);
-
-            RouterToNaptSwitchBuilder routerToNaptSwitchBuilder =
-                new RouterToNaptSwitchBuilder().setRouterName(routerName);
-            SwitchWeight firstSwitchWeight = switchWeights.iterator().next();
-            primarySwitch = firstSwitchWeight.getSwitch();
-            RouterToNaptSwitch id = routerToNaptSwitchBuilder.setPrimarySwitchId(primarySwitch).build();
-
-            MDSALUtil.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
-                getNaptSwitchesIdentifier(routerName), id);
-
-            LOG.debug("selectNewNAPTSwitch : successful addition of RouterToNaptSwitch to napt-switches container");
-            return primarySwitch;
-        } else {
-            primarySwitch = BigInteger.ZERO;
+        BigInteger primarySwitch = switchWeightIndex.assignLightest(routerName, routerSwitches);
+        LOG.debug("selectNewNAPTSwitch : Selected switch {} with weight {} for router {}", primarySwitch,
+                switchWeightIndex.getWeight(primarySwitch), routerName);
 
-            LOG.debug("selectNewNAPTSwitch : switchWeights empty, primarySwitch: {} ", primarySwitch);
-            return primarySwitch;
-        }
-    }
-
-    private Map<BigInteger, Integer> constructNAPTSwitches() {
-        Optional<NaptSwitches> optNaptSwitches =
-            MDSALUtil.read(dataBroker, LogicalDatastoreType.CONFIGURATION, getNaptSwitchesIdentifier());
-        Map<BigInteger, Integer> switchWeights = new HashMap<>();
-
-        if (optNaptSwitches.isPresent()) {
-            NaptSwitches naptSwitches = optNaptSwitches.get();
-
-            for (RouterToNaptSwitch naptSwitch : naptSwitches.nonnullRouterToNaptSwitch()) {
-                BigInteger primarySwitch = naptSwitch.getPrimarySwitchId();
-                //update weight
-                Integer weight = switchWeights.get(primarySwitch);
-                if (weight == null) {
-                    switchWeights.put(primarySwitch, 1);
-                } else {
-                    switchWeights.put(primarySwitch, ++weight);
-                }
-            }
-        }
-        return switchWeights;
-    }
+        RouterToNaptSwitch id = new RouterToNaptSwitchBuilder().setRouterName(routerName)
+                .setPrimarySwitchId(primarySwitch).build();
+        MDSALUtil.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
+            getNaptSwitchesIdentifier(routerName), id);
 
-    private InstanceIdentifier<NaptSwitches> getNaptSwitchesIdentifier() {
-        return InstanceIdentifier.create(NaptSwitches.class);
+        LOG.debug("selectNewNAPTSwitch : successful addition of RouterToNaptSwitch to napt-switches container");
+        return primarySwitch;
     }
 
     private InstanceIdentifier<RouterToNaptSwitch> getNaptSwitchesIdentifier(String routerName) {
@@ -123,57 +72,4 @@ public class NAPTSwitchSelector {
         }
         return NatUtil.getDpnsForRouter(dataBroker, routerName);
     }
-
-    private static class SwitchWeight implements Comparable<SwitchWeight> {
-        private final BigInteger swich;
-        private int weight;
-
-        SwitchWeight(BigInteger swich, int weight) {
-            this.swich = swich;
-            this.weight = weight;
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + (swich == null ? 0 : swich.hashCode());
-            return result;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) {
-                return true;
-            }
-            if (obj == null) {
-                return false;
-            }
-            if (getClass() != obj.getClass()) {
-                return false;
-            }
-            SwitchWeight other = (SwitchWeight) obj;
-            if (swich == null) {
-                if (other.swich != null) {
-                    return false;
-                }
-            } else if (!swich.equals(other.swich)) {
-                return false;
-            }
-            return true;
-        }
-
-        public BigInteger getSwitch() {
-            return swich;
-        }
-
-        public int getWeight() {
-            return weight;
-        }
-
-        @Override
-        public int compareTo(@NonNull SwitchWeight switchWeight) {
-            return weight - switchWeight.getWeight();
-        }
-    }
 }
@@ -8,6 +8,8 @@
 
 package org.opendaylight.netvirt.natservice.internal;
 
+import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
+
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -19,15 +21,22 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.sal.common.util.Arguments;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
 import org.opendaylight.genius.interfacemanager.globals.InterfaceInfo;
 import org.opendaylight.genius.interfacemanager.interfaces.IInterfaceManager;
 import org.opendaylight.genius.mdsalutil.ActionInfo;
@@ -67,6 +76,7 @@ import org.opendaylight.genius.mdsalutil.packet.IPv4;
 import org.opendaylight.genius.mdsalutil.packet.TCP;
 import org.opendaylight.genius.mdsalutil.packet.UDP;
 import org.opendaylight.infrautils.utils.concurrent.JdkFutures;
+import org.opendaylight.infrautils.utils.concurrent.ListenableFutures;
 import org.opendaylight.netvirt.elanmanager.api.IElanService;
 import org.opendaylight.openflowplugin.libraries.liblldp.PacketException;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Uri;
@@ -99,7 +109,6 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.N
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.ext.routers.Routers;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.ip.port.map.IpPortExternal;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketProcessingService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.TransmitPacketInput;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
@@ -111,6 +120,9 @@ import org.slf4j.LoggerFactory;
 @Singleton
 public class NaptEventHandler {
     private static final Logger LOG = LoggerFactory.getLogger(NaptEventHandler.class);
+    // Only a fallback, the context of a router is invalidated as soon as its NAPT switch, external router or
+    // external network changes
+    private static final long ROUTER_CONTEXT_TTL_MILLIS = 30000;
     private final DataBroker dataBroker;
     private final IMdsalApiManager mdsalManager;
     private final PacketProcessingService pktService;
@@ -121,6 +133,9 @@ public class NaptEventHandler {
     private final IInterfaceManager interfaceManager;
     private final SalFlowService salFlowServiceRpc;
     private final NatOverVxlanUtil natOverVxlanUtil;
+    private final ManagedNewTransactionRunner txRunner;
+    private final ConcurrentMap<Long, RouterSnatContext> routerContexts = new ConcurrentHashMap<>();
+    private final AtomicLong routerContextInvalidations = new AtomicLong();
 
     @Inject
     public NaptEventHandler(final DataBroker dataBroker, final IMdsalApiManager mdsalManager,
@@ -142,6 +157,7 @@ public class NaptEventHandler {
         this.idManager = idManager;
         this.salFlowServiceRpc = salFlowServiceRpc;
         this.natOverVxlanUtil = natOverVxlanUtil;
+        this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
     }
 
     // TODO Clean up the exception handling
@@ -167,145 +183,30 @@ public class NaptEventHandler {
             5) Write the flow to the INBOUND NAPT Table and forward to FIB table for routing the traffic.
     */
         try {
-            Long routerId = naptEntryEvent.getRouterId();
             String internalIpAddress = naptEntryEvent.getIpAddress();
             int internalPort = naptEntryEvent.getPortNumber();
-            String sourceIPPortKey = routerId + NatConstants.COLON_SEPARATOR
+            String sourceIPPortKey = naptEntryEvent.getRouterId() + NatConstants.COLON_SEPARATOR
                 + internalIpAddress + NatConstants.COLON_SEPARATOR + internalPort;
             LOG.trace("handleEvent : Time Elapsed before procesing snat ({}:{}) packet is {} ms,routerId: {},"
                     + "isPktProcessed:{}",
                               internalIpAddress, internalPort,
-                              (System.currentTimeMillis() - naptEntryEvent.getObjectCreationTime()), routerId,
-                              naptEntryEvent.isPktProcessed());
-            //Get the DPN ID
-            BigInteger dpnId = NatUtil.getPrimaryNaptfromRouterId(dataBroker, routerId);
-            long bgpVpnId = NatConstants.INVALID_ID;
-            if (dpnId == null) {
-                LOG.warn("handleEvent : dpnId is null. Assuming the router ID {} as the BGP VPN ID and "
-                    + "proceeding....", routerId);
-                bgpVpnId = routerId;
-                LOG.debug("handleEvent : BGP VPN ID {}", bgpVpnId);
-                String vpnName = NatUtil.getRouterName(dataBroker, bgpVpnId);
-                String routerName = NatUtil.getRouterIdfromVpnInstance(dataBroker, vpnName, internalIpAddress);
-                if (routerName == null) {
-                    NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
-                    LOG.error("handleEvent: Unable to find router for VpnName {}. Droping packet for SNAT ({})"
-                        + "session", vpnName, sourceIPPortKey);
-                    return;
-                }
-                routerId = NatUtil.getVpnId(dataBroker, routerName);
-                LOG.debug("handleEvent : Router ID {}", routerId);
-                dpnId = NatUtil.getPrimaryNaptfromRouterId(dataBroker, routerId);
-                if (dpnId == null) {
-                    NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
-                    LOG.error("handleEvent: Unable to find router for VpnName {}. Droping packet for SNAT ({})"
-                        + "session", vpnName, sourceIPPortKey);
-                    return;
-                }
+                              (System.currentTimeMillis() - naptEntryEvent.getObjectCreationTime()),
+                              naptEntryEvent.getRouterId(), naptEntryEvent.isPktProcessed());
+            RouterSnatContext routerContext = resolveRouterContext(naptEntryEvent);
+            if (routerContext == null) {
+                return;
             }
+            Long routerId = routerContext.routerId;
+            BigInteger dpnId = routerContext.dpnId;
             if (naptEntryEvent.getOperation() == NAPTEntryEvent.Operation.ADD) {
                 LOG.debug("handleEvent : Inside Add operation of NaptEventHandler");
 
                 // Build and install the NAPT translation flows in the Outbound and Inbound NAPT tables
                 if (!naptEntryEvent.isPktProcessed()) {
-
-                    // Get the External Gateway MAC Address
-                    String extGwMacAddress = NatUtil.getExtGwMacAddFromRouterId(dataBroker, routerId);
-                    if (extGwMacAddress != null) {
-                        LOG.debug("handleEvent : External Gateway MAC address {} found for External Router ID {}",
-                                  extGwMacAddress, routerId);
-                    } else {
-                        NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
-                        LOG.error("handleEvent: No External Gateway MAC address found for External Router ID {}."
-                            + "Droping packet for SNAT ({}) session", routerId, sourceIPPortKey);
-                        return;
-                    }
-
-                    //Get the external network ID from the ExternalRouter model
-                    Uuid networkId = NatUtil.getNetworkIdFromRouterId(dataBroker, routerId);
-                    if (networkId == null) {
-                        NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
-                        LOG.error("handleEvent: networkId is null. Droping packet for SNAT ({}) session",
-                                 sourceIPPortKey);
-                        return;
+                    NaptSession session = resolveSession(naptEntryEvent, routerContext);
+                    if (session != null) {
+                        installSessions(dpnId, Collections.singletonList(session));
                     }
-
-                    //Get the VPN ID from the ExternalNetworks model
-                    Uuid vpnUuid = NatUtil.getVpnIdfromNetworkId(dataBroker, networkId);
-                    if (vpnUuid == null) {
-                        NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
-                        LOG.error("handleEvent: vpnUuid is null. Droping packet for SNAT ({}) session",
-                                 sourceIPPortKey);
-                        return;
-                    }
-                    Long vpnId = NatUtil.getVpnId(dataBroker, vpnUuid.getValue());
-
-                    SessionAddress internalAddress = new SessionAddress(internalIpAddress, internalPort);
-                    NAPTEntryEvent.Protocol protocol = naptEntryEvent.getProtocol();
-
-                    //Get the external IP address for the corresponding internal IP address
-                    SessionAddress externalAddress =
-                            naptManager.getExternalAddressMapping(routerId, internalAddress,
-                                    naptEntryEvent.getProtocol());
-                    if (externalAddress == null) {
-                        NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
-                        LOG.error("handleEvent: externalAddress is null. Droping packet for SNAT ({}) session",
-                                  sourceIPPortKey);
-                        return;
-                    }
-
-                    Long vpnIdFromExternalSubnet = getVpnIdFromExternalSubnet(routerId,
-                            externalAddress.getIpAddress());
-                    if (vpnIdFromExternalSubnet != NatConstants.INVALID_ID) {
-                        vpnId = vpnIdFromExternalSubnet;
-                    }
-
-                    // Added External Gateway MAC Address
-                    Future<RpcResult<AddFlowOutput>> addFlowResult =
-                            buildAndInstallNatFlowsOptionalRpc(dpnId, NwConstants.INBOUND_NAPT_TABLE, vpnId, routerId,
-                                    bgpVpnId, externalAddress, internalAddress, protocol, extGwMacAddress, true);
-                    final BigInteger finalDpnId = dpnId;
-                    final Long finalVpnId = vpnId;
-                    final Long finalRouterId = routerId;
-                    final long finalBgpVpnId = bgpVpnId;
-                    Futures.addCallback(JdkFutureAdapters.listenInPoolThread(addFlowResult),
-                                        new FutureCallback<RpcResult<AddFlowOutput>>() {
-
-                                @Override
-                                public void onSuccess(@Nullable RpcResult<AddFlowOutput> result) {
-                                    LOG.debug("handleEvent : Configured inbound rule for {} to {}",
-                                             internalAddress, externalAddress);
-                                    Future<RpcResult<AddFlowOutput>> addFlowResult =
-                                            buildAndInstallNatFlowsOptionalRpc(finalDpnId,
-                                                    NwConstants.OUTBOUND_NAPT_TABLE, finalVpnId, finalRouterId,
-                                                    finalBgpVpnId, internalAddress, externalAddress, protocol,
-                                                    extGwMacAddress, true);
-                                    Futures.addCallback(JdkFutureAdapters.listenInPoolThread(addFlowResult),
-                                            new FutureCallback<RpcResult<AddFlowOutput>>() {
-
-                                            @Override
-                                            public void onSuccess(@Nullable RpcResult<AddFlowOutput> result) {
-                                                LOG.debug("handleEvent : Configured outbound rule, sending packet out"
-                                                        + "from {} to {}", internalAddress, externalAddress);
-                                                prepareAndSendPacketOut(naptEntryEvent, finalRouterId);
-                                            }
-
-                                            @Override
-                                            public void onFailure(@NonNull Throwable throwable) {
-                                                LOG.error("handleEvent : Error configuring outbound "
-                                                        + "SNAT flows using RPC for SNAT connection from {} to {}",
-                                                                  internalAddress, externalAddress);
-                                            }
-                                        }, MoreExecutors.directExecutor());
-                                }
-
-                                @Override
-                                public void onFailure(@NonNull Throwable throwable) {
-                                    LOG.error("handleEvent : Error configuring inbound SNAT flows "
-                                            + "using RPC for SNAT connection from {} to {}",
-                                            internalAddress, externalAddress);
-                                }
-                            }, MoreExecutors.directExecutor());
                 } else {
                     prepareAndSendPacketOut(naptEntryEvent, routerId);
                 }
@@ -324,6 +225,216 @@ public class NaptEventHandler {
         }
     }
 
+    /**
+     * Drops the cached context of the router, e.g. because its NAPT switch, its external gateway or the VPN of its
+     * external network changed.
+     */
+    public void invalidateRouterContext(long routerId) {
+        routerContextInvalidations.incrementAndGet();
+        routerContexts.remove(routerId);
+    }
+
+    /**
+     * Resolves the router, BGP VPN and NAPT switch of the given event. Results for routers that have their own
+     * NAPT switch are cached until {@link #invalidateRouterContext(long)}, or for at most
+     * {@link #ROUTER_CONTEXT_TTL_MILLIS}, so a burst of new sessions on one router does not repeat the same
+     * datastore reads for every packet.
+     *
+     * @return the router context, or null if the packet has to be dropped
+     */
+    @Nullable
+    RouterSnatContext resolveRouterContext(NAPTEntryEvent naptEntryEvent) {
+        Long routerId = naptEntryEvent.getRouterId();
+        String internalIpAddress = naptEntryEvent.getIpAddress();
+        String sourceIPPortKey = routerId + NatConstants.COLON_SEPARATOR
+            + internalIpAddress + NatConstants.COLON_SEPARATOR + naptEntryEvent.getPortNumber();
+        long now = System.currentTimeMillis();
+        RouterSnatContext cached = routerContexts.get(routerId);
+        if (cached != null && now - cached.resolvedTime < ROUTER_CONTEXT_TTL_MILLIS) {
+            return cached;
+        }
+        long invalidations = routerContextInvalidations.get();
+        //Get the DPN ID
+        BigInteger dpnId = NatUtil.getPrimaryNaptfromRouterId(dataBroker, routerId);
+        long bgpVpnId = NatConstants.INVALID_ID;
+        if (dpnId != null) {
+            RouterSnatContext routerContext = new RouterSnatContext(routerId, bgpVpnId, dpnId, now);
+            routerContexts.put(routerId, routerContext);
+            // Do not keep a context resolved before a concurrent invalidation
+            if (routerContextInvalidations.get() != invalidations) {
+                routerContexts.remove(routerId, routerContext);
+            }
+            return routerContext;
+        }
+        LOG.warn("handleEvent : dpnId is null. Assuming the router ID {} as the BGP VPN ID and "
+            + "proceeding....", routerId);
+        bgpVpnId = routerId;
+        LOG.debug("handleEvent : BGP VPN ID {}", bgpVpnId);
+        String vpnName = NatUtil.getRouterName(dataBroker, bgpVpnId);
+        String routerName = NatUtil.getRouterIdfromVpnInstance(dataBroker, vpnName, internalIpAddress);
+        if (routerName == null) {
+            NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
+            LOG.error("handleEvent: Unable to find router for VpnName {}. Droping packet for SNAT ({})"
+                + "session", vpnName, sourceIPPortKey);
+            return null;
+        }
+        routerId = NatUtil.getVpnId(dataBroker, routerName);
+        LOG.debug("handleEvent : Router ID {}", routerId);
+        dpnId = NatUtil.getPrimaryNaptfromRouterId(dataBroker, routerId);
+        if (dpnId == null) {
+            NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
+            LOG.error("handleEvent: Unable to find router for VpnName {}. Droping packet for SNAT ({})"
+                + "session", vpnName, sourceIPPortKey);
+            return null;
+        }
+        // The router depends on the internal IP of the packet here, so this context is not cached
+        return new RouterSnatContext(routerId, bgpVpnId, dpnId, now);
+    }
+
+    /**
+     * Resolves everything needed to program the flows of a new SNAT session and allocates its external
+     * address.
+     *
+     * @return the session, or null if the packet has to be dropped
+     */
+    @Nullable
+    NaptSession resolveSession(NAPTEntryEvent naptEntryEvent, RouterSnatContext routerContext) {
+        long routerId = routerContext.routerId;
+        String sourceIPPortKey = naptEntryEvent.getRouterId() + NatConstants.COLON_SEPARATOR
+            + naptEntryEvent.getIpAddress() + NatConstants.COLON_SEPARATOR + naptEntryEvent.getPortNumber();
+
+        // Get the External Gateway MAC Address
+        String extGwMacAddress = routerContext.extGwMacAddress;
+        if (extGwMacAddress == null) {
+            extGwMacAddress = NatUtil.getExtGwMacAddFromRouterId(dataBroker, routerId);
+            if (extGwMacAddress == null) {
+                NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
+                LOG.error("handleEvent: No External Gateway MAC address found for External Router ID {}."
+                    + "Droping packet for SNAT ({}) session", routerId, sourceIPPortKey);
+                return null;
+            }
+            routerContext.extGwMacAddress = extGwMacAddress;
+        }
+        LOG.debug("handleEvent : External Gateway MAC address {} found for External Router ID {}",
+                  extGwMacAddress, routerId);
+
+        Long vpnId = routerContext.vpnId;
+        if (vpnId == null) {
+            //Get the external network ID from the ExternalRouter model
+            Uuid networkId = NatUtil.getNetworkIdFromRouterId(dataBroker, routerId);
+            if (networkId == null) {
+                NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
+                LOG.error("handleEvent: networkId is null. Droping packet for SNAT ({}) session",
+                         sourceIPPortKey);
+                return null;
+            }
+
+            //Get the VPN ID from the ExternalNetworks model
+            Uuid vpnUuid = NatUtil.getVpnIdfromNetworkId(dataBroker, networkId);
+            if (vpnUuid == null) {
+                NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
+                LOG.error("handleEvent: vpnUuid is null. Droping packet for SNAT ({}) session",
+                         sourceIPPortKey);
+                return null;
+            }
+            vpnId = NatUtil.getVpnId(dataBroker, vpnUuid.getValue());
+            routerContext.vpnId = vpnId;
+        }
+
+        SessionAddress internalAddress =
+            new SessionAddress(naptEntryEvent.getIpAddress(), naptEntryEvent.getPortNumber());
+
+        //Get the external IP address for the corresponding internal IP address
+        SessionAddress externalAddress =
+                naptManager.getExternalAddressMapping(routerId, internalAddress, naptEntryEvent.getProtocol());
+        if (externalAddress == null) {
+            NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
+            LOG.error("handleEvent: externalAddress is null. Droping packet for SNAT ({}) session",
+                      sourceIPPortKey);
+            return null;
+        }
+
+        Long vpnIdFromExternalSubnet = routerContext.externalSubnetVpnIds.computeIfAbsent(
+            externalAddress.getIpAddress(), externalIp -> getVpnIdFromExternalSubnet(routerId, externalIp));
+        if (vpnIdFromExternalSubnet != NatConstants.INVALID_ID) {
+            vpnId = vpnIdFromExternalSubnet;
+        }
+        return new NaptSession(naptEntryEvent, routerContext, vpnId, extGwMacAddress, internalAddress,
+            externalAddress);
+    }
+
+    /**
+     * Programs the inbound and outbound NAPT flows of the given sessions, all hosted on the same NAPT switch.
+     * The flows are pushed to the switch through RPC, so the packet out of each session cannot race its flows,
+     * and are written to the config datastore for all the sessions in a single transaction.
+     */
+    void installSessions(BigInteger dpnId, List<NaptSession> sessions) {
+        List<FlowEntity> flowEntities = new ArrayList<>(sessions.size() * 2);
+        for (NaptSession session : sessions) {
+            RouterSnatContext routerContext = session.routerContext;
+            NAPTEntryEvent.Protocol protocol = session.naptEntryEvent.getProtocol();
+            // Added External Gateway MAC Address
+            FlowEntity inboundFlowEntity = buildNatFlowEntity(dpnId, NwConstants.INBOUND_NAPT_TABLE,
+                session.vpnId, routerContext.routerId, routerContext.bgpVpnId, session.externalAddress,
+                session.internalAddress, protocol, session.extGwMacAddress);
+            FlowEntity outboundFlowEntity = buildNatFlowEntity(dpnId, NwConstants.OUTBOUND_NAPT_TABLE,
+                session.vpnId, routerContext.routerId, routerContext.bgpVpnId, session.internalAddress,
+                session.externalAddress, protocol, session.extGwMacAddress);
+            flowEntities.add(inboundFlowEntity);
+            flowEntities.add(outboundFlowEntity);
+            installSessionFlowsRpc(dpnId, session, inboundFlowEntity, outboundFlowEntity);
+        }
+        // Keep flow installation through MDSAL as well to be able to handle switch failures
+        long startTime = System.currentTimeMillis();
+        ListenableFutures.addErrorLogging(txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION,
+            tx -> flowEntities.forEach(flowEntity -> mdsalManager.addFlow(tx, flowEntity))), LOG,
+            "Error installing NAPT flows on DPN {}", dpnId);
+        LOG.trace("installSessions : Time Elapsed while submitting {} NAPT flows for {} sessions on DPN:{}: {}ms",
+            flowEntities.size(), sessions.size(), dpnId, System.currentTimeMillis() - startTime);
+    }
+
+    private void installSessionFlowsRpc(BigInteger dpnId, NaptSession session, FlowEntity inboundFlowEntity,
+            FlowEntity outboundFlowEntity) {
+        SessionAddress internalAddress = session.internalAddress;
+        SessionAddress externalAddress = session.externalAddress;
+        Future<RpcResult<AddFlowOutput>> addFlowResult = addFlowRpc(dpnId, inboundFlowEntity);
+        Futures.addCallback(JdkFutureAdapters.listenInPoolThread(addFlowResult),
+                            new FutureCallback<RpcResult<AddFlowOutput>>() {
+
+                    @Override
+                    public void onSuccess(@Nullable RpcResult<AddFlowOutput> result) {
+                        LOG.debug("handleEvent : Configured inbound rule for {} to {}",
+                                 internalAddress, externalAddress);
+                        Future<RpcResult<AddFlowOutput>> addFlowResult = addFlowRpc(dpnId, outboundFlowEntity);
+                        Futures.addCallback(JdkFutureAdapters.listenInPoolThread(addFlowResult),
+                                new FutureCallback<RpcResult<AddFlowOutput>>() {
+
+                                @Override
+                                public void onSuccess(@Nullable RpcResult<AddFlowOutput> result) {
+                                    LOG.debug("handleEvent : Configured outbound rule, sending packet out"
+                                            + "from {} to {}", internalAddress, externalAddress);
+                                    prepareAndSendPacketOut(session.naptEntryEvent,
+                                        session.routerContext.routerId);
+                                }
+
+                                @Override
+                                public void onFailure(@NonNull Throwable throwable) {
+                                    LOG.error("handleEvent : Error configuring outbound "
+                                            + "SNAT flows using RPC for SNAT connection from {} to {}",
+                                                      internalAddress, externalAddress);
+                                }
+                            }, MoreExecutors.directExecutor());
+                    }
+
+                    @Override
+                    public void onFailure(@NonNull Throwable throwable) {
+                        LOG.error("handleEvent : Error configuring inbound SNAT flows "
+                                + "using RPC for SNAT connection from {} to {}",
+                                internalAddress, externalAddress);
+                    }
+                }, MoreExecutors.directExecutor());
+    }
+
     private void prepareAndSendPacketOut(NAPTEntryEvent naptEntryEvent, Long routerId) {
         //Send Packetout - tcp or udp packets which got punted to controller.
         BigInteger metadata = naptEntryEvent.getPacketReceived().getMatch().getMetadata().getMetadata();
@@ -418,16 +529,20 @@ public class NaptEventHandler {
                                                long bgpVpnId, SessionAddress actualSourceAddress,
                                                SessionAddress translatedSourceAddress,
                                                NAPTEntryEvent.Protocol protocol, String extGwMacAddress) {
-        buildAndInstallNatFlowsOptionalRpc(dpnId, tableId, vpnId, routerId, bgpVpnId, actualSourceAddress,
-                translatedSourceAddress, protocol, extGwMacAddress, false);
+        FlowEntity snatFlowEntity = buildNatFlowEntity(dpnId, tableId, vpnId, routerId, bgpVpnId,
+                actualSourceAddress, translatedSourceAddress, protocol, extGwMacAddress);
+        long startTime = System.currentTimeMillis();
+        mdsalManager.syncInstallFlow(snatFlowEntity);
+        LOG.trace("buildAndInstallNatFlows : Time Elapsed while installing table-{} "
+                + "flow on DPN:{} for snat packet({},{}): {}ms", tableId, dpnId,
+                actualSourceAddress.getIpAddress(),actualSourceAddress.getPortNumber(),
+                System.currentTimeMillis() - startTime);
     }
 
-    private Future<RpcResult<AddFlowOutput>> buildAndInstallNatFlowsOptionalRpc(
-            BigInteger dpnId, short tableId, long vpnId, long routerId, long bgpVpnId,
-            SessionAddress actualSourceAddress, SessionAddress translatedSourceAddress,
-            NAPTEntryEvent.Protocol protocol, String extGwMacAddress,
-            boolean sendRpc) {
-        LOG.debug("buildAndInstallNatFlowsOptionalRpc : Build and install table={} flow on dpnId {} and routerId {}",
+    private FlowEntity buildNatFlowEntity(BigInteger dpnId, short tableId, long vpnId, long routerId,
+            long bgpVpnId, SessionAddress actualSourceAddress, SessionAddress translatedSourceAddress,
+            NAPTEntryEvent.Protocol protocol, String extGwMacAddress) {
+        LOG.debug("buildNatFlowEntity : Build table={} flow on dpnId {} and routerId {}",
                 tableId, dpnId, routerId);
         //Build the flow for replacing the actual IP and port with the translated IP and port.
         int idleTimeout = 0;
@@ -440,7 +555,7 @@ public class NaptEventHandler {
         } else {
             intranetVpnId = routerId;
         }
-        LOG.debug("buildAndInstallNatFlowsOptionalRpc : Intranet VPN ID {} Router ID {}", intranetVpnId, routerId);
+        LOG.debug("buildNatFlowEntity : Intranet VPN ID {} Router ID {}", intranetVpnId, routerId);
         String translatedIp = translatedSourceAddress.getIpAddress();
         int translatedPort = translatedSourceAddress.getPortNumber();
         String actualIp = actualSourceAddress.getIpAddress();
@@ -448,7 +563,7 @@ public class NaptEventHandler {
         String switchFlowRef =
             NatUtil.getNaptFlowRef(dpnId, tableId, String.valueOf(routerId), actualIp, actualPort);
 
-        FlowEntity snatFlowEntity = new FlowEntityBuilder()
+        return new FlowEntityBuilder()
             .setDpnId(dpnId)
             .setTableId(tableId)
             .setFlowId(switchFlowRef)
@@ -462,35 +577,18 @@ public class NaptEventHandler {
                                             intranetVpnId, vpnId, tableId, protocol, extGwMacAddress))
             .setSendFlowRemFlag(true)
             .build();
+    }
 
-        // Install flows using RPC to prevent race with future packet-out that depends on this flow
-        Future<RpcResult<AddFlowOutput>> addFlowResult = null;
-        if (sendRpc) {
-            Flow flow = snatFlowEntity.getFlowBuilder().build();
-            NodeRef nodeRef = getNodeRef(dpnId);
-            FlowRef flowRef = getFlowRef(dpnId, flow);
-            AddFlowInput addFlowInput = new AddFlowInputBuilder(flow).setFlowRef(flowRef).setNode(nodeRef).build();
-            long startTime = System.currentTimeMillis();
-            addFlowResult = salFlowServiceRpc.addFlow(addFlowInput);
-            LOG.debug("buildAndInstallNatFlowsOptionalRpc : Time elapsed for salFlowServiceRpc table {}: {}ms ",
-                    tableId, System.currentTimeMillis() - startTime);
-         // Keep flow installation through MDSAL as well to be able to handle switch failures
-            startTime = System.currentTimeMillis();
-            mdsalManager.installFlow(snatFlowEntity);
-            LOG.trace("buildAndInstallNatFlowsOptionalRpc : Time Elapsed while installing table-{} "
-                    + "flow on DPN:{} for snat packet({},{}): {}ms", tableId, dpnId,
-                    actualSourceAddress.getIpAddress(),actualSourceAddress.getPortNumber(),
-                    System.currentTimeMillis() - startTime);
-        } else {
-            long startTime = System.currentTimeMillis();
-            mdsalManager.syncInstallFlow(snatFlowEntity);
-            LOG.trace("buildAndInstallNatFlowsOptionalRpc : Time Elapsed while installing table-{} "
-                    + "flow on DPN:{} for snat packet({},{}): {}ms", tableId, dpnId,
-                    actualSourceAddress.getIpAddress(),actualSourceAddress.getPortNumber(),
-                    System.currentTimeMillis() - startTime);
-        }
-        LOG.trace("buildAndInstallNatFlowsOptionalRpc : Exited");
-
+    // Install flows using RPC to prevent race with future packet-out that depends on this flow
+    private Future<RpcResult<AddFlowOutput>> addFlowRpc(BigInteger dpnId, FlowEntity snatFlowEntity) {
+        Flow flow = snatFlowEntity.getFlowBuilder().build();
+        NodeRef nodeRef = getNodeRef(dpnId);
+        FlowRef flowRef = getFlowRef(dpnId, flow);
+        AddFlowInput addFlowInput = new AddFlowInputBuilder(flow).setFlowRef(flowRef).setNode(nodeRef).build();
+        long startTime = System.currentTimeMillis();
+        Future<RpcResult<AddFlowOutput>> addFlowResult = salFlowServiceRpc.addFlow(addFlowInput);
+        LOG.debug("addFlowRpc : Time elapsed for salFlowServiceRpc table {}: {}ms ",
+                snatFlowEntity.getTableId(), System.currentTimeMillis() - startTime);
         return addFlowResult;
     }
 
@@ -716,23 +814,59 @@ public class NaptEventHandler {
 
     public void handleFlowRemoved(NAPTEntryEvent naptEntryEvent, Long routerId, String sourceIPPortKey,
                                   BigInteger dpnId) {
+        Map<BigInteger, List<FlowEntity>> flowsToRemove = new HashMap<>();
+        collectFlowRemoved(naptEntryEvent, routerId, sourceIPPortKey, dpnId, flowsToRemove);
+        removeFlows(flowsToRemove);
+    }
+
+    /**
+     * Handles a batch of flow removed events. The NAPT flows of all the sessions are removed with one transaction
+     * per DPN rather than one per flow.
+     */
+    // TODO Clean up the exception handling
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    void handleFlowRemovedEvents(List<NAPTEntryEvent> naptEntryEvents) {
+        Map<BigInteger, List<FlowEntity>> flowsToRemove = new HashMap<>();
+        for (NAPTEntryEvent naptEntryEvent : naptEntryEvents) {
+            try {
+                RouterSnatContext routerContext = resolveRouterContext(naptEntryEvent);
+                if (routerContext == null) {
+                    continue;
+                }
+                String sourceIPPortKey = naptEntryEvent.getRouterId() + NatConstants.COLON_SEPARATOR
+                    + naptEntryEvent.getIpAddress() + NatConstants.COLON_SEPARATOR + naptEntryEvent.getPortNumber();
+                collectFlowRemoved(naptEntryEvent, routerContext.routerId, sourceIPPortKey, routerContext.dpnId,
+                    flowsToRemove);
+            } catch (Exception e) {
+                LOG.error("handleFlowRemovedEvents : Exception while handling payload {}", naptEntryEvent, e);
+            }
+        }
+        removeFlows(flowsToRemove);
+    }
+
+    private void collectFlowRemoved(NAPTEntryEvent naptEntryEvent, Long routerId, String sourceIPPortKey,
+                                    BigInteger dpnId, Map<BigInteger, List<FlowEntity>> flowsToRemove) {
         String internalIpv4HostAddress = naptEntryEvent.getIpAddress();
-        Integer internalPortNumber = naptEntryEvent.getPortNumber();
+        int internalPortNumber = naptEntryEvent.getPortNumber();
         NAPTEntryEvent.Protocol protocol = naptEntryEvent.getProtocol();
-        //Get the external IP address and the port from the model
-        IpPortExternal ipPortExternal = NatUtil.getExternalIpPortMap(dataBroker, routerId, internalIpv4HostAddress,
-                internalPortNumber.toString(), protocol);
-        if (ipPortExternal == null) {
+        //Get the external IP address and the port
+        SessionAddress externalAddress = naptManager.getExistingExternalAddress(routerId, internalIpv4HostAddress,
+                internalPortNumber, protocol);
+        if (externalAddress == null) {
             LOG.error("handleFlowRemoved : IpPortExternal is null while queried from the model for routerId {}",
                     routerId);
             return;
         }
-        String externalIpAddress = ipPortExternal.getIpAddress();
-        int externalPortNumber = ipPortExternal.getPortNum();
-
-        removeNatFlows(dpnId, NwConstants.INBOUND_NAPT_TABLE, routerId, externalIpAddress, externalPortNumber);
 
-        removeNatFlows(dpnId, NwConstants.OUTBOUND_NAPT_TABLE, routerId, internalIpv4HostAddress, internalPortNumber);
+        if (dpnId == null || dpnId.equals(BigInteger.ZERO)) {
+            LOG.error("handleFlowRemoved : DPN ID {} is invalid", dpnId);
+        } else {
+            List<FlowEntity> dpnFlows = flowsToRemove.computeIfAbsent(dpnId, key -> new ArrayList<>());
+            dpnFlows.add(buildNaptFlowToRemove(dpnId, NwConstants.INBOUND_NAPT_TABLE, routerId,
+                externalAddress.getIpAddress(), externalAddress.getPortNumber()));
+            dpnFlows.add(buildNaptFlowToRemove(dpnId, NwConstants.OUTBOUND_NAPT_TABLE, routerId,
+                internalIpv4HostAddress, internalPortNumber));
+        }
 
         //Remove the SourceIP:Port key from the Napt packet handler map.
         NaptPacketInHandler.removeIncomingPacketMap(sourceIPPortKey);
@@ -741,4 +875,67 @@ public class NaptEventHandler {
         SessionAddress internalSessionAddress = new SessionAddress(internalIpv4HostAddress, internalPortNumber);
         naptManager.releaseIpExtPortMapping(routerId, internalSessionAddress, protocol);
     }
+
+    private static FlowEntity buildNaptFlowToRemove(BigInteger dpnId, short tableId, long segmentId, String ip,
+                                                    int port) {
+        String switchFlowRef = NatUtil.getNaptFlowRef(dpnId, tableId, String.valueOf(segmentId), ip, port);
+        return NatUtil.buildFlowEntity(dpnId, tableId, switchFlowRef);
+    }
+
+    private void removeFlows(Map<BigInteger, List<FlowEntity>> flowsToRemove) {
+        flowsToRemove.forEach((dpnId, flowEntities) -> {
+            LOG.debug("removeFlows : Removing {} NAPT flows from the switch with the DPN ID {}",
+                flowEntities.size(), dpnId);
+            ListenableFutures.addErrorLogging(txRunner.callWithNewReadWriteTransactionAndSubmit(CONFIGURATION,
+                tx -> {
+                    for (FlowEntity flowEntity : flowEntities) {
+                        mdsalManager.removeFlow(tx, flowEntity);
+                    }
+                }), LOG, "Error removing {} NAPT flows from the switch with the DPN ID {}", flowEntities.size(),
+                dpnId);
+        });
+    }
+
+    /**
+     * Router level state shared by all the sessions of a router: the resolved router ID, BGP VPN ID and NAPT
+     * switch, plus the values lazily resolved while handling the first sessions.
+     */
+    static final class RouterSnatContext {
+        final long routerId;
+        final long bgpVpnId;
+        final BigInteger dpnId;
+        final long resolvedTime;
+        final ConcurrentMap<String, Long> externalSubnetVpnIds = new ConcurrentHashMap<>();
+        volatile String extGwMacAddress;
+        volatile Long vpnId;
+
+        RouterSnatContext(long routerId, long bgpVpnId, BigInteger dpnId, long resolvedTime) {
+            this.routerId = routerId;
+            this.bgpVpnId = bgpVpnId;
+            this.dpnId = dpnId;
+            this.resolvedTime = resolvedTime;
+        }
+    }
+
+    /**
+     * A new SNAT session resolved and ready to have its NAPT flows programmed.
+     */
+    static final class NaptSession {
+        final NAPTEntryEvent naptEntryEvent;
+        final RouterSnatContext routerContext;
+        final long vpnId;
+        final String extGwMacAddress;
+        final SessionAddress internalAddress;
+        final SessionAddress externalAddress;
+
+        NaptSession(NAPTEntryEvent naptEntryEvent, RouterSnatContext routerContext, long vpnId,
+                String extGwMacAddress, SessionAddress internalAddress, SessionAddress externalAddress) {
+            this.naptEntryEvent = naptEntryEvent;
+            this.routerContext = routerContext;
+            this.vpnId = vpnId;
+            this.extGwMacAddress = extGwMacAddress;
+            this.internalAddress = internalAddress;
+            this.externalAddress = externalAddress;
+        }
+    }
 }
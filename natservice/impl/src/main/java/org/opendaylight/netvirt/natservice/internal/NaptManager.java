@@ -12,15 +12,11 @@
 package org.opendaylight.netvirt.natservice.internal;
 
 import com.google.common.base.Optional;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.locks.ReentrantLock;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.net.util.SubnetUtils;
@@ -31,20 +27,6 @@ import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
 import org.opendaylight.genius.mdsalutil.MDSALUtil;
-import org.opendaylight.genius.utils.JvmGlobalLocks;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.AllocateIdInput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.AllocateIdInputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.AllocateIdOutput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.CreateIdPoolInput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.CreateIdPoolInputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.CreateIdPoolOutput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.DeleteIdPoolInput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.DeleteIdPoolInputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.DeleteIdPoolOutput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.IdManagerService;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.ReleaseIdInput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.ReleaseIdInputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.ReleaseIdOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.ExternalIpsCounter;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.IntextIpMap;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.IntextIpPortMap;
@@ -67,20 +49,14 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev16011
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.IntextIpProtocolType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.IntextIpProtocolTypeKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMap;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMapBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMapKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.ip.port.map.IpPortExternal;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.ip.port.map.IpPortExternalBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.IntipPortMap;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.IntipPortMapKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.IpPort;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.IpPortKey;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.ip.port.IntIpProtoType;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.ip.port.IntIpProtoTypeBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.ip.port.IntIpProtoTypeKey;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier.InstanceIdentifierBuilder;
-import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,50 +64,19 @@ import org.slf4j.LoggerFactory;
 public class NaptManager {
     private static final Logger LOG = LoggerFactory.getLogger(NaptManager.class);
 
-    private static final long LOW_PORT = 49152L;
-    private static final long HIGH_PORT = 65535L;
-
     private final DataBroker dataBroker;
-    private final IdManagerService idManager;
+    private final NaptPortAllocator naptPortAllocator;
 
     @Inject
-    public NaptManager(final DataBroker dataBroker, final IdManagerService idManager) {
+    public NaptManager(final DataBroker dataBroker, final NaptPortAllocator naptPortAllocator) {
         this.dataBroker = dataBroker;
-        this.idManager = idManager;
+        this.naptPortAllocator = naptPortAllocator;
     }
 
-    protected void createNaptPortPool(String poolName) {
-        LOG.debug("createNaptPortPool : requested for : {}", poolName);
-        CreateIdPoolInput createPool = new CreateIdPoolInputBuilder()
-            .setPoolName(poolName)
-            .setLow(LOW_PORT)
-            .setHigh(HIGH_PORT)
-            .build();
-        try {
-            Future<RpcResult<CreateIdPoolOutput>> result = idManager.createIdPool(createPool);
-            if (result != null && result.get().isSuccessful()) {
-                LOG.debug("createNaptPortPool : Created PortPool :{}", poolName);
-            } else {
-                LOG.error("createNaptPortPool : Unable to create PortPool : {}", poolName);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("createNaptPortPool : Failed to create PortPool for NAPT Service", e);
-        }
-    }
-
-    void removeNaptPortPool(String poolName) {
-        DeleteIdPoolInput deleteIdPoolInput = new DeleteIdPoolInputBuilder().setPoolName(poolName).build();
-        LOG.debug("removeNaptPortPool : Remove Napt port pool requested for : {}", poolName);
-        try {
-            Future<RpcResult<DeleteIdPoolOutput>> result = idManager.deleteIdPool(deleteIdPoolInput);
-            if (result != null && result.get().isSuccessful()) {
-                LOG.debug("removeNaptPortPool : Deleted PortPool {}", poolName);
-            } else {
-                LOG.error("removeNaptPortPool : Unable to delete PortPool {}", poolName);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("removeNaptPortPool : Failed to delete PortPool {} for NAPT Service", poolName, e);
-        }
+    void removeNaptPortPool(long segmentId, String externalIp) {
+        LOG.debug("removeNaptPortPool : Remove Napt port pool requested for router {} externalIp {}", segmentId,
+            externalIp);
+        naptPortAllocator.removeExternalIp(segmentId, externalIp);
     }
 
     // 1. napt service functions
@@ -149,20 +94,8 @@ public class NaptManager {
         LOG.debug("registerMapping : called with segmentid {}, internalIp {}, prefix {}, externalIp {} "
             + "and prefix {} ", segmentId, internal.getIpAddress(),
             internal.getPrefixLength(), external.getIpAddress(), external.getPrefixLength());
-        // Create Pool per ExternalIp and not for all IPs in the subnet.
-        // Create new Pools during getExternalAddressMapping if exhausted.
-        String externalIpPool;
-        // subnet case
-        if (external.getPrefixLength() != 0 && external.getPrefixLength() != NatConstants.DEFAULT_PREFIX) {
-            String externalSubnet = external.getIpAddress() + "/" + external.getPrefixLength();
-            LOG.debug("registerMapping : externalSubnet is : {}", externalSubnet);
-            SubnetUtils subnetUtils = new SubnetUtils(externalSubnet);
-            SubnetInfo subnetInfo = subnetUtils.getInfo();
-            externalIpPool = subnetInfo.getLowAddress();
-        } else {  // ip case
-            externalIpPool = external.getIpAddress();
-        }
-        createNaptPortPool(externalIpPool);
+        // Port pools are created on demand by the NaptPortAllocator, per external IP, when the first
+        // session is mapped to it in getExternalAddressMapping.
 
         // Store the ip to ip map in Operational DS
         String internalIp = internal.getIpAddress();
@@ -223,8 +156,6 @@ public class NaptManager {
      * @param protocol      - TCP/UDP
      * @return external ip address/port
      */
-    // TODO Clean up the exception handling
-    @SuppressWarnings("checkstyle:IllegalCatch")
     @Nullable
     public SessionAddress getExternalAddressMapping(long segmentId, SessionAddress sourceAddress,
                                                     NAPTEntryEvent.Protocol protocol) {
@@ -232,16 +163,17 @@ public class NaptManager {
             segmentId, sourceAddress.getIpAddress(), sourceAddress.getPortNumber());
         /*
          1. Get Internal IP, Port in IP:Port format
-         2. Inside DB with routerId get the list of entries and check if it matches with existing IP:Port
+         2. Inside the port allocator with routerId check if there is an existing mapping for IP:Port
          3. If True return SessionAddress of ExternalIp and Port
-         4. Else check ip Map and Form the ExternalIp and Port and update DB and then return ExternalIp and Port
+         4. Else check ip Map and allocate the ExternalIp and Port, the allocator updates the DB asynchronously
          */
 
-        //SessionAddress externalIpPort = new SessionAddress();
         String internalIpPort = sourceAddress.getIpAddress() + ":" + sourceAddress.getPortNumber();
+        ProtocolTypes protocolType = NatUtil.getProtocolType(protocol);
 
         // First check existing Port Map.
-        SessionAddress existingIpPort = checkIpPortMap(segmentId, internalIpPort, protocol);
+        SessionAddress existingIpPort =
+            naptPortAllocator.getExistingMapping(segmentId, protocolType, internalIpPort);
         if (existingIpPort != null) {
             // populate externalIpPort from IpPortMap and return
             LOG.debug("getExternalAddressMapping : successfully returning existingIpPort as {} and {}",
@@ -289,86 +221,23 @@ public class NaptManager {
             allIps.add(externalIp);
         }
 
-        boolean nextExtIpFlag = false;
         for (String extIp : allIps) {
             LOG.info("getExternalAddressMapping : Looping externalIPs with externalIP now as {}", extIp);
-            if (nextExtIpFlag) {
-                createNaptPortPool(extIp);
-                LOG.debug("getExternalAddressMapping : Created Pool for next Ext IP {}", extIp);
-            }
-            AllocateIdInput getIdInput = new AllocateIdInputBuilder()
-                    .setPoolName(extIp).setIdKey(internalIpPort)
-                    .build();
-            try {
-                Future<RpcResult<AllocateIdOutput>> result = idManager.allocateId(getIdInput);
-                RpcResult<AllocateIdOutput> rpcResult;
-                if (result != null && result.get().isSuccessful()) {
-                    LOG.debug("getExternalAddressMapping : Got id from idManager");
-                    rpcResult = result.get();
-                } else {
-                    LOG.error("getExternalAddressMapping : getExternalAddressMapping, idManager could not "
-                            + "allocate id retry if subnet");
-                    if (!extSubnetFlag) {
-                        LOG.error("getExternalAddressMapping : getExternalAddressMapping returning null "
-                                + "for single IP case, may be ports exhausted");
-                        return null;
-                    }
-                    LOG.debug("getExternalAddressMapping : Could be ports exhausted case, "
-                            + "try with another externalIP if possible");
-                    nextExtIpFlag = true;
-                    continue;
-                }
-                int extPort = rpcResult.getResult().getIdValue().intValue();
-                // Write to ip-port-map before returning
-                IpPortExternalBuilder ipExt = new IpPortExternalBuilder();
-                IpPortExternal ipPortExt = ipExt.setIpAddress(extIp).setPortNum(extPort).build();
-                IpPortMap ipm = new IpPortMapBuilder().withKey(new IpPortMapKey(internalIpPort))
-                        .setIpPortInternal(internalIpPort).setIpPortExternal(ipPortExt).build();
-                LOG.debug("getExternalAddressMapping : writing into ip-port-map with "
-                        + "externalIP {} and port {}",
-                        ipPortExt.getIpAddress(), ipPortExt.getPortNum());
-                try {
-                    MDSALUtil.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
-                        getIpPortMapIdentifier(segmentId, internalIpPort, protocol), ipm);
-                } catch (UncheckedExecutionException uee) {
-                    LOG.error("getExternalAddressMapping : Failed to write into ip-port-map with exception",
-                        uee);
-                }
-
-                // Write to snat-internal-ip-port-info
-                String internalIpAddress = sourceAddress.getIpAddress();
-                int ipPort = sourceAddress.getPortNumber();
-                ProtocolTypes protocolType = NatUtil.getProtocolType(protocol);
-                final ReentrantLock lock = lockFor(segmentId, internalIpAddress, protocolType);
-                lock.lock();
-                try {
-                    List<Integer> portList = new ArrayList<>(
-                            NatUtil.getInternalIpPortListInfo(dataBroker, segmentId, internalIpAddress,
-                                protocolType));
-                    portList.add(ipPort);
-
-                    IntIpProtoTypeBuilder builder = new IntIpProtoTypeBuilder();
-                    IntIpProtoType intIpProtocolType =
-                            builder.withKey(new IntIpProtoTypeKey(protocolType)).setPorts(portList).build();
-                    try {
-                        MDSALUtil.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
-                            NatUtil.buildSnatIntIpPortIdentifier(segmentId, internalIpAddress, protocolType),
-                            intIpProtocolType);
-                    } catch (Exception ex) {
-                        LOG.error("getExternalAddressMapping : Failed to write into snat-internal-ip-port-info "
-                                + "with exception", ex);
-                    }
-                } finally {
-                    lock.unlock();
+            SessionAddress externalIpPort = naptPortAllocator.allocate(segmentId, protocolType, extIp,
+                sourceAddress.getIpAddress(), sourceAddress.getPortNumber());
+            if (externalIpPort == null) {
+                if (!extSubnetFlag) {
+                    LOG.error("getExternalAddressMapping : getExternalAddressMapping returning null "
+                            + "for single IP case, may be ports exhausted");
+                    return null;
                 }
-                SessionAddress externalIpPort = new SessionAddress(extIp, extPort);
-                LOG.debug("getExternalAddressMapping : successfully returning externalIP {} "
-                        + "and port {}", externalIpPort.getIpAddress(), externalIpPort.getPortNumber());
-                return externalIpPort;
-            } catch (InterruptedException | ExecutionException e) {
-                LOG.error("getExternalAddressMapping : Exception caught", e);
-                return null;
+                LOG.debug("getExternalAddressMapping : Could be ports exhausted case, "
+                        + "try with another externalIP if possible");
+                continue;
             }
+            LOG.debug("getExternalAddressMapping : successfully returning externalIP {} "
+                    + "and port {}", externalIpPort.getIpAddress(), externalIpPort.getPortNumber());
+            return externalIpPort;
         } // end of for loop
         LOG.error("getExternalAddressMapping : Unable to handle external IP address and port mapping with segmentId {},"
                 + "internalIp {} and internalPort {}", segmentId, sourceAddress.getIpAddress(),
@@ -376,37 +245,32 @@ public class NaptManager {
         return null;
     }
 
-    // TODO Clean up the exception handling
-    @SuppressWarnings("checkstyle:IllegalCatch")
-    protected void releaseIpExtPortMapping(long segmentId, SessionAddress address, NAPTEntryEvent.Protocol protocol) {
-        String internalIpPort = address.getIpAddress() + ":" + address.getPortNumber();
-        SessionAddress existingIpPort = checkIpPortMap(segmentId, internalIpPort, protocol);
+    /**
+     * Returns the external ip/port mapped to the given internal ip/port, from the port allocator if it knows the
+     * session or else from the intext-ip-port-map.
+     */
+    @Nullable
+    public SessionAddress getExistingExternalAddress(long segmentId, String internalIp, int internalPort,
+                                                     NAPTEntryEvent.Protocol protocol) {
+        SessionAddress existingIpPort = naptPortAllocator.getExistingMapping(segmentId,
+            NatUtil.getProtocolType(protocol), internalIp + NatConstants.COLON_SEPARATOR + internalPort);
         if (existingIpPort != null) {
-            // delete the entry from IpPortMap DS
-            try {
-                removeFromIpPortMapDS(segmentId, internalIpPort, protocol);
-                // Finally release port from idmanager
-                removePortFromPool(internalIpPort, existingIpPort.getIpAddress());
-            } catch (Exception e) {
-                LOG.error("releaseIpExtPortMapping : failed, Removal of ipportmap {} for "
-                    + "router {} failed", internalIpPort, segmentId, e);
-            }
-        } else {
-            LOG.error("releaseIpExtPortMapping : failed, segmentId {} and "
-                + "internalIpPort {} not found in IpPortMap DS", segmentId, internalIpPort);
+            return existingIpPort;
         }
+        IpPortExternal ipPortExternal = NatUtil.getExternalIpPortMap(dataBroker, segmentId, internalIp,
+            String.valueOf(internalPort), protocol);
+        return ipPortExternal != null
+            ? new SessionAddress(ipPortExternal.getIpAddress(), ipPortExternal.getPortNum()) : null;
+    }
 
-        //delete the entry of port for InternalIp from snatIntIpportMappingDS
+    protected void releaseIpExtPortMapping(long segmentId, SessionAddress address, NAPTEntryEvent.Protocol protocol) {
         ProtocolTypes protocolType = NatUtil.getProtocolType(protocol);
-        final ReentrantLock lock = lockFor(segmentId, address.getIpAddress(), protocolType);
-        lock.lock();
-        try {
-            removeSnatIntIpPortDS(segmentId, address, protocolType);
-        } catch (Exception e) {
-            LOG.error("releaseSnatIpPortMapping : failed, Removal of snatipportmap {} for router {} failed",
-                address.getIpAddress(), segmentId, e);
-        } finally {
-            lock.unlock();
+        // Releases the port and schedules removal from both the IpPortMap and the SnatIntIpPortMap DS
+        SessionAddress existingIpPort = naptPortAllocator.release(segmentId, protocolType, address.getIpAddress(),
+            address.getPortNumber());
+        if (existingIpPort == null) {
+            LOG.error("releaseIpExtPortMapping : failed, segmentId {} and internalIpPort {}:{} not found in "
+                + "IpPortMap", segmentId, address.getIpAddress(), address.getPortNumber());
         }
     }
 
@@ -466,35 +330,6 @@ public class NaptManager {
             .child(IpPortMap.class, new IpPortMapKey(internal)).build();
     }
 
-    @Nullable
-    private SessionAddress checkIpPortMap(long segmentId, String internalIpPort,
-            NAPTEntryEvent.Protocol protocol) {
-        LOG.debug("checkIpPortMap : called with segmentId {} and internalIpPort {}",
-                segmentId, internalIpPort);
-        ProtocolTypes protocolType = NatUtil.getProtocolType(protocol);
-        // check if ip-port-map node is there
-        InstanceIdentifierBuilder<IpPortMap> idBuilder =
-                InstanceIdentifier.builder(IntextIpPortMap.class)
-                .child(IpPortMapping.class, new IpPortMappingKey(segmentId))
-                .child(IntextIpProtocolType.class, new IntextIpProtocolTypeKey(protocolType))
-                .child(IpPortMap.class, new IpPortMapKey(internalIpPort));
-        InstanceIdentifier<IpPortMap> id = idBuilder.build();
-        Optional<IpPortMap> ipPortMapType =
-                MDSALUtil.read(dataBroker, LogicalDatastoreType.CONFIGURATION, id);
-        if (ipPortMapType.isPresent()) {
-            LOG.debug("checkIpPortMap : {}", ipPortMapType.get());
-            SessionAddress externalIpPort = new SessionAddress(ipPortMapType.get().getIpPortExternal().getIpAddress(),
-                    ipPortMapType.get().getIpPortExternal().getPortNum());
-            LOG.debug("checkIpPortMap : returning successfully externalIP {} and port {}",
-                    externalIpPort.getIpAddress(), externalIpPort.getPortNumber());
-            return externalIpPort;
-        }
-        // return null if not found
-        LOG.warn("checkIpPortMap : no-entry in checkIpPortMap, returning NULL [should be OK] for "
-                + "segmentId {} and internalIPPort {}", segmentId, internalIpPort);
-        return null;
-    }
-
     @Nullable
     protected String checkIpMap(long segmentId, String internalIp) {
         LOG.debug("checkIpMap : called with segmentId {} and internalIp {}", segmentId, internalIp);
@@ -530,42 +365,12 @@ public class NaptManager {
         return null;
     }
 
-    // TODO Clean up the exception handling
-    @SuppressWarnings("checkstyle:IllegalCatch")
-    protected void removeSnatIntIpPortDS(long segmentId, SessionAddress address, ProtocolTypes protocolType) {
-        LOG.trace("removeSnatIntIpPortDS : method called for IntIpport {} of router {} ",
-            address, segmentId);
-        List<Integer> portList =
-            NatUtil.getInternalIpPortListInfo(dataBroker, segmentId, address.getIpAddress(), protocolType);
-        if (portList.isEmpty() || !portList.contains(address.getPortNumber())) {
-            LOG.error("removeSnatIntIpPortDS : Internal IP {} for port {} entry not found in SnatIntIpPort DS",
-                address.getIpAddress(), address.getPortNumber());
-            return;
-        }
-        LOG.trace("removeSnatIntIpPortDS : PortList {} retrieved for InternalIp {} of router {}",
-            portList, address.getIpAddress(), segmentId);
-        Integer port = address.getPortNumber();
-        portList.remove(port);
-
-        IntIpProtoTypeBuilder builder = new IntIpProtoTypeBuilder();
-        IntIpProtoType intIpProtocolType =
-            builder.withKey(new IntIpProtoTypeKey(protocolType)).setPorts(portList).build();
-        try {
-            MDSALUtil.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
-                NatUtil.buildSnatIntIpPortIdentifier(segmentId, address.getIpAddress(), protocolType),
-                intIpProtocolType);
-        } catch (Exception ex) {
-            LOG.error("removeSnatIntIpPortDS : Failed to write into snat-internal-ip-port-info with exception", ex);
-        }
-        LOG.debug("removeSnatIntIpPortDS : Removing SnatIp {} Port {} of router {} from SNATIntIpport datastore",
-            address.getIpAddress(), address.getPortNumber(), segmentId);
-    }
-
     protected void removeFromSnatIpPortDS(long segmentId, String internalIp) {
         InstanceIdentifier<IpPort> intIp = InstanceIdentifier.builder(SnatintIpPortMap.class)
             .child(IntipPortMap.class, new IntipPortMapKey(segmentId))
             .child(IpPort.class, new IpPortKey(internalIp)).build();
-        // remove from SnatIpPortDS
+        // drop the in-memory ports and any pending write before removing from SnatIpPortDS
+        naptPortAllocator.removeInternalIp(segmentId, internalIp);
         LOG.debug("removeFromSnatIpPortDS : Removing SnatIpPort from datastore : {}", intIp);
         MDSALUtil.syncDelete(dataBroker, LogicalDatastoreType.CONFIGURATION, intIp);
     }
@@ -576,6 +381,12 @@ public class NaptManager {
     }
 
     protected void removeFromIpPortMapDS(long segmentId, String internalIpPort, ProtocolTypes protocolType) {
+        String[] internalIpPortParts = internalIpPort.split(NatConstants.COLON_SEPARATOR);
+        if (internalIpPortParts.length == 2 && naptPortAllocator.release(segmentId, protocolType,
+                internalIpPortParts[0], Integer.parseInt(internalIpPortParts[1])) != null) {
+            // the allocator schedules the removal together with its other pending writes
+            return;
+        }
         InstanceIdentifierBuilder<IpPortMap> idBuilder = InstanceIdentifier.builder(IntextIpPortMap.class)
             .child(IpPortMapping.class, new IpPortMappingKey(segmentId))
             .child(IntextIpProtocolType.class, new IntextIpProtocolTypeKey(protocolType))
@@ -656,6 +467,7 @@ public class NaptManager {
     }
 
     void removeIpPortMappingForRouterID(long segmentId) {
+        naptPortAllocator.removeRouter(segmentId);
         InstanceIdentifier<IpPortMapping> idBuilder = InstanceIdentifier.builder(IntextIpPortMap.class)
             .child(IpPortMapping.class, new IpPortMappingKey(segmentId)).build();
         Optional<IpPortMapping> ipPortMapping = MDSALUtil.read(dataBroker, LogicalDatastoreType.CONFIGURATION,
@@ -669,6 +481,7 @@ public class NaptManager {
     }
 
     void removeIntIpPortMappingForRouterID(long segmentId) {
+        naptPortAllocator.removeRouter(segmentId);
         InstanceIdentifier<IntipPortMap> intIp = InstanceIdentifier.builder(SnatintIpPortMap.class)
             .child(IntipPortMap.class, new IntipPortMapKey(segmentId)).build();
         Optional<IntipPortMap> intIpPortMap = MDSALUtil.read(dataBroker, LogicalDatastoreType.CONFIGURATION, intIp);
@@ -679,22 +492,17 @@ public class NaptManager {
         }
     }
 
-    void removePortFromPool(String internalIpPort, String externalIp) {
+    void removePortFromPool(long segmentId, String internalIpPort, ProtocolTypes protocolType) {
         LOG.debug("removePortFromPool : method called");
-        ReleaseIdInput idInput = new ReleaseIdInputBuilder()
-            .setPoolName(externalIp)
-            .setIdKey(internalIpPort).build();
-        try {
-            RpcResult<ReleaseIdOutput> rpcResult = idManager.releaseId(idInput).get();
-            if (!rpcResult.isSuccessful()) {
-                LOG.error("removePortFromPool : idmanager failed to remove port from pool {}", rpcResult.getErrors());
-            }
-            LOG.debug("removePortFromPool : Removed port from pool for InternalIpPort {} with externalIp {}",
-                internalIpPort, externalIp);
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("removePortFromPool : idmanager failed when removing entry in pool with key {} with Exception",
-                    internalIpPort, e);
+        String[] internalIpPortParts = internalIpPort.split(NatConstants.COLON_SEPARATOR);
+        if (internalIpPortParts.length != 2) {
+            LOG.error("removePortFromPool : invalid internalIpPort {} for router {}", internalIpPort, segmentId);
+            return;
         }
+        SessionAddress externalIpPort = naptPortAllocator.release(segmentId, protocolType, internalIpPortParts[0],
+            Integer.parseInt(internalIpPortParts[1]));
+        LOG.debug("removePortFromPool : Removed port from pool for InternalIpPort {} with external address {}",
+            internalIpPort, externalIpPort);
     }
 
     protected void initialiseExternalCounter(Routers routers, long routerId) {
@@ -736,16 +544,4 @@ public class NaptManager {
         LOG.debug("removeExternalIpCounter : Removing ExternalIpsCounter from datastore");
         MDSALUtil.syncDelete(dataBroker, LogicalDatastoreType.OPERATIONAL, id);
     }
-
-    private static ReentrantLock lockFor(final long segmentId, String ipAddress, final ProtocolTypes protocolType) {
-        // FIXME: use an Identifier class instead?
-        String lockName = new StringBuilder()
-            .append(segmentId)
-            .append(NatConstants.COLON_SEPARATOR)
-            .append(ipAddress)
-            .append(NatConstants.COLON_SEPARATOR)
-            .append(protocolType.getName()).toString();
-
-        return JvmGlobalLocks.getLockForString(lockName);
-    }
 }
@@ -8,11 +8,21 @@
 package org.opendaylight.netvirt.natservice.internal;
 
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -29,26 +39,51 @@ import org.opendaylight.yangtools.util.concurrent.SpecialExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Handles the packets punted from the outbound NAPT table.
+ *
+ * <p>First packets of new SNAT sessions go through a staged pipeline: they are decoded on the packet-in thread,
+ * coalesced by source ip:port through {@link #INCOMING_PKT_MAP} and queued. Each pipeline worker then drains a
+ * batch from the queue, resolves the router, VPN and NAPT switch of every session (mostly from the router context
+ * cache of {@link NaptEventHandler}) and programs the flows of all the sessions of the batch with one transaction
+ * per NAPT switch. Queue depth and per-stage latency are exposed through {@link NatServiceCounters}.
+ */
 @Singleton
 public class NaptPacketInHandler implements PacketProcessingListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(NaptPacketInHandler.class);
     private static final ConcurrentMap<String,NatPacketProcessingState> INCOMING_PKT_MAP = new ConcurrentHashMap<>();
+    private static final String STAGE_DECODE = "decode";
+    private static final String STAGE_QUEUE = "queue";
+    private static final String STAGE_RESOLVE = "resolve";
+    private static final String STAGE_FLUSH = "flush";
     private final NaptEventHandler naptEventHandler;
-    private final ExecutorService firstPacketExecutorService = SpecialExecutors.newBlockingBoundedFastThreadPool(
-            NatConstants.SNAT_PACKET_THEADPOOL_SIZE, Integer.MAX_VALUE, "Napt-firstPacket", NaptPacketInHandler.class);
+    private final NatServiceCounters natServiceCounters;
+    private final BlockingQueue<NAPTEntryEvent> firstPacketQueue =
+            new LinkedBlockingQueue<>(NatConstants.SNAT_PACKET_QUEUE_LENGTH);
+    private final ExecutorService firstPacketExecutorService = Executors.newFixedThreadPool(
+            NatConstants.SNAT_PACKET_THEADPOOL_SIZE,
+            new ThreadFactoryBuilder().setNameFormat("Napt-firstPacket-%d").setDaemon(true).build());
     private final ExecutorService retryPacketExecutorService = SpecialExecutors.newBlockingBoundedFastThreadPool(
             NatConstants.SNAT_PACKET_RETRY_THEADPOOL_SIZE, Integer.MAX_VALUE, "Napt-retryPacket",
             NaptPacketInHandler.class);
 
     @Inject
-    public NaptPacketInHandler(NaptEventHandler naptEventHandler) {
+    public NaptPacketInHandler(NaptEventHandler naptEventHandler, NatServiceCounters natServiceCounters) {
         this.naptEventHandler = naptEventHandler;
+        this.natServiceCounters = natServiceCounters;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < NatConstants.SNAT_PACKET_THEADPOOL_SIZE; i++) {
+            firstPacketExecutorService.execute(this::processFirstPackets);
+        }
     }
 
     @PreDestroy
     public void close() {
-        firstPacketExecutorService.shutdown();
+        firstPacketExecutorService.shutdownNow();
         retryPacketExecutorService.shutdown();
     }
 
@@ -68,6 +103,7 @@ public class NaptPacketInHandler implements PacketProcessingListener {
 
         if (tableId == NwConstants.OUTBOUND_NAPT_TABLE) {
             LOG.debug("onPacketReceived : NAPTPacketInHandler Packet for Outbound NAPT Table");
+            long decodeStartTime = System.nanoTime();
             byte[] inPayload = packetReceived.getPayload();
             Ethernet ethPkt = new Ethernet();
             if (inPayload != null) {
@@ -120,18 +156,26 @@ public class NaptPacketInHandler implements PacketProcessingListener {
                     String sourceIPPortKey = routerId + NatConstants.COLON_SEPARATOR
                             + internalIPAddress + NatConstants.COLON_SEPARATOR + portNumber;
 
-                    NatPacketProcessingState state = INCOMING_PKT_MAP.get(sourceIPPortKey);
+                    natServiceCounters.snatPipelineStageCompleted(STAGE_DECODE, 1,
+                        System.nanoTime() - decodeStartTime);
+                    NatPacketProcessingState newState = new NatPacketProcessingState(System.currentTimeMillis());
+                    NatPacketProcessingState state = INCOMING_PKT_MAP.putIfAbsent(sourceIPPortKey, newState);
                     if (state == null) {
-                        state = new NatPacketProcessingState(System.currentTimeMillis());
-                        INCOMING_PKT_MAP.put(sourceIPPortKey, state);
+                        state = newState;
                         LOG.trace("onPacketReceived : Processing new SNAT({}) Packet", sourceIPPortKey);
 
                         //send to Event Queue
                         NAPTEntryEvent naptEntryEvent = new NAPTEntryEvent(internalIPAddress, portNumber, routerId,
                             operation, protocol, packetReceived, false, state);
-                        LOG.info("onPacketReceived : First Packet IN Queue Size : {}",
-                                ((ThreadPoolExecutor)firstPacketExecutorService).getQueue().size());
-                        firstPacketExecutorService.execute(() -> naptEventHandler.handleEvent(naptEntryEvent));
+                        if (firstPacketQueue.offer(naptEntryEvent)) {
+                            natServiceCounters.snatPipelineEnqueued(STAGE_QUEUE);
+                            LOG.debug("onPacketReceived : First Packet IN Queue Size : {}", firstPacketQueue.size());
+                        } else {
+                            natServiceCounters.snatPipelineDropped(STAGE_QUEUE);
+                            removeIncomingPacketMap(sourceIPPortKey);
+                            LOG.warn("onPacketReceived : First Packet IN Queue is full. Dropping SNAT ({}) Packet",
+                                sourceIPPortKey);
+                        }
                     } else {
                         LOG.trace("onPacketReceived : SNAT({}) Packet already processed.", sourceIPPortKey);
                         NAPTEntryEvent naptEntryEvent = new NAPTEntryEvent(internalIPAddress, portNumber, routerId,
@@ -159,6 +203,65 @@ public class NaptPacketInHandler implements PacketProcessingListener {
         }
     }
 
+    private void processFirstPackets() {
+        List<NAPTEntryEvent> batch = new ArrayList<>(NatConstants.SNAT_PACKET_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                NAPTEntryEvent first = firstPacketQueue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                firstPacketQueue.drainTo(batch, NatConstants.SNAT_PACKET_BATCH_SIZE - 1);
+                natServiceCounters.snatPipelineDequeued(STAGE_QUEUE, batch.size());
+                processFirstPacketBatch(batch);
+            } catch (InterruptedException e) {
+                LOG.debug("processFirstPackets : interrupted, exiting");
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // TODO Clean up the exception handling
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void processFirstPacketBatch(List<NAPTEntryEvent> batch) {
+        long resolveStartTime = System.nanoTime();
+        Map<BigInteger, List<NaptEventHandler.NaptSession>> sessionsPerDpn = new HashMap<>();
+        for (NAPTEntryEvent naptEntryEvent : batch) {
+            try {
+                NaptEventHandler.RouterSnatContext routerContext =
+                    naptEventHandler.resolveRouterContext(naptEntryEvent);
+                if (routerContext == null) {
+                    continue;
+                }
+                NaptEventHandler.NaptSession session =
+                    naptEventHandler.resolveSession(naptEntryEvent, routerContext);
+                if (session != null) {
+                    sessionsPerDpn.computeIfAbsent(routerContext.dpnId, dpnId -> new ArrayList<>()).add(session);
+                }
+            } catch (Exception e) {
+                LOG.error("processFirstPacketBatch : Exception while resolving SNAT session {}", naptEntryEvent, e);
+            }
+        }
+        long flushStartTime = System.nanoTime();
+        natServiceCounters.snatPipelineStageCompleted(STAGE_RESOLVE, batch.size(), flushStartTime - resolveStartTime);
+        int sessions = 0;
+        for (Map.Entry<BigInteger, List<NaptEventHandler.NaptSession>> entry : sessionsPerDpn.entrySet()) {
+            try {
+                naptEventHandler.installSessions(entry.getKey(), entry.getValue());
+                sessions += entry.getValue().size();
+            } catch (Exception e) {
+                LOG.error("processFirstPacketBatch : Exception while installing {} SNAT sessions on DPN {}",
+                    entry.getValue().size(), entry.getKey(), e);
+            }
+        }
+        natServiceCounters.snatPipelineStageCompleted(STAGE_FLUSH, sessions, System.nanoTime() - flushStartTime);
+        LOG.trace("processFirstPacketBatch : processed {} first packets, {} sessions on {} DPNs", batch.size(),
+            sessions, sessionsPerDpn.size());
+    }
+
     public static void removeIncomingPacketMap(String sourceIPPortKey) {
         INCOMING_PKT_MAP.remove(sourceIPPortKey);
         LOG.debug("removeIncomingPacketMap : sourceIPPortKey {} mapping is removed from map", sourceIPPortKey);
@@ -0,0 +1,577 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import static org.opendaylight.controller.md.sal.binding.api.WriteTransaction.CREATE_MISSING_PARENTS;
+import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.genius.infra.Datastore.Configuration;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
+import org.opendaylight.genius.infra.TypedWriteTransaction;
+import org.opendaylight.infrautils.utils.concurrent.ListenableFutures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.IntextIpPortMap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.ProtocolTypes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.SnatintIpPortMap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.IpPortMapping;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.IpPortMappingKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.IntextIpProtocolType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.IntextIpProtocolTypeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMapBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMapKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.ip.port.map.IpPortExternal;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.ip.port.map.IpPortExternalBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.IntipPortMap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.IntipPortMapKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.IpPort;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.ip.port.IntIpProtoType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.ip.port.IntIpProtoTypeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.snatint.ip.port.map.intip.port.map.ip.port.IntIpProtoTypeKey;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory allocator for the external ports used by NAPT sessions.
+ *
+ * <p>Each (router, external IP, protocol) tuple owns a {@link PortPool} covering the NAPT port range, so a new
+ * SNAT session gets its external port without an IdManager RPC. The resulting {@code intext-ip-port-map} and
+ * {@code snatint-ip-port-map} entries are written to the config datastore asynchronously, coalesced by path and
+ * flushed in one transaction per batch window.
+ *
+ * <p>The datastore stays the cluster-wide source of truth. The state of a (router, protocol) is loaded from those
+ * two trees on its first use on this node, once this node's own writes for the router are committed. It is dropped
+ * by {@link #resyncRouter(long)} whenever another node may have allocated ports for the router, i.e. when the NAPT
+ * switch of the router moves or when the mastership of the NAPT switch changes, and reloaded on its next use.
+ */
+@Singleton
+public class NaptPortAllocator {
+    private static final Logger LOG = LoggerFactory.getLogger(NaptPortAllocator.class);
+
+    static final int LOW_PORT = 49152;
+    static final int HIGH_PORT = 65535;
+
+    private static final long FLUSH_INTERVAL_MILLIS = 50;
+    private static final int MAX_WRITES_PER_TRANSACTION = 1000;
+    private static final long WRITES_TIMEOUT_SECONDS = 30;
+
+    private final DataBroker dataBroker;
+    private final ManagedNewTransactionRunner txRunner;
+    private final ConcurrentMap<String, RouterNaptPorts> routerPorts = new ConcurrentHashMap<>();
+    private final Map<InstanceIdentifier<?>, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    // The submitted writes of each router not committed yet
+    private final ConcurrentMap<Long, ListenableFuture<Void>> inFlightWrites = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("NaptPortAllocator-%d").setDaemon(true).build());
+
+    @Inject
+    public NaptPortAllocator(final DataBroker dataBroker) {
+        this.dataBroker = dataBroker;
+        this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
+    }
+
+    @PostConstruct
+    public void init() {
+        flushExecutor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        LOG.info("{} init", getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void close() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    /**
+     * Returns the external address already mapped to the given internal ip:port, if any.
+     */
+    @Nullable
+    public SessionAddress getExistingMapping(long routerId, ProtocolTypes protocol, String internalIpPort) {
+        return withRouterPorts(routerId, protocol, ports -> ports.getSession(internalIpPort));
+    }
+
+    /**
+     * Allocates an external port on the given external IP for the internal ip:port and schedules the
+     * corresponding datastore updates. If the internal ip:port is already mapped, that mapping is returned.
+     *
+     * @return the external address, or null if the external IP has no free port left
+     */
+    @Nullable
+    public SessionAddress allocate(long routerId, ProtocolTypes protocol, String externalIp,
+            String internalIp, int internalPort) {
+        String internalIpPort = internalIp + NatConstants.COLON_SEPARATOR + internalPort;
+        return withRouterPorts(routerId, protocol, ports -> {
+            SessionAddress existing = ports.getSession(internalIpPort);
+            if (existing != null) {
+                return existing;
+            }
+            int extPort = ports.pool(externalIp).allocate();
+            if (extPort < 0) {
+                LOG.debug("allocate : ports exhausted on externalIp {} for router {} protocol {}", externalIp,
+                    routerId, protocol);
+                return null;
+            }
+            SessionAddress externalAddress = new SessionAddress(externalIp, extPort);
+            ports.addSession(internalIpPort, internalIp, internalPort, externalAddress);
+            IpPortExternal ipPortExternal = new IpPortExternalBuilder().setIpAddress(externalIp)
+                .setPortNum(extPort).build();
+            IpPortMap ipPortMap = new IpPortMapBuilder().withKey(new IpPortMapKey(internalIpPort))
+                .setIpPortInternal(internalIpPort).setIpPortExternal(ipPortExternal).build();
+            schedulePut(routerId, buildIpPortMapIdentifier(routerId, protocol, internalIpPort), ipPortMap);
+            scheduleInternalPortsUpdate(routerId, protocol, internalIp, ports.getInternalPorts(internalIp));
+            return externalAddress;
+        });
+    }
+
+    /**
+     * Releases the external port mapped to the given internal ip:port and schedules the removal of the
+     * mapping from the datastore.
+     *
+     * @return the released external address, or null if no mapping was present
+     */
+    @Nullable
+    public SessionAddress release(long routerId, ProtocolTypes protocol, String internalIp, int internalPort) {
+        return withRouterPorts(routerId, protocol, ports -> releaseSession(ports, internalIp, internalPort));
+    }
+
+    /**
+     * Releases every session of the router that uses the given external IP, replacing their pending writes by
+     * the removal of their mappings, and drops the port pools of the external IP.
+     */
+    public void removeExternalIp(long routerId, String externalIp) {
+        for (ProtocolTypes protocol : ProtocolTypes.values()) {
+            withRouterPorts(routerId, protocol, ports -> {
+                for (String internalIpPort : ports.getSessionsOnExternalIp(externalIp)) {
+                    String[] ipPort = internalIpPort.split(NatConstants.COLON_SEPARATOR);
+                    releaseSession(ports, ipPort[0], Integer.parseInt(ipPort[1]));
+                }
+                ports.removePool(externalIp);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Drops all in-memory state of the given internal IP and cancels its pending writes.
+     */
+    public void removeInternalIp(long routerId, String internalIp) {
+        for (ProtocolTypes protocol : ProtocolTypes.values()) {
+            withRouterPorts(routerId, protocol, ports -> {
+                for (Integer internalPort : ports.getInternalPorts(internalIp)) {
+                    String internalIpPort = internalIp + NatConstants.COLON_SEPARATOR + internalPort;
+                    ports.removeSession(internalIpPort, internalIp, internalPort);
+                    cancelPendingWrites(buildIpPortMapIdentifier(routerId, protocol, internalIpPort));
+                }
+                return null;
+            });
+        }
+        cancelPendingWrites(NatUtil.buildSnatIntIpPortIdentifier(routerId, internalIp));
+    }
+
+    /**
+     * Drops all in-memory state of the given router and cancels its pending writes.
+     */
+    public void removeRouter(long routerId) {
+        dropRouterPorts(routerId);
+        synchronized (pendingWrites) {
+            pendingWrites.values().removeIf(pending -> pending.routerId == routerId);
+        }
+    }
+
+    /**
+     * Drops the in-memory state of the given router, so that it is reloaded from the datastore on its next use.
+     * This is required whenever another node may have allocated ports for the router.
+     */
+    public void resyncRouter(long routerId) {
+        LOG.debug("resyncRouter : dropping the NAPT ports of router {}", routerId);
+        dropRouterPorts(routerId);
+    }
+
+    private void dropRouterPorts(long routerId) {
+        for (ProtocolTypes protocol : ProtocolTypes.values()) {
+            String key = routerKey(routerId, protocol);
+            RouterNaptPorts ports = routerPorts.get(key);
+            if (ports != null) {
+                // Marked before its removal, so that the writes of its last action are enqueued before its
+                // replacement waits for them
+                synchronized (ports) {
+                    ports.dropped = true;
+                }
+                routerPorts.remove(key, ports);
+            }
+        }
+    }
+
+    /**
+     * Applies the action to the loaded state of the router and protocol, under its lock. The writes scheduled by
+     * the action are enqueued under that lock too, so a reload of the state never misses them.
+     */
+    private <T> T withRouterPorts(long routerId, ProtocolTypes protocol, Function<RouterNaptPorts, T> action) {
+        while (true) {
+            RouterNaptPorts ports = routerPorts.computeIfAbsent(routerKey(routerId, protocol),
+                key -> new RouterNaptPorts(routerId, protocol));
+            synchronized (ports) {
+                if (ports.loaded && !ports.dropped) {
+                    return action.apply(ports);
+                }
+            }
+            // A dropped state is being replaced in routerPorts, retry with its replacement
+            if (!ports.dropped) {
+                // Waited for without the lock of the state, so that the packet-ins of the router are not held
+                // behind a slow commit. No write of this state is enqueued meanwhile, its actions need it loaded
+                awaitWrites(routerId);
+                synchronized (ports) {
+                    if (!ports.loaded && !ports.dropped) {
+                        load(ports);
+                        ports.loaded = true;
+                    }
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private SessionAddress releaseSession(RouterNaptPorts ports, String internalIp, int internalPort) {
+        String internalIpPort = internalIp + NatConstants.COLON_SEPARATOR + internalPort;
+        SessionAddress externalAddress = ports.removeSession(internalIpPort, internalIp, internalPort);
+        if (externalAddress != null) {
+            scheduleDelete(ports.routerId, buildIpPortMapIdentifier(ports.routerId, ports.protocol, internalIpPort));
+            scheduleInternalPortsUpdate(ports.routerId, ports.protocol, internalIp,
+                ports.getInternalPorts(internalIp));
+        }
+        return externalAddress;
+    }
+
+    private void scheduleInternalPortsUpdate(long routerId, ProtocolTypes protocol, String internalIp,
+            List<Integer> internalPorts) {
+        InstanceIdentifier<IntIpProtoType> id =
+            NatUtil.buildSnatIntIpPortIdentifier(routerId, internalIp, protocol);
+        if (internalPorts.isEmpty()) {
+            scheduleDelete(routerId, id);
+        } else {
+            schedulePut(routerId, id, new IntIpProtoTypeBuilder().withKey(new IntIpProtoTypeKey(protocol))
+                .setPorts(internalPorts).build());
+        }
+    }
+
+    private <T extends DataObject> void schedulePut(long routerId,
+            InstanceIdentifier<T> id, T data) {
+        enqueue(id, new PendingWrite(routerId, tx -> tx.put(id, data, CREATE_MISSING_PARENTS)));
+    }
+
+    private void scheduleDelete(long routerId, InstanceIdentifier<?> id) {
+        enqueue(id, new PendingWrite(routerId, tx -> tx.delete(id)));
+    }
+
+    private void enqueue(InstanceIdentifier<?> id, PendingWrite write) {
+        synchronized (pendingWrites) {
+            // Last writer wins: re-inserting moves the path to the tail so it is applied after its parents
+            pendingWrites.remove(id);
+            pendingWrites.put(id, write);
+        }
+    }
+
+    private void cancelPendingWrites(InstanceIdentifier<?> parent) {
+        synchronized (pendingWrites) {
+            pendingWrites.keySet().removeIf(parent::contains);
+        }
+    }
+
+    ListenableFuture<Void> flush() {
+        List<PendingWrite> batch;
+        synchronized (pendingWrites) {
+            if (pendingWrites.isEmpty()) {
+                return Futures.immediateFuture(null);
+            }
+            batch = new ArrayList<>(Math.min(pendingWrites.size(), MAX_WRITES_PER_TRANSACTION));
+            Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+            while (iterator.hasNext() && batch.size() < MAX_WRITES_PER_TRANSACTION) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        return submit(batch);
+    }
+
+    private ListenableFuture<Void> submit(List<PendingWrite> batch) {
+        LOG.trace("submit : writing {} NAPT port mapping updates", batch.size());
+        ListenableFuture<Void> future = txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION,
+            tx -> batch.forEach(write -> write.operation.accept(tx)));
+        ListenableFutures.addErrorLogging(future, LOG, "Error writing NAPT port mapping updates");
+        Set<Long> routerIds = new HashSet<>();
+        batch.forEach(write -> routerIds.add(write.routerId));
+        for (Long routerId : routerIds) {
+            ListenableFuture<Void> tracked = inFlightWrites.merge(routerId, future,
+                (previous, current) -> Futures.whenAllComplete(previous, current).call(() -> null,
+                    MoreExecutors.directExecutor()));
+            tracked.addListener(() -> inFlightWrites.remove(routerId, tracked), MoreExecutors.directExecutor());
+        }
+        return future;
+    }
+
+    /**
+     * Submits the pending writes of the router and waits until all its writes are committed, so that a load of
+     * its state from the datastore sees them.
+     */
+    private void awaitWrites(long routerId) {
+        List<PendingWrite> writes = new ArrayList<>();
+        synchronized (pendingWrites) {
+            Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+            while (iterator.hasNext()) {
+                PendingWrite write = iterator.next();
+                if (write.routerId == routerId) {
+                    writes.add(write);
+                    iterator.remove();
+                }
+            }
+        }
+        if (!writes.isEmpty()) {
+            submit(writes);
+        }
+        ListenableFuture<Void> inFlight = inFlightWrites.get(routerId);
+        if (inFlight == null) {
+            return;
+        }
+        try {
+            inFlight.get(WRITES_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            LOG.warn("awaitWrites : interrupted waiting for the NAPT port mapping updates of router {}", routerId);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.warn("awaitWrites : NAPT port mapping updates of router {} not committed", routerId, e);
+        }
+    }
+
+    // Called with the lock of the state held, once the writes of the router are committed
+    private void load(RouterNaptPorts ports) {
+        InstanceIdentifier<IntextIpProtocolType> intextId = InstanceIdentifier.builder(IntextIpPortMap.class)
+            .child(IpPortMapping.class, new IpPortMappingKey(ports.routerId))
+            .child(IntextIpProtocolType.class, new IntextIpProtocolTypeKey(ports.protocol)).build();
+        int sessions = 0;
+        IntextIpProtocolType protocolType =
+            SingleTransactionDataBroker.syncReadOptionalAndTreatReadFailedExceptionAsAbsentOptional(dataBroker,
+                LogicalDatastoreType.CONFIGURATION, intextId).orNull();
+        if (protocolType != null) {
+            for (IpPortMap ipPortMap : protocolType.nonnullIpPortMap()) {
+                String[] ipPort = ipPortMap.getIpPortInternal().split(NatConstants.COLON_SEPARATOR);
+                IpPortExternal external = ipPortMap.getIpPortExternal();
+                if (ipPort.length != 2 || external == null) {
+                    continue;
+                }
+                SessionAddress externalAddress = new SessionAddress(external.getIpAddress(), external.getPortNum());
+                ports.pool(externalAddress.getIpAddress()).reserve(externalAddress.getPortNumber());
+                ports.addSession(ipPortMap.getIpPortInternal(), ipPort[0], Integer.parseInt(ipPort[1]),
+                    externalAddress);
+                sessions++;
+            }
+        }
+        // Internal ports recorded in snatint-ip-port-map without an intext-ip-port-map entry have no external
+        // port reserved, so they are only kept for consistency of the port list written back later.
+        InstanceIdentifier<IntipPortMap> snatintId = InstanceIdentifier.builder(SnatintIpPortMap.class)
+            .child(IntipPortMap.class, new IntipPortMapKey(ports.routerId)).build();
+        IntipPortMap intipPortMap =
+            SingleTransactionDataBroker.syncReadOptionalAndTreatReadFailedExceptionAsAbsentOptional(dataBroker,
+                LogicalDatastoreType.CONFIGURATION, snatintId).orNull();
+        if (intipPortMap != null) {
+            for (IpPort ipPort : intipPortMap.nonnullIpPort()) {
+                for (IntIpProtoType protoType : ipPort.nonnullIntIpProtoType()) {
+                    if (protoType.getProtocol() == ports.protocol && protoType.getPorts() != null) {
+                        ports.addInternalPorts(ipPort.getIpAddress(), protoType.getPorts());
+                    }
+                }
+            }
+        }
+        LOG.debug("load : restored {} NAPT sessions of router {} protocol {}", sessions, ports.routerId,
+            ports.protocol);
+    }
+
+    static InstanceIdentifier<IpPortMap> buildIpPortMapIdentifier(long routerId, ProtocolTypes protocol,
+            String internalIpPort) {
+        return InstanceIdentifier.builder(IntextIpPortMap.class)
+            .child(IpPortMapping.class, new IpPortMappingKey(routerId))
+            .child(IntextIpProtocolType.class, new IntextIpProtocolTypeKey(protocol))
+            .child(IpPortMap.class, new IpPortMapKey(internalIpPort)).build();
+    }
+
+    private static String routerKey(long routerId, ProtocolTypes protocol) {
+        return routerId + NatConstants.COLON_SEPARATOR + protocol.getName();
+    }
+
+    private static final class PendingWrite {
+        private final long routerId;
+        private final Consumer<TypedWriteTransaction<Configuration>> operation;
+
+        PendingWrite(long routerId, Consumer<TypedWriteTransaction<Configuration>> operation) {
+            this.routerId = routerId;
+            this.operation = operation;
+        }
+    }
+
+    /**
+     * NAPT state of one (router, protocol): the port pool of each external IP, the session map and the
+     * internal ports in use per internal IP.
+     */
+    private static final class RouterNaptPorts {
+        private final long routerId;
+        private final ProtocolTypes protocol;
+        private final Map<String, PortPool> pools = new HashMap<>();
+        private final Map<String, SessionAddress> sessions = new HashMap<>();
+        private final Map<String, Set<Integer>> internalPorts = new HashMap<>();
+        // Both written under the lock of this
+        private volatile boolean loaded;
+        private volatile boolean dropped;
+
+        RouterNaptPorts(long routerId, ProtocolTypes protocol) {
+            this.routerId = routerId;
+            this.protocol = protocol;
+        }
+
+        synchronized PortPool pool(String externalIp) {
+            return pools.computeIfAbsent(externalIp, ip -> new PortPool(LOW_PORT, HIGH_PORT));
+        }
+
+        synchronized void removePool(String externalIp) {
+            pools.remove(externalIp);
+        }
+
+        @Nullable
+        synchronized SessionAddress getSession(String internalIpPort) {
+            return sessions.get(internalIpPort);
+        }
+
+        synchronized List<String> getSessionsOnExternalIp(String externalIp) {
+            List<String> result = new ArrayList<>();
+            for (Map.Entry<String, SessionAddress> session : sessions.entrySet()) {
+                if (externalIp.equals(session.getValue().getIpAddress())) {
+                    result.add(session.getKey());
+                }
+            }
+            return result;
+        }
+
+        synchronized void addSession(String internalIpPort, String internalIp, int internalPort,
+                SessionAddress externalAddress) {
+            sessions.put(internalIpPort, externalAddress);
+            internalPorts.computeIfAbsent(internalIp, ip -> new HashSet<>()).add(internalPort);
+        }
+
+        @Nullable
+        synchronized SessionAddress removeSession(String internalIpPort, String internalIp, int internalPort) {
+            SessionAddress externalAddress = sessions.remove(internalIpPort);
+            if (externalAddress != null) {
+                PortPool pool = pools.get(externalAddress.getIpAddress());
+                if (pool != null) {
+                    pool.release(externalAddress.getPortNumber());
+                }
+            }
+            Set<Integer> ports = internalPorts.get(internalIp);
+            if (ports != null) {
+                ports.remove(internalPort);
+                if (ports.isEmpty()) {
+                    internalPorts.remove(internalIp);
+                }
+            }
+            return externalAddress;
+        }
+
+        synchronized void addInternalPorts(String internalIp, List<Integer> ports) {
+            internalPorts.computeIfAbsent(internalIp, ip -> new HashSet<>()).addAll(ports);
+        }
+
+        synchronized List<Integer> getInternalPorts(String internalIp) {
+            Set<Integer> ports = internalPorts.get(internalIp);
+            return ports != null ? new ArrayList<>(ports) : Collections.emptyList();
+        }
+    }
+
+    /**
+     * Bitmap backed pool of ports. Allocation resumes from the last allocated position, so it is O(1) amortized
+     * until the pool gets close to exhaustion; released ports are reused once the cursor wraps around.
+     */
+    static final class PortPool {
+        private final int low;
+        private final int size;
+        private final BitSet used;
+        private int next;
+        private int allocated;
+
+        PortPool(int low, int high) {
+            this.low = low;
+            this.size = high - low + 1;
+            this.used = new BitSet(size);
+        }
+
+        int allocate() {
+            if (allocated >= size) {
+                return -1;
+            }
+            int index = used.nextClearBit(next);
+            if (index >= size) {
+                index = used.nextClearBit(0);
+            }
+            used.set(index);
+            allocated++;
+            next = index + 1 < size ? index + 1 : 0;
+            return low + index;
+        }
+
+        void reserve(int port) {
+            int index = port - low;
+            if (index >= 0 && index < size && !used.get(index)) {
+                used.set(index);
+                allocated++;
+            }
+        }
+
+        void release(int port) {
+            int index = port - low;
+            if (index >= 0 && index < size && used.get(index)) {
+                used.clear(index);
+                allocated--;
+            }
+        }
+
+        int getAllocatedCount() {
+            return allocated;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.AsyncClusteredDataTreeChangeListenerBase;
+import org.opendaylight.genius.mdsalutil.MDSALUtil;
+import org.opendaylight.mdsal.eos.binding.api.EntityOwnershipChange;
+import org.opendaylight.mdsal.eos.binding.api.EntityOwnershipListener;
+import org.opendaylight.mdsal.eos.binding.api.EntityOwnershipListenerRegistration;
+import org.opendaylight.mdsal.eos.binding.api.EntityOwnershipService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.NaptSwitches;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.napt.switches.RouterToNaptSwitch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.mdsal.core.general.entity.rev150930.EntityKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects on every node that the NAPT sessions of a router may have been handled by another node, i.e. that the
+ * NAPT switch of the router moved or that the mastership of the NAPT switch changed, and has the in-memory NAPT
+ * ports of the router reloaded from the datastore. A move of the NAPT switch also invalidates the router context
+ * cached by the {@link NaptEventHandler}.
+ *
+ * <p>The mastership of a switch is the ownership of its openflowplugin cluster singleton service entity.
+ */
+@Singleton
+public class NaptSwitchTakeoverListener
+        extends AsyncClusteredDataTreeChangeListenerBase<RouterToNaptSwitch, NaptSwitchTakeoverListener>
+        implements EntityOwnershipListener {
+    private static final Logger LOG = LoggerFactory.getLogger(NaptSwitchTakeoverListener.class);
+
+    private static final String SERVICE_ENTITY_TYPE = "org.opendaylight.mdsal.ServiceEntityType";
+    private static final String OPENFLOW_NODE_PREFIX = "openflow:";
+
+    private final DataBroker dataBroker;
+    private final EntityOwnershipService entityOwnershipService;
+    private final NaptPortAllocator naptPortAllocator;
+    private final NaptEventHandler naptEventHandler;
+    // Guarded by this
+    private final Map<BigInteger, Set<String>> routersBySwitch = new HashMap<>();
+    private EntityOwnershipListenerRegistration ownershipListenerRegistration;
+
+    @Inject
+    public NaptSwitchTakeoverListener(final DataBroker dataBroker, final EntityOwnershipService entityOwnershipService,
+            final NaptPortAllocator naptPortAllocator, final NaptEventHandler naptEventHandler) {
+        super(RouterToNaptSwitch.class, NaptSwitchTakeoverListener.class);
+        this.dataBroker = dataBroker;
+        this.entityOwnershipService = entityOwnershipService;
+        this.naptPortAllocator = naptPortAllocator;
+        this.naptEventHandler = naptEventHandler;
+    }
+
+    @Override
+    @PostConstruct
+    public void init() {
+        LOG.info("{} init", getClass().getSimpleName());
+        registerListener(LogicalDatastoreType.CONFIGURATION, dataBroker);
+        ownershipListenerRegistration = entityOwnershipService.registerListener(SERVICE_ENTITY_TYPE, this);
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        if (ownershipListenerRegistration != null) {
+            ownershipListenerRegistration.close();
+        }
+        super.close();
+    }
+
+    @Override
+    protected InstanceIdentifier<RouterToNaptSwitch> getWildCardPath() {
+        return InstanceIdentifier.create(NaptSwitches.class).child(RouterToNaptSwitch.class);
+    }
+
+    @Override
+    protected void add(InstanceIdentifier<RouterToNaptSwitch> key, RouterToNaptSwitch routerToNaptSwitch) {
+        index(routerToNaptSwitch.getRouterName(), routerToNaptSwitch.getPrimarySwitchId());
+        naptSwitchChanged(routerToNaptSwitch.getRouterName());
+    }
+
+    @Override
+    protected void update(InstanceIdentifier<RouterToNaptSwitch> key, RouterToNaptSwitch origRouterToNaptSwitch,
+            RouterToNaptSwitch updatedRouterToNaptSwitch) {
+        if (!Objects.equals(origRouterToNaptSwitch.getPrimarySwitchId(),
+                updatedRouterToNaptSwitch.getPrimarySwitchId())) {
+            unindex(origRouterToNaptSwitch.getRouterName(), origRouterToNaptSwitch.getPrimarySwitchId());
+            index(updatedRouterToNaptSwitch.getRouterName(), updatedRouterToNaptSwitch.getPrimarySwitchId());
+            naptSwitchChanged(updatedRouterToNaptSwitch.getRouterName());
+        }
+    }
+
+    @Override
+    protected void remove(InstanceIdentifier<RouterToNaptSwitch> key, RouterToNaptSwitch routerToNaptSwitch) {
+        unindex(routerToNaptSwitch.getRouterName(), routerToNaptSwitch.getPrimarySwitchId());
+        naptSwitchChanged(routerToNaptSwitch.getRouterName());
+    }
+
+    @Override
+    protected NaptSwitchTakeoverListener getDataTreeChangeListener() {
+        return this;
+    }
+
+    @Override
+    public void ownershipChanged(EntityOwnershipChange ownershipChange) {
+        if (ownershipChange.getState().isOwner() == ownershipChange.getState().wasOwner()) {
+            return;
+        }
+        EntityKey entityKey = ownershipChange.getEntity().getIdentifier().firstKeyOf(
+            org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.mdsal.core.general.entity.rev150930
+                .Entity.class);
+        if (entityKey == null || !entityKey.getName().startsWith(OPENFLOW_NODE_PREFIX)) {
+            return;
+        }
+        BigInteger dpnId = MDSALUtil.getDpnIdFromNodeName(new NodeId(entityKey.getName()));
+        Set<String> routerNames;
+        synchronized (this) {
+            routerNames = new HashSet<>(routersBySwitch.getOrDefault(dpnId, Collections.emptySet()));
+        }
+        LOG.debug("ownershipChanged : mastership of NAPT switch {} changed, owner {}, routers {}", dpnId,
+            ownershipChange.getState().isOwner(), routerNames);
+        for (String routerName : routerNames) {
+            long routerId = NatUtil.getVpnId(dataBroker, routerName);
+            if (routerId != NatConstants.INVALID_ID) {
+                naptPortAllocator.resyncRouter(routerId);
+            }
+        }
+    }
+
+    private synchronized void index(String routerName, BigInteger dpnId) {
+        if (dpnId != null) {
+            routersBySwitch.computeIfAbsent(dpnId, key -> new HashSet<>()).add(routerName);
+        }
+    }
+
+    private synchronized void unindex(String routerName, BigInteger dpnId) {
+        Set<String> routerNames = dpnId != null ? routersBySwitch.get(dpnId) : null;
+        if (routerNames != null && routerNames.remove(routerName) && routerNames.isEmpty()) {
+            routersBySwitch.remove(dpnId);
+        }
+    }
+
+    private void naptSwitchChanged(String routerName) {
+        long routerId = NatUtil.getVpnId(dataBroker, routerName);
+        if (routerId != NatConstants.INVALID_ID) {
+            naptEventHandler.invalidateRouterContext(routerId);
+            naptPortAllocator.resyncRouter(routerId);
+        }
+    }
+}
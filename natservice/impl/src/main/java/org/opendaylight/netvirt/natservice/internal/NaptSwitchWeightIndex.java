@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.AsyncDataTreeChangeListenerBase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.NaptSwitches;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.napt.switches.RouterToNaptSwitch;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Weights of the NAPT switches, i.e. the number of routers each switch is the primary switch of, shared by
+ * {@link NAPTSwitchSelector} and the weighted centralized switch scheduler.
+ *
+ * <p>The weights are updated as routers are assigned and released, and kept in line with the
+ * {@code napt-switches} config tree by listening to it, so a selection neither reads the whole tree nor recomputes
+ * the weights. An assignment is visible to the next selection before it is written, so routers elected in a row,
+ * e.g. all the routers of a failed switch, are spread over the remaining switches.
+ */
+@Singleton
+public class NaptSwitchWeightIndex
+        extends AsyncDataTreeChangeListenerBase<RouterToNaptSwitch, NaptSwitchWeightIndex> {
+    private static final Logger LOG = LoggerFactory.getLogger(NaptSwitchWeightIndex.class);
+
+    private final DataBroker dataBroker;
+    // All the following are guarded by this
+    private final Map<String, BigInteger> routerSwitches = new HashMap<>();
+    private final Map<BigInteger, SwitchWeight> switchWeights = new HashMap<>();
+    // The switch weights ordered by weight, then by switch id
+    private final NavigableSet<SwitchWeight> orderedSwitchWeights = new TreeSet<>();
+
+    @Inject
+    public NaptSwitchWeightIndex(final DataBroker dataBroker) {
+        super(RouterToNaptSwitch.class, NaptSwitchWeightIndex.class);
+        this.dataBroker = dataBroker;
+    }
+
+    @Override
+    @PostConstruct
+    public void init() {
+        LOG.info("{} init", getClass().getSimpleName());
+        registerListener(LogicalDatastoreType.CONFIGURATION, dataBroker);
+    }
+
+    @Override
+    protected InstanceIdentifier<RouterToNaptSwitch> getWildCardPath() {
+        return InstanceIdentifier.create(NaptSwitches.class).child(RouterToNaptSwitch.class);
+    }
+
+    @Override
+    protected void add(InstanceIdentifier<RouterToNaptSwitch> key, RouterToNaptSwitch routerToNaptSwitch) {
+        assign(routerToNaptSwitch.getRouterName(), routerToNaptSwitch.getPrimarySwitchId());
+    }
+
+    @Override
+    protected void update(InstanceIdentifier<RouterToNaptSwitch> key, RouterToNaptSwitch origRouterToNaptSwitch,
+            RouterToNaptSwitch updatedRouterToNaptSwitch) {
+        assign(updatedRouterToNaptSwitch.getRouterName(), updatedRouterToNaptSwitch.getPrimarySwitchId());
+    }
+
+    @Override
+    protected void remove(InstanceIdentifier<RouterToNaptSwitch> key, RouterToNaptSwitch routerToNaptSwitch) {
+        release(routerToNaptSwitch.getRouterName());
+    }
+
+    @Override
+    protected NaptSwitchWeightIndex getDataTreeChangeListener() {
+        return NaptSwitchWeightIndex.this;
+    }
+
+    /**
+     * Makes a switch known to the index, so that it can be selected by {@link #assignLightest(String, Predicate)}
+     * before any router is assigned to it.
+     */
+    public synchronized void addSwitch(BigInteger dpnId) {
+        SwitchWeight switchWeight = switchWeights.computeIfAbsent(dpnId, SwitchWeight::new);
+        switchWeight.registered = true;
+        orderedSwitchWeights.add(switchWeight);
+    }
+
+    /**
+     * Forgets a switch once no router is assigned to it anymore.
+     */
+    public synchronized void removeSwitch(BigInteger dpnId) {
+        SwitchWeight switchWeight = switchWeights.get(dpnId);
+        if (switchWeight != null) {
+            switchWeight.registered = false;
+            dropIfUnused(switchWeight);
+        }
+    }
+
+    /**
+     * Records the primary switch of a router, releasing it from its previous switch.
+     *
+     * @param routerName the router
+     * @param dpnId the primary switch, releases the router if null or zero
+     */
+    public synchronized void assign(String routerName, @Nullable BigInteger dpnId) {
+        if (dpnId == null || BigInteger.ZERO.equals(dpnId)) {
+            release(routerName);
+            return;
+        }
+        BigInteger previousDpnId = routerSwitches.put(routerName, dpnId);
+        if (dpnId.equals(previousDpnId)) {
+            return;
+        }
+        if (previousDpnId != null) {
+            detach(previousDpnId, routerName);
+        }
+        SwitchWeight switchWeight = switchWeights.computeIfAbsent(dpnId, SwitchWeight::new);
+        orderedSwitchWeights.remove(switchWeight);
+        switchWeight.routers.add(routerName);
+        orderedSwitchWeights.add(switchWeight);
+    }
+
+    public synchronized void release(String routerName) {
+        BigInteger dpnId = routerSwitches.remove(routerName);
+        if (dpnId != null) {
+            detach(dpnId, routerName);
+        }
+    }
+
+    @Nullable
+    public synchronized BigInteger getPrimarySwitch(String routerName) {
+        return routerSwitches.get(routerName);
+    }
+
+    public synchronized int getWeight(BigInteger dpnId) {
+        SwitchWeight switchWeight = switchWeights.get(dpnId);
+        return switchWeight != null ? switchWeight.weight() : 0;
+    }
+
+    @NonNull
+    public synchronized Set<String> getRouters(BigInteger dpnId) {
+        SwitchWeight switchWeight = switchWeights.get(dpnId);
+        return switchWeight != null ? new HashSet<>(switchWeight.routers) : new HashSet<>();
+    }
+
+    /**
+     * Assigns the router to the candidate switch with the lowest weight, the first one among equal weights.
+     *
+     * @return the selected switch, or zero if there is no candidate
+     */
+    public synchronized BigInteger assignLightest(String routerName, Collection<BigInteger> candidates) {
+        BigInteger lightestDpnId = BigInteger.ZERO;
+        int lowestWeight = Integer.MAX_VALUE;
+        for (BigInteger dpnId : candidates) {
+            int weight = getWeight(dpnId);
+            if (weight < lowestWeight) {
+                lowestWeight = weight;
+                lightestDpnId = dpnId;
+            }
+        }
+        if (!BigInteger.ZERO.equals(lightestDpnId)) {
+            assign(routerName, lightestDpnId);
+        }
+        return lightestDpnId;
+    }
+
+    /**
+     * Assigns the router to the known switch with the lowest weight accepted by the filter.
+     *
+     * @return the selected switch, or zero if no switch is accepted
+     */
+    public synchronized BigInteger assignLightest(String routerName, Predicate<BigInteger> eligible) {
+        for (SwitchWeight switchWeight : orderedSwitchWeights) {
+            if (switchWeight.registered && eligible.test(switchWeight.dpnId)) {
+                assign(routerName, switchWeight.dpnId);
+                return switchWeight.dpnId;
+            }
+        }
+        return BigInteger.ZERO;
+    }
+
+    /**
+     * Elects new primary switches for the given routers of a failed switch in one pass. Each router is assigned to
+     * the lightest known switch its filter accepts, the failed switch excluded, taking the previous elections of
+     * the pass into account. Routers without an eligible switch are released, routers of the failed switch missing
+     * from the filters are left assigned to it.
+     *
+     * @param failedDpnId the failed switch
+     * @param eligibleSwitches the filter of the switches each router may be assigned to
+     * @return the new primary switch of each orphaned router, zero for the released ones
+     */
+    public synchronized Map<String, BigInteger> reelect(BigInteger failedDpnId,
+            Map<String, Predicate<BigInteger>> eligibleSwitches) {
+        Map<String, BigInteger> elected = new LinkedHashMap<>();
+        SwitchWeight failedSwitchWeight = switchWeights.get(failedDpnId);
+        if (failedSwitchWeight == null) {
+            return elected;
+        }
+        List<String> orphanedRouters = new ArrayList<>(failedSwitchWeight.routers);
+        for (String routerName : orphanedRouters) {
+            Predicate<BigInteger> eligible = eligibleSwitches.get(routerName);
+            if (eligible == null) {
+                continue;
+            }
+            BigInteger dpnId = assignLightest(routerName,
+                candidate -> !failedDpnId.equals(candidate) && eligible.test(candidate));
+            if (BigInteger.ZERO.equals(dpnId)) {
+                release(routerName);
+            }
+            elected.put(routerName, dpnId);
+        }
+        LOG.debug("reelect : elected {} for the routers of failed switch {}", elected, failedDpnId);
+        return elected;
+    }
+
+    private void detach(BigInteger dpnId, String routerName) {
+        SwitchWeight switchWeight = switchWeights.get(dpnId);
+        if (switchWeight == null) {
+            return;
+        }
+        orderedSwitchWeights.remove(switchWeight);
+        switchWeight.routers.remove(routerName);
+        orderedSwitchWeights.add(switchWeight);
+        dropIfUnused(switchWeight);
+    }
+
+    private void dropIfUnused(SwitchWeight switchWeight) {
+        if (!switchWeight.registered && switchWeight.routers.isEmpty()) {
+            orderedSwitchWeights.remove(switchWeight);
+            switchWeights.remove(switchWeight.dpnId);
+        }
+    }
+
+    private static final class SwitchWeight implements Comparable<SwitchWeight> {
+        private final BigInteger dpnId;
+        private final Set<String> routers = new HashSet<>();
+        private boolean registered;
+
+        SwitchWeight(BigInteger dpnId) {
+            this.dpnId = dpnId;
+        }
+
+        int weight() {
+            return routers.size();
+        }
+
+        @Override
+        public int compareTo(@NonNull SwitchWeight other) {
+            int result = Integer.compare(weight(), other.weight());
+            return result != 0 ? result : dpnId.compareTo(other.dpnId);
+        }
+    }
+}
@@ -22,6 +22,9 @@ public interface NatConstants {
     String COLON_SEPARATOR = ":";
     int DEFAULT_NAPT_IDLE_TIMEOUT = 300;
     int EVENT_QUEUE_LENGTH = 1000000;
+    int EVENT_DISPATCHER_SHARDS = 8;
+    int EVENT_BATCH_SIZE = 256;
+    long EVENT_QUEUE_OFFER_TIMEOUT_MILLIS = 100;
     String FLOWID_PREFIX = "L3.";
     int DEFAULT_DNAT_FLOW_PRIORITY = 10;
     long INVALID_ID = -1;
@@ -47,6 +50,8 @@ public interface NatConstants {
     short DEFAULT_IDLE_TIMEOUT = 0;
     int SNAT_PACKET_THEADPOOL_SIZE = 25;
     int SNAT_PACKET_RETRY_THEADPOOL_SIZE = 15;
+    int SNAT_PACKET_QUEUE_LENGTH = 100000;
+    int SNAT_PACKET_BATCH_SIZE = 128;
     String NAT_DJC_PREFIX = "NAT-";
     int NAT_DJC_MAX_RETRIES = 3;
     // Flow Actions
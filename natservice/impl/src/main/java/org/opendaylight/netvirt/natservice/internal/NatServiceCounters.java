@@ -8,8 +8,11 @@
 
 package org.opendaylight.netvirt.natservice.internal;
 
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Labeled;
 import org.opendaylight.infrautils.metrics.Meter;
 import org.opendaylight.infrautils.metrics.MetricDescriptor;
 import org.opendaylight.infrautils.metrics.MetricProvider;
@@ -26,6 +29,13 @@ public class NatServiceCounters {
     private final Meter garpFailedIpv6Meter;
     private final Meter garpFailedMissingInterfaceMeter;
     private final Meter garpFailedSendMeter;
+    private final Labeled<Counter> snatPipelineQueueDepth;
+    private final Labeled<Counter> snatPipelineEvents;
+    private final Labeled<Counter> snatPipelineLatencyMicros;
+    private final Labeled<Counter> snatPipelineDropped;
+    private final Labeled<Counter> naptEventQueueDepth;
+    private final Labeled<Counter> naptEventProcessed;
+    private final Labeled<Counter> naptEventDropped;
 
     @Inject
     public NatServiceCounters(MetricProvider metricProvider) {
@@ -39,6 +49,13 @@ public class NatServiceCounters {
         this.garpFailedIpv6Meter = meter(metricProvider, "garp_failed_ipv6");
         this.garpFailedMissingInterfaceMeter = meter(metricProvider, "garp_failed_missing_interface");
         this.garpFailedSendMeter = meter(metricProvider, "garp_failed_send");
+        this.snatPipelineQueueDepth = counter(metricProvider, "snat_pipeline_queue_depth", "stage");
+        this.snatPipelineEvents = counter(metricProvider, "snat_pipeline_events", "stage");
+        this.snatPipelineLatencyMicros = counter(metricProvider, "snat_pipeline_latency_micros", "stage");
+        this.snatPipelineDropped = counter(metricProvider, "snat_pipeline_dropped", "stage");
+        this.naptEventQueueDepth = counter(metricProvider, "napt_event_queue_depth", "shard");
+        this.naptEventProcessed = counter(metricProvider, "napt_event_processed", "shard");
+        this.naptEventDropped = counter(metricProvider, "napt_event_dropped", "shard");
     }
 
     private Meter meter(MetricProvider metricProvider, String id) {
@@ -46,6 +63,12 @@ public class NatServiceCounters {
                 MetricDescriptor.builder().anchor(this).project("netvirt").module("natservice").id(id).build());
     }
 
+    private Labeled<Counter> counter(MetricProvider metricProvider, String id, String labelName) {
+        return metricProvider.newCounter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("natservice").id(id).build(),
+                labelName);
+    }
+
     public void installDefaultNatFlow() {
         installDefaultNatFlowMeter.mark();
     }
@@ -85,4 +108,38 @@ public class NatServiceCounters {
     public void garpFailedSend() {
         garpFailedSendMeter.mark();
     }
+
+    public void snatPipelineEnqueued(String stage) {
+        snatPipelineQueueDepth.label(stage).increment();
+    }
+
+    public void snatPipelineDequeued(String stage, int events) {
+        snatPipelineQueueDepth.label(stage).decrement(events);
+    }
+
+    /**
+     * Records that a stage of the SNAT first packet pipeline processed the given number of events. The average
+     * latency of a stage is its latency counter divided by its events counter.
+     */
+    public void snatPipelineStageCompleted(String stage, int events, long elapsedNanos) {
+        snatPipelineEvents.label(stage).increment(events);
+        snatPipelineLatencyMicros.label(stage).increment(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    public void snatPipelineDropped(String stage) {
+        snatPipelineDropped.label(stage).increment();
+    }
+
+    public void naptEventEnqueued(int shard) {
+        naptEventQueueDepth.label(String.valueOf(shard)).increment();
+    }
+
+    public void naptEventsProcessed(int shard, int events) {
+        naptEventQueueDepth.label(String.valueOf(shard)).decrement(events);
+        naptEventProcessed.label(String.valueOf(shard)).increment(events);
+    }
+
+    public void naptEventDropped(int shard) {
+        naptEventDropped.label(String.valueOf(shard)).increment();
+    }
 }
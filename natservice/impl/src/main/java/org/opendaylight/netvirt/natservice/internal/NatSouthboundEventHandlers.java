@@ -463,7 +463,7 @@ public class NatSouthboundEventHandlers {
                     // delete the entry from IntExtIpPortMap DS
                     try {
                         naptManager.removeFromIpPortMapDS(routerId, internalIpPort, proto);
-                        naptManager.removePortFromPool(internalIpPort, externalIpAddress);
+                        naptManager.removePortFromPool(routerId, internalIpPort, protocol);
                     } catch (Exception ex) {
                         LOG.error("removeSnatEntriesForPort : releaseIpExtPortMapping failed, Removal of "
                             + "ipportmap {} for router {} failed", internalIpPort, routerId, ex);
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventDispatcherTest {
+    private static final int ROUTERS = 3 * NatConstants.EVENT_DISPATCHER_SHARDS;
+    private static final int EVENTS_PER_ROUTER = 2 * NatConstants.EVENT_BATCH_SIZE;
+
+    private final NaptEventHandler naptEventHandler = mock(NaptEventHandler.class);
+    private final Map<Long, List<Integer>> handledPorts = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> handlingThreads = new ConcurrentHashMap<>();
+    private final CountDownLatch handled = new CountDownLatch(ROUTERS * EVENTS_PER_ROUTER);
+    private EventDispatcher eventDispatcher;
+
+    @Before
+    public void setUp() {
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<NAPTEntryEvent> batch = (List<NAPTEntryEvent>) invocation.getArguments()[0];
+            for (NAPTEntryEvent event : batch) {
+                handledPorts.computeIfAbsent(event.getRouterId(), key -> new ArrayList<>())
+                    .add(event.getPortNumber());
+                handlingThreads.computeIfAbsent(event.getRouterId(), key -> ConcurrentHashMap.newKeySet())
+                    .add(Thread.currentThread().getName());
+                handled.countDown();
+            }
+            return null;
+        }).when(naptEventHandler).handleFlowRemovedEvents(anyListOf(NAPTEntryEvent.class));
+        eventDispatcher = new EventDispatcher(naptEventHandler, mock(NatServiceCounters.class));
+        eventDispatcher.init();
+    }
+
+    @After
+    public void tearDown() {
+        eventDispatcher.close();
+    }
+
+    @Test
+    public void testEventsOfARouterAreHandledInOrderOnOneShard() throws InterruptedException {
+        for (int port = 0; port < EVENTS_PER_ROUTER; port++) {
+            for (long routerId = 0; routerId < ROUTERS; routerId++) {
+                eventDispatcher.addFlowRemovedNaptEvent(new NAPTEntryEvent("10.0.0.1", port, routerId,
+                    NAPTEntryEvent.Operation.DELETE, NAPTEntryEvent.Protocol.TCP));
+            }
+        }
+
+        Assert.assertTrue(handled.await(30, TimeUnit.SECONDS));
+        Set<String> allThreads = new HashSet<>();
+        for (long routerId = 0; routerId < ROUTERS; routerId++) {
+            List<Integer> ports = handledPorts.get(routerId);
+            Assert.assertEquals(EVENTS_PER_ROUTER, ports.size());
+            for (int port = 0; port < EVENTS_PER_ROUTER; port++) {
+                Assert.assertEquals("events of router " + routerId + " out of order", port, (int) ports.get(port));
+            }
+            Assert.assertEquals(1, handlingThreads.get(routerId).size());
+            allThreads.addAll(handlingThreads.get(routerId));
+        }
+        // The routers are spread over all the shards
+        Assert.assertEquals(NatConstants.EVENT_DISPATCHER_SHARDS, allThreads.size());
+    }
+}
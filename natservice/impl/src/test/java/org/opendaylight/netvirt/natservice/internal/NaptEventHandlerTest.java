@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import static org.mockito.Mockito.mock;
+
+import java.math.BigInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.test.ConstantSchemaAbstractDataBrokerTest;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.genius.interfacemanager.interfaces.IInterfaceManager;
+import org.opendaylight.genius.mdsalutil.interfaces.IMdsalApiManager;
+import org.opendaylight.netvirt.elanmanager.api.IElanService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SalFlowService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.IdManagerService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.interfacemanager.rpcs.rev160406.OdlInterfaceRpcService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.VpnIdToVpnInstance;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.id.to.vpn.instance.VpnIds;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.id.to.vpn.instance.VpnIdsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.id.to.vpn.instance.VpnIdsKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.napt.switches.RouterToNaptSwitchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketProcessingService;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class NaptEventHandlerTest extends ConstantSchemaAbstractDataBrokerTest {
+    private static final long ROUTER_ID = 100L;
+    private static final String ROUTER_NAME = "router1";
+
+    private DataBroker dataBroker;
+    private NaptEventHandler naptEventHandler;
+
+    @Before
+    public void setUp() throws Exception {
+        dataBroker = getDataBroker();
+        naptEventHandler = new NaptEventHandler(dataBroker, mock(IMdsalApiManager.class), mock(NaptManager.class),
+            mock(PacketProcessingService.class), mock(OdlInterfaceRpcService.class), mock(IInterfaceManager.class),
+            mock(IElanService.class), mock(IdManagerService.class), mock(SalFlowService.class),
+            mock(NatOverVxlanUtil.class));
+        InstanceIdentifier<VpnIds> vpnIdsId = InstanceIdentifier.builder(VpnIdToVpnInstance.class)
+            .child(VpnIds.class, new VpnIdsKey(ROUTER_ID)).build();
+        SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, vpnIdsId,
+            new VpnIdsBuilder().setVpnId(ROUTER_ID).setVpnInstanceName(ROUTER_NAME).build());
+    }
+
+    @Test
+    public void testRouterContextFollowsNaptSwitchChange() throws Exception {
+        NAPTEntryEvent event = new NAPTEntryEvent("10.0.0.1", 1000, ROUTER_ID, NAPTEntryEvent.Operation.ADD,
+            NAPTEntryEvent.Protocol.TCP);
+        setNaptSwitch(BigInteger.ONE);
+        Assert.assertEquals(BigInteger.ONE, naptEventHandler.resolveRouterContext(event).dpnId);
+
+        setNaptSwitch(BigInteger.valueOf(2));
+        // Served from the cache until the NAPT switch change is notified
+        Assert.assertEquals(BigInteger.ONE, naptEventHandler.resolveRouterContext(event).dpnId);
+
+        naptEventHandler.invalidateRouterContext(ROUTER_ID);
+        Assert.assertEquals(BigInteger.valueOf(2), naptEventHandler.resolveRouterContext(event).dpnId);
+    }
+
+    private void setNaptSwitch(BigInteger dpnId) throws Exception {
+        SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
+            NatUtil.buildNaptSwitchIdentifier(ROUTER_NAME),
+            new RouterToNaptSwitchBuilder().setRouterName(ROUTER_NAME).setPrimarySwitchId(dpnId).build());
+    }
+}
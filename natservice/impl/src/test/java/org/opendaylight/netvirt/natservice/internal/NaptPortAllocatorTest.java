@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import com.google.common.base.Optional;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.test.ConstantSchemaAbstractDataBrokerTest;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.ProtocolTypes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMapBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.IpPortMapKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.natservice.rev160111.intext.ip.port.map.ip.port.mapping.intext.ip.protocol.type.ip.port.map.IpPortExternalBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class NaptPortAllocatorTest extends ConstantSchemaAbstractDataBrokerTest {
+    private static final long ROUTER_ID = 100L;
+    private static final String EXTERNAL_IP = "172.16.0.1";
+
+    private DataBroker dataBroker;
+    private NaptPortAllocator allocator;
+
+    @Before
+    public void setUp() {
+        dataBroker = getDataBroker();
+        allocator = new NaptPortAllocator(dataBroker);
+    }
+
+    @Test
+    public void testPortPoolAllocatesWholeRangeOnce() {
+        NaptPortAllocator.PortPool pool = new NaptPortAllocator.PortPool(100, 109);
+        for (int port = 100; port <= 109; port++) {
+            Assert.assertEquals(port, pool.allocate());
+        }
+        Assert.assertEquals(-1, pool.allocate());
+        Assert.assertEquals(10, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void testPortPoolReusesReleasedPortsAfterWrap() {
+        NaptPortAllocator.PortPool pool = new NaptPortAllocator.PortPool(100, 103);
+        pool.reserve(101);
+        Assert.assertEquals(100, pool.allocate());
+        Assert.assertEquals(102, pool.allocate());
+        Assert.assertEquals(103, pool.allocate());
+        pool.release(101);
+        pool.release(101);
+        Assert.assertEquals(3, pool.getAllocatedCount());
+        Assert.assertEquals(101, pool.allocate());
+        Assert.assertEquals(-1, pool.allocate());
+    }
+
+    @Test
+    public void testStateIsLoadedFromDatastore() throws Exception {
+        writeMapping("10.0.0.1:1000", NaptPortAllocator.LOW_PORT);
+
+        SessionAddress existing = allocator.getExistingMapping(ROUTER_ID, ProtocolTypes.TCP, "10.0.0.1:1000");
+        Assert.assertNotNull(existing);
+        Assert.assertEquals(NaptPortAllocator.LOW_PORT, existing.getPortNumber());
+        SessionAddress allocated = allocator.allocate(ROUTER_ID, ProtocolTypes.TCP, EXTERNAL_IP, "10.0.0.2", 2000);
+        Assert.assertEquals(NaptPortAllocator.LOW_PORT + 1, allocated.getPortNumber());
+    }
+
+    @Test
+    public void testReleaseRemovesMappingFromDatastore() throws Exception {
+        SessionAddress allocated = allocator.allocate(ROUTER_ID, ProtocolTypes.TCP, EXTERNAL_IP, "10.0.0.1", 1000);
+        allocator.flush().get();
+        Assert.assertTrue(readMapping("10.0.0.1:1000").isPresent());
+
+        SessionAddress released = allocator.release(ROUTER_ID, ProtocolTypes.TCP, "10.0.0.1", 1000);
+        Assert.assertEquals(allocated.getPortNumber(), released.getPortNumber());
+        allocator.flush().get();
+        Assert.assertFalse(readMapping("10.0.0.1:1000").isPresent());
+        Assert.assertFalse(SingleTransactionDataBroker.syncReadOptional(dataBroker, LogicalDatastoreType.CONFIGURATION,
+            NatUtil.buildSnatIntIpPortIdentifier(ROUTER_ID, "10.0.0.1", ProtocolTypes.TCP)).isPresent());
+
+        // A restarted allocator sees the port free again
+        NaptPortAllocator restarted = new NaptPortAllocator(dataBroker);
+        Assert.assertEquals(NaptPortAllocator.LOW_PORT,
+            restarted.allocate(ROUTER_ID, ProtocolTypes.TCP, EXTERNAL_IP, "10.0.0.2", 2000).getPortNumber());
+    }
+
+    @Test
+    public void testResyncSeesTheAllocationsOfAnotherNode() throws Exception {
+        allocator.allocate(ROUTER_ID, ProtocolTypes.TCP, EXTERNAL_IP, "10.0.0.1", 1000);
+        // Allocated by the node which handled the router in the meantime
+        writeMapping("10.0.0.3:3000", NaptPortAllocator.LOW_PORT + 1);
+
+        allocator.resyncRouter(ROUTER_ID);
+
+        Assert.assertEquals(NaptPortAllocator.LOW_PORT,
+            allocator.getExistingMapping(ROUTER_ID, ProtocolTypes.TCP, "10.0.0.1:1000").getPortNumber());
+        Assert.assertEquals(NaptPortAllocator.LOW_PORT + 1,
+            allocator.getExistingMapping(ROUTER_ID, ProtocolTypes.TCP, "10.0.0.3:3000").getPortNumber());
+        Assert.assertEquals(NaptPortAllocator.LOW_PORT + 2,
+            allocator.allocate(ROUTER_ID, ProtocolTypes.TCP, EXTERNAL_IP, "10.0.0.2", 2000).getPortNumber());
+    }
+
+    @Test
+    public void testRemoveExternalIpDropsPendingWrites() throws Exception {
+        allocator.allocate(ROUTER_ID, ProtocolTypes.TCP, EXTERNAL_IP, "10.0.0.1", 1000);
+
+        allocator.removeExternalIp(ROUTER_ID, EXTERNAL_IP);
+        allocator.flush().get();
+
+        Assert.assertFalse(readMapping("10.0.0.1:1000").isPresent());
+        Assert.assertNull(allocator.getExistingMapping(ROUTER_ID, ProtocolTypes.TCP, "10.0.0.1:1000"));
+    }
+
+    private void writeMapping(String internalIpPort, int externalPort) throws Exception {
+        IpPortMap ipPortMap = new IpPortMapBuilder().withKey(new IpPortMapKey(internalIpPort))
+            .setIpPortInternal(internalIpPort)
+            .setIpPortExternal(new IpPortExternalBuilder().setIpAddress(EXTERNAL_IP).setPortNum(externalPort).build())
+            .build();
+        SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION,
+            mappingId(internalIpPort), ipPortMap);
+    }
+
+    private Optional<IpPortMap> readMapping(String internalIpPort) throws Exception {
+        return SingleTransactionDataBroker.syncReadOptional(dataBroker, LogicalDatastoreType.CONFIGURATION,
+            mappingId(internalIpPort));
+    }
+
+    private static InstanceIdentifier<IpPortMap> mappingId(String internalIpPort) {
+        return NaptPortAllocator.buildIpPortMapIdentifier(ROUTER_ID, ProtocolTypes.TCP, internalIpPort);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.natservice.internal;
+
+import static org.mockito.Mockito.mock;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+
+public class NaptSwitchWeightIndexTest {
+    private static final BigInteger DPN1 = BigInteger.valueOf(1);
+    private static final BigInteger DPN2 = BigInteger.valueOf(2);
+    private static final BigInteger DPN3 = BigInteger.valueOf(3);
+
+    private final NaptSwitchWeightIndex index = new NaptSwitchWeightIndex(mock(DataBroker.class));
+
+    @Test
+    public void testAssignLightestFollowsAssignments() {
+        Assert.assertEquals(DPN1, index.assignLightest("r1", Arrays.asList(DPN1, DPN2)));
+        Assert.assertEquals(DPN2, index.assignLightest("r2", Arrays.asList(DPN1, DPN2)));
+        index.assign("r2", DPN1);
+        Assert.assertEquals(2, index.getWeight(DPN1));
+        Assert.assertEquals(0, index.getWeight(DPN2));
+        index.release("r1");
+        Assert.assertEquals(1, index.getWeight(DPN1));
+        Assert.assertEquals(BigInteger.ZERO, index.assignLightest("r3", Arrays.asList()));
+    }
+
+    @Test
+    public void testReelectSpreadsOrphanedRouters() {
+        index.addSwitch(DPN1);
+        index.addSwitch(DPN2);
+        index.addSwitch(DPN3);
+        Map<String, Predicate<BigInteger>> eligibleSwitches = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            index.assign("r" + i, DPN1);
+            eligibleSwitches.put("r" + i, dpnId -> true);
+        }
+        index.assign("r4", DPN2);
+        // Not in the filters, stays on the failed switch
+        index.assign("r5", DPN1);
+
+        Map<String, BigInteger> elected = index.reelect(DPN1, eligibleSwitches);
+
+        Assert.assertEquals(4, elected.size());
+        Assert.assertFalse(elected.containsValue(DPN1));
+        Assert.assertEquals(3, index.getWeight(DPN2));
+        Assert.assertEquals(2, index.getWeight(DPN3));
+        Assert.assertEquals(DPN1, index.getPrimarySwitch("r5"));
+    }
+}
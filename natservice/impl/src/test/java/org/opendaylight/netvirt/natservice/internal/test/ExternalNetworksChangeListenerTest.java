@@ -36,6 +36,7 @@ import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
 import org.opendaylight.netvirt.natservice.internal.ExternalNetworksChangeListener;
 import org.opendaylight.netvirt.natservice.internal.ExternalRoutersListener;
 import org.opendaylight.netvirt.natservice.internal.FloatingIPListener;
+import org.opendaylight.netvirt.natservice.internal.NaptEventHandler;
 import org.opendaylight.netvirt.natservice.internal.NatUtil;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Uri;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.interfacemanager.rpcs.rev160406.OdlInterfaceRpcService;
@@ -67,6 +68,7 @@ public class ExternalNetworksChangeListenerTest {
         extNetworks = new ExternalNetworksChangeListener(dataBroker,
             Mockito.mock(FloatingIPListener.class),
             Mockito.mock(ExternalRoutersListener.class),
+            Mockito.mock(NaptEventHandler.class),
             Mockito.mock(OdlInterfaceRpcService.class),
             Mockito.mock(NatserviceConfig.class),
             Mockito.mock(JobCoordinator.class));
@@ -11,6 +11,7 @@ import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -90,6 +91,7 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
     private final NeutronvpnUtils neutronvpnUtils;
     private final HostConfigCache hostConfigCache;
     private final DataTreeEventCallbackRegistrar eventCallbacks;
+    private final NeutronPortOnboardingTracker onboardingTracker;
 
     public NeutronPortChangeListener(final DataBroker dataBroker,
                                      final NeutronvpnManager neutronvpnManager,
@@ -99,7 +101,8 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
                                      final JobCoordinator jobCoordinator,
                                      final NeutronvpnUtils neutronvpnUtils,
                                      final HostConfigCache hostConfigCache,
-                                     final DataTreeEventCallbackRegistrar dataTreeEventCallbackRegistrar) {
+                                     final DataTreeEventCallbackRegistrar dataTreeEventCallbackRegistrar,
+                                     final NeutronPortOnboardingTracker onboardingTracker) {
         super(Port.class, NeutronPortChangeListener.class);
         this.dataBroker = dataBroker;
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
@@ -111,6 +114,7 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
         this.neutronvpnUtils = neutronvpnUtils;
         this.hostConfigCache = hostConfigCache;
         this.eventCallbacks = dataTreeEventCallbackRegistrar;
+        this.onboardingTracker = onboardingTracker;
     }
 
     @Override
@@ -609,6 +613,7 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
         if (NeutronConstants.IS_ODL_DHCP_PORT.test(port)) {
             return;
         }
+        final long receivedNanos = System.nanoTime();
         jobCoordinator.enqueueJob("PORT- " + portName, () -> {
             // add direct port to subnetMaps config DS
             if (!(NeutronUtils.isPortVnicTypeNormal(port)
@@ -621,13 +626,14 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
                          + "OF Port interfaces are not created", portName);
                 return Collections.emptyList();
             }
-            return Collections.singletonList(txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+            onboardingTracker.portCreated(portName, receivedNanos);
+            Set<Uuid> vpnIdList =  new HashSet<>();
+            ListenableFuture<Void> future = txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
                 LOG.info("Of-port-interface creation for port {}", portName);
                 // Create of-port interface for this neutron port
                 String portInterfaceName = createOfPortInterface(port, tx);
                 LOG.debug("Creating ELAN Interface for port {}", portName);
                 createElanInterface(port, portInterfaceName, tx);
-                Set<Uuid> vpnIdList =  new HashSet<>();
                 Set<Uuid> routerIds = new HashSet<>();
                 for (FixedIps ip: portIpAddrsList) {
                     Subnetmap subnetMap = nvpnManager.updateSubnetmapNodeWithPorts(ip.getSubnetId(), portId, null);
@@ -659,7 +665,9 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
                         }
                     }
                 }
-            }));
+            });
+            onboardingTracker.configSubmitted(portName, vpnIdList, future);
+            return Collections.singletonList(future);
         });
     }
 
@@ -667,6 +675,7 @@ public class NeutronPortChangeListener extends AsyncDataTreeChangeListenerBase<P
         final String portName = port.getUuid().getValue();
         final Uuid portId = port.getUuid();
         final List<FixedIps> portIpsList = port.nonnullFixedIps();
+        onboardingTracker.portDeleted(portName);
         jobCoordinator.enqueueJob("PORT- " + portName,
             () -> Collections.singletonList(txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, confTx -> {
                 if (!(NeutronUtils.isPortVnicTypeNormal(port) || isPortTypeSwitchdev(port))) {
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.neutronvpn;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.listeners.DataTreeEventCallbackRegistrar;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Labeled;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.InterfacesState;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.state.Interface;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.state.InterfaceKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.elan.rev150602.ElanInterfaceForwardingEntries;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.elan.rev150602.elan._interface.forwarding.entries.ElanInterfaceMac;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.elan.rev150602.elan._interface.forwarding.entries.ElanInterfaceMacKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.VpnInterfaceOpData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn._interface.op.data.VpnInterfaceOpDataEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn._interface.op.data.VpnInterfaceOpDataEntryKey;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows each neutron port created by {@link NeutronPortChangeListener} through the stages of its onboarding and
+ * gives the latency of each of them. A port goes through the commit of its configuration (OF port, ELAN and VPN
+ * interfaces), then, once its OF port is plugged and its interface state is up, the ELAN and VPN services bind it,
+ * which they mark by writing its ELAN forwarding entries and its VPN interface operational data. The time of each
+ * stage since the port add was received is accumulated per stage, and the time from the interface state to the last
+ * stage, which is what the controller adds to the port plug, is kept as the port ready latency histogram.
+ *
+ * <p>The config transaction hands the VPN of the port to the tracker, so it is not read again to follow the VPN
+ * stage. The lport tag of the interface state is only kept to be logged with the port ready latency.
+ *
+ * <p>Each followed port registers up to three data tree callbacks, so only one port in
+ * {@code neutron.port.onboarding.sampling.interval} is followed, and at most
+ * {@code neutron.port.onboarding.max.ports} ports at a time.
+ */
+@Singleton
+public class NeutronPortOnboardingTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NeutronPortOnboardingTracker.class);
+
+    // The upper bounds of the port ready latency histogram buckets
+    static final long[] LATENCY_BUCKET_MILLIS = {10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+    private static final long SLOW_PORT_MILLIS = 1000;
+    private static final Duration STAGE_TIMEOUT =
+            Duration.ofSeconds(Long.getLong("neutron.port.onboarding.timeout.seconds", 120));
+    private static final int SAMPLING_INTERVAL = Integer.getInteger("neutron.port.onboarding.sampling.interval", 20);
+    private static final int MAX_FOLLOWED_PORTS = Integer.getInteger("neutron.port.onboarding.max.ports", 64);
+
+    enum Stage {
+        CONFIG("config"),
+        INTERFACE_STATE("interface_state"),
+        ELAN("elan"),
+        VPN("vpn");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private final DataTreeEventCallbackRegistrar eventCallbacks;
+    private final int samplingInterval;
+    private final int maxFollowedPorts;
+    private final AtomicLong createdPorts = new AtomicLong();
+    private final Map<String, PortOnboarding> ports = new ConcurrentHashMap<>();
+    private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BUCKET_MILLIS.length + 1);
+    private final Labeled<Counter> stageMillis;
+    private final Labeled<Counter> stageCount;
+    private final Labeled<Counter> stageTimeouts;
+    private final Labeled<Counter> readyLatency;
+
+    @Inject
+    public NeutronPortOnboardingTracker(DataTreeEventCallbackRegistrar eventCallbacks,
+            MetricProvider metricProvider) {
+        this(eventCallbacks, metricProvider, SAMPLING_INTERVAL, MAX_FOLLOWED_PORTS);
+    }
+
+    NeutronPortOnboardingTracker(DataTreeEventCallbackRegistrar eventCallbacks, MetricProvider metricProvider,
+            int samplingInterval, int maxFollowedPorts) {
+        this.eventCallbacks = eventCallbacks;
+        this.samplingInterval = Math.max(1, samplingInterval);
+        this.maxFollowedPorts = maxFollowedPorts;
+        this.stageMillis = counter(metricProvider, "neutron_port_onboarding_stage_millis_total", "stage");
+        this.stageCount = counter(metricProvider, "neutron_port_onboarding_stages", "stage");
+        this.stageTimeouts = counter(metricProvider, "neutron_port_onboarding_timeouts", "stage");
+        this.readyLatency = counter(metricProvider, "neutron_port_ready_latency_millis", "le");
+    }
+
+    private Labeled<Counter> counter(MetricProvider metricProvider, String id, String labelName) {
+        return metricProvider.newCounter(MetricDescriptor.builder().anchor(this).project("netvirt")
+                .module("neutronvpn").id(id).build(), labelName);
+    }
+
+    /**
+     * Starts following a port whose configuration is about to be written, if it is sampled.
+     *
+     * @param portName the name of the port, also that of its OF port interface
+     * @param receivedNanos the {@link System#nanoTime()} at which the port add was received
+     */
+    public void portCreated(String portName, long receivedNanos) {
+        if (createdPorts.getAndIncrement() % samplingInterval != 0 || ports.size() >= maxFollowedPorts) {
+            return;
+        }
+        PortOnboarding onboarding = new PortOnboarding(portName, receivedNanos);
+        ports.put(portName, onboarding);
+        InstanceIdentifier<Interface> interfaceStateIid = InstanceIdentifier.builder(InterfacesState.class)
+                .child(Interface.class, new InterfaceKey(portName)).build();
+        await(onboarding, Stage.INTERFACE_STATE, interfaceStateIid, interfaceState -> {
+            synchronized (onboarding) {
+                onboarding.lportTag = interfaceState.getIfIndex();
+            }
+        });
+    }
+
+    /**
+     * Follows the commit of the configuration of a port.
+     *
+     * @param portName the name of the port
+     * @param vpnIds the VPNs of the port, filled in by the time the transaction is committed
+     * @param future the future of the transaction
+     */
+    public void configSubmitted(String portName, Set<Uuid> vpnIds, ListenableFuture<Void> future) {
+        PortOnboarding onboarding = ports.get(portName);
+        if (onboarding == null) {
+            return;
+        }
+        Futures.addCallback(future, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(@Nullable Void result) {
+                synchronized (onboarding) {
+                    onboarding.vpnName = vpnIds.isEmpty() ? null : vpnIds.iterator().next().getValue();
+                }
+                stageDone(onboarding, Stage.CONFIG);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                LOG.debug("configSubmitted : stopped following port {}, its configuration was not written",
+                        portName);
+                ports.remove(portName, onboarding);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    public void portDeleted(String portName) {
+        ports.remove(portName);
+    }
+
+    /**
+     * Gives the count of the ports ready within each bound of {@link #LATENCY_BUCKET_MILLIS}, followed by the count
+     * of the ports slower than the last bound.
+     */
+    public long[] getReadyLatencyHistogram() {
+        long[] histogram = new long[latencyCounts.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = latencyCounts.get(i);
+        }
+        return histogram;
+    }
+
+    static int latencyBucket(long latencyMillis) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKET_MILLIS.length && latencyMillis > LATENCY_BUCKET_MILLIS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private <T extends DataObject> void await(PortOnboarding onboarding, Stage stage, InstanceIdentifier<T> iid,
+            @Nullable Consumer<T> stageData) {
+        eventCallbacks.onAddOrUpdate(LogicalDatastoreType.OPERATIONAL, iid, (before, after) -> {
+            if (stageData != null && after != null) {
+                stageData.accept(after);
+            }
+            stageDone(onboarding, stage);
+            return DataTreeEventCallbackRegistrar.NextAction.UNREGISTER;
+        }, STAGE_TIMEOUT, timedOutIid -> {
+            if (ports.remove(onboarding.portName, onboarding)) {
+                stageTimeouts.label(stage.label).increment();
+                LOG.debug("await : port {} did not reach the {} stage in {}", onboarding.portName, stage.label,
+                        STAGE_TIMEOUT);
+            }
+        });
+    }
+
+    private void stageDone(PortOnboarding onboarding, Stage stage) {
+        if (ports.get(onboarding.portName) != onboarding) {
+            return;
+        }
+        long nowNanos = System.nanoTime();
+        long stageMillisSinceReceived = TimeUnit.NANOSECONDS.toMillis(nowNanos - onboarding.receivedNanos);
+        boolean bindingStarted = false;
+        boolean ready = false;
+        String vpnName;
+        synchronized (onboarding) {
+            if (onboarding.stageMillis.put(stage, stageMillisSinceReceived) != null) {
+                return;
+            }
+            if (stage == Stage.INTERFACE_STATE) {
+                onboarding.interfaceStateNanos = nowNanos;
+            }
+            vpnName = onboarding.vpnName;
+            if (!onboarding.bindingStarted && onboarding.stageMillis.containsKey(Stage.CONFIG)
+                    && onboarding.stageMillis.containsKey(Stage.INTERFACE_STATE)) {
+                onboarding.bindingStarted = true;
+                bindingStarted = true;
+            } else if (onboarding.bindingStarted && onboarding.stageMillis.containsKey(Stage.ELAN)
+                    && (vpnName == null || onboarding.stageMillis.containsKey(Stage.VPN))) {
+                ready = true;
+            }
+        }
+        stageMillis.label(stage.label).increment(stageMillisSinceReceived);
+        stageCount.label(stage.label).increment();
+        if (bindingStarted) {
+            await(onboarding, Stage.ELAN, InstanceIdentifier.builder(ElanInterfaceForwardingEntries.class)
+                    .child(ElanInterfaceMac.class, new ElanInterfaceMacKey(onboarding.portName)).build(), null);
+            if (vpnName != null) {
+                await(onboarding, Stage.VPN, InstanceIdentifier.builder(VpnInterfaceOpData.class)
+                        .child(VpnInterfaceOpDataEntry.class,
+                                new VpnInterfaceOpDataEntryKey(onboarding.portName, vpnName)).build(), null);
+            }
+        } else if (ready && ports.remove(onboarding.portName, onboarding)) {
+            portReady(onboarding, nowNanos);
+        }
+    }
+
+    private void portReady(PortOnboarding onboarding, long nowNanos) {
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(nowNanos - onboarding.interfaceStateNanos);
+        int bucket = latencyBucket(latencyMillis);
+        latencyCounts.incrementAndGet(bucket);
+        readyLatency.label(bucket < LATENCY_BUCKET_MILLIS.length ? String.valueOf(LATENCY_BUCKET_MILLIS[bucket])
+                : "inf").increment();
+        synchronized (onboarding) {
+            if (latencyMillis > SLOW_PORT_MILLIS) {
+                LOG.info("portReady : port {} with lport tag {} ready {} ms after its interface state, stages {}",
+                        onboarding.portName, onboarding.lportTag, latencyMillis, onboarding.stageMillis);
+            } else {
+                LOG.debug("portReady : port {} with lport tag {} ready {} ms after its interface state, stages {}",
+                        onboarding.portName, onboarding.lportTag, latencyMillis, onboarding.stageMillis);
+            }
+        }
+    }
+
+    private static final class PortOnboarding {
+        private final String portName;
+        private final long receivedNanos;
+        // All guarded by this
+        private final Map<Stage, Long> stageMillis = new EnumMap<>(Stage.class);
+        private long interfaceStateNanos;
+        private boolean bindingStarted;
+        @Nullable
+        private Integer lportTag;
+        @Nullable
+        private String vpnName;
+
+        PortOnboarding(String portName, long receivedNanos) {
+            this.portName = portName;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+}
@@ -205,6 +205,7 @@ public class NeutronvpnManager implements NeutronvpnService, AutoCloseable, Even
     private final NeutronvpnUtils neutronvpnUtils;
     private final IVpnManager vpnManager;
     private final ConcurrentHashMap<Uuid, Uuid> unprocessedPortsMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Uuid, SubnetmapPortChanges> subnetmapPortChanges = new ConcurrentHashMap<>();
     private final NeutronvpnAlarms neutronvpnAlarm = new NeutronvpnAlarms();
     private final NamedLocks<Uuid> vpnLock = new NamedLocks<>();
     private final NamedLocks<String> interfaceLock = new NamedLocks<>();
@@ -381,52 +382,48 @@ public class NeutronvpnManager implements NeutronvpnService, AutoCloseable, Even
 
     protected Subnetmap updateSubnetmapNodeWithPorts(Uuid subnetId, @Nullable Uuid portId,
             @Nullable Uuid directPortId) {
-        Subnetmap subnetmap = null;
+        LOG.info("updateSubnetmapNodeWithPorts : subnetId {}, portId {}, directPortId {}", subnetId.getValue(),
+                portId, directPortId);
+        return changeSubnetmapPorts(subnetId, new SubnetmapPortChanges.Change(portId, directPortId, true));
+    }
+
+    @Nullable
+    private Subnetmap changeSubnetmapPorts(Uuid subnetId, SubnetmapPortChanges.Change change) {
+        SubnetmapPortChanges portChanges =
+                subnetmapPortChanges.computeIfAbsent(subnetId, key -> new SubnetmapPortChanges());
+        return portChanges.apply(change, lockForUuid(subnetId), changes -> writeSubnetmapPorts(subnetId, changes));
+    }
+
+    // Called with the subnet lock held
+    @Nullable
+    private Subnetmap writeSubnetmapPorts(Uuid subnetId, List<SubnetmapPortChanges.Change> changes) {
         InstanceIdentifier<Subnetmap> id = InstanceIdentifier.builder(Subnetmaps.class).child(Subnetmap.class,
                 new SubnetmapKey(subnetId)).build();
-        LOG.info("updateSubnetmapNodeWithPorts : subnetId {}, subnetMapId {}", subnetId.toString(), id.toString());
-        final ReentrantLock lock = lockForUuid(subnetId);
-        lock.lock();
         try {
             Optional<Subnetmap> sn =
                     SingleTransactionDataBroker.syncReadOptional(dataBroker, LogicalDatastoreType.CONFIGURATION,
                         id);
-            if (sn.isPresent()) {
-                SubnetmapBuilder builder = new SubnetmapBuilder(sn.get());
-                if (null != portId) {
-                    List<Uuid> portList = builder.getPortList();
-                    if (null == portList) {
-                        portList = new ArrayList<>();
-                    }
-                    portList.add(portId);
-                    builder.setPortList(portList);
-                    LOG.debug("updateSubnetmapNodeWithPorts: Updating existing subnetmap node {} with port {}",
-                        subnetId.getValue(), portId.getValue());
-                }
-                if (null != directPortId) {
-                    List<Uuid> directPortList = builder.getDirectPortList();
-                    if (null == directPortList) {
-                        directPortList = new ArrayList<>();
+            if (!sn.isPresent()) {
+                for (SubnetmapPortChanges.Change change : changes) {
+                    if (change.added && change.portId != null) {
+                        LOG.info("updateSubnetmapNodeWithPorts: Subnetmap node is not ready {}, put port {} in "
+                                + "unprocessed cache ", subnetId.getValue(), change.portId.getValue());
+                        unprocessedPortsMap.put(change.portId, subnetId);
+                    } else if (!change.added) {
+                        LOG.info("Trying to remove port from non-existing subnetmap node {}", subnetId.getValue());
                     }
-                    directPortList.add(directPortId);
-                    builder.setDirectPortList(directPortList);
-                    LOG.debug("Updating existing subnetmap node {} with port {}", subnetId.getValue(),
-                        directPortId.getValue());
                 }
-                subnetmap = builder.build();
-                SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, id,
-                    subnetmap);
-            } else {
-                LOG.info("updateSubnetmapNodeWithPorts: Subnetmap node is not ready {}, put port {} in unprocessed "
-                        + "cache ", subnetId.getValue(), portId.getValue());
-                unprocessedPortsMap.put(portId, subnetId);
+                return null;
             }
+            Subnetmap subnetmap = SubnetmapPortChanges.applyTo(new SubnetmapBuilder(sn.get()), changes).build();
+            SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, id, subnetmap);
+            LOG.debug("writeSubnetmapPorts: Updated the port lists of subnetmap node {} with {} port changes",
+                    subnetId.getValue(), changes.size());
+            return subnetmap;
         } catch (ReadFailedException | TransactionCommitFailedException e) {
             LOG.error("Updating port list of a given subnetMap failed for node: {}", subnetId.getValue(), e);
-        } finally {
-            lock.unlock();
+            return null;
         }
-        return subnetmap;
     }
 
     protected Subnetmap removeFromSubnetNode(Uuid subnetId, @Nullable Uuid networkId, @Nullable Uuid routerId,
@@ -477,44 +474,9 @@ public class NeutronvpnManager implements NeutronvpnService, AutoCloseable, Even
     @Nullable
     protected Subnetmap removePortsFromSubnetmapNode(Uuid subnetId, @Nullable Uuid portId,
             @Nullable Uuid directPortId) {
-        Subnetmap subnetmap = null;
-        InstanceIdentifier<Subnetmap> id = InstanceIdentifier.builder(Subnetmaps.class).child(Subnetmap.class,
-                new SubnetmapKey(subnetId)).build();
-        final ReentrantLock lock = lockForUuid(subnetId);
-        lock.lock();
-        try {
-            Optional<Subnetmap> sn =
-                    SingleTransactionDataBroker.syncReadOptional(dataBroker, LogicalDatastoreType.CONFIGURATION,
-                        id);
-            if (sn.isPresent()) {
-                SubnetmapBuilder builder = new SubnetmapBuilder(sn.get());
-                if (null != portId && null != builder.getPortList()) {
-                    List<Uuid> portList = builder.getPortList();
-                    portList.remove(portId);
-                    builder.setPortList(portList);
-                    LOG.debug("Removing port {} from existing subnetmap node: {} ", portId.getValue(),
-                        subnetId.getValue());
-                }
-                if (null != directPortId && null != builder.getDirectPortList()) {
-                    List<Uuid> directPortList = builder.getDirectPortList();
-                    directPortList.remove(directPortId);
-                    builder.setDirectPortList(directPortList);
-                    LOG.debug("Removing direct port {} from existing subnetmap node: {} ", directPortId
-                        .getValue(), subnetId.getValue());
-                }
-                subnetmap = builder.build();
-                SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, id,
-                    subnetmap);
-            } else {
-                LOG.info("Trying to remove port from non-existing subnetmap node {}", subnetId.getValue());
-            }
-        } catch (ReadFailedException | TransactionCommitFailedException e) {
-            LOG.error("Removing a port from port list of a subnetmap failed for node: {}",
-                    subnetId.getValue(), e);
-        } finally {
-            lock.unlock();
-        }
-        return subnetmap;
+        LOG.debug("removePortsFromSubnetmapNode : subnetId {}, portId {}, directPortId {}", subnetId.getValue(),
+                portId, directPortId);
+        return changeSubnetmapPorts(subnetId, new SubnetmapPortChanges.Change(portId, directPortId, false));
     }
 
     // TODO Clean up the exception handling
@@ -526,6 +488,7 @@ public class NeutronvpnManager implements NeutronvpnService, AutoCloseable, Even
         final ReentrantLock lock = lockForUuid(subnetId);
         lock.lock();
         try {
+            subnetmapPortChanges.remove(subnetId);
             SingleTransactionDataBroker.syncDelete(dataBroker, LogicalDatastoreType.CONFIGURATION, subnetMapIdentifier);
         } catch (TransactionCommitFailedException e) {
             LOG.error("Delete subnetMap node failed for subnet : {} ", subnetId.getValue());
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.neutronvpn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.neutronvpn.rev150602.subnetmaps.Subnetmap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.neutronvpn.rev150602.subnetmaps.SubnetmapBuilder;
+
+/**
+ * The pending additions and removals of ports in the port lists of one subnetmap. Rather than each port creation or
+ * deletion reading and writing the whole subnetmap in turn, the changes submitted while the subnetmap is being
+ * written are queued, and the next caller to get the subnet lock writes all of them at once; the other callers find
+ * their change done when they get the lock, so a burst of ports into one subnet costs a few writes.
+ */
+final class SubnetmapPortChanges {
+
+    // Guarded by this
+    private List<Change> pending = new ArrayList<>();
+
+    /**
+     * Applies a change to the subnetmap.
+     *
+     * @param change the change
+     * @param lock the lock of the subnet
+     * @param flush reads the subnetmap, applies the given changes with {@link #applyTo} and writes it, giving the
+     *     written subnetmap, null if it does not exist or could not be written
+     * @return the subnetmap written with the change, null if none, in particular if the flush of the change by
+     *     another caller threw
+     */
+    @Nullable
+    Subnetmap apply(Change change, Lock lock, Function<List<Change>, @Nullable Subnetmap> flush) {
+        synchronized (this) {
+            pending.add(change);
+        }
+        lock.lock();
+        try {
+            if (!change.done) {
+                List<Change> changes = drain();
+                Subnetmap subnetmap = null;
+                try {
+                    subnetmap = flush.apply(changes);
+                } finally {
+                    // The changes of the other callers fail with null if the flush throws
+                    for (Change flushed : changes) {
+                        flushed.subnetmap = subnetmap;
+                        flushed.done = true;
+                    }
+                }
+            }
+            return change.subnetmap;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private synchronized List<Change> drain() {
+        List<Change> changes = pending;
+        pending = new ArrayList<>();
+        return changes;
+    }
+
+    /**
+     * Applies the changes, in their submission order, to the port lists of a subnetmap.
+     */
+    static SubnetmapBuilder applyTo(SubnetmapBuilder builder, List<Change> changes) {
+        List<Uuid> portList = builder.getPortList() != null ? new ArrayList<>(builder.getPortList()) : null;
+        List<Uuid> directPortList =
+                builder.getDirectPortList() != null ? new ArrayList<>(builder.getDirectPortList()) : null;
+        for (Change change : changes) {
+            if (change.portId != null) {
+                if (change.added) {
+                    if (portList == null) {
+                        portList = new ArrayList<>();
+                    }
+                    portList.add(change.portId);
+                } else if (portList != null) {
+                    portList.remove(change.portId);
+                }
+            }
+            if (change.directPortId != null) {
+                if (change.added) {
+                    if (directPortList == null) {
+                        directPortList = new ArrayList<>();
+                    }
+                    directPortList.add(change.directPortId);
+                } else if (directPortList != null) {
+                    directPortList.remove(change.directPortId);
+                }
+            }
+        }
+        return builder.setPortList(portList).setDirectPortList(directPortList);
+    }
+
+    static final class Change {
+        @Nullable
+        final Uuid portId;
+        @Nullable
+        final Uuid directPortId;
+        final boolean added;
+        // Both guarded by the subnet lock
+        private boolean done;
+        @Nullable
+        private Subnetmap subnetmap;
+
+        Change(@Nullable Uuid portId, @Nullable Uuid directPortId, boolean added) {
+            this.portId = portId;
+            this.directPortId = directPortId;
+            this.added = added;
+        }
+    }
+}
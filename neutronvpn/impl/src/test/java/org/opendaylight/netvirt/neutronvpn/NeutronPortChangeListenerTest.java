@@ -92,7 +92,8 @@ public class NeutronPortChangeListenerTest {
                 gwMacResolver, elanService, jobCoordinator, new NeutronvpnUtils(dataBroker, idManager, jobCoordinator,
                         ipV6InternetDefRt),
                 new HostConfigCache(dataBroker, new GuavaCacheProvider(new CacheManagersRegistryImpl())),
-                dataTreeEventCallbackRegistrar);
+                dataTreeEventCallbackRegistrar,
+                new NeutronPortOnboardingTracker(dataTreeEventCallbackRegistrar, metricProvider));
         InstanceIdentifier<ElanInstance> elanIdentifierId = InstanceIdentifier.builder(ElanInstances.class)
                 .child(ElanInstance.class,
                         new ElanInstanceKey(new Uuid("12345678-1234-1234-1234-123456789012").getValue())).build();
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.neutronvpn;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.util.concurrent.Futures;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.datastoreutils.listeners.DataTreeEventCallbackRegistrar;
+import org.opendaylight.infrautils.metrics.testimpl.TestMetricProviderImpl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.state.Interface;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.state.InterfaceBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class NeutronPortOnboardingTrackerTest {
+
+    private static final String PORT = "d6e10c2b-2f4e-4d5b-9b4a-6b2ef1a4c111";
+
+    private final DataTreeEventCallbackRegistrar eventCallbacks = mock(DataTreeEventCallbackRegistrar.class);
+    private final NeutronPortOnboardingTracker tracker =
+            new NeutronPortOnboardingTracker(eventCallbacks, new TestMetricProviderImpl(), 1, 64);
+
+    @Test
+    public void testPortReadyAfterAllStages() {
+        tracker.portCreated(PORT, System.nanoTime());
+        tracker.configSubmitted(PORT, Collections.singleton(new Uuid("4ae8cd92-48ca-49b5-94e1-b2921a261111")),
+                Futures.immediateFuture(null));
+        List<BiFunction<Object, Object, DataTreeEventCallbackRegistrar.NextAction>> callbacks = callbacks(1);
+        Interface interfaceState = new InterfaceBuilder().setName(PORT).setIfIndex(42).build();
+        callbacks.get(0).apply(null, interfaceState);
+
+        // The ELAN and VPN stages are awaited once both the config and the interface state are there
+        callbacks = callbacks(3);
+        callbacks.get(1).apply(null, new Object());
+        assertEquals(0, Arrays.stream(tracker.getReadyLatencyHistogram()).sum());
+        callbacks.get(2).apply(null, new Object());
+        assertEquals(1, Arrays.stream(tracker.getReadyLatencyHistogram()).sum());
+    }
+
+    @Test
+    public void testDeletedPortIsNotFollowed() {
+        tracker.portCreated(PORT, System.nanoTime());
+        tracker.portDeleted(PORT);
+        tracker.configSubmitted(PORT, Collections.emptySet(), Futures.immediateFuture(null));
+        callbacks(1).get(0).apply(null, new InterfaceBuilder().setName(PORT).setIfIndex(42).build());
+        // Neither the ELAN nor the VPN stage is awaited
+        callbacks(1);
+        assertEquals(0, Arrays.stream(tracker.getReadyLatencyHistogram()).sum());
+    }
+
+    @Test
+    public void testOnlySampledPortsAreFollowed() {
+        NeutronPortOnboardingTracker sampledTracker =
+                new NeutronPortOnboardingTracker(eventCallbacks, new TestMetricProviderImpl(), 2, 2);
+        for (int i = 0; i < 8; i++) {
+            sampledTracker.portCreated(PORT + i, System.nanoTime());
+        }
+        // One port in two, and no more than two at a time
+        callbacks(2);
+        sampledTracker.portDeleted(PORT + 0);
+        sampledTracker.portCreated(PORT + 8, System.nanoTime());
+        callbacks(3);
+    }
+
+    @Test
+    public void testLatencyBuckets() {
+        assertEquals(0, NeutronPortOnboardingTracker.latencyBucket(0));
+        assertEquals(0, NeutronPortOnboardingTracker.latencyBucket(10));
+        assertEquals(6, NeutronPortOnboardingTracker.latencyBucket(1000));
+        assertEquals(NeutronPortOnboardingTracker.LATENCY_BUCKET_MILLIS.length,
+                NeutronPortOnboardingTracker.latencyBucket(60000));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<BiFunction<Object, Object, DataTreeEventCallbackRegistrar.NextAction>> callbacks(int count) {
+        ArgumentCaptor<BiFunction> captor = ArgumentCaptor.forClass(BiFunction.class);
+        verify(eventCallbacks, times(count)).onAddOrUpdate(eq(LogicalDatastoreType.OPERATIONAL),
+                any(InstanceIdentifier.class), captor.capture(), any(Duration.class), any(Consumer.class));
+        return (List) captor.getAllValues();
+    }
+}
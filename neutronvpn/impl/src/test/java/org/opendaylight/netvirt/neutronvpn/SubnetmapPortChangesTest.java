@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.neutronvpn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.neutronvpn.rev150602.subnetmaps.Subnetmap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.neutronvpn.rev150602.subnetmaps.SubnetmapBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.neutronvpn.rev150602.subnetmaps.SubnetmapKey;
+
+public class SubnetmapPortChangesTest {
+
+    private static final Uuid SUBNET_ID = new Uuid("a7c3e5b1-2f4e-4d5b-9b4a-6b2ef1a4c000");
+    private static final Uuid PORT1 = new Uuid("a7c3e5b1-2f4e-4d5b-9b4a-6b2ef1a4c001");
+    private static final Uuid PORT2 = new Uuid("a7c3e5b1-2f4e-4d5b-9b4a-6b2ef1a4c002");
+    private static final Uuid PORT3 = new Uuid("a7c3e5b1-2f4e-4d5b-9b4a-6b2ef1a4c003");
+
+    @Test
+    public void testChangesAreAppliedInOrder() {
+        SubnetmapBuilder builder = new SubnetmapBuilder().withKey(new SubnetmapKey(SUBNET_ID)).setId(SUBNET_ID)
+                .setPortList(Collections.singletonList(PORT1));
+
+        Subnetmap subnetmap = SubnetmapPortChanges.applyTo(builder, Arrays.asList(
+                new SubnetmapPortChanges.Change(PORT2, null, true),
+                new SubnetmapPortChanges.Change(PORT1, null, false),
+                new SubnetmapPortChanges.Change(null, PORT3, true),
+                // A port removed then added again is in the list
+                new SubnetmapPortChanges.Change(PORT2, null, false),
+                new SubnetmapPortChanges.Change(PORT2, null, true),
+                // A port added then removed is not
+                new SubnetmapPortChanges.Change(PORT1, PORT1, true),
+                new SubnetmapPortChanges.Change(PORT1, PORT1, false))).build();
+
+        assertEquals(Collections.singletonList(PORT2), subnetmap.getPortList());
+        assertEquals(Collections.singletonList(PORT3), subnetmap.getDirectPortList());
+    }
+
+    @Test
+    public void testRemovalFromAMissingListIsIgnored() {
+        SubnetmapBuilder builder = new SubnetmapBuilder().withKey(new SubnetmapKey(SUBNET_ID)).setId(SUBNET_ID);
+
+        Subnetmap subnetmap = SubnetmapPortChanges.applyTo(builder,
+                Collections.singletonList(new SubnetmapPortChanges.Change(PORT1, PORT1, false))).build();
+
+        assertNull(subnetmap.getPortList());
+        assertNull(subnetmap.getDirectPortList());
+    }
+
+    @Test
+    public void testFailedFlushFailsAllItsChanges() throws Exception {
+        SubnetmapPortChanges portChanges = new SubnetmapPortChanges();
+        ReentrantLock lock = new ReentrantLock();
+        AtomicInteger flushes = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            lock.lock();
+            List<Future<Subnetmap>> results;
+            try {
+                results = Arrays.asList(
+                    executor.submit(() -> portChanges.apply(new SubnetmapPortChanges.Change(PORT1, null, true), lock,
+                        changes -> {
+                            flushes.incrementAndGet();
+                            throw new IllegalStateException("write failed");
+                        })),
+                    executor.submit(() -> portChanges.apply(new SubnetmapPortChanges.Change(PORT2, null, true), lock,
+                        changes -> {
+                            flushes.incrementAndGet();
+                            throw new IllegalStateException("write failed");
+                        })));
+                // Both changes are queued while the subnet is locked, the first caller to get the lock flushes both
+                for (int i = 0; i < 100 && lock.getQueueLength() < 2; i++) {
+                    Thread.sleep(100);
+                }
+                assertEquals(2, lock.getQueueLength());
+            } finally {
+                lock.unlock();
+            }
+
+            int failed = 0;
+            for (Future<Subnetmap> result : results) {
+                try {
+                    assertNull(result.get(10, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                    failed++;
+                }
+            }
+            assertEquals(1, failed);
+            assertEquals(1, flushes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -8,7 +8,6 @@
 
 package org.opendaylight.netvirt.qosservice;
 
-import java.math.BigInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,8 +17,8 @@ public final class QosAlertGenerator {
     private QosAlertGenerator() { }
 
     public static void raiseAlert(final String qosPolicyName, final String qosPolicyUuid, final String portUuid,
-                                  final String networkUuid, final BigInteger rxPackets,
-                                  final BigInteger rxDroppedPackets) {
+                                  final String networkUuid, final long rxPackets,
+                                  final long rxDroppedPackets) {
         LOG.debug(QosConstants.ALERT_MSG_FORMAT, qosPolicyName, qosPolicyUuid, portUuid, networkUuid,
                                                                                         rxPackets, rxDroppedPackets);
     }
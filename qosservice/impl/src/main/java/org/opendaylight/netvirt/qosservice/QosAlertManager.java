@@ -11,15 +11,21 @@ package org.opendaylight.netvirt.qosservice;
 import static org.opendaylight.controller.md.sal.binding.api.WriteTransaction.CREATE_MISSING_PARENTS;
 import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.function.Supplier;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -30,6 +36,10 @@ import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
 import org.opendaylight.genius.interfacemanager.globals.IfmConstants;
 import org.opendaylight.genius.interfacemanager.globals.InterfaceInfo;
 import org.opendaylight.genius.interfacemanager.interfaces.IInterfaceManager;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Labeled;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.infrautils.utils.concurrent.ListenableFutures;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.direct.statistics.rev160511.GetNodeConnectorStatisticsInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.direct.statistics.rev160511.GetNodeConnectorStatisticsOutput;
@@ -52,6 +62,8 @@ import org.slf4j.LoggerFactory;
 @Singleton
 public final class QosAlertManager implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(QosAlertManager.class);
+    // The DPNs whose statistics are polled at the same time
+    private static final int POLL_PARALLELISM = Integer.getInteger("qos.alert.poll.parallelism", 8);
 
     private volatile boolean alertEnabled;
     private volatile int pollInterval;
@@ -68,24 +80,39 @@ public final class QosAlertManager implements Runnable {
     private final ConcurrentMap<BigInteger, ConcurrentMap<String, QosAlertPortData>> qosAlertDpnPortNumberMap =
             new ConcurrentHashMap<>();
     private final AlertThresholdSupplier alertThresholdSupplier = new AlertThresholdSupplier();
+    private final ExecutorService pollExecutor;
+    private final Counter pollCycles;
+    private final Counter pollCycleMillis;
+    private final Labeled<Counter> rpcLatencyMillis;
 
     @Inject
     public QosAlertManager(final DataBroker dataBroker,
             final OpendaylightDirectStatisticsService odlDirectStatisticsService, final QosalertConfig defaultConfig,
             final QosNeutronUtils qosNeutronUtils, final QosEosHandler qosEosHandler,
-            final IInterfaceManager interfaceManager) {
+            final IInterfaceManager interfaceManager, final MetricProvider metricProvider) {
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
         this.odlDirectStatisticsService = odlDirectStatisticsService;
         this.interfaceManager = interfaceManager;
         this.defaultConfig = defaultConfig;
         this.qosNeutronUtils = qosNeutronUtils;
         this.qosEosHandler = qosEosHandler;
+        this.pollExecutor = Executors.newFixedThreadPool(POLL_PARALLELISM,
+                new ThreadFactoryBuilder().setNameFormat("qos-alert-poller-%d").setDaemon(true).build());
+        this.pollCycles = metricProvider.newCounter(buildQosAlertMetricDescriptor("qos_alert_poll_cycles"));
+        this.pollCycleMillis = metricProvider.newCounter(
+                buildQosAlertMetricDescriptor("qos_alert_poll_cycle_millis_total"));
+        this.rpcLatencyMillis = metricProvider.newCounter(
+                buildQosAlertMetricDescriptor("qos_alert_rpc_latency_millis_total"), "dpn");
         LOG.trace("QosAlert default config poll alertEnabled:{} threshold:{} pollInterval:{}",
                 defaultConfig.isQosAlertEnabled(), defaultConfig.getQosDropPacketThreshold(),
                 defaultConfig.getQosAlertPollInterval());
         getDefaultConfig();
     }
 
+    private MetricDescriptor buildQosAlertMetricDescriptor(String id) {
+        return MetricDescriptor.builder().anchor(this).project("netvirt").module("qosservice").id(id).build();
+    }
+
     @PostConstruct
     public void init() {
         qosEosHandler.addLocalOwnershipChangedListener(this::setQosAlertOwner);
@@ -101,6 +128,7 @@ public final class QosAlertManager implements Runnable {
         if (thread != null) {
             thread.interrupt();
         }
+        pollExecutor.shutdownNow();
         LOG.trace("{} close done", getClass().getSimpleName());
     }
 
@@ -119,7 +147,7 @@ public final class QosAlertManager implements Runnable {
         LOG.debug("Qos alert poll thread started");
         while (statsPollThreadStart && alertEnabled) {
             LOG.trace("Thread loop polling :{} threshold:{} pollInterval:{}",
-                    alertEnabled, alertThresholdSupplier.get(), pollInterval);
+                    alertEnabled, alertThresholdSupplier.getAsInt(), pollInterval);
 
             try {
                 pollDirectStatisticsForAllNodes();
@@ -184,12 +212,12 @@ public final class QosAlertManager implements Runnable {
 
     public void setPollInterval(int pollInterval) {
         LOG.debug("setting interval {} in config data store", pollInterval);
-        writeConfigDataStore(alertEnabled, alertThresholdSupplier.get().shortValue(), pollInterval);
+        writeConfigDataStore(alertEnabled, (short) alertThresholdSupplier.getAsInt(), pollInterval);
     }
 
     public void setEnable(boolean enable) {
         LOG.debug("setting QoS poll to {} in config data store", enable);
-        writeConfigDataStore(enable, alertThresholdSupplier.get().shortValue(), pollInterval);
+        writeConfigDataStore(enable, (short) alertThresholdSupplier.getAsInt(), pollInterval);
     }
 
     public void addInterfaceIdInQoSAlertCache(String ifaceId) {
@@ -285,47 +313,67 @@ public final class QosAlertManager implements Runnable {
                     CREATE_MISSING_PARENTS)), LOG, "Error writing to the config data store");
     }
 
-    private void pollDirectStatisticsForAllNodes() {
+    private void pollDirectStatisticsForAllNodes() throws InterruptedException {
         LOG.trace("Polling direct statistics from nodes");
 
+        long startTime = System.nanoTime();
+        List<Callable<Void>> dpnPolls = new ArrayList<>();
         for (Entry<BigInteger, ConcurrentMap<String, QosAlertPortData>> entry : qosAlertDpnPortNumberMap.entrySet()) {
-            BigInteger dpn = entry.getKey();
-            LOG.trace("Polling DPN ID {}", dpn);
-            GetNodeConnectorStatisticsInputBuilder input = new GetNodeConnectorStatisticsInputBuilder()
-                    .setNode(new NodeRef(InstanceIdentifier.builder(Nodes.class)
-                            .child(Node.class, new NodeKey(new NodeId(IfmConstants.OF_URI_PREFIX + dpn))).build()))
-                    .setStoreStats(false);
-            Future<RpcResult<GetNodeConnectorStatisticsOutput>> rpcResultFuture =
-                    odlDirectStatisticsService.getNodeConnectorStatistics(input.build());
-
-            RpcResult<GetNodeConnectorStatisticsOutput> rpcResult = null;
-            try {
-                rpcResult = rpcResultFuture.get();
-            } catch (InterruptedException | ExecutionException e) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Could not get Direct-Statistics for node {} Exception occurred ", dpn, e);
-                } else {
-                    LOG.info("Could not get Direct-Statistics for node {}", dpn);
-                }
+            dpnPolls.add(() -> {
+                pollDirectStatisticsForNode(entry.getKey(), entry.getValue());
+                return null;
+            });
+        }
+        // The ports of a DPN are only updated by the poll of the DPN, and the next cycle waits for all the polls
+        pollExecutor.invokeAll(dpnPolls);
+
+        long cycleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        pollCycles.increment();
+        pollCycleMillis.increment(cycleMillis);
+        LOG.trace("Polled direct statistics from {} nodes in {} ms", dpnPolls.size(), cycleMillis);
+    }
+
+    private void pollDirectStatisticsForNode(BigInteger dpn, ConcurrentMap<String, QosAlertPortData> portDataMap) {
+        LOG.trace("Polling DPN ID {}", dpn);
+        GetNodeConnectorStatisticsInputBuilder input = new GetNodeConnectorStatisticsInputBuilder()
+                .setNode(new NodeRef(InstanceIdentifier.builder(Nodes.class)
+                        .child(Node.class, new NodeKey(new NodeId(IfmConstants.OF_URI_PREFIX + dpn))).build()))
+                .setStoreStats(false);
+        long startTime = System.nanoTime();
+        Future<RpcResult<GetNodeConnectorStatisticsOutput>> rpcResultFuture =
+                odlDirectStatisticsService.getNodeConnectorStatistics(input.build());
+
+        RpcResult<GetNodeConnectorStatisticsOutput> rpcResult = null;
+        try {
+            rpcResult = rpcResultFuture.get();
+        } catch (InterruptedException e) {
+            LOG.debug("Polling of the Direct-Statistics for node {} interrupted", dpn);
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Could not get Direct-Statistics for node {} Exception occurred ", dpn, e);
+            } else {
+                LOG.info("Could not get Direct-Statistics for node {}", dpn);
             }
-            if (rpcResult != null && rpcResult.isSuccessful() && rpcResult.getResult() != null) {
+        }
+        rpcLatencyMillis.label(dpn.toString())
+                .increment(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        if (rpcResult != null && rpcResult.isSuccessful() && rpcResult.getResult() != null) {
 
-                GetNodeConnectorStatisticsOutput nodeConnectorStatisticsOutput = rpcResult.getResult();
+            GetNodeConnectorStatisticsOutput nodeConnectorStatisticsOutput = rpcResult.getResult();
 
-                List<NodeConnectorStatisticsAndPortNumberMap> nodeConnectorStatisticsAndPortNumberMapList =
-                        nodeConnectorStatisticsOutput.getNodeConnectorStatisticsAndPortNumberMap();
+            List<NodeConnectorStatisticsAndPortNumberMap> nodeConnectorStatisticsAndPortNumberMapList =
+                    nodeConnectorStatisticsOutput.getNodeConnectorStatisticsAndPortNumberMap();
 
-                ConcurrentMap<String, QosAlertPortData> portDataMap = entry.getValue();
-                for (NodeConnectorStatisticsAndPortNumberMap stats : nodeConnectorStatisticsAndPortNumberMapList) {
-                    QosAlertPortData portData = portDataMap.get(stats.getNodeConnectorId().getValue());
-                    if (portData != null) {
-                        portData.updatePortStatistics(stats);
-                    }
+            for (NodeConnectorStatisticsAndPortNumberMap stats : nodeConnectorStatisticsAndPortNumberMapList) {
+                QosAlertPortData portData = portDataMap.get(stats.getNodeConnectorId().getValue());
+                if (portData != null) {
+                    portData.updatePortStatistics(stats);
                 }
-            } else {
-                LOG.info("Direct-Statistics not available for node {}", dpn);
             }
-
+        } else {
+            LOG.info("Direct-Statistics not available for node {}", dpn);
         }
     }
 
@@ -334,15 +382,15 @@ public final class QosAlertManager implements Runnable {
                 .forEach(QosAlertPortData::initPortData));
     }
 
-    private static class AlertThresholdSupplier implements Supplier<BigInteger> {
-        private volatile BigInteger alertThreshold = BigInteger.valueOf(0);
+    private static class AlertThresholdSupplier implements IntSupplier {
+        private volatile int alertThreshold;
 
         void set(short threshold) {
-            alertThreshold = BigInteger.valueOf(threshold);
+            alertThreshold = threshold;
         }
 
         @Override
-        public BigInteger get() {
+        public int getAsInt() {
             return alertThreshold;
         }
     }
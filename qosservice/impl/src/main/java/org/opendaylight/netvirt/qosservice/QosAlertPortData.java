@@ -8,8 +8,7 @@
 
 package org.opendaylight.netvirt.qosservice;
 
-import java.math.BigInteger;
-import java.util.function.Supplier;
+import java.util.function.IntSupplier;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.ports.rev150712.ports.attributes.ports.Port;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.qos.rev160613.qos.attributes.qos.policies.QosPolicy;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.port.statistics.rev131214.node.connector.statistics.and.port.number.map.NodeConnectorStatisticsAndPortNumberMap;
@@ -18,20 +17,23 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This class is ThreadSafe.
+ *
+ * <p>The counters are kept as primitive longs holding the unsigned 64 bits statistics, so that the alert condition is
+ * evaluated on each poll without allocating; the QoS policy of the port is only read once the threshold is hit.
  */
 public class QosAlertPortData {
     private static final Logger LOG = LoggerFactory.getLogger(QosAlertPortData.class);
-    private static final BigInteger BIG_HUNDRED = new BigInteger("100");
+    private static final long HUNDRED = 100;
 
     private final Port port;
     private final QosNeutronUtils qosNeutronUtils;
-    private final Supplier<BigInteger> alertThreshold;
-    private volatile BigInteger rxPackets;
-    private volatile BigInteger rxDroppedPackets;
+    private final IntSupplier alertThreshold;
+    private volatile long rxPackets;
+    private volatile long rxDroppedPackets;
     private volatile boolean statsDataInit;
 
     public QosAlertPortData(final Port port, final QosNeutronUtils qosNeutronUtils,
-            final Supplier<BigInteger> alertThreshold) {
+            final IntSupplier alertThreshold) {
         this.port = port;
         this.qosNeutronUtils = qosNeutronUtils;
         this.alertThreshold = alertThreshold;
@@ -46,42 +48,43 @@ public class QosAlertPortData {
         LOG.trace("Port {} rx-packets {} tx-packets {} rx-dropped {} tx-dropped {}", port.getUuid().getValue(),
                            statsData.getPackets().getReceived(), statsData.getPackets().getTransmitted(),
                            statsData.getReceiveDrops(), statsData.getTransmitDrops());
+        long newRxPackets = statsData.getPackets().getReceived().longValue();
+        long newRxDroppedPackets = statsData.getReceiveDrops().longValue();
         if (statsDataInit) {
-            calculateAlertCondition(statsData);
+            calculateAlertCondition(newRxPackets, newRxDroppedPackets);
         } else {
             statsDataInit = true;
         }
-        rxPackets = statsData.getPackets().getReceived();
-        rxDroppedPackets = statsData.getReceiveDrops();
+        rxPackets = newRxPackets;
+        rxDroppedPackets = newRxDroppedPackets;
     }
 
-    private void calculateAlertCondition(NodeConnectorStatisticsAndPortNumberMap statsData)  {
-        BigInteger rxDiff = statsData.getPackets().getReceived().subtract(rxPackets);
-        BigInteger rxDroppedDiff = statsData.getReceiveDrops().subtract(rxDroppedPackets);
-
-        if ((rxDiff.signum() < 0) || (rxDroppedDiff.signum() < 0)) {
+    private void calculateAlertCondition(long newRxPackets, long newRxDroppedPackets) {
+        if (Long.compareUnsigned(newRxPackets, rxPackets) < 0
+                || Long.compareUnsigned(newRxDroppedPackets, rxDroppedPackets) < 0) {
             LOG.debug("Port {} counters reset", port.getUuid().getValue());
             initPortData(); // counters wrapped. wait for one more poll.
             return;
         }
-        BigInteger rxTotalDiff = rxDiff.add(rxDroppedDiff);
+        long rxDiff = newRxPackets - rxPackets;
+        long rxDroppedDiff = newRxDroppedPackets - rxDroppedPackets;
+        long rxTotalDiff = rxDiff + rxDroppedDiff;
         LOG.trace("Port {} rxDiff:{} rxDropped diff:{} total diff:{}", port.getUuid().getValue(), rxDiff,
                                                                             rxDroppedDiff, rxTotalDiff);
-        QosPolicy qosPolicy = qosNeutronUtils.getQosPolicy(port);
 
-        if (qosPolicy == null) {
+        if (rxDroppedDiff * HUNDRED <= rxTotalDiff * alertThreshold.getAsInt()) {
             return;
         }
 
-        if (rxDroppedDiff.multiply(BIG_HUNDRED).compareTo(rxTotalDiff.multiply(alertThreshold.get())) > 0) {
-            LOG.trace(QosConstants.ALERT_MSG_FORMAT, qosPolicy.getName(), qosPolicy.getUuid().getValue(),
-                    port.getUuid().getValue(), port.getNetworkId().getValue(), statsData.getPackets().getReceived(),
-                                                                                        statsData.getReceiveDrops());
-
-            QosAlertGenerator.raiseAlert(qosPolicy.getName(), qosPolicy.getUuid().getValue(),
-                    port.getUuid().getValue(), port.getNetworkId().getValue(), statsData.getPackets().getReceived(),
-                                                                                          statsData.getReceiveDrops());
+        QosPolicy qosPolicy = qosNeutronUtils.getQosPolicy(port);
+        if (qosPolicy == null) {
+            return;
         }
 
+        LOG.trace(QosConstants.ALERT_MSG_FORMAT, qosPolicy.getName(), qosPolicy.getUuid().getValue(),
+                port.getUuid().getValue(), port.getNetworkId().getValue(), newRxPackets, newRxDroppedPackets);
+
+        QosAlertGenerator.raiseAlert(qosPolicy.getName(), qosPolicy.getUuid().getValue(),
+                port.getUuid().getValue(), port.getNetworkId().getValue(), newRxPackets, newRxDroppedPackets);
     }
 }
@@ -56,16 +56,16 @@ public class NetvirtSfcAclListener
 
     @Override
     protected void add(InstanceIdentifier<Acl> key, Acl acl) {
-        classifierService.updateAll();
+        classifierService.updateAcl(acl.key());
     }
 
     @Override
     protected void remove(InstanceIdentifier<Acl> key, Acl acl) {
-        classifierService.updateAll();
+        classifierService.updateAcl(acl.key());
     }
 
     @Override
     protected void update(InstanceIdentifier<Acl> key, Acl aclBefore, Acl aclAfter) {
-        classifierService.updateAll();
+        classifierService.updateAcl(aclAfter.key());
     }
 }
@@ -56,17 +56,17 @@ public class NetvirtSfcRspListener extends AsyncDataTreeChangeListenerBase<Rende
 
     @Override
     protected void add(InstanceIdentifier<RenderedServicePath> key, RenderedServicePath rsp) {
-        classifierService.updateAll();
+        classifierService.updateRsp(rsp.getName().getValue());
     }
 
     @Override
     protected void remove(InstanceIdentifier<RenderedServicePath> key, RenderedServicePath rsp) {
-        classifierService.updateAll();
+        classifierService.updateRsp(rsp.getName().getValue());
     }
 
     @Override
     protected void update(InstanceIdentifier<RenderedServicePath> key, RenderedServicePath rspBefore,
             RenderedServicePath rspAfter) {
-        classifierService.updateAll();
+        classifierService.updateRsp(rspAfter.getName().getValue());
     }
 }
@@ -56,17 +56,17 @@ public class NetvirtSfcSfpListener extends
 
     @Override
     protected void add(InstanceIdentifier<ServiceFunctionPathState> key, ServiceFunctionPathState sfp) {
-        classifierService.updateAll();
+        classifierService.updateSfp(sfp.getName().getValue());
     }
 
     @Override
     protected void remove(InstanceIdentifier<ServiceFunctionPathState> key, ServiceFunctionPathState sfp) {
-        classifierService.updateAll();
+        classifierService.updateSfp(sfp.getName().getValue());
     }
 
     @Override
     protected void update(InstanceIdentifier<ServiceFunctionPathState> key, ServiceFunctionPathState sfpBefore,
                           ServiceFunctionPathState sfpAfter) {
-        classifierService.updateAll();
+        classifierService.updateSfp(sfpAfter.getName().getValue());
     }
 }
@@ -9,11 +9,22 @@
 package org.opendaylight.netvirt.sfc.classifier.service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.Labeled;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.infrautils.utils.concurrent.Executors;
 import org.opendaylight.netvirt.sfc.classifier.providers.GeniusProvider;
 import org.opendaylight.netvirt.sfc.classifier.providers.NetvirtProvider;
@@ -23,29 +34,50 @@ import org.opendaylight.netvirt.sfc.classifier.service.domain.api.ClassifierEntr
 import org.opendaylight.netvirt.sfc.classifier.service.domain.api.ClassifierState;
 import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.ClassifierUpdate;
 import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.ConfigurationClassifierImpl;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.ConfigurationClassifierImpl.AclClassifierEntries;
 import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.GeniusRenderer;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.IncrementalClassifierImpl;
 import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.OpenflowRenderer;
 import org.opendaylight.netvirt.sfc.classifier.service.domain.impl.OperationalClassifierImpl;
 import org.opendaylight.netvirt.sfc.classifier.utils.LastTaskExecutor;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Reconciles the classifier flows and service bindings with the ACLs redirecting to SFC. A change of an ACL, RSP or
+ * SFP only has the entries of the ACLs depending on it computed again and rendered, through an
+ * {@link IncrementalClassifierImpl}; the whole classifier is computed again and diffed against the rendered entries
+ * on the first update, on {@link #updateAll()} and after an update which failed.
+ */
 @Singleton
 public class ClassifierService {
 
+    private static final String FULL = "full";
+    private static final String INCREMENTAL = "incremental";
+
     private final NetvirtProvider netvirtProvider;
     private final GeniusProvider geniusProvider;
     private final SfcProvider sfcProvider;
     private final DataBroker dataBroker;
     private final Executor lastTaskExecutor;
     private final OperationalClassifierImpl operationalClassifier = new OperationalClassifierImpl();
+    private final IncrementalClassifierImpl incrementalClassifier = new IncrementalClassifierImpl();
     private final List<ClassifierEntryRenderer> classifierRenderers = new ArrayList<>();
+    private final AtomicBoolean fullUpdatePending = new AtomicBoolean(true);
+    private final Set<AclKey> pendingAcls = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingRsps = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingSfps = ConcurrentHashMap.newKeySet();
+    private final Labeled<Counter> reconciles;
+    private final Labeled<Counter> reconcileMillis;
+    private final Counter failedReconciles;
     private static final Logger LOG = LoggerFactory.getLogger(ClassifierService.class);
 
     @Inject
     public ClassifierService(final NetvirtProvider netvirtProvider, final GeniusProvider geniusProvider,
                              final SfcProvider sfcProvider, final OpenFlow13Provider openFlow13Provider,
-                             final DataBroker dataBroker) {
+                             final DataBroker dataBroker, final MetricProvider metricProvider) {
         this.netvirtProvider = netvirtProvider;
         this.geniusProvider = geniusProvider;
         this.sfcProvider = sfcProvider;
@@ -55,25 +87,120 @@ public class ClassifierService {
         classifierRenderers.add(new OpenflowRenderer(openFlow13Provider, geniusProvider, dataBroker));
         classifierRenderers.add(new GeniusRenderer(geniusProvider));
         classifierRenderers.add(operationalClassifier.getRenderer());
+        this.reconciles = metricProvider.newCounter(descriptor("sfc_classifier_reconciles"), "mode");
+        this.reconcileMillis = metricProvider.newCounter(
+                descriptor("sfc_classifier_reconcile_millis_total"), "mode");
+        this.failedReconciles = metricProvider.newCounter(descriptor("sfc_classifier_reconciles_failed"));
+    }
+
+    private MetricDescriptor descriptor(String id) {
+        return MetricDescriptor.builder().anchor(this).project("netvirt").module("sfc-classifier").id(id).build();
     }
 
     public void updateAll() {
-        lastTaskExecutor.execute(this::doUpdateAll);
+        fullUpdatePending.set(true);
+        lastTaskExecutor.execute(this::doUpdate);
+    }
+
+    public void updateAcl(AclKey aclKey) {
+        pendingAcls.add(aclKey);
+        lastTaskExecutor.execute(this::doUpdate);
+    }
+
+    public void updateRsp(String rspName) {
+        pendingRsps.add(rspName);
+        lastTaskExecutor.execute(this::doUpdate);
+    }
+
+    public void updateSfp(String sfpName) {
+        pendingSfps.add(sfpName);
+        lastTaskExecutor.execute(this::doUpdate);
     }
 
-    private void doUpdateAll() {
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void doUpdate() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // The pending changes are lost and the rendered entries may be partial, compute everything again
+            fullUpdatePending.set(true);
+            failedReconciles.increment();
+            LOG.error("doUpdate : classifier update failed, the next update will be a full one", e);
+        }
+    }
 
-        ClassifierState configurationClassifier = new ConfigurationClassifierImpl(
+    private void reconcile() {
+        long startNanos = System.nanoTime();
+        ConfigurationClassifierImpl configurationClassifier = new ConfigurationClassifierImpl(
                 geniusProvider,
                 netvirtProvider,
                 sfcProvider,
                 dataBroker);
 
-        ClassifierUpdate classifierUpdate = new ClassifierUpdate(
-                configurationClassifier,
-                operationalClassifier,
-                classifierRenderers);
+        String mode;
+        int aclCount;
+        if (fullUpdatePending.getAndSet(false)) {
+            pendingAcls.clear();
+            pendingRsps.clear();
+            pendingSfps.clear();
+            incrementalClassifier.clear();
+            IncrementalClassifierImpl.Changes changes = new IncrementalClassifierImpl.Changes();
+            List<Acl> acls = configurationClassifier.readAcls();
+            acls.forEach(acl -> putAcl(configurationClassifier, acl, changes));
+
+            ClassifierUpdate classifierUpdate = new ClassifierUpdate(
+                    incrementalClassifier,
+                    operationalClassifier,
+                    classifierRenderers);
+
+            classifierUpdate.run();
+            mode = FULL;
+            aclCount = acls.size();
+        } else {
+            Set<AclKey> aclKeys = drain(pendingAcls);
+            drain(pendingRsps).forEach(rspName -> aclKeys.addAll(incrementalClassifier.getAclsUsingRsp(rspName)));
+            drain(pendingSfps).forEach(sfpName -> aclKeys.addAll(incrementalClassifier.getAclsUsingSfp(sfpName)));
+            if (aclKeys.isEmpty()) {
+                return;
+            }
+
+            IncrementalClassifierImpl.Changes changes = new IncrementalClassifierImpl.Changes();
+            for (AclKey aclKey : aclKeys) {
+                Optional<Acl> acl = configurationClassifier.readAcl(aclKey);
+                if (acl.isPresent()) {
+                    putAcl(configurationClassifier, acl.get(), changes);
+                } else {
+                    incrementalClassifier.removeAcl(aclKey, changes);
+                }
+            }
+            LOG.trace("reconcile : {} entries to add and {} to remove for ACLs {}", changes.getAddedCount(),
+                    changes.getRemovedCount(), aclKeys);
+            changes.render(classifierRenderers);
+            mode = INCREMENTAL;
+            aclCount = aclKeys.size();
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        reconciles.label(mode).increment();
+        reconcileMillis.label(mode).increment(millis);
+        LOG.debug("reconcile : {} reconcile of {} ACLs in {} ms, {} entries for {} ACLs", mode, aclCount, millis,
+                incrementalClassifier.getAllEntries().size(), incrementalClassifier.getAclCount());
+    }
+
+    private void putAcl(ConfigurationClassifierImpl configurationClassifier, Acl acl,
+                        IncrementalClassifierImpl.Changes changes) {
+        AclClassifierEntries aclEntries = configurationClassifier.getEntriesForAcl(acl);
+        incrementalClassifier.putAcl(acl.key(), aclEntries.getEntries(), aclEntries.getRspNames(),
+                aclEntries.getSfpNames(), changes);
+    }
 
-        classifierUpdate.run();
+    private static <T> Set<T> drain(Set<T> pending) {
+        Set<T> drained = new HashSet<>();
+        Iterator<T> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
     }
 }
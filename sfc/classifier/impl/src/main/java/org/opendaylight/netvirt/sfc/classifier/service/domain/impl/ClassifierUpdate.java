@@ -45,6 +45,15 @@ public class ClassifierUpdate implements Runnable {
         LOG.trace("Entries to add: {}", entriesToAdd);
         LOG.trace("Entries to remove: {}", entriesToRemove);
 
+        render(classifierRenderers, entriesToAdd, entriesToRemove);
+    }
+
+    /**
+     * Suppresses then renders entries through each of the renderers.
+     */
+    public static void render(List<ClassifierEntryRenderer> classifierRenderers,
+                              Set<ClassifierRenderableEntry> entriesToAdd,
+                              Set<ClassifierRenderableEntry> entriesToRemove) {
         classifierRenderers.forEach(
             classifierRenderer -> {
                 entriesToRemove.forEach(classifierRenderableEntry ->
@@ -35,6 +35,7 @@ import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.rsp.rev1407
 import org.opendaylight.yang.gen.v1.urn.ericsson.params.xml.ns.yang.sfc.sff.logical.rev160620.DpnIdType;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.AccessLists;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclKey;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.AccessListEntries;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.Ace;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.acl.access.list.entries.ace.Matches;
@@ -76,12 +77,28 @@ public class ConfigurationClassifierImpl implements ClassifierState {
                 .map(AccessListEntries::getAce)
                 .filter(Objects::nonNull)
                 .flatMap(List::stream)
-                .map(this::getEntriesForAce)
+                .map(ace -> getEntriesForAce(ace, new HashSet<>(), new HashSet<>()))
                 .flatMap(Set::stream)
                 .collect(Collectors.toSet());
     }
 
-    private List<Acl> readAcls() {
+    /**
+     * Gives the entries of a single ACL along with the RSPs and SFPs they depend on.
+     */
+    public AclClassifierEntries getEntriesForAcl(Acl acl) {
+        Set<String> rspNames = new HashSet<>();
+        Set<String> sfpNames = new HashSet<>();
+        Set<ClassifierRenderableEntry> entries = Optional.ofNullable(acl.getAccessListEntries())
+                .map(AccessListEntries::getAce)
+                .orElse(Collections.emptyList())
+                .stream()
+                .map(ace -> getEntriesForAce(ace, rspNames, sfpNames))
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        return new AclClassifierEntries(entries, rspNames, sfpNames);
+    }
+
+    public List<Acl> readAcls() {
         InstanceIdentifier<AccessLists> aclsIID = InstanceIdentifier.builder(AccessLists.class).build();
         Optional<AccessLists> acls;
         acls = MDSALUtil.read(dataBroker, LogicalDatastoreType.CONFIGURATION, aclsIID).toJavaUtil();
@@ -89,7 +106,14 @@ public class ConfigurationClassifierImpl implements ClassifierState {
         return acls.map(AccessLists::getAcl).orElse(Collections.emptyList());
     }
 
-    private Set<ClassifierRenderableEntry> getEntriesForAce(Ace ace) {
+    public Optional<Acl> readAcl(AclKey aclKey) {
+        InstanceIdentifier<Acl> aclIID = InstanceIdentifier.builder(AccessLists.class).child(Acl.class, aclKey).build();
+        Optional<Acl> acl = MDSALUtil.read(dataBroker, LogicalDatastoreType.CONFIGURATION, aclIID).toJavaUtil();
+        LOG.trace("Acl read from datastore: {}", acl);
+        return acl;
+    }
+
+    private Set<ClassifierRenderableEntry> getEntriesForAce(Ace ace, Set<String> rspNames, Set<String> sfpNames) {
         String ruleName = ace.getRuleName();
         LOG.debug("Generating classifier entries for Ace: {}", ruleName);
         LOG.trace("Ace details: {}", ace);
@@ -99,6 +123,13 @@ public class ConfigurationClassifierImpl implements ClassifierState {
         String rspName = sfcActions.map(NetvirtsfcAclActions::getRspName).map(Strings::emptyToNull).orElse(null);
         String sfpName = sfcActions.map(NetvirtsfcAclActions::getSfpName).map(Strings::emptyToNull).orElse(null);
 
+        if (rspName != null) {
+            rspNames.add(rspName);
+        }
+        if (sfpName != null) {
+            sfpNames.add(sfpName);
+        }
+
         if (rspName == null && sfpName == null) {
             LOG.debug("Ace {} ignored: no valid SFC redirect action", ruleName);
             return Collections.emptySet();
@@ -133,7 +164,7 @@ public class ConfigurationClassifierImpl implements ClassifierState {
             return getEntriesForRspRedirect(ruleName, sourcePort, destinationPort, network, rspName, matches);
         }
 
-        return getEntriesForSfpRedirect(ruleName, sourcePort, destinationPort, sfpName, matches);
+        return getEntriesForSfpRedirect(ruleName, sourcePort, destinationPort, sfpName, matches, rspNames);
     }
 
     private Set<ClassifierRenderableEntry> getEntriesForRspRedirect(
@@ -175,7 +206,8 @@ public class ConfigurationClassifierImpl implements ClassifierState {
             String srcPort,
             String dstPort,
             String sfpName,
-            Matches matches) {
+            Matches matches,
+            Set<String> rspNames) {
 
         if (srcPort == null && dstPort == null) {
             LOG.warn("Ace {} ignored: no source or destination port to match against", ruleName);
@@ -187,9 +219,9 @@ public class ConfigurationClassifierImpl implements ClassifierState {
             return Collections.emptySet();
         }
 
-        List<RenderedServicePath> rsps = sfcProvider.readServicePathState(sfpName)
-                .orElse(Collections.emptyList())
-                .stream()
+        List<String> sfpRspNames = sfcProvider.readServicePathState(sfpName).orElse(Collections.emptyList());
+        rspNames.addAll(sfpRspNames);
+        List<RenderedServicePath> rsps = sfpRspNames.stream()
                 .map(sfcProvider::getRenderedServicePath)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
@@ -342,4 +374,31 @@ public class ConfigurationClassifierImpl implements ClassifierState {
 
         return entries;
     }
+
+    /**
+     * The entries of an ACL and the RSPs and SFPs they depend on.
+     */
+    public static final class AclClassifierEntries {
+        private final Set<ClassifierRenderableEntry> entries;
+        private final Set<String> rspNames;
+        private final Set<String> sfpNames;
+
+        AclClassifierEntries(Set<ClassifierRenderableEntry> entries, Set<String> rspNames, Set<String> sfpNames) {
+            this.entries = entries;
+            this.rspNames = rspNames;
+            this.sfpNames = sfpNames;
+        }
+
+        public Set<ClassifierRenderableEntry> getEntries() {
+            return Collections.unmodifiableSet(entries);
+        }
+
+        public Set<String> getRspNames() {
+            return Collections.unmodifiableSet(rspNames);
+        }
+
+        public Set<String> getSfpNames() {
+            return Collections.unmodifiableSet(sfpNames);
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.netvirt.sfc.classifier.service.domain.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.api.ClassifierEntryRenderer;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.api.ClassifierRenderableEntry;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.api.ClassifierState;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclKey;
+
+/**
+ * The classifier entries of each ACL along with the RSPs and SFPs they were computed from, so that a change of an
+ * ACL, RSP or SFP only has the entries of the ACLs depending on it computed again. As an entry, like a node or
+ * egress entry, can be required by several ACLs, it is only added when a first ACL requires it and removed when the
+ * last one no longer does.
+ *
+ * <p>Not thread safe, it is only used from the classifier update task.
+ */
+public class IncrementalClassifierImpl implements ClassifierState {
+
+    private final Map<AclKey, AclEntries> acls = new HashMap<>();
+    private final Map<ClassifierRenderableEntry, Integer> entryReferences = new HashMap<>();
+    private final Map<String, Set<AclKey>> aclsByRsp = new HashMap<>();
+    private final Map<String, Set<AclKey>> aclsBySfp = new HashMap<>();
+
+    @Override
+    public Set<ClassifierRenderableEntry> getAllEntries() {
+        return Collections.unmodifiableSet(entryReferences.keySet());
+    }
+
+    public int getAclCount() {
+        return acls.size();
+    }
+
+    public Set<AclKey> getAclsUsingRsp(String rspName) {
+        return aclsByRsp.getOrDefault(rspName, Collections.emptySet());
+    }
+
+    public Set<AclKey> getAclsUsingSfp(String sfpName) {
+        return aclsBySfp.getOrDefault(sfpName, Collections.emptySet());
+    }
+
+    public void clear() {
+        acls.clear();
+        entryReferences.clear();
+        aclsByRsp.clear();
+        aclsBySfp.clear();
+    }
+
+    /**
+     * Sets the entries of an ACL, collecting the entries to add and remove as a result.
+     */
+    public void putAcl(AclKey aclKey, Set<ClassifierRenderableEntry> entries, Set<String> rspNames,
+                       Set<String> sfpNames, Changes changes) {
+        AclEntries previous = acls.put(aclKey,
+                new AclEntries(new HashSet<>(entries), new HashSet<>(rspNames), new HashSet<>(sfpNames)));
+        Set<ClassifierRenderableEntry> previousEntries = Collections.emptySet();
+        if (previous != null) {
+            previousEntries = previous.entries;
+            unindex(aclKey, previous);
+        }
+        for (ClassifierRenderableEntry entry : entries) {
+            if (!previousEntries.contains(entry)) {
+                reference(entry, changes);
+            }
+        }
+        for (ClassifierRenderableEntry entry : previousEntries) {
+            if (!entries.contains(entry)) {
+                dereference(entry, changes);
+            }
+        }
+        rspNames.forEach(rspName -> aclsByRsp.computeIfAbsent(rspName, key -> new HashSet<>()).add(aclKey));
+        sfpNames.forEach(sfpName -> aclsBySfp.computeIfAbsent(sfpName, key -> new HashSet<>()).add(aclKey));
+    }
+
+    /**
+     * Drops the entries of a removed ACL, collecting the entries to remove as a result.
+     */
+    public void removeAcl(AclKey aclKey, Changes changes) {
+        AclEntries previous = acls.remove(aclKey);
+        if (previous != null) {
+            unindex(aclKey, previous);
+            previous.entries.forEach(entry -> dereference(entry, changes));
+        }
+    }
+
+    private void reference(ClassifierRenderableEntry entry, Changes changes) {
+        if (entryReferences.merge(entry, 1, Integer::sum) == 1 && !changes.entriesToRemove.remove(entry)) {
+            changes.entriesToAdd.add(entry);
+        }
+    }
+
+    private void dereference(ClassifierRenderableEntry entry, Changes changes) {
+        Integer references = entryReferences.computeIfPresent(entry, (key, count) -> count > 1 ? count - 1 : null);
+        if (references == null && !changes.entriesToAdd.remove(entry)) {
+            changes.entriesToRemove.add(entry);
+        }
+    }
+
+    private void unindex(AclKey aclKey, AclEntries aclEntries) {
+        aclEntries.rspNames.forEach(rspName -> unindex(aclsByRsp, rspName, aclKey));
+        aclEntries.sfpNames.forEach(sfpName -> unindex(aclsBySfp, sfpName, aclKey));
+    }
+
+    private static void unindex(Map<String, Set<AclKey>> index, String name, AclKey aclKey) {
+        Set<AclKey> aclKeys = index.get(name);
+        if (aclKeys != null && aclKeys.remove(aclKey) && aclKeys.isEmpty()) {
+            index.remove(name);
+        }
+    }
+
+    /**
+     * The entries to add and remove after changes of ACLs.
+     */
+    public static final class Changes {
+        private final Set<ClassifierRenderableEntry> entriesToAdd = new HashSet<>();
+        private final Set<ClassifierRenderableEntry> entriesToRemove = new HashSet<>();
+
+        public int getAddedCount() {
+            return entriesToAdd.size();
+        }
+
+        public int getRemovedCount() {
+            return entriesToRemove.size();
+        }
+
+        public void render(List<ClassifierEntryRenderer> classifierRenderers) {
+            ClassifierUpdate.render(classifierRenderers, entriesToAdd, entriesToRemove);
+        }
+    }
+
+    private static final class AclEntries {
+        private final Set<ClassifierRenderableEntry> entries;
+        private final Set<String> rspNames;
+        private final Set<String> sfpNames;
+
+        AclEntries(Set<ClassifierRenderableEntry> entries, Set<String> rspNames, Set<String> sfpNames) {
+            this.entries = entries;
+            this.rspNames = rspNames;
+            this.sfpNames = sfpNames;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.netvirt.sfc.classifier.service.domain.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.internal.util.collections.Sets;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.ClassifierEntry;
+import org.opendaylight.netvirt.sfc.classifier.service.domain.api.ClassifierEntryRenderer;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.Ipv4Acl;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.access.control.list.rev160218.access.lists.AclKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.interfaces.rev140508.interfaces.InterfaceKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IncrementalClassifierImplTest {
+
+    private static final AclKey ACL_A = new AclKey("aclA", Ipv4Acl.class);
+    private static final AclKey ACL_B = new AclKey("aclB", Ipv4Acl.class);
+    private static final NodeId NODE = new NodeId("openflow:1");
+
+    @Mock
+    private ClassifierEntryRenderer renderer;
+
+    private final IncrementalClassifierImpl incrementalClassifier = new IncrementalClassifierImpl();
+
+    @Test
+    public void sharedEntryIsKeptUntilLastAclIsRemoved() {
+        ClassifierEntry node = ClassifierEntry.buildNodeEntry(NODE);
+        ClassifierEntry ingressA = ClassifierEntry.buildIngressEntry(new InterfaceKey("portA"));
+        ClassifierEntry ingressB = ClassifierEntry.buildIngressEntry(new InterfaceKey("portB"));
+        IncrementalClassifierImpl.Changes changes = new IncrementalClassifierImpl.Changes();
+        incrementalClassifier.putAcl(ACL_A, Sets.newSet(node, ingressA), Collections.singleton("rspA"),
+                Collections.emptySet(), changes);
+        incrementalClassifier.putAcl(ACL_B, Sets.newSet(node, ingressB), Collections.emptySet(),
+                Collections.singleton("sfpB"), changes);
+        assertEquals(3, changes.getAddedCount());
+        assertEquals(Collections.singleton(ACL_A), incrementalClassifier.getAclsUsingRsp("rspA"));
+        assertEquals(Collections.singleton(ACL_B), incrementalClassifier.getAclsUsingSfp("sfpB"));
+
+        changes = new IncrementalClassifierImpl.Changes();
+        incrementalClassifier.removeAcl(ACL_A, changes);
+        changes.render(Collections.singletonList(renderer));
+        verify(renderer).suppressIngress(new InterfaceKey("portA"));
+        verifyNoMoreInteractions(renderer);
+        assertEquals(Sets.newSet(node, ingressB), incrementalClassifier.getAllEntries());
+        assertTrue(incrementalClassifier.getAclsUsingRsp("rspA").isEmpty());
+    }
+
+    @Test
+    public void updatedAclOnlyRendersItsDifferences() {
+        ClassifierEntry node = ClassifierEntry.buildNodeEntry(NODE);
+        IncrementalClassifierImpl.Changes changes = new IncrementalClassifierImpl.Changes();
+        incrementalClassifier.putAcl(ACL_A,
+                Sets.newSet(node, ClassifierEntry.buildIngressEntry(new InterfaceKey("portA"))),
+                Collections.singleton("rspA"), Collections.emptySet(), changes);
+
+        changes = new IncrementalClassifierImpl.Changes();
+        incrementalClassifier.putAcl(ACL_A,
+                Sets.newSet(node, ClassifierEntry.buildIngressEntry(new InterfaceKey("portB"))),
+                Collections.singleton("rspB"), Collections.emptySet(), changes);
+        changes.render(Collections.singletonList(renderer));
+        verify(renderer).suppressIngress(new InterfaceKey("portA"));
+        verify(renderer).renderIngress(new InterfaceKey("portB"));
+        verifyNoMoreInteractions(renderer);
+        assertTrue(incrementalClassifier.getAclsUsingRsp("rspA").isEmpty());
+        assertEquals(Collections.singleton(ACL_A), incrementalClassifier.getAclsUsingRsp("rspB"));
+    }
+
+    @Test
+    public void entryMovedBetweenAclsIsNotRenderedAgain() {
+        ClassifierEntry node = ClassifierEntry.buildNodeEntry(NODE);
+        IncrementalClassifierImpl.Changes changes = new IncrementalClassifierImpl.Changes();
+        incrementalClassifier.putAcl(ACL_A, Collections.singleton(node), Collections.emptySet(),
+                Collections.emptySet(), changes);
+
+        changes = new IncrementalClassifierImpl.Changes();
+        incrementalClassifier.removeAcl(ACL_A, changes);
+        incrementalClassifier.putAcl(ACL_B, Collections.singleton(node), Collections.emptySet(),
+                Collections.emptySet(), changes);
+        changes.render(Collections.singletonList(renderer));
+        verifyNoMoreInteractions(renderer);
+        assertEquals(Collections.singleton(node), incrementalClassifier.getAllEntries());
+    }
+}
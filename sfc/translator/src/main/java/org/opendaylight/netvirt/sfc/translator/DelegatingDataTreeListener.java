@@ -12,8 +12,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
@@ -29,6 +32,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Data-tree listener which delegates data processing to a {@link INeutronSfcDataProcessor}.
+ *
+ * <p>The changes are processed in ordered lanes, the lane of a change being given by {@link #getLaneKey}, by default
+ * its root identifier: the changes of a same item are processed in order, those of different items in parallel. Each
+ * lane has a bounded queue, a full lane holding back the data tree notifications.
  */
 public abstract class DelegatingDataTreeListener<T extends DataObject> implements AutoCloseable,
         DataTreeChangeListener<T>,
@@ -36,7 +43,10 @@ public abstract class DelegatingDataTreeListener<T extends DataObject> implement
     private static final Logger LOG = LoggerFactory.getLogger(DelegatingDataTreeListener.class);
     private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
         .setNameFormat("NeutronSfcListener-%d").build();
-    private final ExecutorService executorService = Executors.newFixedThreadPool(1, THREAD_FACTORY);
+    private static final int LANES = Integer.getInteger("sfc.translator.lanes", 4);
+    private static final int LANE_QUEUE_SIZE = Integer.getInteger("sfc.translator.lane.queue.size", 1024);
+    private static final long SLOW_CHANGE_MILLIS = 1000;
+    private final ExecutorService[] lanes = newLanes();
     private final INeutronSfcDataProcessor<T> dataProcessor;
     @Nullable
     private ListenerRegistration<DelegatingDataTreeListener<T>> listenerRegistration;
@@ -47,6 +57,28 @@ public abstract class DelegatingDataTreeListener<T extends DataObject> implement
                 Preconditions.checkNotNull(treeId, "Tree identifier can not be null!"));
     }
 
+    private static ExecutorService[] newLanes() {
+        ExecutorService[] lanes = new ExecutorService[Math.max(1, LANES)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(LANE_QUEUE_SIZE), THREAD_FACTORY,
+                    DelegatingDataTreeListener::waitForRoom);
+        }
+        return lanes;
+    }
+
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Lane is shut down");
+        }
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the lane", e);
+        }
+    }
+
     // TODO Clean up the exception handling
     @SuppressWarnings("checkstyle:IllegalCatch")
     private void registerListener(final DataBroker db, DataTreeIdentifier<T> treeId) {
@@ -59,13 +91,23 @@ public abstract class DelegatingDataTreeListener<T extends DataObject> implement
         }
     }
 
-    private void processChanges(Collection<DataTreeModification<T>> changes) {
-        LOG.info("onDataTreeChanged: Received Data Tree Changed {}", changes);
-        for (DataTreeModification<T> change : changes) {
-            final InstanceIdentifier<T> key = change.getRootPath().getRootIdentifier();
-            final DataObjectModification<T> mod = change.getRootNode();
-            LOG.info("onDataTreeChanged: Received Data Tree Changed Update of Type={} for Key={}",
-                    mod.getModificationType(), key);
+    /**
+     * Gives the key of the lane of the changes of an item, the changes with equal keys being processed in order.
+     *
+     * @param path the identifier of the changed item
+     * @return the key of its lane
+     */
+    protected Object getLaneKey(InstanceIdentifier<T> path) {
+        return path;
+    }
+
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void processChange(DataTreeModification<T> change, long receivedNanos) {
+        final InstanceIdentifier<T> key = change.getRootPath().getRootIdentifier();
+        final DataObjectModification<T> mod = change.getRootNode();
+        LOG.debug("processChange: Received Data Tree Changed Update of Type={} for Key={}",
+                mod.getModificationType(), key);
+        try {
             switch (mod.getModificationType()) {
                 case DELETE:
                     dataProcessor.remove(mod.getDataBefore());
@@ -83,13 +125,25 @@ public abstract class DelegatingDataTreeListener<T extends DataObject> implement
                 default:
                     throw new IllegalArgumentException("Unhandled modification type " + mod.getModificationType());
             }
+        } catch (RuntimeException e) {
+            LOG.error("processChange: Failed to process {} of {}", mod.getModificationType(), key, e);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedNanos);
+        if (millis > SLOW_CHANGE_MILLIS) {
+            LOG.info("processChange: Processed {} of {} {} ms after its notification", mod.getModificationType(),
+                    key, millis);
         }
     }
 
     @Override
     public void onDataTreeChanged(@NonNull final Collection<DataTreeModification<T>> changes) {
         Preconditions.checkNotNull(changes, "Changes may not be null!");
-        executorService.execute(() -> processChanges(changes));
+        LOG.trace("onDataTreeChanged: Received Data Tree Changed {}", changes);
+        final long receivedNanos = System.nanoTime();
+        for (DataTreeModification<T> change : changes) {
+            Object laneKey = getLaneKey(change.getRootPath().getRootIdentifier());
+            lanes[Math.floorMod(laneKey.hashCode(), lanes.length)].execute(() -> processChange(change, receivedNanos));
+        }
     }
 
     @Override
@@ -98,6 +152,8 @@ public abstract class DelegatingDataTreeListener<T extends DataObject> implement
             listenerRegistration.close();
             listenerRegistration = null;
         }
-        executorService.shutdownNow();
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
     }
 }
@@ -12,6 +12,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.infrautils.inject.AbstractLifecycle;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.netvirt.sfc.translator.flowclassifier.NeutronFlowClassifierListener;
 import org.opendaylight.netvirt.sfc.translator.portchain.NeutronPortChainListener;
 import org.opendaylight.netvirt.sfc.translator.portchain.NeutronPortPairGroupListener;
@@ -26,16 +27,19 @@ public class OpenStackSFCTranslatorProvider extends AbstractLifecycle {
     private static final Logger LOG = LoggerFactory.getLogger(OpenStackSFCTranslatorProvider.class);
     private final DataBroker dataBroker;
     private final RenderedServicePathService rspService;
+    private final MetricProvider metricProvider;
     private NeutronFlowClassifierListener neutronFlowClassifierListener;
     private NeutronPortPairListener neutronPortPairListener;
     private NeutronPortPairGroupListener neutronPortPairGroupListener;
     private NeutronPortChainListener neutronPortChainListener;
 
     @Inject
-    public OpenStackSFCTranslatorProvider(final DataBroker dataBroker, final RenderedServicePathService rspService) {
+    public OpenStackSFCTranslatorProvider(final DataBroker dataBroker, final RenderedServicePathService rspService,
+                                          final MetricProvider metricProvider) {
         LOG.info("OpenStackSFCTranslatorProvider2 constructor");
         this.dataBroker = dataBroker;
         this.rspService = rspService;
+        this.metricProvider = metricProvider;
     }
 
     @Override
@@ -44,7 +48,7 @@ public class OpenStackSFCTranslatorProvider extends AbstractLifecycle {
         neutronFlowClassifierListener = new NeutronFlowClassifierListener(dataBroker);
         neutronPortPairListener = new NeutronPortPairListener(dataBroker);
         neutronPortPairGroupListener = new NeutronPortPairGroupListener(dataBroker);
-        neutronPortChainListener = new NeutronPortChainListener(dataBroker, rspService);
+        neutronPortChainListener = new NeutronPortChainListener(dataBroker, rspService, metricProvider);
         if (this.rspService == null) {
             LOG.warn("RenderedServicePath Service is not available. Translation layer might not work as expected.");
         }
@@ -8,11 +8,18 @@
 
 package org.opendaylight.netvirt.sfc.translator;
 
+import static org.opendaylight.controller.md.sal.binding.api.WriteTransaction.CREATE_MISSING_PARENTS;
+import static org.opendaylight.genius.infra.Datastore.CONFIGURATION;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
+import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.ServiceFunctions;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunction;
 import org.opendaylight.yang.gen.v1.urn.cisco.params.xml.ns.yang.sfc.sf.rev140701.service.functions.ServiceFunctionKey;
@@ -49,23 +56,14 @@ public class SfcMdsalHelper {
     public static final String NETVIRT_LOGICAL_SFF_NAME = "Netvirt-Logical-SFF";
 
     private final DataBroker dataBroker;
+    private final ManagedNewTransactionRunner txRunner;
 
     public SfcMdsalHelper(DataBroker dataBroker) {
         this.dataBroker = dataBroker;
+        this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
     }
 
     //ACL Flow Classifier data store utility methods
-    public void addAclFlowClassifier(Acl aclFlowClassifier) {
-        InstanceIdentifier<Acl> aclIid = getAclPath(aclFlowClassifier.key());
-        LOG.info("Write ACL FlowClassifier {} to config data store at {}",aclFlowClassifier, aclIid);
-        try {
-            SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, aclIid,
-                    aclFlowClassifier);
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("Error writing {} to {}", aclFlowClassifier, aclIid, e);
-        }
-    }
-
     public void updateAclFlowClassifier(Acl aclFlowClassifier) {
         InstanceIdentifier<Acl> aclIid = getAclPath(aclFlowClassifier.key());
         LOG.info("Update ACL FlowClassifier {} in config data store at {}",aclFlowClassifier, aclIid);
@@ -96,16 +94,6 @@ public class SfcMdsalHelper {
                 LogicalDatastoreType.CONFIGURATION, sfIid).orNull();
     }
 
-    public void addServiceFunction(ServiceFunction sf) {
-        InstanceIdentifier<ServiceFunction> sfIid = getSFPath(sf.key());
-        LOG.info("Write Service Function {} to config data store at {}",sf, sfIid);
-        try {
-            SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, sfIid, sf);
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("Error writing {} to {}", sf, sfIid, e);
-        }
-    }
-
     public void updateServiceFunction(ServiceFunction sf) {
         InstanceIdentifier<ServiceFunction> sfIid = getSFPath(sf.key());
         LOG.info("Update Service Function {} in config data store at {}",sf, sfIid);
@@ -145,16 +133,6 @@ public class SfcMdsalHelper {
         }
     }
 
-    public void updateServiceFunctionForwarder(ServiceFunctionForwarder sff) {
-        InstanceIdentifier<ServiceFunctionForwarder> sffIid = getSFFPath(sff.key());
-        LOG.info("Update Service Function Forwarder {} to config data store at {}",sff, sffIid);
-        try {
-            SingleTransactionDataBroker.syncUpdate(dataBroker, LogicalDatastoreType.CONFIGURATION, sffIid, sff);
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("Error writing {} to {}", sff, sffIid, e);
-        }
-    }
-
     public void deleteServiceFunctionForwarder(ServiceFunctionForwarderKey sffKey) {
         InstanceIdentifier<ServiceFunctionForwarder> sffIid = getSFFPath(sffKey);
         LOG.info("Delete Service Function Forwarder from config data store at {}", sffIid);
@@ -165,43 +143,64 @@ public class SfcMdsalHelper {
         }
     }
 
-    public void addServiceFunctionChain(ServiceFunctionChain sfc) {
-        InstanceIdentifier<ServiceFunctionChain> sfcIid = getSFCPath(sfc.key());
-        LOG.info("Write Service Function Chain {} to config data store at {}",sfc, sfcIid);
-        try {
-            SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, sfcIid, sfc);
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("Error writing {} to {}", sfc, sfcIid, e);
-        }
-    }
-
-    public void deleteServiceFunctionChain(ServiceFunctionChainKey sfcKey) {
-        InstanceIdentifier<ServiceFunctionChain> sfcIid = getSFCPath(sfcKey);
-        LOG.info("Remove Service Function Chain {} from config data store at {}",sfcKey, sfcIid);
+    //Port Chain
+    /**
+     * Writes the SFC data of a port chain in a single transaction: the service functions of its port pairs, the
+     * entries of its port pair groups merged into the logical SFF, its chain and path, and the ACLs of its flow
+     * classifiers.
+     *
+     * @return true if the transaction was committed
+     */
+    public boolean addPortChain(List<ServiceFunction> sfs, List<ServiceFunctionForwarder> sffs,
+                                ServiceFunctionChain sfc, ServiceFunctionPath sfp, List<Acl> acls) {
+        LOG.info("Write Service Function Chain {} and Path {} with {} Service Functions and {} ACLs to config data "
+                + "store", sfc.key(), sfp.key(), sfs.size(), acls.size());
         try {
-            SingleTransactionDataBroker.syncDelete(dataBroker, LogicalDatastoreType.CONFIGURATION, sfcIid);
-        } catch (TransactionCommitFailedException e) {
-            LOG.warn("Failed to delete {}", sfcIid, e);
+            txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+                for (ServiceFunction sf : sfs) {
+                    tx.put(getSFPath(sf.key()), sf, CREATE_MISSING_PARENTS);
+                }
+                for (ServiceFunctionForwarder sff : sffs) {
+                    tx.merge(getSFFPath(sff.key()), sff, CREATE_MISSING_PARENTS);
+                }
+                tx.put(getSFCPath(sfc.key()), sfc, CREATE_MISSING_PARENTS);
+                tx.put(getSFPPath(sfp.key()), sfp, CREATE_MISSING_PARENTS);
+                for (Acl acl : acls) {
+                    tx.put(getAclPath(acl.key()), acl, CREATE_MISSING_PARENTS);
+                }
+            }).get();
+            return true;
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("Error writing Service Function Chain {} and Path {}", sfc.key(), sfp.key(), e);
+            return false;
         }
     }
 
-    public void addServiceFunctionPath(ServiceFunctionPath sfp) {
-        InstanceIdentifier<ServiceFunctionPath> sfpIid = getSFPPath(sfp.key());
-        LOG.info("Write Service Function Path {} to config data store at {}",sfp, sfpIid);
+    /**
+     * Deletes the path and chain of a port chain in a single transaction.
+     */
+    public void deletePortChain(ServiceFunctionPathKey sfpKey, ServiceFunctionChainKey sfcKey) {
+        LOG.info("Delete Service Function Path {} and Chain {} from config data store", sfpKey, sfcKey);
         try {
-            SingleTransactionDataBroker.syncWrite(dataBroker, LogicalDatastoreType.CONFIGURATION, sfpIid, sfp);
-        } catch (TransactionCommitFailedException e) {
-            LOG.error("Error writing {} to {}", sfp, sfpIid, e);
+            txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+                tx.delete(getSFPPath(sfpKey));
+                tx.delete(getSFCPath(sfcKey));
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.warn("Failed to delete Service Function Path {} and Chain {}", sfpKey, sfcKey, e);
         }
     }
 
-    public void deleteServiceFunctionPath(ServiceFunctionPathKey sfpKey) {
-        InstanceIdentifier<ServiceFunctionPath> sfpIid = getSFPPath(sfpKey);
-        LOG.info("Delete Service Function Path from config data store at {}", sfpIid);
+    public void removeAclFlowClassifiers(List<Acl> aclFlowClassifiers) {
+        LOG.info("Remove {} ACL FlowClassifiers from config data store", aclFlowClassifiers.size());
         try {
-            SingleTransactionDataBroker.syncDelete(dataBroker, LogicalDatastoreType.CONFIGURATION, sfpIid);
-        } catch (TransactionCommitFailedException e) {
-            LOG.warn("Failed to delete {}", sfpIid, e);
+            txRunner.callWithNewWriteOnlyTransactionAndSubmit(CONFIGURATION, tx -> {
+                for (Acl acl : aclFlowClassifiers) {
+                    tx.delete(getAclPath(acl.key()));
+                }
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.warn("Failed to delete ACL FlowClassifiers {}", aclFlowClassifiers, e);
         }
     }
 
@@ -13,11 +13,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.DataTreeIdentifier;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.opendaylight.netvirt.sfc.translator.DelegatingDataTreeListener;
 import org.opendaylight.netvirt.sfc.translator.NeutronMdsalHelper;
 import org.opendaylight.netvirt.sfc.translator.SfcMdsalHelper;
@@ -50,12 +54,22 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
     private final SfcMdsalHelper sfcMdsalHelper;
     private final NeutronMdsalHelper neutronMdsalHelper;
     private final RenderedServicePathService rspService;
+    private final Counter chainConfigsCommitted;
+    private final Counter chainConfigCommitMillis;
 
-    public NeutronPortChainListener(DataBroker db, RenderedServicePathService rspService) {
+    public NeutronPortChainListener(DataBroker db, RenderedServicePathService rspService,
+            MetricProvider metricProvider) {
         super(db,new DataTreeIdentifier<>(LogicalDatastoreType.CONFIGURATION, PORT_CHAIN_IID));
         this.sfcMdsalHelper = new SfcMdsalHelper(db);
         this.neutronMdsalHelper = new NeutronMdsalHelper(db);
         this.rspService = rspService;
+        this.chainConfigsCommitted = counter(metricProvider, "sfc_translator_port_chain_configs_committed");
+        this.chainConfigCommitMillis = counter(metricProvider, "sfc_translator_port_chain_config_commit_millis_total");
+    }
+
+    private Counter counter(MetricProvider metricProvider, String id) {
+        return metricProvider.newCounter(MetricDescriptor.builder().anchor(this).project("netvirt")
+                .module("sfc-translator").id(id).build());
     }
 
     /**
@@ -65,8 +79,8 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
      */
     @Override
     public void remove(PortChain deletedPortChain) {
-        sfcMdsalHelper.deleteServiceFunctionPath(PortChainTranslator.getSFPKey(deletedPortChain));
-        sfcMdsalHelper.deleteServiceFunctionChain(PortChainTranslator.getSFCKey(deletedPortChain));
+        sfcMdsalHelper.deletePortChain(PortChainTranslator.getSFPKey(deletedPortChain),
+                PortChainTranslator.getSFCKey(deletedPortChain));
     }
 
     /**
@@ -85,7 +99,7 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
             oldFcList.removeAll(newFcList);
             if (!oldFcList.isEmpty()) {
                 LOG.debug("Removing old list {}", oldFcList);
-                processFlowClassifiers(origPortChain, oldFcList, null, false);
+                sfcMdsalHelper.removeAclFlowClassifiers(buildAcls(origPortChain, oldFcList, null));
             }
         }
         processPortChain(updatePortChain);
@@ -103,6 +117,7 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
     }
 
     private void processPortChain(PortChain newPortChain) {
+        long startNanos = System.nanoTime();
 
         //List of Port Pair Group attached to the Port Chain
         List<PortPairGroup> portPairGroupList = new ArrayList<>();
@@ -110,6 +125,7 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
         Map<Uuid, List<PortPair>> groupPortPairsList = new HashMap<>();
 
         List<ServiceFunction> portChainServiceFunctionList = new ArrayList<>();
+        List<ServiceFunctionForwarder> portChainServiceFunctionForwarderList = new ArrayList<>();
 
         //Read chain related port pair group from neutron data store
         List<Uuid> newPortPairGroups = newPortChain.getPortPairGroups();
@@ -146,59 +162,58 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
                 ServiceFunction serviceFunction = PortPairTranslator.buildServiceFunction(portPair, ppg);
                 portChainServiceFunctionList.add(serviceFunction);
 
-                //Write the Service Function to SFC data store.
-                LOG.info("Add Service Function {} for Port Pair {}", serviceFunction, portPair);
-                sfcMdsalHelper.addServiceFunction(serviceFunction);
+                LOG.debug("Add Service Function {} for Port Pair {}", serviceFunction, portPair);
             }
 
             //Build the SFF Builder from port pair group
             ServiceFunctionForwarder serviceFunctionForwarder = PortPairGroupTranslator
                     .buildServiceFunctionForwarder(ppg, portPairList);
-            // Send SFF create request
-            LOG.info("Update Service Function Forwarder with {} for Port Pair Group {}", serviceFunctionForwarder, ppg);
-            sfcMdsalHelper.updateServiceFunctionForwarder(serviceFunctionForwarder);
+            LOG.debug("Update Service Function Forwarder with {} for Port Pair Group {}", serviceFunctionForwarder,
+                    ppg);
+            portChainServiceFunctionForwarderList.add(serviceFunctionForwarder);
         }
 
         //Build Service Function Chain Builder
         ServiceFunctionChain sfc =
                 PortChainTranslator.buildServiceFunctionChain(newPortChain, portChainServiceFunctionList);
 
-        //Write SFC to data store
         if (sfc == null) {
             LOG.warn("Service Function Chain building failed for Port Chain {}", newPortChain);
             return;
         }
-
-        LOG.info("Add service function chain {}", sfc);
-        sfcMdsalHelper.addServiceFunctionChain(sfc);
+        LOG.debug("Add service function chain {}", sfc);
 
         // Build Service Function Path Builder
         ServiceFunctionPath sfp = PortChainTranslator.buildServiceFunctionPath(sfc);
+        LOG.debug("Add service function path {}", sfp);
 
-        // Write SFP to data store
-        LOG.info("Add service function path {}", sfp);
-        sfcMdsalHelper.addServiceFunctionPath(sfp);
+        // Build ACLs from flow classifiers
+        List<Uuid> newFlowClassifiers = newPortChain.getFlowClassifiers();
+        List<Acl> acls = buildAcls(newPortChain,
+                newFlowClassifiers != null ? newFlowClassifiers : Collections.emptyList(), sfp.getName().getValue());
 
-        // The RSP will automatically be created from the SFP added above.
+        // Write all of them to data store at once, the RSP will automatically be created from the SFP
+        if (!sfcMdsalHelper.addPortChain(portChainServiceFunctionList, portChainServiceFunctionForwarderList, sfc,
+                sfp, acls)) {
+            return;
+        }
 
-        // Add ACLs from flow classifiers
-        List<Uuid> newFlowClassifiers = newPortChain.getFlowClassifiers();
-        processFlowClassifiers(newPortChain, newFlowClassifiers != null ? newFlowClassifiers : Collections.emptyList(),
-            sfp.getName().getValue(), true);
+        // Measured up to the config commit only, SFC renders the RSP from the SFP after it
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        chainConfigsCommitted.increment();
+        chainConfigCommitMillis.increment(millis);
+        LOG.info("Port Chain {} committed as service function path {} in {} ms", newPortChain.getUuid().getValue(),
+                sfp.getName().getValue(), millis);
     }
 
-    private void processFlowClassifiers(PortChain pc, @NonNull List<Uuid> flowClassifiers, @Nullable String sfpName,
-            boolean added) {
+    private List<Acl> buildAcls(PortChain pc, @NonNull List<Uuid> flowClassifiers, @Nullable String sfpName) {
+        List<Acl> acls = new ArrayList<>();
         for (Uuid uuid : flowClassifiers) {
             SfcFlowClassifier fc = neutronMdsalHelper.getNeutronFlowClassifier(uuid);
             if (fc != null) {
                 Acl acl = FlowClassifierTranslator.buildAcl(fc, sfpName);
                 if (acl != null) {
-                    if (added) {
-                        sfcMdsalHelper.addAclFlowClassifier(acl);
-                    } else {
-                        sfcMdsalHelper.removeAclFlowClassifier(acl);
-                    }
+                    acls.add(acl);
                 } else {
                     LOG.warn("Acl building failed for flow classifier {}. Traffic might not be redirected to RSP", fc);
                 }
@@ -208,5 +223,6 @@ public class NeutronPortChainListener extends DelegatingDataTreeListener<PortCha
                     + "store", uuid, pc);
             }
         }
+        return acls;
     }
 }
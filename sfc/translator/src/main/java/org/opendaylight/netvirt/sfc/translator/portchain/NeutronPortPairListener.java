@@ -40,6 +40,14 @@ public class NeutronPortPairListener extends DelegatingDataTreeListener<PortPair
         sfcMdsalHelper = new SfcMdsalHelper(db);
     }
 
+    /**
+     * Port pair removals rewrite the logical SFF shared by all the port pairs, so they are processed in a single lane.
+     */
+    @Override
+    protected Object getLaneKey(InstanceIdentifier<PortPair> path) {
+        return SfcMdsalHelper.NETVIRT_LOGICAL_SFF_NAME;
+    }
+
     /**
      * Method removes PortPair which is identified by InstanceIdentifier.
      *
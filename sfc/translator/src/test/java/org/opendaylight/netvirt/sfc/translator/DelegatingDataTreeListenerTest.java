@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.sfc.translator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification.ModificationType;
+import org.opendaylight.controller.md.sal.binding.api.DataTreeIdentifier;
+import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.Uuid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.rev150712.Neutron;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.sfc.rev160511.sfc.attributes.PortPairs;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.sfc.rev160511.sfc.attributes.port.pairs.PortPair;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.neutron.sfc.rev160511.sfc.attributes.port.pairs.PortPairKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class DelegatingDataTreeListenerTest {
+
+    private static final Uuid ITEM1 = new Uuid("d6e10c2b-2f4e-4d5b-9b4a-6b2ef1a4c001");
+    private static final Uuid ITEM2 = new Uuid("d6e10c2b-2f4e-4d5b-9b4a-6b2ef1a4c002");
+
+    private final List<PortPair> processed = Collections.synchronizedList(new ArrayList<>());
+    private volatile Consumer<PortPair> onAdd = portPair -> { };
+    private final TestListener listener = new TestListener(mock(DataBroker.class));
+
+    @After
+    public void tearDown() {
+        listener.close();
+    }
+
+    @Test
+    public void testChangesOfAnItemAreProcessedInOrder() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(100);
+        onAdd = portPair -> done.countDown();
+        List<PortPair> added = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            PortPair portPair = mock(PortPair.class);
+            added.add(portPair);
+            listener.onDataTreeChanged(Collections.singletonList(added(ITEM1, portPair)));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(added, processed);
+    }
+
+    @Test
+    public void testItemOfAnotherLaneIsNotHeldBack() throws InterruptedException {
+        PortPair slowPortPair = mock(PortPair.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        onAdd = portPair -> {
+            if (portPair == slowPortPair) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                otherDone.countDown();
+            }
+        };
+
+        listener.onDataTreeChanged(Collections.singletonList(added(ITEM1, slowPortPair)));
+        listener.onDataTreeChanged(Collections.singletonList(added(ITEM2, mock(PortPair.class))));
+
+        assertTrue(otherDone.await(10, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void testFailedChangeDoesNotStopTheLane() throws InterruptedException {
+        PortPair failingPortPair = mock(PortPair.class);
+        CountDownLatch done = new CountDownLatch(1);
+        onAdd = portPair -> {
+            if (portPair == failingPortPair) {
+                throw new IllegalStateException("expected");
+            }
+            done.countDown();
+        };
+
+        listener.onDataTreeChanged(Collections.singletonList(added(ITEM1, failingPortPair)));
+        listener.onDataTreeChanged(Collections.singletonList(added(ITEM1, mock(PortPair.class))));
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DataTreeModification<PortPair> added(Uuid itemId, PortPair portPair) {
+        InstanceIdentifier<PortPair> path = InstanceIdentifier.create(Neutron.class).child(PortPairs.class)
+                .child(PortPair.class, new PortPairKey(itemId));
+        DataObjectModification<PortPair> mod = mock(DataObjectModification.class);
+        when(mod.getModificationType()).thenReturn(ModificationType.WRITE);
+        when(mod.getDataAfter()).thenReturn(portPair);
+        DataTreeModification<PortPair> change = mock(DataTreeModification.class);
+        when(change.getRootPath()).thenReturn(new DataTreeIdentifier<>(LogicalDatastoreType.CONFIGURATION, path));
+        when(change.getRootNode()).thenReturn(mod);
+        return change;
+    }
+
+    private final class TestListener extends DelegatingDataTreeListener<PortPair> {
+
+        TestListener(DataBroker db) {
+            super(db, new DataTreeIdentifier<>(LogicalDatastoreType.CONFIGURATION,
+                    InstanceIdentifier.create(Neutron.class).child(PortPairs.class).child(PortPair.class)));
+        }
+
+        /**
+         * Puts the two items in two distinct lanes.
+         */
+        @Override
+        protected Object getLaneKey(InstanceIdentifier<PortPair> path) {
+            return ITEM1.equals(path.firstKeyOf(PortPair.class).getUuid()) ? 0 : 1;
+        }
+
+        @Override
+        public void remove(PortPair removed) {
+        }
+
+        @Override
+        public void update(PortPair original, PortPair update) {
+        }
+
+        @Override
+        public void add(PortPair added) {
+            onAdd.accept(added);
+            processed.add(added);
+        }
+    }
+}
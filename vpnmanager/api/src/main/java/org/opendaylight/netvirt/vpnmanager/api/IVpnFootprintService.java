@@ -8,6 +8,7 @@
 
 package org.opendaylight.netvirt.vpnmanager.api;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import java.math.BigInteger;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.eclipse.jdt.annotation.Nullable;
@@ -23,7 +24,8 @@ public interface IVpnFootprintService {
      * @param vpnName Name of the VPN whose footprint is being modified
      * @param interfaceName Name of the VPN interface to be added/removed to/from the specified DPN
      * @param add true for addition, false for removal
+     * @return a future completed once the footprint is committed
      */
-    void updateVpnToDpnMapping(BigInteger dpId, String vpnName, String primaryRd, @Nullable String interfaceName,
+    ListenableFuture<Void> updateVpnToDpnMapping(BigInteger dpId, String vpnName, String primaryRd, @Nullable String interfaceName,
             ImmutablePair<IpAddresses.IpAddressSource, String> ipAddressSourceValuePair, boolean add);
 }
@@ -13,12 +13,22 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -27,13 +37,12 @@ import org.opendaylight.controller.md.sal.binding.api.DataBroker;
 import org.opendaylight.controller.md.sal.binding.api.NotificationPublishService;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
-import org.opendaylight.genius.infra.ManagedNewTransactionRunner;
-import org.opendaylight.genius.infra.ManagedNewTransactionRunnerImpl;
+import org.opendaylight.genius.infra.RetryingManagedNewTransactionRunner;
 import org.opendaylight.genius.interfacemanager.interfaces.IInterfaceManager;
-import org.opendaylight.genius.utils.JvmGlobalLocks;
 import org.opendaylight.netvirt.fibmanager.api.IFibManager;
 import org.opendaylight.netvirt.vpnmanager.api.IVpnFootprintService;
 import org.opendaylight.netvirt.vpnmanager.api.VpnHelper;
+import org.opendaylight.netvirt.vpnmanager.utilities.VpnManagerCounters;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.AddDpnEvent;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.AddDpnEventBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.AddInterfaceToDpnOnVpnEvent;
@@ -67,338 +76,343 @@ import org.slf4j.LoggerFactory;
 public class VpnFootprintService implements IVpnFootprintService {
 
     private static final Logger LOG = LoggerFactory.getLogger(VpnFootprintService.class);
+    private static final int FOOTPRINT_TX_MAX_RETRIES = 3;
+    // Threads completing the footprint commits and committing the changes queued meanwhile
+    private static final int FOOTPRINT_COMMIT_THREADS = Integer.getInteger("vpn.footprint.commit.threads", 4);
 
     private final DataBroker dataBroker;
-    private final ManagedNewTransactionRunner txRunner;
+    private final RetryingManagedNewTransactionRunner txRunner;
     private final IFibManager fibManager;
     private final VpnOpDataSyncer vpnOpDataSyncer;
     private final NotificationPublishService notificationPublishService;
     private final IInterfaceManager interfaceManager;
     private final VpnUtil vpnUtil;
+    private final VpnManagerCounters vpnManagerCounters;
+    // map<(rd, dpn id), footprint of the VPN on the DPN>
+    private final Map<ImmutablePair<String, BigInteger>, DpnFootprint> dpnFootprints = new ConcurrentHashMap<>();
+    private final ExecutorService footprintExecutor = Executors.newFixedThreadPool(FOOTPRINT_COMMIT_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("NV-VpnFootprint-%d").build());
 
     @Inject
     public VpnFootprintService(final DataBroker dataBroker, final IFibManager fibManager,
             final NotificationPublishService notificationPublishService, final VpnOpDataSyncer vpnOpDataSyncer,
-            final IInterfaceManager interfaceManager, VpnUtil vpnUtil) {
+            final IInterfaceManager interfaceManager, VpnUtil vpnUtil, VpnManagerCounters vpnManagerCounters) {
         this.dataBroker = dataBroker;
-        this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
+        this.txRunner = new RetryingManagedNewTransactionRunner(dataBroker, FOOTPRINT_TX_MAX_RETRIES);
         this.fibManager = fibManager;
         this.vpnOpDataSyncer = vpnOpDataSyncer;
         this.notificationPublishService = notificationPublishService;
         this.interfaceManager = interfaceManager;
         this.vpnUtil = vpnUtil;
+        this.vpnManagerCounters = vpnManagerCounters;
+    }
+
+    @PreDestroy
+    public void close() {
+        footprintExecutor.shutdown();
     }
 
     @Override
-    public void updateVpnToDpnMapping(BigInteger dpId, String vpnName, String primaryRd, @Nullable String interfaceName,
+    public ListenableFuture<Void> updateVpnToDpnMapping(BigInteger dpId, String vpnName, String primaryRd,
+            @Nullable String interfaceName,
             @Nullable ImmutablePair<IpAddresses.IpAddressSource, String> ipAddressSourceValuePair, boolean add) {
         long vpnId = vpnUtil.getVpnId(vpnName);
-        if (!dpId.equals(BigInteger.ZERO)) {
-            if (add) {
-                // Considering the possibility of VpnInstanceOpData not being ready yet cause
-                // the VPN is
-                // still in its creation process
-                if (vpnId == VpnConstants.INVALID_ID) {
-                    LOG.error("updateVpnToDpnMapping: Operational data  for vpn not ready. Waiting to update vpn"
-                            + " footprint for vpn {} on dpn {} interface {}", vpnName, dpId, interfaceName);
-                    vpnOpDataSyncer.waitForVpnDataReady(VpnOpDataSyncer.VpnOpDataType.vpnInstanceToId, vpnName,
-                            VpnConstants.PER_VPN_INSTANCE_OPDATA_MAX_WAIT_TIME_IN_MILLISECONDS);
-                    vpnId = vpnUtil.getVpnId(vpnName);
-                }
-                if (interfaceName != null) {
-                    createOrUpdateVpnToDpnListForInterfaceName(vpnId, primaryRd, dpId, interfaceName, vpnName);
-                    publishInterfaceAddedToVpnNotification(interfaceName, dpId, vpnName, vpnId);
-                } else {
-                    createOrUpdateVpnToDpnListForIPAddress(vpnId, primaryRd, dpId, ipAddressSourceValuePair, vpnName);
-                }
-            } else {
-                if (interfaceName != null) {
-                    removeOrUpdateVpnToDpnListForInterfaceName(vpnId, primaryRd, dpId, interfaceName, vpnName);
-                    publishInterfaceRemovedFromVpnNotification(interfaceName, dpId, vpnName, vpnId);
-                } else {
-                    removeOrUpdateVpnToDpnListForIpAddress(vpnId, primaryRd, dpId, ipAddressSourceValuePair, vpnName);
-                }
+        if (dpId.equals(BigInteger.ZERO)) {
+            return Futures.immediateFuture(null);
+        }
+        if (add) {
+            // Considering the possibility of VpnInstanceOpData not being ready yet cause
+            // the VPN is
+            // still in its creation process
+            if (vpnId == VpnConstants.INVALID_ID) {
+                LOG.error("updateVpnToDpnMapping: Operational data  for vpn not ready. Waiting to update vpn"
+                        + " footprint for vpn {} on dpn {} interface {}", vpnName, dpId, interfaceName);
+                // The footprint is added once the wait is over, on the footprint pool rather than on the
+                // VpnOpDataSyncer thread
+                return Futures.transformAsync(
+                    vpnOpDataSyncer.whenVpnDataReady(VpnOpDataSyncer.VpnOpDataType.vpnInstanceToId, vpnName,
+                            VpnConstants.PER_VPN_INSTANCE_OPDATA_MAX_WAIT_TIME_IN_MILLISECONDS,
+                        () -> vpnUtil.getVpnId(vpnName) != VpnConstants.INVALID_ID),
+                    ready -> addToVpnToDpnMapping(dpId, vpnName, vpnUtil.getVpnId(vpnName), primaryRd, interfaceName,
+                            ipAddressSourceValuePair),
+                    footprintExecutor);
             }
+            return addToVpnToDpnMapping(dpId, vpnName, vpnId, primaryRd, interfaceName, ipAddressSourceValuePair);
+        }
+        if (interfaceName != null) {
+            return removeOrUpdateVpnToDpnListForInterfaceName(vpnId, primaryRd, dpId, interfaceName, vpnName);
         }
+        return removeOrUpdateVpnToDpnListForIpAddress(vpnId, primaryRd, dpId, ipAddressSourceValuePair, vpnName);
     }
 
-    private void createOrUpdateVpnToDpnListForInterfaceName(long vpnId, String primaryRd, BigInteger dpnId,
-            String intfName, String vpnName) {
-        AtomicBoolean newDpnOnVpn = new AtomicBoolean(false);
-        /* Starts synchronized block. This ensures only one reader/writer get access to vpn-dpn-list
-         * The future.get ensures that the write to the datastore is complete before leaving the synchronized block.
-         */
-        // FIXME: separate this out somehow?
-        final ReentrantLock lock = JvmGlobalLocks.getLockForString(vpnName);
-        lock.lock();
-        try {
-            ListenableFuture<Void> future = txRunner.callWithNewReadWriteTransactionAndSubmit(tx -> {
-                InstanceIdentifier<VpnToDpnList> id = VpnHelper.getVpnToDpnListIdentifier(primaryRd, dpnId);
-                VpnInterfaces vpnInterface = new VpnInterfacesBuilder().setInterfaceName(intfName).build();
-                Optional<VpnToDpnList> dpnInVpn = tx.read(LogicalDatastoreType.OPERATIONAL, id).checkedGet();
-                if (dpnInVpn.isPresent()) {
-                    VpnToDpnList vpnToDpnList = dpnInVpn.get();
-                    List<VpnInterfaces> vpnInterfaces = vpnToDpnList.getVpnInterfaces();
-                    if (vpnInterfaces == null) {
-                        vpnInterfaces = new ArrayList<>();
-                    }
-                    vpnInterfaces.add(vpnInterface);
-                    VpnToDpnListBuilder vpnToDpnListBuilder = new VpnToDpnListBuilder(vpnToDpnList);
-                    vpnToDpnListBuilder.setDpnState(VpnToDpnList.DpnState.Active).setVpnInterfaces(vpnInterfaces);
-
-                    tx.put(LogicalDatastoreType.OPERATIONAL, id, vpnToDpnListBuilder.build(),
-                        WriteTransaction.CREATE_MISSING_PARENTS);
-                    /*
-                     * If earlier state was inactive, it is considered new DPN coming back to the
-                     * same VPN
-                     */
-                    if (vpnToDpnList.getDpnState() == VpnToDpnList.DpnState.Inactive) {
-                        newDpnOnVpn.set(true);
-                    }
-                    LOG.debug("createOrUpdateVpnToDpnList: Updating vpn footprint for vpn {} vpnId {} interface {}"
-                            + " on dpn {}", vpnName, vpnId, intfName, dpnId);
-                } else {
-                    List<VpnInterfaces> vpnInterfaces = new ArrayList<>();
-                    vpnInterfaces.add(vpnInterface);
-                    VpnToDpnListBuilder vpnToDpnListBuilder = new VpnToDpnListBuilder().setDpnId(dpnId);
-                    vpnToDpnListBuilder.setDpnState(VpnToDpnList.DpnState.Active).setVpnInterfaces(vpnInterfaces);
-
-                    tx.put(LogicalDatastoreType.OPERATIONAL, id, vpnToDpnListBuilder.build(),
-                        WriteTransaction.CREATE_MISSING_PARENTS);
-                    newDpnOnVpn.set(true);
-                    LOG.debug("createOrUpdateVpnToDpnList: Creating vpn footprint for vpn {} vpnId {} interface {}"
-                            + " on dpn {}", vpnName, vpnId, intfName, dpnId);
-                }
-            });
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("createOrUpdateVpnToDpnList: Error adding to dpnToVpnList for vpn {} vpnId {} interface {}"
-                    + " dpn {}", vpnName, vpnId, intfName, dpnId, e);
-            throw new RuntimeException(e.getMessage(), e);
-        } finally {
-            lock.unlock();
-        }
-        LOG.info("createOrUpdateVpnToDpnList: Created/Updated vpn footprint for vpn {} vpnId {} interfacName{}"
-                + " on dpn {}", vpnName, vpnId, intfName, dpnId);
-        /*
-         * Informing the FIB only after writeTxn is submitted successfully.
-         */
-        if (newDpnOnVpn.get()) {
-            if (vpnUtil.isVlan(intfName)) {
-                if (!vpnUtil.shouldPopulateFibForVlan(vpnName, null, dpnId)) {
-                    return;
-                }
-            }
-            fibManager.populateFibOnNewDpn(dpnId, vpnId, primaryRd,
-                    new DpnEnterExitVpnWorker(dpnId, vpnName, primaryRd, true /* entered */));
-            LOG.info("createOrUpdateVpnToDpnList: Sent populateFib event for new dpn {} in VPN {} for interface {}",
-                    dpnId, vpnName, intfName);
+    private ListenableFuture<Void> addToVpnToDpnMapping(BigInteger dpId, String vpnName, long vpnId, String primaryRd,
+            @Nullable String interfaceName,
+            @Nullable ImmutablePair<IpAddresses.IpAddressSource, String> ipAddressSourceValuePair) {
+        if (interfaceName != null) {
+            return createOrUpdateVpnToDpnListForInterfaceName(vpnId, primaryRd, dpId, interfaceName, vpnName);
         }
+        return createOrUpdateVpnToDpnListForIPAddress(vpnId, primaryRd, dpId, ipAddressSourceValuePair, vpnName);
+    }
+
+    private ListenableFuture<Void> createOrUpdateVpnToDpnListForInterfaceName(long vpnId, String primaryRd,
+            BigInteger dpnId, String intfName, String vpnName) {
+        return Futures.transform(
+            updateFootprint(vpnId, vpnName, primaryRd, dpnId, new FootprintChange(true, intfName, null)),
+            result -> {
+                vpnManagerCounters.footprintInterfaceJoined(vpnName);
+                LOG.info("createOrUpdateVpnToDpnList: Created/Updated vpn footprint for vpn {} vpnId {}"
+                        + " interfacName{} on dpn {}", vpnName, vpnId, intfName, dpnId);
+                publishInterfaceAddedToVpnNotification(intfName, dpnId, vpnName, vpnId);
+                return result;
+            }, MoreExecutors.directExecutor());
+    }
+
+    private ListenableFuture<Void> createOrUpdateVpnToDpnListForIPAddress(long vpnId, String primaryRd,
+            BigInteger dpnId, ImmutablePair<IpAddresses.IpAddressSource, String> ipAddressSourceValuePair,
+            String vpnName) {
+        IpAddresses ipAddress = new IpAddressesBuilder()
+                .withKey(new IpAddressesKey(ipAddressSourceValuePair.getValue()))
+                .setIpAddress(ipAddressSourceValuePair.getValue())
+                .setIpAddressSource(ipAddressSourceValuePair.getKey()).build();
+        return updateFootprint(vpnId, vpnName, primaryRd, dpnId, new FootprintChange(true, null, ipAddress));
+    }
+
+    private ListenableFuture<Void> removeOrUpdateVpnToDpnListForInterfaceName(long vpnId, String rd,
+            BigInteger dpnId, String intfName, String vpnName) {
+        return Futures.transform(
+            updateFootprint(vpnId, vpnName, rd, dpnId, new FootprintChange(false, intfName, null)),
+            result -> {
+                LOG.info("removeOrUpdateVpnToDpnList: Updated/Removed vpn footprint for vpn {} vpnId {} interface"
+                        + " {}, on dpn {}", vpnName, vpnId, intfName, dpnId);
+                publishInterfaceRemovedFromVpnNotification(intfName, dpnId, vpnName, vpnId);
+                return result;
+            }, MoreExecutors.directExecutor());
     }
 
-    private void createOrUpdateVpnToDpnListForIPAddress(long vpnId, String primaryRd, BigInteger dpnId,
+    private ListenableFuture<Void> removeOrUpdateVpnToDpnListForIpAddress(long vpnId, String rd, BigInteger dpnId,
             ImmutablePair<IpAddresses.IpAddressSource, String> ipAddressSourceValuePair, String vpnName) {
-        AtomicBoolean newDpnOnVpn = new AtomicBoolean(false);
-        /* Starts synchronized block. This ensures only one reader/writer get access to vpn-dpn-list
-         * The future.get ensures that the write to the datastore is complete before leaving the synchronized block.
-         */
-        // FIXME: separate this out somehow?
-        final ReentrantLock lock = JvmGlobalLocks.getLockForString(vpnName);
-        lock.lock();
-        try {
-            ListenableFuture<Void> future = txRunner.callWithNewReadWriteTransactionAndSubmit(tx -> {
-                InstanceIdentifier<VpnToDpnList> id = VpnHelper.getVpnToDpnListIdentifier(primaryRd, dpnId);
-                IpAddressesBuilder ipAddressesBldr = new IpAddressesBuilder()
-                        .setIpAddressSource(ipAddressSourceValuePair.getKey());
-                ipAddressesBldr.withKey(new IpAddressesKey(ipAddressSourceValuePair.getValue()));
-                ipAddressesBldr.setIpAddress(ipAddressSourceValuePair.getValue());
-                Optional<VpnToDpnList> dpnInVpn = tx.read(LogicalDatastoreType.OPERATIONAL, id).checkedGet();
-                if (dpnInVpn.isPresent()) {
-                    VpnToDpnList vpnToDpnList = dpnInVpn.get();
-                    List<IpAddresses> ipAddresses = vpnToDpnList.getIpAddresses();
-                    if (ipAddresses == null) {
-                        ipAddresses = new ArrayList<>();
-                    }
-                    ipAddresses.add(ipAddressesBldr.build());
-                    VpnToDpnListBuilder vpnToDpnListBuilder = new VpnToDpnListBuilder(vpnToDpnList);
-                    vpnToDpnListBuilder.setDpnState(VpnToDpnList.DpnState.Active).setIpAddresses(ipAddresses);
-
-                    tx.put(LogicalDatastoreType.OPERATIONAL, id, vpnToDpnListBuilder.build(), true);
-                    /*
-                     * If earlier state was inactive, it is considered new DPN coming back to the
-                     * same VPN
-                     */
-                    if (vpnToDpnList.getDpnState() == VpnToDpnList.DpnState.Inactive) {
-                        newDpnOnVpn.set(true);
-                    }
-                } else {
-                    List<IpAddresses> ipAddresses = new ArrayList<>();
-                    ipAddresses.add(ipAddressesBldr.build());
-                    VpnToDpnListBuilder vpnToDpnListBuilder = new VpnToDpnListBuilder().setDpnId(dpnId);
-                    vpnToDpnListBuilder.setDpnState(VpnToDpnList.DpnState.Active).setIpAddresses(ipAddresses);
-                    tx.put(LogicalDatastoreType.OPERATIONAL, id, vpnToDpnListBuilder.build(), true);
-                    newDpnOnVpn.set(true);
-                }
+        IpAddresses ipAddress = new IpAddressesBuilder()
+                .withKey(new IpAddressesKey(ipAddressSourceValuePair.getValue()))
+                .setIpAddressSource(ipAddressSourceValuePair.getKey()).build();
+        return updateFootprint(vpnId, vpnName, rd, dpnId, new FootprintChange(false, null, ipAddress));
+    }
 
-            });
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("createOrUpdateVpnToDpnListForIPAddress: Error adding to dpnToVpnList for vpn {}"
-                    + " ipAddresses {} dpn {}", vpnName, ipAddressSourceValuePair.getValue(), dpnId, e);
-            throw new RuntimeException(e.getMessage(), e); //TODO: Avoid this
-        } finally {
-            lock.unlock();
-        }
-        /*
-         * Informing the Fib only after writeTxn is submitted successfuly.
-         */
-        if (newDpnOnVpn.get()) {
-            LOG.debug("Sending populateFib event for new dpn {} in VPN {}", dpnId, vpnName);
-            fibManager.populateFibOnNewDpn(dpnId, vpnId, primaryRd,
-                    new DpnEnterExitVpnWorker(dpnId, vpnName, primaryRd, true /* entered */));
+    /**
+     * Queues the change on the footprint of the VPN on the DPN. The changes queued while a transaction is in flight
+     * are committed together by the next one, written as deltas of the VpnToDpnList entry. Nothing waits for a
+     * commit: the callback of each transaction commits the changes queued meanwhile, and DPNs of the same VPN do not
+     * wait for each other.
+     *
+     * @return a future completed once the change is committed
+     */
+    private ListenableFuture<Void> updateFootprint(long vpnId, String vpnName, String rd, BigInteger dpnId,
+            FootprintChange change) {
+        ImmutablePair<String, BigInteger> key = new ImmutablePair<>(rd, dpnId);
+        DpnFootprint footprint;
+        QueueResult queueResult;
+        do {
+            footprint = dpnFootprints.computeIfAbsent(key, absentKey -> new DpnFootprint(vpnName, rd, dpnId));
+            queueResult = footprint.queue(change);
+            if (queueResult == QueueResult.RETIRED) {
+                // The footprint was pruned meanwhile, queue on the one replacing it
+                dpnFootprints.remove(key, footprint);
+            }
+        } while (queueResult == QueueResult.RETIRED);
+
+        if (queueResult == QueueResult.COMMIT) {
+            // No transaction in flight: the change is the only one pending
+            commitFootprintChanges(key, footprint, vpnId, footprint.drain());
         }
+        return change.result;
     }
 
-    private void removeOrUpdateVpnToDpnListForInterfaceName(long vpnId, String rd, BigInteger dpnId, String intfName,
-            String vpnName) {
-        AtomicBoolean lastDpnOnVpn = new AtomicBoolean(false);
-        /* Starts synchronized block. This ensures only one reader/writer get access to vpn-dpn-list
-         * The future.get ensures that the write to the datastore is complete before leaving the synchronized block.
-         */
-        // FIXME: separate this out somehow?
-        final ReentrantLock lock = JvmGlobalLocks.getLockForString(vpnName);
-        lock.lock();
+    /**
+     * Drops the footprints of the VPN which are not being committed, once the VPN is gone.
+     */
+    public void removeVpnFootprints(String rd) {
+        dpnFootprints.entrySet().removeIf(entry -> rd.equals(entry.getKey().getLeft()) && entry.getValue().retire());
+    }
+
+    int getDpnFootprintCount() {
+        return dpnFootprints.size();
+    }
+
+    /**
+     * Commits the batch then, from the callback of its transaction, the changes queued meanwhile, until there are
+     * none left.
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void commitFootprintChanges(ImmutablePair<String, BigInteger> key, DpnFootprint footprint, long vpnId,
+            List<FootprintChange> batch) {
+        FootprintTransition transition = new FootprintTransition();
+        ListenableFuture<Void> future;
         try {
-            try {
-                ListenableFuture<Void> future = txRunner.callWithNewReadWriteTransactionAndSubmit(tx -> {
-                    InstanceIdentifier<VpnToDpnList> id = VpnHelper.getVpnToDpnListIdentifier(rd, dpnId);
-                    Optional<VpnToDpnList> dpnInVpnOpt = tx.read(LogicalDatastoreType.OPERATIONAL, id)
-                            .checkedGet();
-                    if (!dpnInVpnOpt.isPresent()) {
-                        LOG.error("removeOrUpdateVpnToDpnList: Could not find DpnToVpn map for VPN=[name={}"
-                                + " rd={} id={}] and dpnId={}", vpnName, rd, id, dpnId);
-                        return;
-                    }
-                    VpnToDpnList dpnInVpn = dpnInVpnOpt.get();
-                    List<VpnInterfaces> vpnInterfaces = dpnInVpn.getVpnInterfaces();
-                    if (vpnInterfaces == null) {
-                        LOG.error("Could not find vpnInterfaces for DpnInVpn map for VPN=[name={} rd={} id={}] and "
-                                + "dpnId={}", vpnName, rd, id, dpnId);
-                        return;
-                    }
-                    VpnInterfaces currVpnInterface = new VpnInterfacesBuilder().setInterfaceName(intfName).build();
-                    if (vpnInterfaces.remove(currVpnInterface)) {
-                        if (vpnInterfaces.isEmpty()) {
-                            List<IpAddresses> ipAddresses = dpnInVpn.getIpAddresses();
-                            VpnToDpnListBuilder dpnInVpnBuilder =
-                                    new VpnToDpnListBuilder(dpnInVpn).setVpnInterfaces(null);
-                            if (ipAddresses == null || ipAddresses.isEmpty()) {
-                                dpnInVpnBuilder.setDpnState(VpnToDpnList.DpnState.Inactive);
-                                lastDpnOnVpn.set(true);
-                            } else {
-                                LOG.error("removeOrUpdateVpnToDpnList: vpn interfaces are empty but ip addresses"
-                                        + " are present for the vpn {} in dpn {} interface {}", vpnName, dpnId,
-                                        intfName);
-                            }
-                            LOG.debug("removeOrUpdateVpnToDpnList: Removing vpn footprint for vpn {} vpnId {} "
-                                    + "interface {}, on dpn {}", vpnName, vpnName, intfName, dpnId);
-                            tx.put(LogicalDatastoreType.OPERATIONAL, id, dpnInVpnBuilder.build(),
-                                    WriteTransaction.CREATE_MISSING_PARENTS);
-
-                        } else {
-                            tx.delete(LogicalDatastoreType.OPERATIONAL,
-                                    id.child(VpnInterfaces.class, new VpnInterfacesKey(intfName)));
-                            LOG.debug("removeOrUpdateVpnToDpnList: Updating vpn footprint for vpn {} vpnId {} "
-                                    + "interface {}, on dpn {}", vpnName, vpnName, intfName, dpnId);
-                        }
-                    }
-                });
-                future.get();
-            } catch (InterruptedException | ExecutionException e) {
-                LOG.error("removeOrUpdateVpnToDpnList: Error removing from dpnToVpnList for vpn {} vpnId {}"
-                        + " interface {} dpn {}", vpnName, vpnId, intfName, dpnId, e);
-                throw new RuntimeException(e.getMessage(), e);
+            future = writeFootprintChanges(footprint, batch, transition);
+        } catch (RuntimeException e) {
+            future = Futures.immediateFailedFuture(e);
+        }
+        Futures.addCallback(future, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                vpnManagerCounters.footprintTransaction(batch.size());
+                footprint.setEmpty(transition.empty);
+                LOG.debug("commitFootprintChanges: Committed {} footprint changes for vpn {} rd {} on dpn {}",
+                        batch.size(), footprint.vpnName, footprint.rd, footprint.dpnId);
+                Throwable fibFailure = null;
+                try {
+                    informFib(footprint, vpnId, transition);
+                } catch (RuntimeException e) {
+                    LOG.error("commitFootprintChanges: Failed to inform the FIB of the footprint of vpn {} rd {} on"
+                            + " dpn {}", footprint.vpnName, footprint.rd, footprint.dpnId, e);
+                    fibFailure = e;
+                }
+                complete(fibFailure);
             }
-            // Ends synchronized block
-            LOG.info("removeOrUpdateVpnToDpnList: Updated/Removed vpn footprint for vpn {} vpnId {} interface {},"
-                    + " on dpn {}", vpnName, vpnName, intfName, dpnId);
-
-            if (lastDpnOnVpn.get()) {
-                fibManager.cleanUpDpnForVpn(dpnId, vpnId, rd,
-                        new DpnEnterExitVpnWorker(dpnId, vpnName, rd, false /* exited */));
-                LOG.info("removeOrUpdateVpnToDpnList: Sent cleanup event for dpn {} in VPN {} vpnId {} interface {}",
-                        dpnId, vpnName, vpnId, intfName);
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                vpnManagerCounters.footprintTransactionFailed();
+                LOG.error("commitFootprintChanges: Error updating dpnToVpnList for vpn {} rd {} on dpn {}",
+                        footprint.vpnName, footprint.rd, footprint.dpnId, throwable);
+                complete(throwable);
             }
-        } finally {
-            lock.unlock();
-        }
-    }
 
-    private void removeOrUpdateVpnToDpnListForIpAddress(long vpnId, String rd, BigInteger dpnId,
-            ImmutablePair<IpAddresses.IpAddressSource, String> ipAddressSourceValuePair, String vpnName) {
-        AtomicBoolean lastDpnOnVpn = new AtomicBoolean(false);
-        /* Starts synchronized block. This ensures only one reader/writer get access to vpn-dpn-list
-         * The future.get ensures that the write to the datastore is complete before leaving the synchronized block.
-         */
-        // FIXME: separate this out somehow?
-        final ReentrantLock lock = JvmGlobalLocks.getLockForString(vpnName);
-        lock.lock();
-        try {
-            ListenableFuture<Void> future = txRunner.callWithNewReadWriteTransactionAndSubmit(tx -> {
-                InstanceIdentifier<VpnToDpnList> id = VpnHelper.getVpnToDpnListIdentifier(rd, dpnId);
-
-                Optional<VpnToDpnList> dpnInVpnOpt = tx.read(LogicalDatastoreType.OPERATIONAL, id)
-                        .checkedGet();
-                if (!dpnInVpnOpt.isPresent()) {
-                    LOG.error("removeOrUpdateVpnToDpnList: Could not find DpnToVpn map for VPN=[name={} "
-                            + "rd={} id={}] and dpnId={}", vpnName, rd, id, dpnId);
-                    return;
+            private void complete(@Nullable Throwable failure) {
+                // The next batch is taken before the callers of this one are released, so that the footprint is
+                // already dropped once they see the VPN gone from the DPN
+                List<FootprintChange> nextBatch = footprint.drain();
+                if (nextBatch == null && footprint.retireIfUnused()) {
+                    dpnFootprints.remove(key, footprint);
+                }
+                if (failure == null) {
+                    batch.forEach(change -> change.result.set(null));
+                } else {
+                    batch.forEach(change -> change.result.setException(failure));
                 }
-                VpnToDpnList dpnInVpn = dpnInVpnOpt.get();
-                List<IpAddresses> ipAddresses = dpnInVpn.getIpAddresses();
-                if (ipAddresses == null) {
-                    LOG.info("Could not find ipAddresses for DpnInVpn map for VPN=[name={} rd={} id={}] "
-                            + "and dpnId={}", vpnName, rd, id, dpnId);
-                    return;
+                if (nextBatch != null) {
+                    commitFootprintChanges(key, footprint, vpnId, nextBatch);
                 }
+            }
+        }, footprintExecutor);
+    }
 
-                IpAddresses currIpAddress = new IpAddressesBuilder()
-                        .withKey(new IpAddressesKey(ipAddressSourceValuePair.getValue()))
-                        .setIpAddressSource(ipAddressSourceValuePair.getKey()).build();
-                if (ipAddresses.remove(currIpAddress)) {
-                    if (ipAddresses.isEmpty()) {
-                        List<VpnInterfaces> vpnInterfaces = dpnInVpn.getVpnInterfaces();
-                        VpnToDpnListBuilder dpnInVpnBuilder =
-                                new VpnToDpnListBuilder(dpnInVpn).setIpAddresses(null);
-                        if (vpnInterfaces == null || vpnInterfaces.isEmpty()) {
-                            dpnInVpnBuilder.setDpnState(VpnToDpnList.DpnState.Inactive);
-                            lastDpnOnVpn.set(true);
-                        } else {
-                            LOG.warn("ip addresses are empty but vpn interfaces are present for the vpn {} in "
-                                    + "dpn {}", vpnName, dpnId);
-                        }
-                        tx.put(LogicalDatastoreType.OPERATIONAL, id, dpnInVpnBuilder.build(), true);
-
+    private ListenableFuture<Void> writeFootprintChanges(DpnFootprint footprint, List<FootprintChange> batch,
+            FootprintTransition transition) {
+        return txRunner.callWithNewReadWriteTransactionAndSubmit(tx -> {
+            transition.reset();
+            InstanceIdentifier<VpnToDpnList> id = VpnHelper.getVpnToDpnListIdentifier(footprint.rd, footprint.dpnId);
+            Optional<VpnToDpnList> dpnInVpn = tx.read(LogicalDatastoreType.OPERATIONAL, id).checkedGet();
+            Set<String> initialInterfaces = new HashSet<>();
+            Map<IpAddressesKey, IpAddresses> initialIpAddresses = new HashMap<>();
+            boolean wasActive = false;
+            if (dpnInVpn.isPresent()) {
+                if (dpnInVpn.get().getVpnInterfaces() != null) {
+                    dpnInVpn.get().getVpnInterfaces().forEach(intf -> initialInterfaces.add(intf.getInterfaceName()));
+                }
+                if (dpnInVpn.get().getIpAddresses() != null) {
+                    dpnInVpn.get().getIpAddresses().forEach(ip -> initialIpAddresses.put(ip.key(), ip));
+                }
+                wasActive = dpnInVpn.get().getDpnState() != VpnToDpnList.DpnState.Inactive;
+            }
+            Set<String> interfaces = new LinkedHashSet<>(initialInterfaces);
+            Map<IpAddressesKey, IpAddresses> ipAddresses = new LinkedHashMap<>(initialIpAddresses);
+            boolean added = false;
+            boolean removed = false;
+            for (FootprintChange change : batch) {
+                if (change.add) {
+                    if (!added && !wasActive) {
+                        // The first join brings the DPN into the VPN
+                        transition.enteringInterface = change.interfaceName;
+                    }
+                    added = true;
+                    if (change.interfaceName != null) {
+                        interfaces.add(change.interfaceName);
                     } else {
-                        tx.delete(LogicalDatastoreType.OPERATIONAL, id.child(IpAddresses.class,
-                            new IpAddressesKey(ipAddressSourceValuePair.getValue())));
+                        ipAddresses.put(change.ipAddress.key(), change.ipAddress);
+                    }
+                } else if (!dpnInVpn.isPresent() && !added) {
+                    LOG.error("commitFootprintChanges: Could not find DpnToVpn map for VPN=[name={} rd={} id={}] and"
+                            + " dpnId={}", footprint.vpnName, footprint.rd, id, footprint.dpnId);
+                } else if (change.interfaceName != null ? interfaces.remove(change.interfaceName)
+                        : ipAddresses.remove(change.ipAddress.key()) != null) {
+                    removed = true;
+                    if (change.interfaceName != null ? interfaces.isEmpty() && !ipAddresses.isEmpty()
+                            : ipAddresses.isEmpty() && !interfaces.isEmpty()) {
+                        LOG.warn("commitFootprintChanges: vpn interfaces or ip addresses are empty but not both for"
+                                + " the vpn {} in dpn {}", footprint.vpnName, footprint.dpnId);
                     }
                 }
+            }
+            boolean empty = interfaces.isEmpty() && ipAddresses.isEmpty();
+            transition.empty = empty;
+            boolean active = empty ? !removed && wasActive : added || wasActive;
+            if (!dpnInVpn.isPresent()) {
+                if (!empty) {
+                    tx.put(LogicalDatastoreType.OPERATIONAL, id, new VpnToDpnListBuilder().setDpnId(footprint.dpnId)
+                            .setDpnState(VpnToDpnList.DpnState.Active)
+                            .setVpnInterfaces(interfaces.isEmpty() ? null : interfaces.stream().map(intfName ->
+                                    new VpnInterfacesBuilder().setInterfaceName(intfName).build())
+                                    .collect(Collectors.toList()))
+                            .setIpAddresses(ipAddresses.isEmpty() ? null : new ArrayList<>(ipAddresses.values()))
+                            .build(),
+                            WriteTransaction.CREATE_MISSING_PARENTS);
+                    transition.entered = true;
+                }
+                return;
+            }
+            for (String intfName : interfaces) {
+                if (!initialInterfaces.contains(intfName)) {
+                    tx.merge(LogicalDatastoreType.OPERATIONAL,
+                            id.child(VpnInterfaces.class, new VpnInterfacesKey(intfName)),
+                            new VpnInterfacesBuilder().setInterfaceName(intfName).build(), true);
+                }
+            }
+            for (String intfName : initialInterfaces) {
+                if (!interfaces.contains(intfName)) {
+                    tx.delete(LogicalDatastoreType.OPERATIONAL,
+                            id.child(VpnInterfaces.class, new VpnInterfacesKey(intfName)));
+                }
+            }
+            for (IpAddresses ipAddress : ipAddresses.values()) {
+                if (!ipAddress.equals(initialIpAddresses.get(ipAddress.key()))) {
+                    tx.merge(LogicalDatastoreType.OPERATIONAL, id.child(IpAddresses.class, ipAddress.key()),
+                            ipAddress, true);
+                }
+            }
+            for (IpAddressesKey ipAddressKey : initialIpAddresses.keySet()) {
+                if (!ipAddresses.containsKey(ipAddressKey)) {
+                    tx.delete(LogicalDatastoreType.OPERATIONAL, id.child(IpAddresses.class, ipAddressKey));
+                }
+            }
+            if (active != wasActive || (added && dpnInVpn.get().getDpnState() == null)) {
+                tx.merge(LogicalDatastoreType.OPERATIONAL, id, new VpnToDpnListBuilder().setDpnId(footprint.dpnId)
+                        .setDpnState(active ? VpnToDpnList.DpnState.Active : VpnToDpnList.DpnState.Inactive).build(),
+                        true);
+                transition.entered = active && !wasActive;
+                transition.exited = !active && wasActive;
+            }
+        });
+    }
 
-            });
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("Error removing from dpnToVpnList for vpn {} Ipaddress {} dpn {}", vpnName,
-                ipAddressSourceValuePair.getValue(), dpnId, e);
-            throw new RuntimeException(e.getMessage(), e); //TODO: Avoid this
-        } finally {
-            lock.unlock();
-        }
-
-        if (lastDpnOnVpn.get()) {
-            LOG.debug("Sending cleanup event for dpn {} in VPN {}", dpnId, vpnName);
-            fibManager.cleanUpDpnForVpn(dpnId, vpnId, rd,
-                    new DpnEnterExitVpnWorker(dpnId, vpnName, rd, false /* exited */));
+    /*
+     * Informing the FIB only after writeTxn is submitted successfully, once per state change of the DPN.
+     */
+    private void informFib(DpnFootprint footprint, long vpnId, FootprintTransition transition) {
+        if (transition.entered) {
+            String intfName = transition.enteringInterface;
+            if (intfName != null && vpnUtil.isVlan(intfName)
+                    && !vpnUtil.shouldPopulateFibForVlan(footprint.vpnName, null, footprint.dpnId)) {
+                return;
+            }
+            fibManager.populateFibOnNewDpn(footprint.dpnId, vpnId, footprint.rd,
+                    new DpnEnterExitVpnWorker(footprint.dpnId, footprint.vpnName, footprint.rd, true /* entered */));
+            LOG.info("informFib: Sent populateFib event for new dpn {} in VPN {} for interface {}", footprint.dpnId,
+                    footprint.vpnName, intfName);
+        } else if (transition.exited) {
+            fibManager.cleanUpDpnForVpn(footprint.dpnId, vpnId, footprint.rd,
+                    new DpnEnterExitVpnWorker(footprint.dpnId, footprint.vpnName, footprint.rd, false /* exited */));
+            LOG.info("informFib: Sent cleanup event for dpn {} in VPN {} vpnId {}", footprint.dpnId,
+                    footprint.vpnName, vpnId);
         }
     }
 
@@ -543,4 +557,127 @@ public class VpnFootprintService implements IVpnFootprintService {
     boolean isVpnFootPrintCleared(VpnInstanceOpDataEntry vpnInstanceOpData) {
         return vpnInstanceOpData.getVpnToDpnList() == null || vpnInstanceOpData.getVpnToDpnList().isEmpty();
     }
+
+    /**
+     * The footprint of a VPN on one DPN, i.e. one VpnToDpnList entry, with the changes waiting for a commit.
+     */
+    private static final class DpnFootprint {
+        private final String vpnName;
+        private final String rd;
+        private final BigInteger dpnId;
+        // Guarded by this
+        private List<FootprintChange> pendingChanges = new ArrayList<>();
+        // Whether a transaction is committing changes of the footprint, guarded by this
+        private boolean committing;
+        // Whether the VpnToDpnList entry was left without interfaces nor IP addresses by the last commit, guarded by
+        // this
+        private boolean empty;
+        // Whether the footprint was dropped from the footprints, guarded by this
+        private boolean retired;
+
+        DpnFootprint(String vpnName, String rd, BigInteger dpnId) {
+            this.vpnName = vpnName;
+            this.rd = rd;
+            this.dpnId = dpnId;
+        }
+
+        /**
+         * Queues the change.
+         *
+         * @return COMMIT if the caller must commit the pending changes
+         */
+        synchronized QueueResult queue(FootprintChange change) {
+            if (retired) {
+                return QueueResult.RETIRED;
+            }
+            pendingChanges.add(change);
+            if (committing) {
+                return QueueResult.QUEUED;
+            }
+            committing = true;
+            return QueueResult.COMMIT;
+        }
+
+        /**
+         * Takes the pending changes.
+         *
+         * @return the changes, or null once there are none left, in which case the footprint is done committing
+         */
+        @Nullable
+        synchronized List<FootprintChange> drain() {
+            if (pendingChanges.isEmpty()) {
+                committing = false;
+                return null;
+            }
+            List<FootprintChange> batch = pendingChanges;
+            pendingChanges = new ArrayList<>();
+            return batch;
+        }
+
+        synchronized void setEmpty(boolean empty) {
+            this.empty = empty;
+        }
+
+        /**
+         * Retires the footprint if the VPN left the DPN and no change is pending.
+         *
+         * @return true if the footprint is retired and must be dropped
+         */
+        synchronized boolean retireIfUnused() {
+            return empty && retire();
+        }
+
+        /**
+         * Retires the footprint unless changes are being committed, later changes going to a new footprint.
+         *
+         * @return true if the footprint is retired and must be dropped
+         */
+        synchronized boolean retire() {
+            if (!committing && pendingChanges.isEmpty()) {
+                retired = true;
+            }
+            return retired;
+        }
+    }
+
+    private enum QueueResult {
+        // The caller must commit the pending changes
+        COMMIT,
+        // The change is committed once the transaction in flight completes
+        QUEUED,
+        // The footprint was dropped, the change must be queued on a new one
+        RETIRED
+    }
+
+    private static final class FootprintChange {
+        private final boolean add;
+        @Nullable
+        private final String interfaceName;
+        @Nullable
+        private final IpAddresses ipAddress;
+        private final SettableFuture<Void> result = SettableFuture.create();
+
+        FootprintChange(boolean add, @Nullable String interfaceName, @Nullable IpAddresses ipAddress) {
+            this.add = add;
+            this.interfaceName = interfaceName;
+            this.ipAddress = ipAddress;
+        }
+    }
+
+    private static final class FootprintTransition {
+        private boolean entered;
+        private boolean exited;
+        // Whether the VpnToDpnList entry is left without interfaces nor IP addresses
+        private boolean empty;
+        // The interface whose join brought the DPN into the VPN, null for an IP address
+        @Nullable
+        private String enteringInterface;
+
+        void reset() {
+            entered = false;
+            exited = false;
+            empty = false;
+            enteringInterface = null;
+        }
+    }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.vpnmanager;
+
+import com.google.common.base.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
+import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.genius.mdsalutil.cache.DataObjectCache;
+import org.opendaylight.infrautils.caches.CacheProvider;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
+import org.opendaylight.yang.gen.v1.urn.huawei.params.xml.ns.yang.l3vpn.rev140815.VpnInstances;
+import org.opendaylight.yang.gen.v1.urn.huawei.params.xml.ns.yang.l3vpn.rev140815.vpn.instances.VpnInstance;
+import org.opendaylight.yang.gen.v1.urn.huawei.params.xml.ns.yang.l3vpn.rev140815.vpn.instances.VpnInstanceKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.VpnInstanceOpData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.VpnInstanceToVpnId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.op.data.VpnInstanceOpDataEntry;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory index of the VPN identities: vpn name, vpn id, rd, configured VpnInstance and VpnInstanceOpDataEntry.
+ * The index is fed by the data tree change listeners of {@link DataObjectCache}s, so lookups do not read the
+ * datastore: an object written or updated is indexed, an object deleted is dropped, as their changes are notified.
+ * A lookup missing from the index, e.g. for a VPN whose creation is not notified yet, reads the datastore, so that
+ * the creator of a VPN sees it.
+ *
+ * <p>The deleter of a VPN drops it with {@link #invalidate(String)} once the deletion is committed, before its vpn id
+ * is released, so that neither its name, its id nor its rd resolve to it anymore.
+ *
+ * <p>Hits, misses and stale misses, i.e. misses of objects present in the datastore, are counted.
+ */
+@Singleton
+public class VpnIdentityCache {
+    private static final Logger LOG = LoggerFactory.getLogger(VpnIdentityCache.class);
+
+    // The indexes are initialized before the caches, as changes are notified as soon as a cache is created
+    private final Map<String, VpnInstance> vpnInstances = new ConcurrentHashMap<>();
+    private final Map<String, org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to
+            .vpn.id.VpnInstance> vpnInstancesToVpnId = new ConcurrentHashMap<>();
+    // map<vpn id, vpn name>
+    private final Map<Long, String> vpnNames = new ConcurrentHashMap<>();
+    // map<rd, vpn instance op data>
+    private final Map<String, VpnInstanceOpDataEntry> vpnInstanceOpData = new ConcurrentHashMap<>();
+    private final DataBroker dataBroker;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleMisses;
+    private final IndexedCache<VpnInstance> vpnInstanceCache;
+    private final IndexedCache<org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to
+            .vpn.id.VpnInstance> vpnInstanceToVpnIdCache;
+    private final IndexedCache<VpnInstanceOpDataEntry> vpnInstanceOpDataCache;
+
+    @Inject
+    public VpnIdentityCache(DataBroker dataBroker, CacheProvider cacheProvider, MetricProvider metricProvider) {
+        this.dataBroker = dataBroker;
+        this.hits = counter(metricProvider, "vpn_identity_cache_hits");
+        this.misses = counter(metricProvider, "vpn_identity_cache_misses");
+        this.staleMisses = counter(metricProvider, "vpn_identity_cache_stale_misses");
+        this.vpnInstanceCache = new IndexedCache<>(VpnInstance.class, dataBroker, LogicalDatastoreType.CONFIGURATION,
+            InstanceIdentifier.create(VpnInstances.class).child(VpnInstance.class), cacheProvider,
+            (iid, vpnInstance) -> vpnInstance.getVpnInstanceName(),
+            vpnName -> InstanceIdentifier.create(VpnInstances.class).child(VpnInstance.class,
+                new VpnInstanceKey(vpnName)), vpnInstances);
+        this.vpnInstanceToVpnIdCache = new IndexedCache<org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn
+                .rev130911.vpn.instance.to.vpn.id.VpnInstance>(org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt
+                .l3vpn.rev130911.vpn.instance.to.vpn.id.VpnInstance.class, dataBroker,
+            LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(VpnInstanceToVpnId.class).child(
+                org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to.vpn.id
+                    .VpnInstance.class), cacheProvider,
+            (iid, vpnInstance) -> vpnInstance.getVpnInstanceName(), VpnOperDsUtils::getVpnInstanceToVpnIdIdentifier,
+            vpnInstancesToVpnId) {
+            @Override
+            protected void added(String vpnName, org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn
+                    .rev130911.vpn.instance.to.vpn.id.VpnInstance vpnInstance) {
+                super.added(vpnName, vpnInstance);
+                if (vpnInstance.getVpnId() != null) {
+                    vpnNames.put(vpnInstance.getVpnId(), vpnName);
+                }
+            }
+
+            @Override
+            protected void removed(String vpnName, org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn
+                    .rev130911.vpn.instance.to.vpn.id.VpnInstance vpnInstance) {
+                super.removed(vpnName, vpnInstance);
+                if (vpnInstance.getVpnId() != null) {
+                    vpnNames.remove(vpnInstance.getVpnId(), vpnName);
+                }
+            }
+        };
+        this.vpnInstanceOpDataCache = new IndexedCache<>(VpnInstanceOpDataEntry.class, dataBroker,
+            LogicalDatastoreType.OPERATIONAL,
+            InstanceIdentifier.create(VpnInstanceOpData.class).child(VpnInstanceOpDataEntry.class), cacheProvider,
+            (iid, vpnInstanceOpDataEntry) -> vpnInstanceOpDataEntry.getVrfId(),
+            VpnUtil::getVpnInstanceOpDataIdentifier, vpnInstanceOpData);
+    }
+
+    private Counter counter(MetricProvider metricProvider, String id) {
+        return metricProvider.newCounter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("vpnmanager").id(id).build());
+    }
+
+    @PreDestroy
+    public void close() {
+        vpnInstanceCache.close();
+        vpnInstanceToVpnIdCache.close();
+        vpnInstanceOpDataCache.close();
+    }
+
+    @Nullable
+    public VpnInstance getVpnInstance(String vpnName) {
+        return vpnInstanceCache.lookup(vpnName);
+    }
+
+    /**
+     * Looks up the dataplane identifier of the VPN.
+     *
+     * @return the vpn id, or {@link VpnConstants#INVALID_ID} if the VPN is unknown
+     */
+    public long getVpnId(String vpnName) {
+        org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to.vpn.id.VpnInstance
+            vpnInstance = vpnInstanceToVpnIdCache.lookup(vpnName);
+        return vpnInstance != null && vpnInstance.getVpnId() != null ? vpnInstance.getVpnId()
+                : VpnConstants.INVALID_ID;
+    }
+
+    /**
+     * Looks up the route distinguisher of the VPN, i.e. its vrf id.
+     *
+     * @return the rd, or null if the VPN is unknown
+     */
+    @Nullable
+    public String getVpnRd(String vpnName) {
+        org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to.vpn.id.VpnInstance
+            vpnInstance = vpnInstanceToVpnIdCache.lookup(vpnName);
+        return vpnInstance != null ? vpnInstance.getVrfId() : null;
+    }
+
+    @Nullable
+    public VpnInstanceOpDataEntry getVpnInstanceOpData(String rd) {
+        return vpnInstanceOpDataCache.lookup(rd);
+    }
+
+    /**
+     * Looks up the name of the VPN with the given id in the index only.
+     *
+     * @return the vpn name, or null if the VPN is not indexed
+     */
+    @Nullable
+    public String getVpnName(long vpnId) {
+        String vpnName = vpnNames.get(vpnId);
+        if (vpnName != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return vpnName;
+    }
+
+    /**
+     * Drops a deleted VPN from the indexes, without waiting for the notification of its deletion.
+     */
+    public void invalidate(String vpnName) {
+        vpnInstances.remove(vpnName);
+        org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to.vpn.id.VpnInstance
+            vpnInstance = vpnInstancesToVpnId.remove(vpnName);
+        if (vpnInstance != null) {
+            if (vpnInstance.getVpnId() != null) {
+                vpnNames.remove(vpnInstance.getVpnId(), vpnName);
+            }
+            if (vpnInstance.getVrfId() != null) {
+                vpnInstanceOpData.remove(vpnInstance.getVrfId());
+            }
+        }
+    }
+
+    private class IndexedCache<V extends DataObject> extends DataObjectCache<String, V> {
+        private final LogicalDatastoreType datastoreType;
+        private final Function<String, InstanceIdentifier<V>> instanceIdFunction;
+        private final Map<String, V> index;
+
+        IndexedCache(Class<V> dataObjectClass, DataBroker dataBroker, LogicalDatastoreType datastoreType,
+                InstanceIdentifier<V> listenerRegistrationPath, CacheProvider cacheProvider,
+                BiFunction<InstanceIdentifier<V>, V, String> keyFunction,
+                Function<String, InstanceIdentifier<V>> instanceIdFunction, Map<String, V> index) {
+            super(dataObjectClass, dataBroker, datastoreType, listenerRegistrationPath, cacheProvider, keyFunction,
+                    instanceIdFunction);
+            this.datastoreType = datastoreType;
+            this.instanceIdFunction = instanceIdFunction;
+            this.index = index;
+        }
+
+        // Notified for the objects written and updated
+        @Override
+        protected void added(String key, V dataObject) {
+            index.put(key, dataObject);
+        }
+
+        @Override
+        protected void removed(String key, V dataObject) {
+            index.remove(key);
+        }
+
+        /**
+         * Looks the object up in the index, or in the datastore if it is not indexed. The datastore is read rather
+         * than the read-through cache, which may still hold an object dropped by {@link #invalidate(String)}.
+         */
+        @Nullable
+        V lookup(String key) {
+            V dataObject = index.get(key);
+            if (dataObject != null) {
+                hits.increment();
+                return dataObject;
+            }
+            misses.increment();
+            Optional<V> optionalDataObject;
+            try {
+                optionalDataObject = SingleTransactionDataBroker.syncReadOptional(dataBroker, datastoreType,
+                        instanceIdFunction.apply(key));
+            } catch (ReadFailedException e) {
+                LOG.error("lookup : failed to read {} from the datastore", key, e);
+                return null;
+            }
+            if (!optionalDataObject.isPresent()) {
+                return null;
+            }
+            staleMisses.increment();
+            LOG.debug("lookup : {} read from the datastore before its change notification", key);
+            return optionalDataObject.get();
+        }
+    }
+}
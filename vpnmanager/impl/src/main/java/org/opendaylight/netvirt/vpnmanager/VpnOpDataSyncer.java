@@ -8,18 +8,28 @@
 package org.opendaylight.netvirt.vpnmanager;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.opendaylight.infrautils.metrics.Counter;
+import org.opendaylight.infrautils.metrics.MetricDescriptor;
+import org.opendaylight.infrautils.metrics.MetricProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +37,9 @@ import org.slf4j.LoggerFactory;
  * Aims to provide a common synchronization point for all those classes that
  * want to know when certain type of Operational data is ready for a given VPN,
  * and those others that can notify that the Operational data is ready.
+ *
+ * <p>Waiters get a future completed when the data is reported ready, so they can chain their continuation instead
+ * of parking a thread. The number of parked waiters and their wait time are reported through the metrics.
  */
 @Singleton
 public class VpnOpDataSyncer {
@@ -38,9 +51,9 @@ public class VpnOpDataSyncer {
         vpnOpData,
     }
 
-    // Maps VpnOpDataType to a Map of VpnName to a list of tasks to be executed once the the Vpn is fully ready.
-    private final Map<VpnOpDataType, ConcurrentMap<String, List<Runnable>>> mapOfMaps =
-        ImmutableMap.<VpnOpDataType, ConcurrentMap<String, List<Runnable>>>builder()
+    // Maps VpnOpDataType to a Map of VpnName to the readiness awaited by the waiters of the Vpn.
+    private final Map<VpnOpDataType, ConcurrentMap<String, Readiness>> mapOfMaps =
+        ImmutableMap.<VpnOpDataType, ConcurrentMap<String, Readiness>>builder()
             .put(VpnOpDataType.vpnInstanceToId, new ConcurrentHashMap<>())
             .put(VpnOpDataType.vpnOpData, new ConcurrentHashMap<>())
             .build();
@@ -48,8 +61,36 @@ public class VpnOpDataSyncer {
 
     private static final ThreadFactory THREAD_FACTORY =
         new ThreadFactoryBuilder().setNameFormat("NV-VpnMgr-%d").build();
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor(THREAD_FACTORY);
+    // Completes the waits, so that no continuation runs on the thread reporting the data ready
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+
+    private final AtomicInteger parkedWaiters = new AtomicInteger();
+    private final Counter parkedWaitersCounter;
+    private final Counter readyWaitsCounter;
+    private final Counter timedOutWaitsCounter;
+    private final Counter waitMillisCounter;
+
+    @Inject
+    public VpnOpDataSyncer(MetricProvider metricProvider) {
+        this.parkedWaitersCounter = counter(metricProvider, "vpn_opdata_parked_waiters");
+        this.readyWaitsCounter = counter(metricProvider, "vpn_opdata_waits_ready");
+        this.timedOutWaitsCounter = counter(metricProvider, "vpn_opdata_waits_timed_out");
+        this.waitMillisCounter = counter(metricProvider, "vpn_opdata_wait_millis_total");
+    }
+
+    private Counter counter(MetricProvider metricProvider, String id) {
+        return metricProvider.newCounter(
+                MetricDescriptor.builder().anchor(this).project("netvirt").module("vpnmanager").id(id).build());
+    }
+
+    @PreDestroy
+    public void close() {
+        executorService.shutdownNow();
+    }
 
+    public int getParkedWaiters() {
+        return parkedWaiters.get();
+    }
 
     public boolean waitForVpnDataReady(VpnOpDataType vpnOpDataType, String vpnName, long maxWaitMillis,
                                        int maxAttempts) {
@@ -64,73 +105,96 @@ public class VpnOpDataSyncer {
         return isDataReady;
     }
 
-    // "Unconditional wait" and "Wait not in loop" wrt the VpnNotifyTask below - suppressing the FB violation -
-    // see comments below.
-    @SuppressFBWarnings({"UW_UNCOND_WAIT", "WA_NOT_IN_LOOP"})
     public boolean waitForVpnDataReady(VpnOpDataType dataType, String vpnName, long maxWaitMillis) {
-        //TODO(vivek) This waiting business to be removed in carbon
-        boolean dataReady = false;
-        ConcurrentMap<String, List<Runnable>> listenerMap = mapOfMaps.get(dataType);
-        Runnable notifyTask = new VpnNotifyTask();
+        return waitForVpnDataReady(dataType, vpnName, maxWaitMillis, () -> false);
+    }
+
+    /**
+     * Blocks until the data is reported ready, see {@link #whenVpnDataReady}. Prefer chaining on the future in jobs.
+     *
+     * @return true if the data is ready, false after maxWaitMillis
+     */
+    public boolean waitForVpnDataReady(VpnOpDataType dataType, String vpnName, long maxWaitMillis,
+                                       BooleanSupplier isDataReady) {
         try {
-            List<Runnable> notifyList = listenerMap.computeIfAbsent(vpnName,
-                k -> Collections.synchronizedList(new ArrayList<>()));
-
-            synchronized (notifyTask) {
-                // Per FB's "Unconditional wait" violation, the code should really verify that the condition it intends
-                // to wait for is not already satisfied before calling wait. However the VpnNotifyTask is published
-                // here while holding the lock on it so this path will hit the wait before notify can be invoked.
-                notifyList.add(notifyTask);
-
-                long t0 = System.nanoTime();
-                try {
-                    notifyTask.wait(maxWaitMillis);
-                    long elapsedTimeNs = System.nanoTime() - t0;
-
-                    if (elapsedTimeNs < maxWaitMillis * 1000000) {
-                        // Thread woken up before timeout
-                        LOG.debug("Its been reported that VPN {} is now ready", vpnName);
-                        dataReady = true;
-                    } else {
-                        // Timeout
-                        LOG.debug("Vpn {} OpData not ready after {}ms", vpnName, maxWaitMillis);
-                        dataReady = false;
-                    }
-                } catch (InterruptedException e) {
-                    dataReady = true;
-                }
+            return whenVpnDataReady(dataType, vpnName, maxWaitMillis, isDataReady).get();
+        } catch (InterruptedException e) {
+            return true;
+        } catch (ExecutionException e) {
+            LOG.error("waitForVpnDataReady: wait for vpn {} {} failed", vpnName, dataType, e);
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the data of the given type to be reported ready for the Vpn.
+     *
+     * @param isDataReady checks whether the data is already there, called once the waiter is registered so that a
+     *                    report made in between is not missed
+     * @return a future completed with true when the data is ready, or with false after maxWaitMillis
+     */
+    public ListenableFuture<Boolean> whenVpnDataReady(VpnOpDataType dataType, String vpnName, long maxWaitMillis,
+                                                      BooleanSupplier isDataReady) {
+        ConcurrentMap<String, Readiness> readinessMap = mapOfMaps.get(dataType);
+        Readiness readiness = readinessMap.compute(vpnName, (key, current) -> {
+            Readiness result = current != null ? current : new Readiness();
+            result.waiters++;
+            return result;
+        });
+        if (isDataReady.getAsBoolean()) {
+            release(readinessMap, vpnName, readiness);
+            return Futures.immediateFuture(Boolean.TRUE);
+        }
+
+        long startTime = System.nanoTime();
+        parkedWaiters.incrementAndGet();
+        parkedWaitersCounter.increment();
+        SettableFuture<Boolean> result = SettableFuture.create();
+        ScheduledFuture<?> timeout = executorService.schedule(() -> {
+            if (result.set(Boolean.FALSE)) {
+                LOG.debug("Vpn {} OpData not ready after {}ms", vpnName, maxWaitMillis);
+                timedOutWaitsCounter.increment();
+                release(readinessMap, vpnName, readiness);
             }
-        } finally {
-            List<Runnable> notifyTaskList = listenerMap.get(vpnName);
-            if (notifyTaskList != null) {
-                synchronized (notifyTaskList) {
-                    notifyTaskList.remove(notifyTask);
-                    if (notifyTaskList.isEmpty()) {
-                        listenerMap.remove(vpnName);
-                    }
-                }
+        }, maxWaitMillis, TimeUnit.MILLISECONDS);
+        readiness.ready.addListener(() -> {
+            if (result.set(Boolean.TRUE)) {
+                LOG.debug("Its been reported that VPN {} is now ready", vpnName);
+                readyWaitsCounter.increment();
+                timeout.cancel(false);
             }
-        }
-        return dataReady;
+        }, MoreExecutors.directExecutor());
+        result.addListener(() -> {
+            parkedWaiters.decrementAndGet();
+            parkedWaitersCounter.decrement();
+            waitMillisCounter.increment(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }, MoreExecutors.directExecutor());
+        return result;
     }
 
     public void notifyVpnOpDataReady(VpnOpDataType dataType, String vpnName) {
         LOG.debug("Reporting that vpn {} is ready", vpnName);
-        ConcurrentMap<String, List<Runnable>> listenerMap = mapOfMaps.get(dataType);
-        List<Runnable> notifyTaskList = listenerMap.remove(vpnName);
-        if (notifyTaskList == null) {
+        Readiness readiness = mapOfMaps.get(dataType).remove(vpnName);
+        if (readiness == null) {
             LOG.trace(" No notify tasks found for vpnName {}", vpnName);
             return;
         }
+        executorService.execute(() -> readiness.ready.set(null));
+    }
 
-        Runnable[] notifyTasks;
-        synchronized (notifyTaskList) {
-            notifyTasks = notifyTaskList.toArray(new Runnable[notifyTaskList.size()]);
-            notifyTaskList.clear();
-        }
+    private static void release(ConcurrentMap<String, Readiness> readinessMap, String vpnName, Readiness readiness) {
+        readinessMap.computeIfPresent(vpnName, (key, current) -> {
+            if (current != readiness) {
+                return current;
+            }
+            current.waiters--;
+            return current.waiters > 0 ? current : null;
+        });
+    }
 
-        for (Runnable notifyTask : notifyTasks) {
-            executorService.execute(notifyTask);
-        }
+    private static final class Readiness {
+        private final SettableFuture<Void> ready = SettableFuture.create();
+        // Guarded by the compute methods of the map
+        private int waiters;
     }
 }
@@ -98,7 +98,9 @@ public class VpnOpStatusListener extends AsyncDataTreeChangeListenerBase<VpnInst
 
     @Override
     protected void remove(InstanceIdentifier<VpnInstanceOpDataEntry> identifier, VpnInstanceOpDataEntry value) {
-        LOG.info("remove: Ignoring vpn Op {} with rd {}", value.getVpnInstanceName(), value.getVrfId());
+        LOG.info("remove: Dropping the footprints of vpn Op {} with rd {}", value.getVpnInstanceName(),
+                value.getVrfId());
+        vpnFootprintService.removeVpnFootprints(value.getVrfId());
     }
 
     @Override
@@ -314,6 +316,7 @@ public class VpnOpStatusListener extends AsyncDataTreeChangeListenerBase<VpnInst
          */
         @Override
         public void onSuccess(Void ignored) {
+            vpnUtil.invalidateVpnIdentity(vpnName);
             vpnUtil.releaseId(VpnConstants.VPN_IDPOOL_NAME, vpnName);
             log.info("onSuccess: VpnId for VpnName {} is released to IdManager successfully.", vpnName);
         }
@@ -9,6 +9,9 @@ package org.opendaylight.netvirt.vpnmanager;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,6 +28,7 @@ import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.genius.datastoreutils.SingleTransactionDataBroker;
+import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
 import org.opendaylight.netvirt.bgpmanager.api.IBgpManager;
 import org.opendaylight.netvirt.fibmanager.api.IFibManager;
 import org.opendaylight.netvirt.fibmanager.api.RouteOrigin;
@@ -69,11 +73,12 @@ public class VpnSubnetRouteHandler {
     private final VpnNodeListener vpnNodeListener;
     private final IFibManager fibManager;
     private final VpnUtil vpnUtil;
+    private final JobCoordinator jobCoordinator;
 
     @Inject
     public VpnSubnetRouteHandler(final DataBroker dataBroker, final SubnetOpDpnManager subnetOpDpnManager,
             final IBgpManager bgpManager, final VpnOpDataSyncer vpnOpDataSyncer, final VpnNodeListener vpnNodeListener,
-            final IFibManager fibManager, VpnUtil vpnUtil) {
+            final IFibManager fibManager, VpnUtil vpnUtil, final JobCoordinator jobCoordinator) {
         this.dataBroker = dataBroker;
         this.subOpDpnManager = subnetOpDpnManager;
         this.bgpManager = bgpManager;
@@ -81,18 +86,12 @@ public class VpnSubnetRouteHandler {
         this.vpnNodeListener = vpnNodeListener;
         this.fibManager = fibManager;
         this.vpnUtil = vpnUtil;
+        this.jobCoordinator = jobCoordinator;
     }
 
-    // TODO Clean up the exception handling
-    @SuppressWarnings("checkstyle:IllegalCatch")
     public void onSubnetAddedToVpn(Subnetmap subnetmap, boolean isBgpVpn, Long elanTag) {
         Uuid subnetId = subnetmap.getId();
         String subnetIp = subnetmap.getSubnetIp();
-        Subnetmap subMap = null;
-        SubnetOpDataEntry subOpEntry = null;
-        SubnetOpDataEntryBuilder subOpBuilder = null;
-        InstanceIdentifier<SubnetOpDataEntry> subOpIdentifier = null;
-        Optional<SubnetOpDataEntry> optionalSubs = null;
 
         Preconditions.checkNotNull(subnetId, LOGGING_PREFIX + " onSubnetAddedToVpn: SubnetId cannot be null or empty!");
         Preconditions.checkNotNull(subnetIp,
@@ -105,7 +104,31 @@ public class VpnSubnetRouteHandler {
             return;
         }
         String vpnName = subnetmap.getVpnId().getValue();
-        long vpnId = waitAndGetVpnIdIfInvalid(vpnName);
+        ListenableFuture<Boolean> vpnReady = whenVpnReady(vpnName);
+        if (vpnReady.isDone()) {
+            addSubnetToVpn(subnetmap, isBgpVpn, elanTag, vpnName);
+            return;
+        }
+        // Runs on the VpnOpDataSyncer thread once the VPN is ready or the wait is over, the datastore work is handed
+        // over to a job
+        vpnReady.addListener(() -> jobCoordinator.enqueueJob("SUBNETROUTE-" + subnetId.getValue(), () -> {
+            addSubnetToVpn(subnetmap, isBgpVpn, elanTag, vpnName);
+            return Collections.emptyList();
+        }), MoreExecutors.directExecutor());
+    }
+
+    // TODO Clean up the exception handling
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void addSubnetToVpn(Subnetmap subnetmap, boolean isBgpVpn, Long elanTag, String vpnName) {
+        Uuid subnetId = subnetmap.getId();
+        String subnetIp = subnetmap.getSubnetIp();
+        Subnetmap subMap = null;
+        SubnetOpDataEntry subOpEntry = null;
+        SubnetOpDataEntryBuilder subOpBuilder = null;
+        InstanceIdentifier<SubnetOpDataEntry> subOpIdentifier = null;
+        Optional<SubnetOpDataEntry> optionalSubs = null;
+
+        long vpnId = vpnUtil.getVpnId(vpnName);
         if (vpnId == VpnConstants.INVALID_ID) {
             LOG.error(
                     "{} onSubnetAddedToVpn: VpnInstance to VPNId mapping not yet available for VpnName {} "
@@ -115,7 +138,7 @@ public class VpnSubnetRouteHandler {
         }
 
         String primaryRd = vpnUtil.getPrimaryRd(vpnName);
-        VpnInstanceOpDataEntry vpnInstanceOpData = waitAndGetVpnInstanceOpDataIfNull(vpnName, primaryRd);
+        VpnInstanceOpDataEntry vpnInstanceOpData = vpnUtil.getVpnInstanceOpData(primaryRd);
         if (vpnInstanceOpData == null) {
             LOG.error(
                     "{} onSubnetAddedToVpn: VpnInstanceOpData not yet available for VpnName {} "
@@ -140,6 +163,12 @@ public class VpnSubnetRouteHandler {
                 return;
             }
             subMap = sm.get();
+            if (!Objects.equals(subnetmap.getVpnId(), subMap.getVpnId())) {
+                // The subnet left the VPN while waiting for it to be ready
+                LOG.info("{} onSubnetAddedToVpn: subnet {} with IP {} is no longer in vpn {}, bailing out",
+                        LOGGING_PREFIX, subnetId.getValue(), subnetIp, vpnName);
+                return;
+            }
 
             if (isBgpVpn) {
                 InstanceIdentifier<Networks> netsIdentifier = InstanceIdentifier.builder(ExternalNetworks.class)
@@ -276,26 +305,22 @@ public class VpnSubnetRouteHandler {
         }
     }
 
-    private long waitAndGetVpnIdIfInvalid(String vpnName) {
-        long vpnId = vpnUtil.getVpnId(vpnName);
-        if (vpnId == VpnConstants.INVALID_ID) {
-            LOG.debug("VpnId is invalid, waiting to fetch again: vpnName={}, vpnId={}", vpnName, vpnId);
-            vpnOpDataSyncer.waitForVpnDataReady(VpnOpDataType.vpnInstanceToId, vpnName,
-                    VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS);
-            vpnId = vpnUtil.getVpnId(vpnName);
-        }
-        return vpnId;
-    }
-
-    private VpnInstanceOpDataEntry waitAndGetVpnInstanceOpDataIfNull(String vpnName, String primaryRd) {
-        VpnInstanceOpDataEntry vpnInstanceOpData = vpnUtil.getVpnInstanceOpData(primaryRd);
-        if (vpnInstanceOpData == null) {
-            LOG.debug("vpnInstanceOpData is null, waiting to fetch again: vpnName={}", vpnName);
-            vpnOpDataSyncer.waitForVpnDataReady(VpnOpDataType.vpnOpData, vpnName,
-                    VpnConstants.PER_VPN_INSTANCE_OPDATA_MAX_WAIT_TIME_IN_MILLISECONDS);
-            vpnInstanceOpData = vpnUtil.getVpnInstanceOpData(primaryRd);
+    /**
+     * Waits for the VPN id then the VpnInstanceOpData of the VPN, without blocking.
+     *
+     * @return a future already done if the VPN is ready, completed once it is or the waits are over otherwise
+     */
+    private ListenableFuture<Boolean> whenVpnReady(String vpnName) {
+        if (vpnUtil.getVpnId(vpnName) == VpnConstants.INVALID_ID) {
+            LOG.debug("VpnId is invalid, waiting to fetch again: vpnName={}", vpnName);
         }
-        return vpnInstanceOpData;
+        return Futures.transformAsync(vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnInstanceToId, vpnName,
+                VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS,
+            () -> vpnUtil.getVpnId(vpnName) != VpnConstants.INVALID_ID),
+            vpnIdReady -> vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnOpData, vpnName,
+                    VpnConstants.PER_VPN_INSTANCE_OPDATA_MAX_WAIT_TIME_IN_MILLISECONDS,
+                () -> vpnUtil.getVpnInstanceOpData(vpnUtil.getPrimaryRd(vpnName)) != null),
+            MoreExecutors.directExecutor());
     }
 
     // TODO Clean up the exception handling
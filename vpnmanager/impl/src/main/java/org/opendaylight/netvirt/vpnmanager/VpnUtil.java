@@ -269,6 +269,7 @@ public final class VpnUtil {
     private final JobCoordinator jobCoordinator;
     private final ManagedNewTransactionRunner txRunner;
     private final OdlInterfaceRpcService ifmRpcService;
+    private final VpnIdentityCache vpnIdentityCache;
 
     /**
      * Class to generate timestamps with microsecond precision.
@@ -297,7 +298,7 @@ public final class VpnUtil {
     public VpnUtil(DataBroker dataBroker, IdManagerService idManager, IFibManager fibManager,
                    IBgpManager bgpManager, LockManagerService lockManager, INeutronVpnManager neutronVpnService,
                    IMdsalApiManager mdsalManager, JobCoordinator jobCoordinator, IInterfaceManager interfaceManager,
-                   OdlInterfaceRpcService ifmRpcService) {
+                   OdlInterfaceRpcService ifmRpcService, VpnIdentityCache vpnIdentityCache) {
         this.dataBroker = dataBroker;
         this.idManager = idManager;
         this.fibManager = fibManager;
@@ -309,6 +310,7 @@ public final class VpnUtil {
         this.jobCoordinator = jobCoordinator;
         this.txRunner = new ManagedNewTransactionRunnerImpl(dataBroker);
         this.ifmRpcService = ifmRpcService;
+        this.vpnIdentityCache = vpnIdentityCache;
     }
 
     public static InstanceIdentifier<VpnInterface> getVpnInterfaceIdentifier(String vpnInterfaceName) {
@@ -425,13 +427,9 @@ public final class VpnUtil {
         return emptyList();
     }
 
-    //FIXME: Implement caches for DS reads
     @Nullable
     public VpnInstance getVpnInstance(String vpnInstanceName) {
-        InstanceIdentifier<VpnInstance> id = InstanceIdentifier.builder(VpnInstances.class).child(VpnInstance.class,
-            new VpnInstanceKey(vpnInstanceName)).build();
-        Optional<VpnInstance> vpnInstance = read(LogicalDatastoreType.CONFIGURATION, id);
-        return vpnInstance.isPresent() ? vpnInstance.get() : null;
+        return vpnIdentityCache.getVpnInstance(vpnInstanceName);
     }
 
     @NonNull
@@ -577,10 +575,7 @@ public final class VpnUtil {
         if (vpnName == null) {
             return VpnConstants.INVALID_ID;
         }
-
-        return read(LogicalDatastoreType.CONFIGURATION, VpnOperDsUtils.getVpnInstanceToVpnIdIdentifier(vpnName))
-                .toJavaUtil().map(org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911
-                        .vpn.instance.to.vpn.id.VpnInstance::getVpnId).orElse(VpnConstants.INVALID_ID);
+        return vpnIdentityCache.getVpnId(vpnName);
     }
 
     /**
@@ -590,14 +585,16 @@ public final class VpnUtil {
      * @return the route-distinguisher of the VPN
      */
     public String getVpnRd(String vpnName) {
-        Optional<org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.to.vpn.id
-            .VpnInstance> vpnInstance = read(LogicalDatastoreType.CONFIGURATION,
-                VpnOperDsUtils.getVpnInstanceToVpnIdIdentifier(vpnName));
-        String rd = null;
-        if (vpnInstance.isPresent()) {
-            rd = vpnInstance.get().getVrfId();
-        }
-        return rd;
+        return vpnIdentityCache.getVpnRd(vpnName);
+    }
+
+    /**
+     * Drops a deleted VPN from the identity cache, before its VPN id is released for reuse.
+     *
+     * @param vpnName Name of the VPN
+     */
+    void invalidateVpnIdentity(String vpnName) {
+        vpnIdentityCache.invalidate(vpnName);
     }
 
     public static String getVpnRd(TypedReadTransaction<Configuration> confTx, String vpnName) {
@@ -610,10 +607,8 @@ public final class VpnUtil {
     }
 
     List<String> getVpnRdsFromVpnInstanceConfig(String vpnName) {
-        InstanceIdentifier<VpnInstance> id = InstanceIdentifier.builder(VpnInstances.class)
-            .child(VpnInstance.class, new VpnInstanceKey(vpnName)).build();
-        Optional<VpnInstance> vpnInstance = read(LogicalDatastoreType.CONFIGURATION, id);
-        return vpnInstance.isPresent() ? getListOfRdsFromVpnInstance(vpnInstance.get()) : new ArrayList<>();
+        VpnInstance vpnInstance = vpnIdentityCache.getVpnInstance(vpnName);
+        return vpnInstance != null ? getListOfRdsFromVpnInstance(vpnInstance) : new ArrayList<>();
     }
 
     /**
@@ -743,7 +738,10 @@ public final class VpnUtil {
      */
     @Nullable
     String getVpnName(long vpnId) {
-
+        String indexedVpnName = vpnIdentityCache.getVpnName(vpnId);
+        if (indexedVpnName != null) {
+            return indexedVpnName;
+        }
         InstanceIdentifier<org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.id.to.vpn
             .instance.VpnIds> id = getVpnIdToVpnInstanceIdentifier(vpnId);
         Optional<org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.id.to.vpn.instance.VpnIds>
@@ -763,7 +761,7 @@ public final class VpnUtil {
 
     @Nullable
     public VpnInstanceOpDataEntry getVpnInstanceOpData(String rd) {
-        return read(LogicalDatastoreType.OPERATIONAL, getVpnInstanceOpDataIdentifier(rd)).orNull();
+        return vpnIdentityCache.getVpnInstanceOpData(rd);
     }
 
     @Nullable
@@ -1484,10 +1482,9 @@ public final class VpnUtil {
         if (rd != null) {
             return rd;
         }
-        InstanceIdentifier<VpnInstance> id  = getVpnInstanceIdentifier(vpnName);
-        Optional<VpnInstance> vpnInstance = read(LogicalDatastoreType.CONFIGURATION, id);
-        if (vpnInstance.isPresent()) {
-            return getPrimaryRd(vpnInstance.get());
+        VpnInstance vpnInstance = vpnIdentityCache.getVpnInstance(vpnName);
+        if (vpnInstance != null) {
+            return getPrimaryRd(vpnInstance);
         }
         return vpnName;
     }
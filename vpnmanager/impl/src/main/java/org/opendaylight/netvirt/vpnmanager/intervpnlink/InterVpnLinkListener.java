@@ -197,86 +197,98 @@ public class InterVpnLinkListener extends AsyncDataTreeChangeListenerBase<InterV
 
             interVpnLinkCache.addInterVpnLinkToCaches(add);
 
-            // Wait for VPN Operational data ready
-            long vpn1Id = vpnUtil.getVpnId(vpn1Name);
-            if (vpn1Id == VpnConstants.INVALID_ID) {
-                boolean vpn1Ready =
-                        vpnOpDataSyncer.waitForVpnDataReady(VpnOpDataSyncer.VpnOpDataType.vpnInstanceToId, vpn1Name,
-                                VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS);
-                if (!vpn1Ready) {
-                    String errMsg =
-                            "InterVpnLink " + ivpnLinkName + " creation error: Operational Data for VPN " + vpn1Name
-                                    + " not ready after " + VpnConstants.PER_INTERFACE_MAX_WAIT_TIME_IN_MILLISECONDS
-                                    + " milliseconds";
-                    setInError(vpnLinkStateIid, vpnLinkState, errMsg);
-                    return;
+            // Wait for VPN Operational data ready, without blocking the listener
+            ListenableFuture<List<Boolean>> vpnsReady = Futures.allAsList(
+                vpnOpDataSyncer.whenVpnDataReady(VpnOpDataSyncer.VpnOpDataType.vpnInstanceToId, vpn1Name,
+                    VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS,
+                    () -> vpnUtil.getVpnId(vpn1Name) != VpnConstants.INVALID_ID),
+                vpnOpDataSyncer.whenVpnDataReady(VpnOpDataSyncer.VpnOpDataType.vpnInstanceToId, vpn2Name,
+                    VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS,
+                    () -> vpnUtil.getVpnId(vpn2Name) != VpnConstants.INVALID_ID));
+            Futures.addCallback(vpnsReady, new FutureCallback<List<Boolean>>() {
+                @Override
+                public void onSuccess(List<Boolean> ready) {
+                    // Runs on the VpnOpDataSyncer thread, the datastore work is handed over to a job
+                    jobCoordinator.enqueueJob("InterVpnLink.add." + ivpnLinkName, () -> {
+                        for (int i = 0; i < ready.size(); i++) {
+                            if (!ready.get(i)) {
+                                String errMsg = "InterVpnLink " + ivpnLinkName + " creation error: Operational Data"
+                                        + " for VPN " + (i == 0 ? vpn1Name : vpn2Name) + " not ready after "
+                                        + VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS + " milliseconds";
+                                setInError(vpnLinkStateIid, vpnLinkState, errMsg);
+                                return Collections.emptyList();
+                            }
+                        }
+                        activateInterVpnLink(add, vpn1PrimaryRd, vpn2PrimaryRd);
+                        return Collections.emptyList();
+                    });
                 }
-            }
-            long vpn2Id = vpnUtil.getVpnId(vpn2Name);
-            if (vpn2Id == VpnConstants.INVALID_ID) {
-                boolean vpn1Ready =
-                        vpnOpDataSyncer.waitForVpnDataReady(VpnOpDataSyncer.VpnOpDataType.vpnInstanceToId,vpn2Name,
-                                VpnConstants.PER_VPN_INSTANCE_MAX_WAIT_TIME_IN_MILLISECONDS);
-                if (!vpn1Ready) {
-                    String errMsg =
-                            "InterVpnLink " + ivpnLinkName + " creation error: Operational Data for VPN " + vpn2Name
-                                    + " not ready after " + VpnConstants.PER_INTERFACE_MAX_WAIT_TIME_IN_MILLISECONDS
-                                    + " milliseconds";
-                    setInError(vpnLinkStateIid, vpnLinkState, errMsg);
-                    return;
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    LOG.error("add: wait for the VPNs of InterVpnLink {} failed", ivpnLinkName, throwable);
                 }
-            }
+            }, MoreExecutors.directExecutor());
+        }
+    }
 
-            List<BigInteger> firstDpnList = ivpnLinkLocator.selectSuitableDpns(add);
-            if (firstDpnList != null && !firstDpnList.isEmpty()) {
-                List<BigInteger> secondDpnList = firstDpnList;
-
-                Long firstVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn1Name);
-                Long secondVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn2Name);
-                FirstEndpointState firstEndPointState =
-                        new FirstEndpointStateBuilder().setVpnUuid(vpn1Uuid).setDpId(firstDpnList)
-                                .setLportTag(firstVpnLportTag).build();
-                SecondEndpointState secondEndPointState =
-                        new SecondEndpointStateBuilder().setVpnUuid(vpn2Uuid).setDpId(secondDpnList)
-                                .setLportTag(secondVpnLportTag).build();
-
-                interVpnLinkUtil.updateInterVpnLinkState(ivpnLinkName, InterVpnLinkState.State.Active,
-                        firstEndPointState, secondEndPointState, interVpnLinkCache);
-
-                // Note that in the DPN of the firstEndpoint we install the lportTag of the secondEndpoint and viceversa
-                interVpnLinkUtil.installLPortDispatcherTableFlow(ivpnLinkName, firstDpnList, vpn2Name,
-                        secondVpnLportTag);
-                interVpnLinkUtil.installLPortDispatcherTableFlow(ivpnLinkName, secondDpnList, vpn1Name,
-                        firstVpnLportTag);
-                // Update the VPN -> DPNs Map.
-                // Note: when a set of DPNs is calculated for Vpn1, these DPNs are added to the VpnToDpn map of Vpn2.
-                // Why? because we do the handover from Vpn1 to Vpn2 in those DPNs, so in those DPNs we must know how
-                // to reach to Vpn2 targets. If new Vpn2 targets are added later, the Fib will be maintained in these
-                // DPNs even if Vpn2 is not physically present there.
-                interVpnLinkUtil.updateVpnFootprint(vpn2Name, vpn2PrimaryRd, firstDpnList);
-                interVpnLinkUtil.updateVpnFootprint(vpn1Name, vpn1PrimaryRd, secondDpnList);
-
-                // Program static routes if needed
-                Optional<InterVpnLinkDataComposite> interVpnLink =
-                        interVpnLinkCache.getInterVpnLinkByName(ivpnLinkName);
-                ivpnLinkService.handleStaticRoutes(interVpnLink.get());
-
-                // Now, if the corresponding flags are activated, there will be some routes exchange
-                ivpnLinkService.exchangeRoutes(interVpnLink.get());
-            } else {
-                // If there is no connection to DPNs, the InterVpnLink is created and the InterVpnLinkState is also
-                // created with the corresponding LPortTags but no DPN is assigned since there is no DPN operative.
-                Long firstVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn1Name);
-                Long secondVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn2Name);
-                FirstEndpointState firstEndPointState =
-                        new FirstEndpointStateBuilder().setVpnUuid(vpn1Uuid).setLportTag(firstVpnLportTag)
-                                .setDpId(Collections.emptyList()).build();
-                SecondEndpointState secondEndPointState =
-                        new SecondEndpointStateBuilder().setVpnUuid(vpn2Uuid).setLportTag(secondVpnLportTag)
-                                .setDpId(Collections.emptyList()).build();
-                interVpnLinkUtil.updateInterVpnLinkState(ivpnLinkName, InterVpnLinkState.State.Error,
-                        firstEndPointState, secondEndPointState, interVpnLinkCache);
-            }
+    private void activateInterVpnLink(InterVpnLink add, String vpn1PrimaryRd, String vpn2PrimaryRd) {
+        String ivpnLinkName = add.getName();
+        InterVpnLinkKey key = add.key();
+        Uuid vpn1Uuid = add.getFirstEndpoint().getVpnUuid();
+        String vpn1Name = vpn1Uuid.getValue();
+        Uuid vpn2Uuid = add.getSecondEndpoint().getVpnUuid();
+        String vpn2Name = vpn2Uuid.getValue();
+
+        List<BigInteger> firstDpnList = ivpnLinkLocator.selectSuitableDpns(add);
+        if (firstDpnList != null && !firstDpnList.isEmpty()) {
+            List<BigInteger> secondDpnList = firstDpnList;
+
+            Long firstVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn1Name);
+            Long secondVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn2Name);
+            FirstEndpointState firstEndPointState =
+                    new FirstEndpointStateBuilder().setVpnUuid(vpn1Uuid).setDpId(firstDpnList)
+                            .setLportTag(firstVpnLportTag).build();
+            SecondEndpointState secondEndPointState =
+                    new SecondEndpointStateBuilder().setVpnUuid(vpn2Uuid).setDpId(secondDpnList)
+                            .setLportTag(secondVpnLportTag).build();
+
+            interVpnLinkUtil.updateInterVpnLinkState(ivpnLinkName, InterVpnLinkState.State.Active,
+                    firstEndPointState, secondEndPointState, interVpnLinkCache);
+
+            // Note that in the DPN of the firstEndpoint we install the lportTag of the secondEndpoint and viceversa
+            interVpnLinkUtil.installLPortDispatcherTableFlow(ivpnLinkName, firstDpnList, vpn2Name,
+                    secondVpnLportTag);
+            interVpnLinkUtil.installLPortDispatcherTableFlow(ivpnLinkName, secondDpnList, vpn1Name,
+                    firstVpnLportTag);
+            // Update the VPN -> DPNs Map.
+            // Note: when a set of DPNs is calculated for Vpn1, these DPNs are added to the VpnToDpn map of Vpn2.
+            // Why? because we do the handover from Vpn1 to Vpn2 in those DPNs, so in those DPNs we must know how
+            // to reach to Vpn2 targets. If new Vpn2 targets are added later, the Fib will be maintained in these
+            // DPNs even if Vpn2 is not physically present there.
+            interVpnLinkUtil.updateVpnFootprint(vpn2Name, vpn2PrimaryRd, firstDpnList);
+            interVpnLinkUtil.updateVpnFootprint(vpn1Name, vpn1PrimaryRd, secondDpnList);
+
+            // Program static routes if needed
+            Optional<InterVpnLinkDataComposite> interVpnLink =
+                    interVpnLinkCache.getInterVpnLinkByName(ivpnLinkName);
+            ivpnLinkService.handleStaticRoutes(interVpnLink.get());
+
+            // Now, if the corresponding flags are activated, there will be some routes exchange
+            ivpnLinkService.exchangeRoutes(interVpnLink.get());
+        } else {
+            // If there is no connection to DPNs, the InterVpnLink is created and the InterVpnLinkState is also
+            // created with the corresponding LPortTags but no DPN is assigned since there is no DPN operative.
+            Long firstVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn1Name);
+            Long secondVpnLportTag = allocateVpnLinkLportTag(key.getName() + vpn2Name);
+            FirstEndpointState firstEndPointState =
+                    new FirstEndpointStateBuilder().setVpnUuid(vpn1Uuid).setLportTag(firstVpnLportTag)
+                            .setDpId(Collections.emptyList()).build();
+            SecondEndpointState secondEndPointState =
+                    new SecondEndpointStateBuilder().setVpnUuid(vpn2Uuid).setLportTag(secondVpnLportTag)
+                            .setDpId(Collections.emptyList()).build();
+            interVpnLinkUtil.updateInterVpnLinkState(ivpnLinkName, InterVpnLinkState.State.Error,
+                    firstEndPointState, secondEndPointState, interVpnLinkCache);
         }
     }
 
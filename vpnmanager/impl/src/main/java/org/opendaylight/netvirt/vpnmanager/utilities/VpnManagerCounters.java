@@ -9,6 +9,7 @@ package org.opendaylight.netvirt.vpnmanager.utilities;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.opendaylight.infrautils.metrics.Labeled;
 import org.opendaylight.infrautils.metrics.Meter;
 import org.opendaylight.infrautils.metrics.MetricDescriptor;
 import org.opendaylight.infrautils.metrics.MetricProvider;
@@ -25,6 +26,10 @@ public class VpnManagerCounters {
     private final Meter garpSentIpv6Meter;
     private final Meter garpSentFailedMeter;
     private final Meter garpInterfaceRpcFailedMeter;
+    private final Labeled<Meter> footprintInterfaceJoinedMeter;
+    private final Meter footprintChangeMeter;
+    private final Meter footprintTransactionMeter;
+    private final Meter footprintTransactionFailedMeter;
 
     @Inject
     public VpnManagerCounters(MetricProvider metricProvider) {
@@ -38,6 +43,12 @@ public class VpnManagerCounters {
         this.garpSentIpv6Meter = meter(metricProvider, "garp_sent_ipv6");
         this.garpSentFailedMeter = meter(metricProvider, "garp_sent_failed");
         this.garpInterfaceRpcFailedMeter = meter(metricProvider, "garp_interface_rpc_failed");
+        // netvirt.vpnmanager.vpn_footprint_interface_joined{vpn=<vpn name>}, the port boot throughput per VPN
+        this.footprintInterfaceJoinedMeter = metricProvider.newMeter(MetricDescriptor.builder().anchor(this)
+                .project("netvirt").module("vpnmanager").id("vpn_footprint_interface_joined").build(), "vpn");
+        this.footprintChangeMeter = meter(metricProvider, "vpn_footprint_change");
+        this.footprintTransactionMeter = meter(metricProvider, "vpn_footprint_transaction");
+        this.footprintTransactionFailedMeter = meter(metricProvider, "vpn_footprint_transaction_failed");
     }
 
     private Meter meter(MetricProvider metricProvider, String id) {
@@ -84,4 +95,17 @@ public class VpnManagerCounters {
     public void garpInterfaceRpcFailed() {
         garpInterfaceRpcFailedMeter.mark();
     }
+
+    public void footprintInterfaceJoined(String vpnName) {
+        footprintInterfaceJoinedMeter.label(vpnName).mark();
+    }
+
+    public void footprintTransaction(int changes) {
+        footprintTransactionMeter.mark();
+        footprintChangeMeter.mark(changes);
+    }
+
+    public void footprintTransactionFailed() {
+        footprintTransactionFailedMeter.mark();
+    }
 }
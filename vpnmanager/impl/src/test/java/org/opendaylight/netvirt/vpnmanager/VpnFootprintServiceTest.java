@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.netvirt.vpnmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.NotificationPublishService;
+import org.opendaylight.controller.md.sal.binding.test.ConstantSchemaAbstractDataBrokerTest;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.genius.interfacemanager.interfaces.IInterfaceManager;
+import org.opendaylight.genius.mdsalutil.interfaces.IMdsalApiManager;
+import org.opendaylight.infrautils.caches.baseimpl.internal.CacheManagersRegistryImpl;
+import org.opendaylight.infrautils.caches.guava.internal.GuavaCacheProvider;
+import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
+import org.opendaylight.infrautils.metrics.testimpl.TestMetricProviderImpl;
+import org.opendaylight.netvirt.bgpmanager.api.IBgpManager;
+import org.opendaylight.netvirt.fibmanager.api.IFibManager;
+import org.opendaylight.netvirt.neutronvpn.interfaces.INeutronVpnManager;
+import org.opendaylight.netvirt.vpnmanager.api.VpnHelper;
+import org.opendaylight.netvirt.vpnmanager.utilities.VpnManagerCounters;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.idmanager.rev160406.IdManagerService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.interfacemanager.rpcs.rev160406.OdlInterfaceRpcService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.genius.lockmanager.rev160413.LockManagerService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netvirt.l3vpn.rev130911.vpn.instance.op.data.vpn.instance.op.data.entry.VpnToDpnList;
+
+public class VpnFootprintServiceTest extends ConstantSchemaAbstractDataBrokerTest {
+
+    private static final String VPN_NAME = "vpn1";
+    private static final String RD = "100:1";
+    private static final BigInteger DPN_ID = BigInteger.ONE;
+
+    private final IFibManager fibManager = mock(IFibManager.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private DataBroker dataBroker;
+    private VpnFootprintService vpnFootprintService;
+
+    @Before
+    public void setUp() {
+        dataBroker = getDataBroker();
+        NotificationPublishService notificationPublishService = mock(NotificationPublishService.class);
+        doReturn(Futures.immediateFuture(null)).when(notificationPublishService).offerNotification(any());
+        VpnUtil vpnUtil = new VpnUtil(dataBroker, mock(IdManagerService.class), fibManager, mock(IBgpManager.class),
+                mock(LockManagerService.class), mock(INeutronVpnManager.class), mock(IMdsalApiManager.class),
+                mock(JobCoordinator.class), mock(IInterfaceManager.class), mock(OdlInterfaceRpcService.class),
+                new VpnIdentityCache(dataBroker, new GuavaCacheProvider(new CacheManagersRegistryImpl()),
+                        new TestMetricProviderImpl()));
+        // The VPN has no id in the datastore, so each join waits for it
+        VpnOpDataSyncer vpnOpDataSyncer = mock(VpnOpDataSyncer.class);
+        doReturn(Futures.immediateFuture(Boolean.TRUE)).when(vpnOpDataSyncer).whenVpnDataReady(any(), anyString(),
+                anyLong(), any());
+        vpnFootprintService = new VpnFootprintService(dataBroker, fibManager, notificationPublishService,
+                vpnOpDataSyncer, mock(IInterfaceManager.class), vpnUtil,
+                new VpnManagerCounters(new TestMetricProviderImpl()));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        vpnFootprintService.close();
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentJoinsAreAllCommitted() throws Exception {
+        List<Future<?>> joins = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String interfaceName = "port" + i;
+            joins.add(executor.submit(() -> join(interfaceName).get()));
+        }
+        for (Future<?> join : joins) {
+            join.get();
+        }
+
+        VpnToDpnList vpnToDpnList = readVpnToDpnList();
+        assertEquals(32, vpnToDpnList.getVpnInterfaces().size());
+        assertEquals(VpnToDpnList.DpnState.Active, vpnToDpnList.getDpnState());
+        // The DPN entered the VPN once, whatever the batches
+        verify(fibManager, times(1)).populateFibOnNewDpn(eq(DPN_ID), anyLong(), eq(RD), any());
+    }
+
+    @Test(timeout = 60000)
+    public void testFailedFibUpdateDoesNotBlockQueuedAndLaterChanges() throws Exception {
+        AtomicReference<ListenableFuture<Void>> queuedJoin = new AtomicReference<>();
+        doAnswer(invocation -> {
+            // Join another port while the first batch is being committed, then fail the FIB update of that batch
+            queuedJoin.set(join("port2"));
+            throw new IllegalStateException("FIB failure");
+        }).when(fibManager).populateFibOnNewDpn(eq(DPN_ID), anyLong(), eq(RD), any());
+
+        try {
+            join("port1").get();
+            fail("The failure of the FIB update was not reported");
+        } catch (ExecutionException e) {
+            assertEquals("FIB failure", e.getCause().getMessage());
+        }
+        // The other change is committed all the same
+        queuedJoin.get().get();
+
+        // A later change commits again
+        join("port3").get();
+        assertEquals(3, readVpnToDpnList().getVpnInterfaces().size());
+    }
+
+    @Test(timeout = 60000)
+    public void testFootprintIsDroppedOnceGone() throws Exception {
+        join("port1").get();
+        assertEquals(1, vpnFootprintService.getDpnFootprintCount());
+        vpnFootprintService.updateVpnToDpnMapping(DPN_ID, VPN_NAME, RD, "port1", null, false).get();
+        assertEquals(0, vpnFootprintService.getDpnFootprintCount());
+
+        join("port2").get();
+        assertEquals(1, vpnFootprintService.getDpnFootprintCount());
+        vpnFootprintService.removeVpnFootprints(RD);
+        assertEquals(0, vpnFootprintService.getDpnFootprintCount());
+    }
+
+    private ListenableFuture<Void> join(String interfaceName) {
+        return vpnFootprintService.updateVpnToDpnMapping(DPN_ID, VPN_NAME, RD, interfaceName, null, true);
+    }
+
+    private VpnToDpnList readVpnToDpnList() throws Exception {
+        return dataBroker.newReadOnlyTransaction().read(LogicalDatastoreType.OPERATIONAL,
+                VpnHelper.getVpnToDpnListIdentifier(RD, DPN_ID)).checkedGet().get();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019 Ericsson India Global Services Pvt Ltd. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.netvirt.vpnmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.opendaylight.infrautils.metrics.testimpl.TestMetricProviderImpl;
+import org.opendaylight.netvirt.vpnmanager.VpnOpDataSyncer.VpnOpDataType;
+
+public class VpnOpDataSyncerTest {
+    private static final String VPN_NAME = "vpn1";
+    private static final long LONG_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final VpnOpDataSyncer vpnOpDataSyncer = new VpnOpDataSyncer(new TestMetricProviderImpl());
+
+    @After
+    public void tearDown() {
+        vpnOpDataSyncer.close();
+    }
+
+    @Test
+    public void testDataAlreadyReady() throws Exception {
+        ListenableFuture<Boolean> ready = vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnOpData, VPN_NAME,
+                LONG_WAIT_MILLIS, () -> true);
+
+        assertTrue(ready.isDone());
+        assertTrue(ready.get());
+        assertEquals(0, vpnOpDataSyncer.getParkedWaiters());
+    }
+
+    @Test
+    public void testWaitersAreCompletedWhenDataIsReported() throws Exception {
+        ListenableFuture<Boolean> ready1 = vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnOpData, VPN_NAME,
+                LONG_WAIT_MILLIS, () -> false);
+        ListenableFuture<Boolean> ready2 = vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnOpData, VPN_NAME,
+                LONG_WAIT_MILLIS, () -> false);
+        // Another type of data of the same VPN
+        ListenableFuture<Boolean> otherReady = vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnInstanceToId,
+                VPN_NAME, LONG_WAIT_MILLIS, () -> false);
+        assertFalse(ready1.isDone());
+        assertEquals(3, vpnOpDataSyncer.getParkedWaiters());
+
+        vpnOpDataSyncer.notifyVpnOpDataReady(VpnOpDataType.vpnOpData, VPN_NAME);
+
+        assertTrue(ready1.get(10, TimeUnit.SECONDS));
+        assertTrue(ready2.get(10, TimeUnit.SECONDS));
+        assertFalse(otherReady.isDone());
+        awaitParkedWaiters(1);
+    }
+
+    @Test
+    public void testWaitTimesOut() throws Exception {
+        ListenableFuture<Boolean> ready = vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnOpData, VPN_NAME, 10,
+                () -> false);
+
+        assertFalse(ready.get(10, TimeUnit.SECONDS));
+        awaitParkedWaiters(0);
+
+        // A timed out wait does not prevent the next one from being notified
+        ListenableFuture<Boolean> nextReady = vpnOpDataSyncer.whenVpnDataReady(VpnOpDataType.vpnOpData, VPN_NAME,
+                LONG_WAIT_MILLIS, () -> false);
+        vpnOpDataSyncer.notifyVpnOpDataReady(VpnOpDataType.vpnOpData, VPN_NAME);
+        assertTrue(nextReady.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBlockingWaitRetriesUntilMaxAttempts() {
+        long startTime = System.nanoTime();
+        assertFalse(vpnOpDataSyncer.waitForVpnDataReady(VpnOpDataType.vpnInstanceToId, VPN_NAME, 10, 3));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 30);
+    }
+
+    private void awaitParkedWaiters(int expected) throws InterruptedException {
+        // The parked waiters are released right after the futures are completed
+        for (int i = 0; i < 100 && vpnOpDataSyncer.getParkedWaiters() != expected; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(expected, vpnOpDataSyncer.getParkedWaiters());
+    }
+}
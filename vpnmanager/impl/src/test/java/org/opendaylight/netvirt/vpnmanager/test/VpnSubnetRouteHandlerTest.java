@@ -32,6 +32,7 @@ import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.genius.interfacemanager.globals.IfmConstants;
+import org.opendaylight.infrautils.jobcoordinator.JobCoordinator;
 import org.opendaylight.netvirt.bgpmanager.api.IBgpManager;
 import org.opendaylight.netvirt.fibmanager.api.IFibManager;
 import org.opendaylight.netvirt.vpnmanager.SubnetOpDpnManager;
@@ -184,6 +185,8 @@ public class VpnSubnetRouteHandlerTest {
     VpnNodeListener vpnNodeListener;
     @Mock
     IFibManager fibManager;
+    @Mock
+    JobCoordinator jobCoordinator;
 
     private @Inject VpnUtil vpnUtil;
 
@@ -209,7 +212,7 @@ public class VpnSubnetRouteHandlerTest {
         setupMocks();
 
         vpnSubnetRouteHandler = new VpnSubnetRouteHandler(dataBroker, subnetOpDpnManager, bgpManager, vpnOpDataSyncer,
-                vpnNodeListener, fibManager, vpnUtil);
+                vpnNodeListener, fibManager, vpnUtil, jobCoordinator);
         final Future<RpcResult<AllocateIdOutput>> idOutputOptional =
             RpcResultBuilder.success(allocateIdOutput).buildFuture();
 